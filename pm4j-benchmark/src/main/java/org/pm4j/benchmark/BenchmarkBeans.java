@@ -0,0 +1,80 @@
+package org.pm4j.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Synthetic beans used by the benchmarks.
+ *
+ * @author olaf boede
+ */
+public final class BenchmarkBeans {
+
+  /** A typical table row bean. */
+  public static class RowBean {
+    public String id;
+    public String name;
+    public String description;
+    public Integer counter;
+
+    public RowBean(int i) {
+      this.id = Integer.toString(i);
+      // A name sequence that is not sorted. Sorting has to do some work.
+      this.name = "name" + ((i * 7919) % 100003);
+      this.description = "description of row " + i;
+      this.counter = i % 1000;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public String getDescription() { return description; }
+    public Integer getCounter() { return counter; }
+
+    @Override
+    public String toString() {
+      return id;
+    }
+  }
+
+  /** A bean with 50 string properties. */
+  public static class WideBean {
+    public String s00, s01, s02, s03, s04, s05, s06, s07, s08, s09;
+    public String s10, s11, s12, s13, s14, s15, s16, s17, s18, s19;
+    public String s20, s21, s22, s23, s24, s25, s26, s27, s28, s29;
+    public String s30, s31, s32, s33, s34, s35, s36, s37, s38, s39;
+    public String s40, s41, s42, s43, s44, s45, s46, s47, s48, s49;
+  }
+
+  /** Root of a three level bean path: <code>middle.inner.name</code>. */
+  public static class OuterBean {
+    private MiddleBean middle = new MiddleBean();
+    public MiddleBean getMiddle() { return middle; }
+  }
+
+  public static class MiddleBean {
+    private InnerBean inner = new InnerBean();
+    public InnerBean getInner() { return inner; }
+  }
+
+  public static class InnerBean {
+    private String name = "inner";
+    private int counter = 42;
+    public String getName() { return name; }
+    public int getCounter() { return counter; }
+  }
+
+  /**
+   * @param rowCount The number of rows to generate.
+   * @return A new list of row beans.
+   */
+  public static List<RowBean> makeRows(int rowCount) {
+    List<RowBean> list = new ArrayList<RowBean>(rowCount);
+    for (int i = 0; i < rowCount; ++i) {
+      list.add(new RowBean(i));
+    }
+    return list;
+  }
+
+  private BenchmarkBeans() {
+  }
+}
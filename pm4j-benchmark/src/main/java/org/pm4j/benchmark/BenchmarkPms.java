@@ -0,0 +1,104 @@
+package org.pm4j.benchmark;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.pm4j.benchmark.BenchmarkBeans.RowBean;
+import org.pm4j.benchmark.BenchmarkBeans.WideBean;
+import org.pm4j.core.pm.PmAttrInteger;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmTableCol;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.annotation.PmBoolean;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.pm.annotation.PmTableColCfg;
+import org.pm4j.core.pm.impl.PmAttrIntegerImpl;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmBeanImpl;
+import org.pm4j.core.pm.impl.PmElementImpl;
+import org.pm4j.core.pm.impl.PmTableColImpl;
+import org.pm4j.core.pm.impl.PmTableImpl;
+
+/**
+ * Synthetic PMs used by the benchmarks.
+ *
+ * @author olaf boede
+ */
+public final class BenchmarkPms {
+
+  /** A PM with 50 attributes. */
+  @PmBeanCfg(beanClass=WideBean.class)
+  public static class WideBeanPm extends PmBeanImpl<WideBean> {
+    public final PmAttrString s00 = new PmAttrStringImpl(this), s01 = new PmAttrStringImpl(this), s02 = new PmAttrStringImpl(this), s03 = new PmAttrStringImpl(this), s04 = new PmAttrStringImpl(this);
+    public final PmAttrString s05 = new PmAttrStringImpl(this), s06 = new PmAttrStringImpl(this), s07 = new PmAttrStringImpl(this), s08 = new PmAttrStringImpl(this), s09 = new PmAttrStringImpl(this);
+    public final PmAttrString s10 = new PmAttrStringImpl(this), s11 = new PmAttrStringImpl(this), s12 = new PmAttrStringImpl(this), s13 = new PmAttrStringImpl(this), s14 = new PmAttrStringImpl(this);
+    public final PmAttrString s15 = new PmAttrStringImpl(this), s16 = new PmAttrStringImpl(this), s17 = new PmAttrStringImpl(this), s18 = new PmAttrStringImpl(this), s19 = new PmAttrStringImpl(this);
+    public final PmAttrString s20 = new PmAttrStringImpl(this), s21 = new PmAttrStringImpl(this), s22 = new PmAttrStringImpl(this), s23 = new PmAttrStringImpl(this), s24 = new PmAttrStringImpl(this);
+    public final PmAttrString s25 = new PmAttrStringImpl(this), s26 = new PmAttrStringImpl(this), s27 = new PmAttrStringImpl(this), s28 = new PmAttrStringImpl(this), s29 = new PmAttrStringImpl(this);
+    public final PmAttrString s30 = new PmAttrStringImpl(this), s31 = new PmAttrStringImpl(this), s32 = new PmAttrStringImpl(this), s33 = new PmAttrStringImpl(this), s34 = new PmAttrStringImpl(this);
+    public final PmAttrString s35 = new PmAttrStringImpl(this), s36 = new PmAttrStringImpl(this), s37 = new PmAttrStringImpl(this), s38 = new PmAttrStringImpl(this), s39 = new PmAttrStringImpl(this);
+    public final PmAttrString s40 = new PmAttrStringImpl(this), s41 = new PmAttrStringImpl(this), s42 = new PmAttrStringImpl(this), s43 = new PmAttrStringImpl(this), s44 = new PmAttrStringImpl(this);
+    public final PmAttrString s45 = new PmAttrStringImpl(this), s46 = new PmAttrStringImpl(this), s47 = new PmAttrStringImpl(this), s48 = new PmAttrStringImpl(this), s49 = new PmAttrStringImpl(this);
+
+    public WideBeanPm(PmObject pmParent, WideBean bean) {
+      super(pmParent, bean);
+    }
+  }
+
+  /**
+   * A binary tree of element PMs.<br>
+   * Each node has two attributes and up to two child nodes.
+   */
+  public static class NodePm extends PmElementImpl {
+    public final PmAttrString name = new PmAttrStringImpl(this);
+    public final PmAttrInteger counter = new PmAttrIntegerImpl(this);
+    public final NodePm left;
+    public final NodePm right;
+
+    /**
+     * @param pmParent The parent PM.
+     * @param depth The number of tree levels, including this node.
+     */
+    public NodePm(PmObject pmParent, int depth) {
+      super(pmParent);
+      left = (depth > 1) ? new NodePm(this, depth-1) : null;
+      right = (depth > 1) ? new NodePm(this, depth-1) : null;
+    }
+  }
+
+  @PmBeanCfg(beanClass=RowBean.class)
+  public static class RowPm extends PmBeanImpl<RowBean> {
+    public final PmAttrString id = new PmAttrStringImpl(this);
+    public final PmAttrString name = new PmAttrStringImpl(this);
+    public final PmAttrString description = new PmAttrStringImpl(this);
+    public final PmAttrInteger counter = new PmAttrIntegerImpl(this);
+  }
+
+  /** An in-memory table that represents a list of {@link RowBean}s. */
+  @PmFactoryCfg(beanPmClasses=RowPm.class)
+  public static class TablePm extends PmTableImpl<RowPm, RowBean> {
+
+    @PmTableColCfg(sortable=PmBoolean.TRUE)
+    public final PmTableCol name = new PmTableColImpl(this);
+    @PmTableColCfg(sortable=PmBoolean.TRUE)
+    public final PmTableCol counter = new PmTableColImpl(this);
+    public final PmTableCol description = new PmTableColImpl(this);
+
+    private final List<RowBean> rows;
+
+    public TablePm(PmObject pmParent, List<RowBean> rows, int pageSize) {
+      super(pmParent);
+      this.rows = rows;
+      setNumOfPageRowPms(pageSize);
+    }
+
+    @Override
+    protected Collection<RowBean> getPmBeansImpl() {
+      return rows;
+    }
+  }
+
+  private BenchmarkPms() {
+  }
+}
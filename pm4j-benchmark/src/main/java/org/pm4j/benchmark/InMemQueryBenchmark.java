@@ -0,0 +1,75 @@
+package org.pm4j.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pm4j.benchmark.BenchmarkBeans.RowBean;
+import org.pm4j.common.query.CompOpGt;
+import org.pm4j.common.query.CompOpStartsWith;
+import org.pm4j.common.query.QueryAttr;
+import org.pm4j.common.query.QueryExpr;
+import org.pm4j.common.query.QueryExprAnd;
+import org.pm4j.common.query.QueryExprCompare;
+import org.pm4j.common.query.SortOrder;
+import org.pm4j.common.query.inmem.InMemQueryEvaluator;
+
+/**
+ * Filter and sort operations of the {@link InMemQueryEvaluator}.
+ *
+ * @author olaf boede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemQueryBenchmark {
+
+  static final QueryAttr ATTR_NAME = new QueryAttr("name", String.class);
+  static final QueryAttr ATTR_COUNTER = new QueryAttr("counter", Integer.class);
+
+  @Param({"1000", "10000", "100000"})
+  public int rowCount;
+
+  private List<RowBean> rows;
+  private QueryExpr filterExpr;
+  private SortOrder sortOrder;
+
+  @Setup
+  public void setUp() {
+    rows = BenchmarkBeans.makeRows(rowCount);
+    filterExpr = new QueryExprAnd(
+        new QueryExprCompare(ATTR_NAME, CompOpStartsWith.class, "name1"),
+        new QueryExprCompare(ATTR_COUNTER, CompOpGt.class, 500));
+    sortOrder = new SortOrder(ATTR_NAME, true, new SortOrder(ATTR_COUNTER, false));
+  }
+
+  @Benchmark
+  public List<RowBean> filter() {
+    return new InMemQueryEvaluator<RowBean>().evaluateSubSet(rows, filterExpr);
+  }
+
+  @Benchmark
+  public List<RowBean> sort() {
+    return new InMemQueryEvaluator<RowBean>().sort(rows, sortOrder);
+  }
+
+  @Benchmark
+  public List<RowBean> filterAndSort() {
+    InMemQueryEvaluator<RowBean> evaluator = new InMemQueryEvaluator<RowBean>();
+    return evaluator.sort(evaluator.evaluateSubSet(rows, filterExpr), sortOrder);
+  }
+
+}
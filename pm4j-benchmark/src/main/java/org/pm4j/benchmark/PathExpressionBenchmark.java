@@ -0,0 +1,60 @@
+package org.pm4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pm4j.benchmark.BenchmarkBeans.OuterBean;
+import org.pm4j.common.expr.ExprExecCtxt;
+import org.pm4j.common.expr.Expression;
+import org.pm4j.common.expr.PathExpressionChain;
+import org.pm4j.common.expr.parser.ParseCtxt;
+
+/**
+ * Parsing and evaluation of {@link PathExpressionChain}s.
+ *
+ * @author olaf boede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PathExpressionBenchmark {
+
+  static final String PATH = "middle.inner.name";
+
+  private OuterBean bean;
+  private Expression parsedExpr;
+
+  @Setup
+  public void setUp() {
+    bean = new OuterBean();
+    parsedExpr = PathExpressionChain.parse(new ParseCtxt(PATH));
+  }
+
+  @Benchmark
+  public Expression parse() {
+    return PathExpressionChain.parse(new ParseCtxt(PATH));
+  }
+
+  @Benchmark
+  public Object execParsed() {
+    return parsedExpr.exec(new ExprExecCtxt(bean));
+  }
+
+  @Benchmark
+  public Object parseAndExec() {
+    return PathExpressionChain.parse(new ParseCtxt(PATH)).exec(new ExprExecCtxt(bean));
+  }
+
+}
@@ -0,0 +1,89 @@
+package org.pm4j.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pm4j.benchmark.BenchmarkBeans.WideBean;
+import org.pm4j.benchmark.BenchmarkPms.WideBeanPm;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmUtil;
+
+/**
+ * Attribute value read and write operations on a PM with 50 attributes.
+ *
+ * @author olaf boede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PmAttrBenchmark {
+
+  private WideBeanPm pm;
+  private List<PmAttrString> attrs;
+  private int setCallCount;
+
+  @Setup
+  public void setUp() {
+    pm = new WideBeanPm(new PmConversationImpl(), new WideBean());
+    attrs = PmUtil.getPmChildrenOfType(pm, PmAttrString.class);
+    for (PmAttrString a : attrs) {
+      a.setValue("initial value");
+    }
+  }
+
+  @Benchmark
+  public void getValue(Blackhole bh) {
+    for (int i = 0; i < attrs.size(); ++i) {
+      bh.consume(attrs.get(i).getValue());
+    }
+  }
+
+  @Benchmark
+  public void getValueAsString(Blackhole bh) {
+    for (int i = 0; i < attrs.size(); ++i) {
+      bh.consume(attrs.get(i).getValueAsString());
+    }
+  }
+
+  @Benchmark
+  public void setValue() {
+    // Alternating values ensure that each call is a real value change.
+    String value = ((++setCallCount & 1) == 0) ? "a" : "b";
+    for (int i = 0; i < attrs.size(); ++i) {
+      attrs.get(i).setValue(value);
+    }
+  }
+
+  @Benchmark
+  public void setValueAsString() {
+    String value = ((++setCallCount & 1) == 0) ? "a" : "b";
+    for (int i = 0; i < attrs.size(); ++i) {
+      attrs.get(i).setValueAsString(value);
+    }
+  }
+
+  @Benchmark
+  public WideBeanPm createPmAndReadValues(Blackhole bh) {
+    WideBeanPm newPm = new WideBeanPm(pm.getPmConversation(), new WideBean());
+    for (PmAttrString a : PmUtil.getPmChildrenOfType(newPm, PmAttrString.class)) {
+      bh.consume(a.getValue());
+    }
+    return newPm;
+  }
+
+}
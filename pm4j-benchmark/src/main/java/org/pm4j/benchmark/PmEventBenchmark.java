@@ -0,0 +1,85 @@
+package org.pm4j.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.pm4j.benchmark.BenchmarkBeans.WideBean;
+import org.pm4j.benchmark.BenchmarkPms.NodePm;
+import org.pm4j.benchmark.BenchmarkPms.WideBeanPm;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.api.PmVisitorApi;
+import org.pm4j.core.pm.api.PmVisitorApi.PmVisitCallBack;
+import org.pm4j.core.pm.api.PmVisitorApi.PmVisitResult;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+
+/**
+ * Event propagation and tree traversal on deep element PM trees.
+ * <p>
+ * The tree is a binary tree. A depth of 10 provides 1023 element PMs
+ * with two attributes each.
+ *
+ * @author olaf boede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PmEventBenchmark {
+
+  @Param({"4", "7", "10"})
+  public int treeDepth;
+
+  private NodePm tree;
+  private WideBeanPm widePm;
+
+  @Setup
+  public void setUp() {
+    PmConversationImpl conversation = new PmConversationImpl();
+    tree = new NodePm(conversation, treeDepth);
+    widePm = new WideBeanPm(conversation, new WideBean());
+    // Initialize the whole tree before measuring.
+    countPms(tree);
+  }
+
+  @Benchmark
+  public void fireValueChangeOnTree() {
+    PmEventApi.firePmEvent(tree, PmEvent.VALUE_CHANGE);
+  }
+
+  @Benchmark
+  public void fireValueChangeOnWidePm() {
+    PmEventApi.firePmEvent(widePm, PmEvent.VALUE_CHANGE);
+  }
+
+  @Benchmark
+  public int visitTree() {
+    return countPms(tree);
+  }
+
+  private static int countPms(PmObject rootPm) {
+    final int[] count = {0};
+    PmVisitorApi.visit(rootPm, new PmVisitCallBack() {
+      @Override
+      public PmVisitResult visit(PmObject pm) {
+        ++count[0];
+        return PmVisitResult.CONTINUE;
+      }
+    });
+    return count[0];
+  }
+
+}
@@ -0,0 +1,91 @@
+package org.pm4j.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.pm4j.benchmark.BenchmarkBeans.RowBean;
+import org.pm4j.benchmark.BenchmarkPms.RowPm;
+import org.pm4j.benchmark.BenchmarkPms.TablePm;
+import org.pm4j.common.pageable.PageableCollection;
+import org.pm4j.common.pageable.PageableCollectionUtil;
+import org.pm4j.core.pm.PmSortOrder;
+import org.pm4j.core.pm.api.PmCacheApi;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+
+/**
+ * Paging and sorting of an in-memory {@link TablePm}.
+ *
+ * @author olaf boede
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PmTableBenchmark {
+
+  static final int PAGE_SIZE = 20;
+
+  @Param({"1000", "10000", "100000"})
+  public int rowCount;
+
+  private TablePm table;
+  private PageableCollection<RowPm> pageable;
+  private int sortCallCount;
+
+  @Setup
+  public void setUp() {
+    List<RowBean> rows = BenchmarkBeans.makeRows(rowCount);
+    table = new TablePm(new PmConversationImpl(), rows, PAGE_SIZE);
+    pageable = table.getPmPageableCollection();
+  }
+
+  @Benchmark
+  public void renderPage(Blackhole bh) {
+    consumeRows(bh, table.getRowPms());
+  }
+
+  @Benchmark
+  public void navigateToNextPage(Blackhole bh) {
+    if (!PageableCollectionUtil.hasNextPage(pageable)) {
+      PageableCollectionUtil.navigateToFirstPage(pageable);
+    }
+    else {
+      PageableCollectionUtil.navigateToNextPage(pageable);
+    }
+    consumeRows(bh, table.getRowPms());
+  }
+
+  @Benchmark
+  public void toggleSortOrder(Blackhole bh) {
+    table.name.getSortOrderAttr().setValue(((++sortCallCount & 1) == 0) ? PmSortOrder.ASC : PmSortOrder.DESC);
+    consumeRows(bh, table.getRowPms());
+  }
+
+  @Benchmark
+  public void clearCacheAndRenderPage(Blackhole bh) {
+    PmCacheApi.clearPmCache(table);
+    consumeRows(bh, table.getRowPms());
+  }
+
+  private static void consumeRows(Blackhole bh, List<RowPm> rowPms) {
+    for (RowPm r : rowPms) {
+      bh.consume(r.name.getValue());
+      bh.consume(r.counter.getValue());
+    }
+  }
+
+}
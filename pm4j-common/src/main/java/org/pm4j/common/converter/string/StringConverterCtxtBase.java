@@ -0,0 +1,24 @@
+package org.pm4j.common.converter.string;
+
+/**
+ * Base class for string converter context implementations.
+ * <p>
+ * Provides the parse formats found in the format string. Subclasses may
+ * override {@link #getConverterCtxtParseFormats()} to provide a cached result.
+ *
+ * @author Olaf Boede
+ */
+public abstract class StringConverterCtxtBase implements StringConverterCtxt {
+
+  /**
+   * Provides the set of formats that may be used to parse a string.
+   * <p>
+   * Callers should not modify the returned array.
+   *
+   * @return The formats found in {@link #getConverterCtxtFormatString()}. Never <code>null</code>.
+   */
+  public String[] getConverterCtxtParseFormats() {
+    return StringConverterUtil.splitFormatString(getConverterCtxtFormatString());
+  }
+
+}
@@ -39,9 +39,19 @@ public class StringConverterUtil {
    * @return Format strings.
    */
   public static String[] getParseFormats(StringConverterCtxt ctxt) {
-    String allFormatsString = StringUtils.defaultString(ctxt.getConverterCtxtFormatString());
-    String[] formats = StringUtils.split(allFormatsString, formatSplitString);
-    return formats;
+    return (ctxt instanceof StringConverterCtxtBase)
+        ? ((StringConverterCtxtBase)ctxt).getConverterCtxtParseFormats()
+        : splitFormatString(ctxt.getConverterCtxtFormatString());
+  }
+
+  /**
+   * Splits a (multi-)format resource string into its single format definitions.
+   *
+   * @param allFormatsString The format string. May be <code>null</code>.
+   * @return The format strings. Never <code>null</code>.
+   */
+  public static String[] splitFormatString(String allFormatsString) {
+    return StringUtils.split(StringUtils.defaultString(allFormatsString), formatSplitString);
   }
 
 }
@@ -13,33 +13,37 @@ import org.pm4j.common.util.reflection.ReflectionException;
  */
 public class AttributeExpr extends OptionalExpressionBase<ExprExecCtxt> {
 
-  private BeanAttrAccessor accessor;
+  /** An accessor that was passed to the constructor. Will be used for all beans. */
+  private final BeanAttrAccessor presetAccessor;
+
+  /**
+   * The accessor that was bound to the bean class of the last execution.<br>
+   * Parsed expressions may be shared between threads and used for beans of
+   * different classes. Because of that the accessor is always replaced
+   * together with the class it was created for.
+   */
+  private volatile BoundAccessor boundAccessor;
 
   public AttributeExpr(ParseCtxt ctxt, NameWithModifier name, BeanAttrAccessor accessor) {
-    this(ctxt, name);
-    this.accessor = accessor;
+    super(ctxt, name);
+    this.presetAccessor = accessor;
   }
 
   public AttributeExpr(ParseCtxt ctxt, NameWithModifier name) {
-    super(ctxt, name);
+    this(ctxt, name, null);
   }
 
   public AttributeExpr(SyntaxVersion syntaxVersion, NameWithModifier name, BeanAttrAccessor accessor) {
-    this(syntaxVersion, name);
-    this.accessor = accessor;
+    super(syntaxVersion, name);
+    this.presetAccessor = accessor;
   }
 
   public AttributeExpr(SyntaxVersion syntaxVersion, NameWithModifier name) {
-    super(syntaxVersion, name);
+    this(syntaxVersion, name, null);
   }
 
   @Override
   public Object execImpl(ExprExecCtxt ctxt) {
-    BeanAttrAccessor accessor = ensureAccessor(ctxt);
-    if (accessor == null) {
-      return null;
-    }
-
     Object currentObj = ctxt.getCurrentValue();
 
     if (currentObj == null) {
@@ -50,6 +54,11 @@ public class AttributeExpr extends OptionalExpressionBase<ExprExecCtxt> {
       }
     }
 
+    BeanAttrAccessor accessor = ensureAccessor(ctxt);
+    if (accessor == null) {
+      return null;
+    }
+
     return accessor.getBeanAttrValue(currentObj);
   }
 
@@ -59,26 +68,34 @@ public class AttributeExpr extends OptionalExpressionBase<ExprExecCtxt> {
   }
 
   private BeanAttrAccessor ensureAccessor(ExprExecCtxt ctxt) {
-    // FIXME: check in addition the used class of the accessor!
-    if (accessor == null) {
-      try {
-        accessor = new BeanAttrAccessorImpl(ctxt.getCurrentValue().getClass(), nameWithModifier.getName());
-      } catch (ReflectionException e) {
+    if (presetAccessor != null) {
+      return presetAccessor;
+    }
+
+    BoundAccessor bound = boundAccessor;
+    Class<?> currentClass = ctxt.getCurrentValue().getClass();
+    if (bound != null && bound.beanClass.isAssignableFrom(currentClass)) {
+      return bound.accessor;
+    }
+
+    try {
+      BeanAttrAccessor accessor = new BeanAttrAccessorImpl(currentClass, nameWithModifier.getName());
+      boundAccessor = new BoundAccessor(currentClass, accessor);
+      return accessor;
+    } catch (ReflectionException e) {
     	// Property does not exist. Check if that's ok.
     	// Consider the old meaning of 'o' which also worked like an 'x'.
-        if(getSyntaxVersion() == SyntaxVersion.VERSION_1) {
-          if (!(hasNameModifier(Modifier.OPTIONAL) || hasNameModifier(Modifier.EXISTS_OPTIONALLY))) {
-              throw new ExprExecExeption(ctxt, "Unable to resolve expression part '" + nameWithModifier + "'.", e);
-          }
-        } else {
-          if (!hasNameModifier(Modifier.EXISTS_OPTIONALLY)) {
-              throw new ExprExecExeption(ctxt, "Unable to resolve expression part '" + nameWithModifier + "'.", e);
-          }
+      if(getSyntaxVersion() == SyntaxVersion.VERSION_1) {
+        if (!(hasNameModifier(Modifier.OPTIONAL) || hasNameModifier(Modifier.EXISTS_OPTIONALLY))) {
+            throw new ExprExecExeption(ctxt, "Unable to resolve expression part '" + nameWithModifier + "'.", e);
+        }
+      } else {
+        if (!hasNameModifier(Modifier.EXISTS_OPTIONALLY)) {
+            throw new ExprExecExeption(ctxt, "Unable to resolve expression part '" + nameWithModifier + "'.", e);
         }
-        return null;
       }
+      return null;
     }
-    return accessor;
   }
 
   public static AttributeExpr parse(ParseCtxt ctxt) {
@@ -86,4 +103,15 @@ public class AttributeExpr extends OptionalExpressionBase<ExprExecCtxt> {
     return (n != null) ? new AttributeExpr(ctxt, n) : null;
   }
 
+  /** An accessor together with the bean class it was created for. */
+  private static final class BoundAccessor {
+    final Class<?> beanClass;
+    final BeanAttrAccessor accessor;
+
+    BoundAccessor(Class<?> beanClass, BeanAttrAccessor accessor) {
+      this.beanClass = beanClass;
+      this.accessor = accessor;
+    }
+  }
+
 }
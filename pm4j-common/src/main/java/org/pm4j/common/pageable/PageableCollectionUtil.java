@@ -1,9 +1,12 @@
 package org.pm4j.common.pageable;
 
 import java.awt.print.Pageable;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 
 import org.pm4j.common.pageable.querybased.pagequery.ClickedIds;
+import org.pm4j.common.pageable.querybased.pagequery.PageQueryCollection;
 import org.pm4j.common.query.CompOpIn;
 import org.pm4j.common.query.QueryExprAnd;
 import org.pm4j.common.query.QueryExprCompare;
@@ -117,6 +120,38 @@ public final class PageableCollectionUtil {
     }
   }
 
+  /**
+   * Provides a range of items without changing the current page of the
+   * collection.
+   * <p>
+   * A {@link PageQueryCollection} reads the range by a single offset query.
+   * The items of other collections get found by iteration.
+   *
+   * @param pageable
+   *          The set to get the items from.
+   * @param startIdx
+   *          The zero based index of the first item to provide.
+   * @param count
+   *          The maximal number of items to provide.
+   * @return The items of the range. Contains less items if the set ends within
+   *         the range.
+   */
+  public static <T> List<T> getItems(PageableCollection<T> pageable, long startIdx, int count) {
+    if (pageable instanceof PageQueryCollection) {
+      return ((PageQueryCollection<T, ?>) pageable).getItems(startIdx, count);
+    }
+
+    List<T> items = new ArrayList<T>(count);
+    Iterator<T> it = pageable.iterator();
+    for (long i = 0; i < startIdx && it.hasNext(); ++i) {
+      it.next();
+    }
+    while (items.size() < count && it.hasNext()) {
+      items.add(it.next());
+    }
+    return items;
+  }
+
   /**
    * Navigates one page back.
    * <p>
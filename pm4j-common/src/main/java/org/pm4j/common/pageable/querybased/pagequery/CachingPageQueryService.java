@@ -7,6 +7,7 @@ import java.util.Map;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pm4j.common.query.QueryAttr;
 import org.pm4j.common.query.QueryParams;
 import org.pm4j.common.util.beanproperty.ReleaseOnPropChangeRef;
 
@@ -17,17 +18,30 @@ import org.pm4j.common.util.beanproperty.ReleaseOnPropChangeRef;
  * <p>
  * Observes the provided {@link QueryParams}. It resets cached data if the query parameter data
  * get changed.
+ * <p>
+ * If the base service is a {@link SeekPageQueryService}, requests for the page
+ * directly after or before the last provided page get answered by a key based
+ * seek request. All other requests use the item offset. The offset is also
+ * used if the {@link PageKey} values can't be read from the items (see
+ * {@link #makePageKey(QueryParams, Object)}).
+ * <p>
+ * The seek requests of other users (e.g. selection iterators) get delegated to
+ * the base service (see {@link #isSeekSupported()}). A {@link PageKey} without
+ * identifier attribute gets completed by the identifier attribute of this
+ * service.
  *
  * @author olaf boede
  *
  * @param <T_ITEM> type of collection items.
  * @param <T_ID> type of collection item id's.
  */
-class CachingPageQueryService<T_ITEM, T_ID> implements PageQueryService<T_ITEM, T_ID> {
+class CachingPageQueryService<T_ITEM, T_ID> implements SeekPageQueryService<T_ITEM, T_ID> {
   private static final Log LOG = LogFactory.getLog(CachingPageQueryService.class);
 
   private final PageQueryService<T_ITEM, T_ID> baseService;
   private final CachingPageQueryService.Cache<T_ITEM, T_ID> cache;
+  /** The tiebreaker attribute used for seek requests. May be <code>null</code>. */
+  private final QueryAttr idAttr;
 
   /**
    * Creates a caching proxy service for the given base service.
@@ -35,9 +49,20 @@ class CachingPageQueryService<T_ITEM, T_ID> implements PageQueryService<T_ITEM,
    * @param service the service to cache data for.
    */
   public CachingPageQueryService(PageQueryService<T_ITEM, T_ID> service) {
+    this(service, null);
+  }
+
+  /**
+   * Creates a caching proxy service for the given base service.
+   *
+   * @param service the service to cache data for.
+   * @param idAttr the item identifier attribute to pass within a {@link PageKey}. May be <code>null</code>.
+   */
+  public CachingPageQueryService(PageQueryService<T_ITEM, T_ID> service, QueryAttr idAttr) {
     assert service != null;
     this.baseService = service;
     this.cache = new CachingPageQueryService.Cache<T_ITEM, T_ID>(service);
+    this.idAttr = idAttr;
   }
 
   @Override
@@ -67,12 +92,103 @@ class CachingPageQueryService<T_ITEM, T_ID> implements PageQueryService<T_ITEM,
       return cache.pageItemsCache;
     }
     else {
-      List<T_ITEM> items = baseService.getItems(query, startIdx, pageSize);
+      List<T_ITEM> items = getItemsBySeek(query, startIdx, pageSize);
+      if (items == null) {
+        items = baseService.getItems(query, startIdx, pageSize);
+      }
       cache.setPageCache(query, items, startIdx, pageSize);
       return items;
     }
   }
 
+  /**
+   * Delegates to the base service.
+   *
+   * @throws UnsupportedOperationException if the base service is not a {@link SeekPageQueryService}.
+   */
+  @Override
+  public List<T_ITEM> getItemsAfter(QueryParams query, PageKey key, int pageSize) {
+    return getSeekBaseService().getItemsAfter(query, completeKey(key), pageSize);
+  }
+
+  /**
+   * Delegates to the base service.
+   *
+   * @throws UnsupportedOperationException if the base service is not a {@link SeekPageQueryService}.
+   */
+  @Override
+  public List<T_ITEM> getItemsBefore(QueryParams query, PageKey key, int pageSize) {
+    return getSeekBaseService().getItemsBefore(query, completeKey(key), pageSize);
+  }
+
+  /**
+   * @return <code>true</code> if the base service supports seek requests.
+   */
+  public boolean isSeekSupported() {
+    return baseService instanceof SeekPageQueryService;
+  }
+
+  /**
+   * Uses a seek request if the requested page is a direct neighbour of the last provided page.
+   *
+   * @return the page items or <code>null</code> if a seek request is not possible.
+   */
+  private List<T_ITEM> getItemsBySeek(QueryParams query, long startIdx, int pageSize) {
+    if (!isSeekSupported() ||
+        (query != cache.seekAnchorQuery.getRef()) ||
+        cache.seekAnchorItems.isEmpty() ||
+        cache.seekKeyUnreadable) {
+      return null;
+    }
+
+    List<T_ITEM> anchorItems = cache.seekAnchorItems;
+    boolean after = (startIdx == cache.seekAnchorStartIdx + anchorItems.size());
+    boolean before = !after && (startIdx >= 0 && startIdx + pageSize == cache.seekAnchorStartIdx);
+    if (!after && !before) {
+      return null;
+    }
+
+    PageKey key = makePageKey(query, after ? anchorItems.get(anchorItems.size()-1) : anchorItems.get(0));
+    if (key == null) {
+      // Remember it to prevent a failing key creation on each page switch.
+      // Gets reset with the seek anchor on query changes.
+      cache.seekKeyUnreadable = true;
+      return null;
+    }
+    return after
+        ? getItemsAfter(query, key, pageSize)
+        : getItemsBefore(query, key, pageSize);
+  }
+
+  private SeekPageQueryService<T_ITEM, T_ID> getSeekBaseService() {
+    if (!isSeekSupported()) {
+      throw new UnsupportedOperationException("The base service does not support seek requests: " + baseService);
+    }
+    return (SeekPageQueryService<T_ITEM, T_ID>) baseService;
+  }
+
+  /**
+   * Provides the seek key for the given item.
+   * <p>
+   * May be overridden if the sort attribute paths can't be read from the item
+   * (e.g. database column names).
+   *
+   * @param query the query to get the key for.
+   * @param item the item to get the key for.
+   * @return the key or <code>null</code> if the sort values can't be read from
+   *         the item. In this case the offset gets used.
+   */
+  protected PageKey makePageKey(QueryParams query, T_ITEM item) {
+    return PageableQueryUtil.makePageKey(query, idAttr, item, baseService.getIdForItem(item));
+  }
+
+  /** Adds the identifier attribute of this service if the key has none. */
+  private PageKey completeKey(PageKey key) {
+    return (key.getIdAttr() == null && idAttr != null)
+        ? new PageKey(key.getSortOrder(), key.getSortValues(), idAttr, key.getId())
+        : key;
+  }
+
   @Override
   public long getItemCount(QueryParams query) {
     if ((query != cache.itemCountCacheQuery.getRef()) ||
@@ -111,6 +227,15 @@ class CachingPageQueryService<T_ITEM, T_ID> implements PageQueryService<T_ITEM,
     private final ReleaseOnPropChangeRef<QueryParams> itemCountCacheQuery;
     /** Cached number of items for the current {@link #itemCountCacheQuery}. */
     private long                                     itemCountCache = -1;
+    /**
+     * The last provided page. Is used as anchor for seek requests. Gets not
+     * released on page switch, only on query and {@link #clear()} calls.
+     */
+    private final ReleaseOnPropChangeRef<QueryParams> seekAnchorQuery;
+    private long                                     seekAnchorStartIdx = -1;
+    private List<T_ITEM>                             seekAnchorItems = Collections.emptyList();
+    /** <code>true</code> if no {@link PageKey} can be created for the seek anchor items. */
+    private boolean                                  seekKeyUnreadable;
 
     public Cache(PageQueryService<T_ITEM, T_ID> service) {
       assert service != null;
@@ -127,6 +252,12 @@ class CachingPageQueryService<T_ITEM, T_ID> implements PageQueryService<T_ITEM,
           clearItemCountCache();
         }
       };
+      this.seekAnchorQuery = new ReleaseOnPropChangeRef<QueryParams>(null, QueryParams.PROP_EFFECTIVE_FILTER, QueryParams.PROP_EFFECTIVE_SORT_ORDER) {
+        @Override
+        protected void onSetRef() {
+          clearSeekAnchor();
+        }
+      };
     }
 
     public void clearPageCache() {
@@ -150,9 +281,17 @@ class CachingPageQueryService<T_ITEM, T_ID> implements PageQueryService<T_ITEM,
       itemCountCache = -1;
     }
 
+    public void clearSeekAnchor() {
+      seekAnchorQuery.setRefQuietly(null);
+      seekAnchorStartIdx = -1;
+      seekAnchorItems = Collections.emptyList();
+      seekKeyUnreadable = false;
+    }
+
     public void clear() {
       clearPageCache();
       clearItemCountCache();
+      clearSeekAnchor();
     }
 
     public void setPageCache(QueryParams forQuery, List<T_ITEM> pageItemsCache, long startIdx, int pageSize) {
@@ -166,6 +305,12 @@ class CachingPageQueryService<T_ITEM, T_ID> implements PageQueryService<T_ITEM,
       this.cachedPageSize = pageSize;
       this.pageItemsCache = pageItemsCache;
       this.idToPageItemsCache = id2Items;
+      if (forQuery != this.seekAnchorQuery.getRef()) {
+        this.seekKeyUnreadable = false;
+      }
+      this.seekAnchorQuery.setRefQuietly(forQuery);
+      this.seekAnchorStartIdx = startIdx;
+      this.seekAnchorItems = pageItemsCache;
     }
   }
 }
\ No newline at end of file
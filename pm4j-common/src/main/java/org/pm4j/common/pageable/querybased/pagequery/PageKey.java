@@ -0,0 +1,112 @@
+package org.pm4j.common.pageable.querybased.pagequery;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.pm4j.common.query.QueryAttr;
+import org.pm4j.common.query.SortOrder;
+import org.pm4j.common.query.inmem.InMemQueryEvaluator;
+
+/**
+ * The position of an item within a sorted query result.
+ * <p>
+ * Is used by a {@link SeekPageQueryService} to find the items before or after
+ * the item without skipping a number of rows.
+ * <p>
+ * The key contains the values of the item for each attribute of the
+ * {@link SortOrder} chain. The item identifier is the last key part. It makes
+ * the position unique if several items have the same sort values.
+ *
+ * @author olaf boede
+ */
+public final class PageKey implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final SortOrder sortOrder;
+  private final List<Object> sortValues;
+  private final QueryAttr idAttr;
+  private final Object id;
+
+  /**
+   * @param sortOrder
+   *          The sort order the key is based on. May be <code>null</code>.
+   * @param sortValues
+   *          The item values for each attribute of the sort order chain.
+   * @param idAttr
+   *          The identifier attribute. May be <code>null</code> if the
+   *          service knows the identifier attribute.
+   * @param id
+   *          The item identifier.
+   */
+  public PageKey(SortOrder sortOrder, List<Object> sortValues, QueryAttr idAttr, Object id) {
+    assert id != null;
+    this.sortOrder = sortOrder;
+    this.sortValues = Collections.unmodifiableList(new ArrayList<Object>(sortValues));
+    this.idAttr = idAttr;
+    this.id = id;
+  }
+
+  /**
+   * Creates the key for the given item.
+   * <p>
+   * Reads the sort values using the attribute paths of the sort order chain.
+   *
+   * @param sortOrder
+   *          The effective sort order of the query. May be <code>null</code>.
+   * @param idAttr
+   *          The identifier attribute (see
+   *          {@link org.pm4j.common.query.QueryOptions#getIdAttribute()}). May
+   *          be <code>null</code>.
+   * @param item
+   *          The item to get the key for.
+   * @param id
+   *          The identifier of the item.
+   * @return The key.
+   */
+  public static PageKey makeForItem(SortOrder sortOrder, QueryAttr idAttr, Object item, Object id) {
+    InMemQueryEvaluator<Object> evaluator = new InMemQueryEvaluator<Object>();
+    List<Object> values = new ArrayList<Object>();
+    for (SortOrder so = sortOrder; so != null; so = so.getNextSortOrder()) {
+      values.add(evaluator.getAttrValue(item, so.getAttr()));
+    }
+    return new PageKey(sortOrder, values, idAttr, id);
+  }
+
+  /**
+   * @return The sort order the key is based on. May be <code>null</code>.
+   */
+  public SortOrder getSortOrder() {
+    return sortOrder;
+  }
+
+  /**
+   * @return The item values for each attribute of the sort order chain. The
+   *         first value belongs to the most significant attribute.
+   */
+  public List<Object> getSortValues() {
+    return sortValues;
+  }
+
+  /**
+   * @return The identifier attribute. May be <code>null</code>.
+   */
+  public QueryAttr getIdAttr() {
+    return idAttr;
+  }
+
+  /**
+   * @return The item identifier.
+   */
+  public Object getId() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return sortValues + " id=" + id;
+  }
+
+}
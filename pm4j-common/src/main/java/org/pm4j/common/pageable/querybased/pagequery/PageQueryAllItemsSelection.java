@@ -53,6 +53,11 @@ public class PageQueryAllItemsSelection<T_ITEM, T_ID extends Serializable> exten
       protected List<T_ITEM> getItems(long startIdx, int blockSize) {
         return getPageableQueryService().getItems(queryParams, startIdx, blockSize);
       }
+
+      @Override
+      protected List<T_ITEM> getItemsAfter(T_ITEM lastItem, long startIdx, int blockSize) {
+        return PageableQueryUtil.getItemsAfter(getPageableQueryService(), queryParams, lastItem, startIdx, blockSize);
+      }
     };
   }
 
@@ -5,11 +5,14 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.pm4j.common.modifications.ModificationHandler;
 import org.pm4j.common.pageable.PageableCollection;
 import org.pm4j.common.pageable.PageableCollectionUtil;
 import org.pm4j.common.pageable.querybased.QueryCollectionBase;
 import org.pm4j.common.pageable.querybased.QueryCollectionModificationHandlerBase;
+import org.pm4j.common.query.QueryAttr;
 import org.pm4j.common.query.QueryOptions;
 import org.pm4j.common.query.QueryParams;
 import org.pm4j.common.selection.SelectionHandler;
@@ -19,6 +22,10 @@ import org.pm4j.common.util.collection.ListUtil;
 /**
  * A {@link PageableCollection} that uses a {@link PageQueryService} and {@link QueryParams}
  * to get the data to provide.
+ * <p>
+ * If the service is a {@link SeekPageQueryService}, moves to the next or previous page
+ * get handled by key based seek requests. The id attribute of the {@link QueryOptions}
+ * is passed as tiebreaker within the {@link PageKey}.
  *
  * @param <T_ITEM> type of handled items.
  * @param <T_ID> the item identifier type.
@@ -41,7 +48,7 @@ public class PageQueryCollection<T_ITEM, T_ID> extends QueryCollectionBase<T_ITE
     super(queryOptions);
 
     this.service = service;
-    this.cachingService = new CachingPageQueryService<T_ITEM, T_ID>(service);
+    this.cachingService = new CachingPageQueryService<T_ITEM, T_ID>(service, queryOptions.getIdAttribute());
     this.modificationHandler = new QueryCollectionModificationHandlerBase<T_ITEM, T_ID>(this, cachingService);
 
     // Handling of transient and persistent item selection is separated by a handler composition.
@@ -75,6 +82,43 @@ public class PageQueryCollection<T_ITEM, T_ID> extends QueryCollectionBase<T_ITE
         (this, cachingService, queryParams, getPageIdx(), getModifications().getAddedItems());
   }
 
+  /**
+   * Provides a range of the collection items by a single offset query.
+   * <p>
+   * Does not change the current page and does not touch the page cache.
+   * Transient added items follow the query items.
+   *
+   * @param startIdx the index of the first item to provide.
+   * @param count the maximal number of items to provide.
+   * @return the items of the range.
+   */
+  @SuppressWarnings("unchecked")
+  public List<T_ITEM> getItems(long startIdx, int count) {
+    QueryParams queryParams = getQueryParamsWithRemovedItems();
+    if (!queryParams.isExecQuery()) {
+      return Collections.EMPTY_LIST;
+    }
+
+    return getQueryAndAdditionalItems(service, queryParams, cachingService.getItemCount(queryParams),
+        getModifications().getAddedItems(), startIdx, count);
+  }
+
+  /**
+   * Creates a query for a range of the collection items.
+   * <p>
+   * The query works on a copy of the current query parameters and added items.
+   * It calls only the backing service. That allows to execute it within
+   * another thread while this collection gets changed.
+   *
+   * @param startIdx the index of the first item to provide.
+   * @param count the maximal number of items to provide.
+   * @return the detached query.
+   */
+  public RangeQuery<T_ITEM> makeRangeQuery(long startIdx, int count) {
+    return new RangeQuery<T_ITEM>(service, getQueryParamsWithRemovedItems().clone(),
+        new ArrayList<T_ITEM>(getModifications().getAddedItems()), startIdx, count);
+  }
+
   @Override
   public void setPageIdx(long pageIdx) {
     if (pageIdx != getPageIdx()) {
@@ -115,6 +159,81 @@ public class PageQueryCollection<T_ITEM, T_ID> extends QueryCollectionBase<T_ITE
     return modificationHandler;
   }
 
+  /**
+   * Provides a range of a query result, followed by the additional items.
+   */
+  private static <T_ITEM> List<T_ITEM> getQueryAndAdditionalItems(
+      PageQueryService<T_ITEM, ?> service,
+      QueryParams queryParams,
+      long queryItemCount,
+      List<T_ITEM> additionalItems,
+      long startIdx,
+      int count)
+  {
+    List<T_ITEM> items = new ArrayList<T_ITEM>();
+    if (startIdx < queryItemCount) {
+      items.addAll(service.getItems(queryParams, startIdx, count));
+    }
+
+    if (items.size() < count && !additionalItems.isEmpty()) {
+      int offset = (int) Math.max(0, startIdx - queryItemCount);
+      if (offset < additionalItems.size()) {
+        items.addAll(ListUtil.subListPage(additionalItems, offset, count - items.size()));
+      }
+    }
+    return items;
+  }
+
+  /**
+   * A query for a range of collection items that is detached from the
+   * collection state. See {@link PageQueryCollection#makeRangeQuery(long, int)}.
+   * <p>
+   * An instance should be used by a single thread.
+   *
+   * @param <T_ITEM> type of handled items.
+   */
+  public static final class RangeQuery<T_ITEM> {
+    private final PageQueryService<T_ITEM, ?> service;
+    private final QueryParams queryParams;
+    private final List<T_ITEM> additionalItems;
+    private final long startIdx;
+    private final int count;
+    private long queryItemCount = -1;
+
+    RangeQuery(PageQueryService<T_ITEM, ?> service, QueryParams queryParams, List<T_ITEM> additionalItems, long startIdx, int count) {
+      this.service = service;
+      this.queryParams = queryParams;
+      this.additionalItems = additionalItems;
+      this.startIdx = startIdx;
+      this.count = count;
+    }
+
+    /**
+     * @return the items of the range.
+     */
+    public List<T_ITEM> getItems() {
+      return queryParams.isExecQuery()
+          ? getQueryAndAdditionalItems(service, queryParams, getQueryItemCount(), additionalItems, startIdx, count)
+          : new ArrayList<T_ITEM>();
+    }
+
+    /**
+     * @return the number of all items, including the additional items.
+     */
+    public long getNumOfItems() {
+      return queryParams.isExecQuery()
+          ? getQueryItemCount() + additionalItems.size()
+          : 0;
+    }
+
+    private long getQueryItemCount() {
+      if (queryItemCount == -1) {
+        queryItemCount = service.getItemCount(queryParams);
+      }
+      return queryItemCount;
+    }
+  }
+
 }
 
 /**
@@ -182,6 +301,70 @@ class PageableQueryCollectionIterator<T_ITEM> implements Iterator<T_ITEM> {
  */
 class PageableQueryUtil {
 
+  private static final Log LOG = LogFactory.getLog(PageableQueryUtil.class);
+
+  /**
+   * Provides the items after the given item.<br>
+   * Uses a seek request if the service supports it. Otherwise the items get
+   * requested by offset.
+   * <p>
+   * A {@link CachingPageQueryService} supports seek requests if its base
+   * service does. It adds its identifier attribute to the {@link PageKey}.
+   * <p>
+   * The offset is also used if the {@link PageKey} can't be created for the
+   * given item.
+   *
+   * @param service the service to ask.
+   * @param qp the query to execute.
+   * @param lastItem the item to provide the successors for.
+   * @param startIdx the offset of the first item to provide.
+   * @param pageSize the number of items to provide.
+   * @return the found items.
+   */
+  public static <T_ITEM, T_ID> List<T_ITEM> getItemsAfter(
+      PageQueryService<T_ITEM, T_ID> service,
+      QueryParams qp,
+      T_ITEM lastItem,
+      long startIdx,
+      int pageSize)
+  {
+    boolean seekSupported = (service instanceof CachingPageQueryService)
+        ? ((CachingPageQueryService<T_ITEM, T_ID>)service).isSeekSupported()
+        : (service instanceof SeekPageQueryService);
+    PageKey key = seekSupported
+        ? makePageKey(qp, null, lastItem, service.getIdForItem(lastItem))
+        : null;
+    if (key != null) {
+      return ((SeekPageQueryService<T_ITEM, T_ID>)service).getItemsAfter(qp, key, pageSize);
+    }
+    else {
+      return service.getItems(qp, startIdx, pageSize);
+    }
+  }
+
+  /**
+   * Creates the {@link PageKey} for the given item.
+   *
+   * @param qp the query to get the key for.
+   * @param idAttr the identifier attribute. May be <code>null</code>.
+   * @param item the item to get the key for.
+   * @param id the identifier of the item.
+   * @return the key or <code>null</code> if the sort values can't be read
+   *         from the item. E.g. because the sort attribute paths are database
+   *         column names.
+   */
+  public static PageKey makePageKey(QueryParams qp, QueryAttr idAttr, Object item, Object id) {
+    try {
+      return PageKey.makeForItem(qp.getEffectiveSortOrder(), idAttr, item, id);
+    }
+    catch (RuntimeException e) {
+      if (LOG.isDebugEnabled()) {
+        LOG.debug("Unable to read the sort values of item '" + item + "'. Using the item offset instead of a seek request.", e);
+      }
+      return null;
+    }
+  }
+
   /**
    * Provides the set of page items for a mix of query based and additional transient items.
    *
@@ -7,6 +7,8 @@ import java.util.List;
  * An iterator base class that supports block wise iteration.
  * <p>
  * Sub classes need to implement {@link #getItems(long, int)}.
+ * Sub classes may implement {@link #getItemsAfter(Object, long, int)} to read
+ * the following blocks by a key based seek request.
  * <p>
  * If the results provided by {@link #getItems(long, int)} may still contain
  * items that don't belong to the selected item set, this may be corrected by an
@@ -32,6 +34,20 @@ public abstract class PageQueryItemIteratorBase<T_ITEM> implements Iterator<T_IT
 
   protected abstract List<T_ITEM> getItems(long startIdx, int blockSize);
 
+  /**
+   * Provides the block that follows the last item of the previous block.
+   * <p>
+   * The default implementation calls {@link #getItems(long, int)}.
+   *
+   * @param lastItem the last item of the previous block.
+   * @param startIdx the index of the first item to provide.
+   * @param blockSize the number of items to provide.
+   * @return the items of the next block.
+   */
+  protected List<T_ITEM> getItemsAfter(T_ITEM lastItem, long startIdx, int blockSize) {
+    return getItems(startIdx, blockSize);
+  }
+
 //  protected abstract int getItemCount();
 
   /**
@@ -73,7 +89,9 @@ public abstract class PageQueryItemIteratorBase<T_ITEM> implements Iterator<T_IT
 
       if (doQuery) {
         pagePos = 0;
-        pageItems = getItems(idx, iteratorBlockSize);
+        pageItems = (pageItems == null)
+            ? getItems(idx, iteratorBlockSize)
+            : getItemsAfter(pageItems.get(pageItems.size()-1), idx, iteratorBlockSize);
         if (pageItems == null || pageItems.isEmpty()) {
           item = null;
           idx = -1;
@@ -258,6 +258,11 @@ public abstract class PageQuerySelectionHandler<T_ITEM, T_ID> extends SelectionH
         protected List<T_ITEM> getItems(long startIdx, int blockSize) {
           return getPageableQueryService().getItems(query, startIdx, blockSize);
         }
+
+        @Override
+        protected List<T_ITEM> getItemsAfter(T_ITEM lastItem, long startIdx, int blockSize) {
+          return PageableQueryUtil.getItemsAfter(getPageableQueryService(), query, lastItem, startIdx, blockSize);
+        }
       };
     }
 
@@ -0,0 +1,56 @@
+package org.pm4j.common.pageable.querybased.pagequery;
+
+import java.util.List;
+
+import org.pm4j.common.query.QueryParams;
+
+/**
+ * A {@link PageQueryService} that is able to provide the items before or after
+ * a known item position.
+ * <p>
+ * A backend can use the {@link PageKey} values in a seek condition instead of
+ * skipping the rows of the previous pages. Neighbour pages stay stable even if
+ * other items get inserted before the current page.
+ * <p>
+ * The {@link PageQueryCollection} uses it to move to the next or previous page.
+ * Jumps to other pages still use {@link #getItems(QueryParams, long, int)}.
+ *
+ * @param <T_BEAN>
+ *          the type of handled collection items.
+ * @param <T_ID>
+ *          the bean identifier type.
+ *
+ * @author olaf boede
+ */
+public interface SeekPageQueryService<T_BEAN, T_ID> extends PageQueryService<T_BEAN, T_ID> {
+
+  /**
+   * Provides the items that follow the given key position.
+   *
+   * @param query
+   *          the query to execute.
+   * @param key
+   *          the position of the last item of the previous page.
+   * @param pageSize
+   *          the number of items to provide.
+   * @return the items in query sort order. The last page may contain less
+   *         items than <code>pageSize</code>.
+   */
+  List<T_BEAN> getItemsAfter(QueryParams query, PageKey key, int pageSize);
+
+  /**
+   * Provides the items that precede the given key position.
+   *
+   * @param query
+   *          the query to execute.
+   * @param key
+   *          the position of the first item of the next page.
+   * @param pageSize
+   *          the number of items to provide.
+   * @return the <code>pageSize</code> items directly before the key in query
+   *         sort order. May contain less items if the key is near the begin of
+   *         the result.
+   */
+  List<T_BEAN> getItemsBefore(QueryParams query, PageKey key, int pageSize);
+
+}
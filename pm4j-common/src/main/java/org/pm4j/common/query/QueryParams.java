@@ -199,9 +199,14 @@ public class QueryParams extends PropertyChangeSupportedBase implements Cloneabl
     return execQuery;
   }
 
+  /**
+   * Creates a copy that does not share the base query parameter map with this
+   * instance. Observers are not copied.
+   */
   @Override
   public QueryParams clone() {
     QueryParams clone = (QueryParams) super.clone();
+    clone.baseQueryParams = new HashMap<String, Object>(baseQueryParams);
     return clone;
   }
 
@@ -176,6 +176,22 @@ public abstract class PageableCollectionTestBase<T> {
     assertEquals("Set page size event count", 1, pclPageSize.getPropChangeEventCount());
   }
 
+  @Test
+  public void testGetItemRangeDoesNotChangeThePage() {
+    collection.setPageIdx(1);
+    assertEquals("[b, c, d]", PageableCollectionUtil.getItems(collection, 1, 3).toString());
+    assertEquals("[f]", PageableCollectionUtil.getItems(collection, 5, 3).toString());
+    assertEquals("[]", PageableCollectionUtil.getItems(collection, 6, 3).toString());
+
+    collection.getModificationHandler().addItem(createItem("hi"));
+    assertEquals("Added items follow the other items.", "[e, f, hi]", PageableCollectionUtil.getItems(collection, 4, 5).toString());
+
+    assertEquals(1, collection.getPageIdx());
+    assertEquals(2, collection.getPageSize());
+    assertEquals("[c, d]", collection.getItemsOnPage().toString());
+    assertEquals("Set page index event count", 1, pclPageIdx.getPropChangeEventCount());
+  }
+
   @Test
   public void testSortItems() {
     assertEquals("Initial (unsorted) sort order", "[a, b, c, d, e, f]", IterableUtil.shallowCopy(collection).toString());
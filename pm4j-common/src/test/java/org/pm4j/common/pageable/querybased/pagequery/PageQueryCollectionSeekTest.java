@@ -0,0 +1,258 @@
+package org.pm4j.common.pageable.querybased.pagequery;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.common.pageable.PageableCollectionTestBase.Bean;
+import org.pm4j.common.query.QueryAttr;
+import org.pm4j.common.query.QueryOptions;
+import org.pm4j.common.query.QueryParams;
+import org.pm4j.common.query.SortOrder;
+import org.pm4j.common.selection.SelectMode;
+import org.pm4j.common.selection.Selection;
+import org.pm4j.common.util.CompareUtil;
+import org.pm4j.common.util.collection.IterableUtil;
+
+/**
+ * Tests the {@link SeekPageQueryService} support of the {@link PageQueryCollection}.
+ *
+ * @author olaf boede
+ */
+public class PageQueryCollectionSeekTest {
+
+  private SeekTestService service = new SeekTestService();
+  private PageQueryCollection<Bean, Integer> collection;
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 25; ++i) {
+      service.beans.add(new Bean(i, String.format("b%02d", i)));
+    }
+
+    QueryOptions options = new QueryOptions();
+    options.addSortOrder(Bean.ATTR_NAME);
+    options.setIdAttribute(Bean.ATTR_ID);
+
+    collection = new PageQueryCollection<Bean, Integer>(service, options);
+    collection.setPageSize(10);
+    collection.getQueryParams().setSortOrder(options.getSortOrder(Bean.ATTR_NAME.getName()));
+  }
+
+  @Test
+  public void testNeighbourPagesUseSeekRequests() {
+    assertEquals("[b00, b01, b02, b03, b04, b05, b06, b07, b08, b09]", collection.getItemsOnPage().toString());
+    collection.setPageIdx(1);
+    assertEquals("[b10, b11, b12, b13, b14, b15, b16, b17, b18, b19]", collection.getItemsOnPage().toString());
+    collection.setPageIdx(2);
+    assertEquals("[b20, b21, b22, b23, b24]", collection.getItemsOnPage().toString());
+    collection.setPageIdx(1);
+    assertEquals("[b10, b11, b12, b13, b14, b15, b16, b17, b18, b19]", collection.getItemsOnPage().toString());
+
+    assertEquals("[offset 0, after [b09] id=9, after [b19] id=19, before [b20] id=20]", service.calls.toString());
+    assertSame("The id attribute is passed as tiebreaker.", Bean.ATTR_ID, service.lastKey.getIdAttr());
+  }
+
+  @Test
+  public void testRandomJumpsUseTheOffset() {
+    collection.getItemsOnPage();
+    collection.setPageIdx(2);
+    collection.getItemsOnPage();
+
+    assertEquals("[offset 0, offset 20]", service.calls.toString());
+  }
+
+  @Test
+  public void testNextPageIsStableUnderInserts() {
+    collection.getItemsOnPage();
+    service.beans.add(new Bean(100, "a00"));
+
+    collection.setPageIdx(1);
+    assertEquals("[b10, b11, b12, b13, b14, b15, b16, b17, b18, b19]", collection.getItemsOnPage().toString());
+  }
+
+  @Test
+  public void testIdIsTiebreakerForEqualSortValues() {
+    service.beans.clear();
+    for (int i = 0; i < 25; ++i) {
+      service.beans.add(new Bean(i, "x"));
+    }
+    collection.clearCaches();
+
+    List<Integer> ids = new ArrayList<Integer>();
+    for (int pageIdx = 0; pageIdx < 3; ++pageIdx) {
+      collection.setPageIdx(pageIdx);
+      for (Bean b : collection.getItemsOnPage()) {
+        ids.add(b.getId());
+      }
+    }
+
+    assertEquals(25, ids.size());
+    assertEquals(Integer.valueOf(24), ids.get(24));
+    assertEquals("[offset 0, after [x] id=9, after [x] id=19]", service.calls.toString());
+  }
+
+  @Test
+  public void testSortOrderChangeResetsTheSeekAnchor() {
+    collection.getItemsOnPage();
+    collection.getQueryParams().setSortOrder(collection.getQueryParams().getSortOrder().getReverseSortOrder());
+    collection.setPageIdx(1);
+
+    assertEquals("[b14, b13, b12, b11, b10, b09, b08, b07, b06, b05]", collection.getItemsOnPage().toString());
+    assertEquals("[offset 0, offset 10]", service.calls.toString());
+  }
+
+  @Test
+  public void testSelectionIteratorUsesSeekRequests() {
+    PageQueryAllItemsSelection<Bean, Integer> selection = new PageQueryAllItemsSelection<Bean, Integer>(service, collection.getQueryParams());
+    selection.setIteratorBlockSizeHint(10);
+
+    assertEquals(25, IterableUtil.asCollection(selection).size());
+    assertEquals("The iterator stops after the first empty block.",
+        "[offset 0, after [b09] id=9, after [b19] id=19, after [b24] id=24]", service.calls.toString());
+  }
+
+  @Test
+  public void testCollectionSelectionIteratorUsesSeekRequests() {
+    collection.getSelectionHandler().setSelectMode(SelectMode.MULTI);
+    collection.getSelectionHandler().selectAll(true);
+    Selection<Bean> selection = collection.getSelection();
+    selection.setIteratorBlockSizeHint(10);
+
+    assertEquals(25, IterableUtil.asCollection(selection).size());
+    assertEquals("[offset 0, after [b09] id=9, after [b19] id=19, after [b24] id=24]", service.calls.toString());
+    assertSame("The id attribute is passed as tiebreaker.", Bean.ATTR_ID, service.lastKey.getIdAttr());
+  }
+
+  @Test
+  public void testSortAttributeThatIsNoBeanPathLeadsToOffsetRequests() {
+    SeekTestService dbService = new SeekTestService() {
+      /** Simulates a backend that sorts by a column that is not visible as bean attribute. */
+      @Override
+      public List<Bean> getItems(QueryParams query, long startIdx, int pageSize) {
+        calls.add("offset " + startIdx);
+        return new ArrayList<Bean>(beans.subList((int)startIdx, Math.min((int)startIdx + pageSize, beans.size())));
+      }
+    };
+    dbService.beans.addAll(service.beans);
+    QueryOptions options = new QueryOptions();
+    options.addSortOrder(new QueryAttr("NAME_COLUMN", String.class));
+    collection = new PageQueryCollection<Bean, Integer>(dbService, options);
+    collection.setPageSize(10);
+    collection.getQueryParams().setSortOrder(options.getSortOrder("NAME_COLUMN"));
+
+    collection.getItemsOnPage();
+    collection.setPageIdx(1);
+    assertEquals("[b10, b11, b12, b13, b14, b15, b16, b17, b18, b19]", collection.getItemsOnPage().toString());
+    collection.setPageIdx(2);
+    assertEquals("[b20, b21, b22, b23, b24]", collection.getItemsOnPage().toString());
+    assertEquals("[offset 0, offset 10, offset 20]", dbService.calls.toString());
+
+    dbService.calls.clear();
+    PageQueryAllItemsSelection<Bean, Integer> selection = new PageQueryAllItemsSelection<Bean, Integer>(dbService, collection.getQueryParams());
+    selection.setIteratorBlockSizeHint(10);
+    assertEquals(25, IterableUtil.asCollection(selection).size());
+    assertEquals("[offset 0, offset 10, offset 20, offset 25]", dbService.calls.toString());
+  }
+
+  /** An in-memory service that records the kind of each page request. */
+  static class SeekTestService implements SeekPageQueryService<Bean, Integer> {
+    final List<Bean> beans = new ArrayList<Bean>();
+    final List<String> calls = new ArrayList<String>();
+    PageKey lastKey;
+
+    @Override
+    public List<Bean> getItems(QueryParams query, long startIdx, int pageSize) {
+      calls.add("offset " + startIdx);
+      return subList(getQueryResult(query), (int)startIdx, pageSize);
+    }
+
+    @Override
+    public List<Bean> getItemsAfter(QueryParams query, PageKey key, int pageSize) {
+      calls.add("after " + key);
+      lastKey = key;
+      List<Bean> result = getQueryResult(query);
+      int idx = 0;
+      while (idx < result.size() && compareToKey(result.get(idx), key) <= 0) {
+        ++idx;
+      }
+      return subList(result, idx, pageSize);
+    }
+
+    @Override
+    public List<Bean> getItemsBefore(QueryParams query, PageKey key, int pageSize) {
+      calls.add("before " + key);
+      lastKey = key;
+      List<Bean> result = getQueryResult(query);
+      int idx = 0;
+      while (idx < result.size() && compareToKey(result.get(idx), key) < 0) {
+        ++idx;
+      }
+      int startIdx = Math.max(0, idx - pageSize);
+      return subList(result, startIdx, idx - startIdx);
+    }
+
+    @Override
+    public long getItemCount(QueryParams query) {
+      return beans.size();
+    }
+
+    @Override
+    public Integer getIdForItem(Bean item) {
+      return item.getId();
+    }
+
+    @Override
+    public Bean getItemForId(Integer id) {
+      for (Bean b : beans) {
+        if (b.getId().equals(id)) {
+          return b;
+        }
+      }
+      return null;
+    }
+
+    private List<Bean> subList(List<Bean> list, int startIdx, int size) {
+      int endIdx = Math.min(startIdx + size, list.size());
+      return (startIdx < endIdx)
+          ? new ArrayList<Bean>(list.subList(startIdx, endIdx))
+          : new ArrayList<Bean>();
+    }
+
+    private List<Bean> getQueryResult(final QueryParams query) {
+      List<Bean> result = new ArrayList<Bean>(beans);
+      Collections.sort(result, new Comparator<Bean>() {
+        @Override
+        public int compare(Bean o1, Bean o2) {
+          return compareToKey(o1, makeKey(query, o2));
+        }
+      });
+      return result;
+    }
+
+    private PageKey makeKey(QueryParams query, Bean b) {
+      return PageKey.makeForItem(query.getEffectiveSortOrder(), null, b, b.getId());
+    }
+
+    /** Compares the sort values and the id in the sequence of the key sort order. */
+    @SuppressWarnings("unchecked")
+    private int compareToKey(Bean b, PageKey key) {
+      PageKey itemKey = PageKey.makeForItem(key.getSortOrder(), null, b, b.getId());
+      SortOrder so = key.getSortOrder();
+      for (int i = 0; i < key.getSortValues().size(); ++i, so = so.getNextSortOrder()) {
+        int c = CompareUtil.compare((Comparable<Object>)itemKey.getSortValues().get(i), (Comparable<Object>)key.getSortValues().get(i));
+        if (c != 0) {
+          return so.isAscending() ? c : -c;
+        }
+      }
+      return b.getId().compareTo((Integer)key.getId());
+    }
+  }
+
+}
@@ -50,6 +50,20 @@ public abstract class PbFactoryBase<VIEW, PARENT_VIEW_CTXT, PM extends PmObject>
 
   public int boomerangEventExcludeMask = PmEvent.VALUE_CHANGE;
 
+  /**
+   * The scheduler used by new factory instances to apply coalesced PM events.
+   * <p>
+   * The default is <code>null</code>: Each PM event gets applied immediately.
+   */
+  private static PbUiScheduler defaultEventCoalescingScheduler;
+
+  /**
+   * If set, the bindings of this factory coalesce the PM events. The change
+   * masks of the events get accumulated per binding. The binding applies them
+   * once within the scheduled task.
+   */
+  private PbUiScheduler eventCoalescingScheduler = defaultEventCoalescingScheduler;
+
   /**
    * Associates a view to its current PM binding.
    * <p>
@@ -166,6 +180,41 @@ public abstract class PbFactoryBase<VIEW, PARENT_VIEW_CTXT, PM extends PmObject>
     return viewToBindingMap.get(view);
   }
 
+  /**
+   * @return The scheduler used to apply coalesced PM events. <code>null</code> if
+   *         each event gets applied immediately.
+   */
+  public PbUiScheduler getEventCoalescingScheduler() {
+    return eventCoalescingScheduler;
+  }
+
+  /**
+   * Switches the PM event coalescing for the bindings of this factory on or off.
+   * <p>
+   * In coalescing mode, the change masks of all PM events a binding receives get
+   * accumulated till the scheduled task applies them. A PM operation that fires
+   * many events for the same PM causes only a single view update.
+   *
+   * @param eventCoalescingScheduler
+   *          The scheduler that applies the accumulated changes within the UI
+   *          thread. <code>null</code> switches the coalescing off.
+   */
+  public void setEventCoalescingScheduler(PbUiScheduler eventCoalescingScheduler) {
+    this.eventCoalescingScheduler = eventCoalescingScheduler;
+  }
+
+  /**
+   * Defines the event coalescing scheduler for factories that will be created
+   * afterwards.
+   *
+   * @param scheduler
+   *          The scheduler. <code>null</code> switches the coalescing off.
+   * @see #setEventCoalescingScheduler(PbUiScheduler)
+   */
+  public static void setDefaultEventCoalescingScheduler(PbUiScheduler scheduler) {
+    defaultEventCoalescingScheduler = scheduler;
+  }
+
   /**
    * Finds the PM that is bound to a view.
    *
@@ -236,8 +285,25 @@ public abstract class PbFactoryBase<VIEW, PARENT_VIEW_CTXT, PM extends PmObject>
      */
     private PmEventListener[] pmListenerArray;
 
+    /** The accumulated change mask of the events that are not yet applied in coalescing mode. */
+    private int pendingChangeMask;
+
+    /** The latest event that is not yet applied in coalescing mode. */
+    private PmEvent pendingEvent;
+
+    /** Applies the pending events. */
+    private final Runnable flushTask = new Runnable() {
+      @Override
+      public void run() {
+        flushPendingEvents();
+      }
+    };
+
     /**
      * Handles presentation model events.
+     * <p>
+     * In event coalescing mode the change mask gets only recorded. The
+     * on-methods get called later by the scheduled flush task.
      */
     @Override
     public void handleEvent(PmEvent event) {
@@ -251,7 +317,43 @@ public abstract class PbFactoryBase<VIEW, PARENT_VIEW_CTXT, PM extends PmObject>
         changeMask &= (PmEvent.ALL ^ boomerangEventExcludeMask);
       }
 
-      dispatchToOnEventMethodCalls(event, changeMask);
+      PbUiScheduler scheduler = eventCoalescingScheduler;
+      if (scheduler == null) {
+        dispatchToOnEventMethodCalls(event, changeMask);
+        return;
+      }
+
+      if (changeMask != 0) {
+        boolean flushScheduled;
+        synchronized (this) {
+          flushScheduled = (pendingChangeMask != 0);
+          pendingChangeMask |= changeMask;
+          pendingEvent = event;
+        }
+        if (!flushScheduled) {
+          scheduler.schedule(flushTask);
+        }
+      }
+    }
+
+    /**
+     * Applies the changes that were accumulated in event coalescing mode.<br>
+     * The on-methods get called once with the combined change mask. The
+     * latest received event is passed to them.
+     */
+    public void flushPendingEvents() {
+      int changeMask;
+      PmEvent event;
+      synchronized (this) {
+        changeMask = pendingChangeMask;
+        event = pendingEvent;
+        pendingChangeMask = 0;
+        pendingEvent = null;
+      }
+
+      if (changeMask != 0 && pm != null) {
+        dispatchToOnEventMethodCalls(event, changeMask);
+      }
     }
 
     protected void onPmStyleClassChange(PmEvent event) {
@@ -265,7 +367,18 @@ public abstract class PbFactoryBase<VIEW, PARENT_VIEW_CTXT, PM extends PmObject>
      */
     @Override
     public void applyPmState() {
-      handleEvent(new PmEvent(this, pm, PmEvent.ALL_CHANGE_EVENTS));
+      PmEvent event = new PmEvent(this, pm, PmEvent.ALL_CHANGE_EVENTS);
+      if (eventCoalescingScheduler == null) {
+        handleEvent(event);
+      }
+      else {
+        // The complete state gets applied immediately. It covers the pending changes.
+        synchronized (this) {
+          pendingChangeMask = 0;
+          pendingEvent = null;
+        }
+        dispatchToOnEventMethodCalls(event, event.getChangeMask());
+      }
     }
 
     /**
@@ -292,6 +405,10 @@ public abstract class PbFactoryBase<VIEW, PARENT_VIEW_CTXT, PM extends PmObject>
 
     @Override
     public void unbind() {
+      synchronized (this) {
+        pendingChangeMask = 0;
+        pendingEvent = null;
+      }
       PmEventApi.removePmEventListener(pm, this);
       if (pmListenerArray != null) {
         for (PmEventListener l : pmListenerArray) {
@@ -10,6 +10,19 @@ import org.pm4j.core.pm.PmObject;
  */
 public abstract class PbMatcher {
 
+  /**
+   * Describes the information a {@link PbMatcher} result depends on.<br>
+   * Allows to cache the match results.
+   */
+  public enum MatchScope {
+    /** The match depends only on the PM class. */
+    PM_CLASS,
+    /** The match depends only on the PM class and its meta data (the static PM definition). */
+    PM_METADATA,
+    /** The match depends on the runtime state of the PM instance. Can't be cached. */
+    PM_INSTANCE
+  }
+
   /**
    * Finds the {@link PbFactory} mapped for the given PM.
    *
@@ -33,4 +46,18 @@ public abstract class PbMatcher {
     return f;
   }
 
+  /**
+   * Defines which information the result of {@link #findPbFactory(PmObject)}
+   * depends on.
+   * <p>
+   * The default implementation returns {@link MatchScope#PM_INSTANCE}. That
+   * prevents caching of the match results. Matchers that rely on fix PM
+   * definitions should return a more specific scope.
+   *
+   * @return The scope of the match result.
+   */
+  public MatchScope getMatchScope() {
+    return MatchScope.PM_INSTANCE;
+  }
+
 }
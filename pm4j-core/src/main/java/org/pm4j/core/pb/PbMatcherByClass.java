@@ -31,4 +31,9 @@ public class PbMatcherByClass extends PbMatcher {
     return null;
   }
 
+  @Override
+  public MatchScope getMatchScope() {
+    return MatchScope.PM_CLASS;
+  }
+
 }
@@ -36,4 +36,10 @@ public class PbMatcherByName extends PbMatcher {
             : null;
   }
 
+  /** The absolute name is part of the PM meta data. */
+  @Override
+  public MatchScope getMatchScope() {
+    return MatchScope.PM_METADATA;
+  }
+
 }
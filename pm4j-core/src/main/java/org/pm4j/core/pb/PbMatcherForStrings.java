@@ -32,4 +32,10 @@ public class PbMatcherForStrings extends PbMatcher {
     return null;
   }
 
+  /** The multi line property is part of the PM meta data. */
+  @Override
+  public MatchScope getMatchScope() {
+    return MatchScope.PM_METADATA;
+  }
+
 }
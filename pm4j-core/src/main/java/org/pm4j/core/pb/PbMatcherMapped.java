@@ -1,11 +1,15 @@
 package org.pm4j.core.pb;
 
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.pm4j.common.util.collection.MapUtil;
 import org.pm4j.core.exception.PmRuntimeException;
@@ -14,16 +18,29 @@ import org.pm4j.core.pm.impl.PmUtil;
 
 /**
  * A set of {@link PmObject} to {@link PbMatcher} associations.
+ * <p>
+ * The matchers of this instance and of its parent matcher cascade are merged into
+ * a single lookup table. The table caches the match results per PM class and PM
+ * meta data (see {@link PbMatcher#getMatchScope()}). Matchers that depend on the
+ * runtime state of a PM get evaluated for each request.<br>
+ * The table gets re-created when matchers are added.
  *
  * @author olaf boede
  */
 public class PbMatcherMapped extends PbMatcher {
 
-  private Deque<PbMatcher> matcherSet = new LinkedList<PbMatcher>();
+  /**
+   * Gets incremented on each matcher configuration change of any instance.
+   * Makes sure that changes of parent matchers are considered by the lookup
+   * tables of their children.
+   */
+  private static final AtomicLong configVersion = new AtomicLong();
+
+  private List<PbMatcher> matcherSet = new CopyOnWriteArrayList<PbMatcher>();
   private PbFactory<?> defaultFactory;
 
-  /** Cache for the already found matches.  */
-  private BinderCache binderCache = new NoBinderCache();
+  /** The merged matchers of the cascade with the cached results. */
+  private volatile LookupTable lookupTable;
 
   /**
    * An optional reference to a parent that may be configured in case of a matcher cascade.
@@ -49,6 +66,7 @@ public class PbMatcherMapped extends PbMatcher {
    */
   public void setParentMatcher(PbMatcher parentMatcher) {
     this.parentMatcher = parentMatcher;
+    configVersion.incrementAndGet();
   }
 
   public PbFactory<?> getPbFactory(PmObject pm) {
@@ -67,46 +85,14 @@ public class PbMatcherMapped extends PbMatcher {
       return null;
     }
 
-    String pmName = PmUtil.getAbsoluteName(pm);
-    PbFactory<?> b = binderCache.find(pmName);
-
-    // Check if the PM has a subclass of a mapped class or interface.
-    if ((b == null) &&
-        (! binderCache.isUnmatched(pmName))) {
-      synchronized (this) {
-        // synchronization double check:
-        if (! binderCache.isUnmatched(pmName)) {
-          for (PbMatcher m : matcherSet) {
-            b = m.findPbFactory(pm);
-            if (b != null) {
-              binderCache.registerMatch(pmName, b);
-              break;
-            }
-          }
-
-          if (b == null) {
-            binderCache.registerUnmatched(pmName);
-          }
-        }
-        // synchronized double check looser: should find the binding mapped by
-        // the winner...
-        else {
-          b = binderCache.find(pmName);
-        }
-      }
-    }
-
-    if (b == null && parentMatcher != null) {
-      b = parentMatcher.findPbFactory(pm);
-    }
-
-    return b;
+    return getLookupTable().findPbFactory(pm);
   }
 
   public PbMatcherMapped addMatcher(PbMatcher... matchers) {
     for (PbMatcher m : matchers) {
-      matcherSet.addLast(m);
+      matcherSet.add(m);
     }
+    configVersion.incrementAndGet();
 
     return this;
   }
@@ -149,68 +135,155 @@ public class PbMatcherMapped extends PbMatcher {
     return this;
 	}
 
-	/**
-	 * Interface for internal binder association cache stragegies.
-	 * <p>
-	 * These caches should prevent permanent iteration over all binder mappings
-	 * for each new PM display operation.
-	 */
-  interface BinderCache {
-    PbFactory<?> find(String name);
-    boolean isUnmatched(String name);
-    void registerMatch(String name, PbFactory<?> binder);
-    void registerUnmatched(String name);
-	}
+  public void setDefaultFactory(PbFactory<?> defaultFactory) {
+    this.defaultFactory = defaultFactory;
+  }
 
-	static class NoBinderCache implements BinderCache {
-    @Override public PbFactory<?> find(String name) {
-      return null;
+  /**
+   * Provides the lookup table for the current matcher configuration.
+   */
+  private LookupTable getLookupTable() {
+    LookupTable t = lookupTable;
+    long version = configVersion.get();
+    if (t == null || t.version != version) {
+      List<PbMatcher> matchers = new ArrayList<PbMatcher>();
+      collectMatchers(matchers, Collections.newSetFromMap(new IdentityHashMap<PbMatcher, Boolean>()));
+      t = new LookupTable(version, matchers);
+      lookupTable = t;
     }
-    @Override public boolean isUnmatched(String name) {
-      return false;
+    return t;
+  }
+
+  /**
+   * Adds the matchers of this instance and of the parent cascade in their
+   * evaluation order. Nested {@link PbMatcherMapped} instances get merged too.
+   */
+  private void collectMatchers(List<PbMatcher> matchers, Set<PbMatcher> visited) {
+    if (!visited.add(this)) {
+      return;
     }
-    @Override public void registerMatch(String name, PbFactory<?> binder) {}
-    @Override public void registerUnmatched(String name) {}
-	}
+    for (PbMatcher m : matcherSet) {
+      addMatcherTo(m, matchers, visited);
+    }
+    if (parentMatcher != null) {
+      addMatcherTo(parentMatcher, matchers, visited);
+    }
+  }
+
+  private static void addMatcherTo(PbMatcher m, List<PbMatcher> matchers, Set<PbMatcher> visited) {
+    if (m instanceof PbMatcherMapped) {
+      ((PbMatcherMapped)m).collectMatchers(matchers, visited);
+    }
+    else {
+      matchers.add(m);
+    }
+  }
 
   /**
-   * Caches the binder instances using the full name of the PM as key.
-   * <p>
-   * <b>TODO olaf: Does not yet work reliable:</b>
-   * <ul>
-   *   <li>It has to consider matcher instances that do not rely on fix metadata only.
-   *       In this case the same PM may be associated with different binders, depending
-   *       on runtime-data...<br>
-   *       Such PMs have to be excluded from the cache....
-   *       </li>
-   *   <li>The cache has to ensure the the same evaluation order as the uncached implementation.
-   *       To ensure this, the cache has to know about the evaluation order position of each
-   *       mapping.</li>
-   * </ul>
+   * The merged matcher list of a matcher cascade.<br>
+   * Caches the result for each PM class and meta data combination.
    */
-	static class BinderCacheByName implements BinderCache {
-    private Map<String, PbFactory<?>> pmNameToBinderMap = new HashMap<String, PbFactory<?>>();
-    private Set<String> notMappedNames = new HashSet<String>();
+  private static final class LookupTable {
+    final long version;
+    final PbMatcher[] matchers;
+    final ConcurrentMap<MatchKey, Match> keyToMatchMap = new ConcurrentHashMap<MatchKey, Match>();
 
-    @Override public PbFactory<?> find(String name) {
-      return pmNameToBinderMap.get(name);
+    LookupTable(long version, List<PbMatcher> matchers) {
+      this.version = version;
+      this.matchers = matchers.toArray(new PbMatcher[matchers.size()]);
     }
 
-    @Override public boolean isUnmatched(String name) {
-      return notMappedNames.contains(name);
+    PbFactory<?> findPbFactory(PmObject pm) {
+      MatchKey key = new MatchKey(pm.getClass(), PmUtil.getPmMetaDataIdentity(pm));
+      Match match = keyToMatchMap.get(key);
+      if (match == null) {
+        match = makeMatch(pm, key.metaData != null);
+        // Parallel misses provide equivalent results.
+        keyToMatchMap.put(key, match);
+      }
+      return match.findPbFactory(pm);
     }
 
-    @Override public void registerMatch(String name, PbFactory<?> binder) {
-      pmNameToBinderMap.put(name, binder);
+    /**
+     * Evaluates the cacheable matchers for the given PM. Stops at the first
+     * cacheable match. The not cacheable matchers in front of it are kept
+     * for evaluation on each request.
+     */
+    private Match makeMatch(PmObject pm, boolean hasMetaData) {
+      List<PbMatcher> instanceMatchers = null;
+      for (PbMatcher m : matchers) {
+        MatchScope scope = m.getMatchScope();
+        if (scope == MatchScope.PM_CLASS ||
+            (scope == MatchScope.PM_METADATA && hasMetaData)) {
+          PbFactory<?> f = m.findPbFactory(pm);
+          if (f != null) {
+            return new Match(instanceMatchers, f);
+          }
+        }
+        else {
+          if (instanceMatchers == null) {
+            instanceMatchers = new ArrayList<PbMatcher>();
+          }
+          instanceMatchers.add(m);
+        }
+      }
+      return (instanceMatchers != null)
+          ? new Match(instanceMatchers, null)
+          : Match.NO_MATCH;
     }
+  }
+
+  /** The cached match result for a PM class and meta data combination. */
+  private static final class Match {
+    static final PbMatcher[] NO_MATCHERS = {};
+    static final Match NO_MATCH = new Match(null, null);
 
-    @Override public void registerUnmatched(String name) {
-      notMappedNames.add(name);
+    /** The matchers to evaluate for each request before the cached result can be provided. */
+    final PbMatcher[] instanceMatchers;
+    /** The result of the first matching cacheable matcher. */
+    final PbFactory<?> factory;
+
+    Match(List<PbMatcher> instanceMatchers, PbFactory<?> factory) {
+      this.instanceMatchers = (instanceMatchers != null)
+          ? instanceMatchers.toArray(new PbMatcher[instanceMatchers.size()])
+          : NO_MATCHERS;
+      this.factory = factory;
+    }
+
+    PbFactory<?> findPbFactory(PmObject pm) {
+      for (PbMatcher m : instanceMatchers) {
+        PbFactory<?> f = m.findPbFactory(pm);
+        if (f != null) {
+          return f;
+        }
+      }
+      return factory;
     }
   }
 
-  public void setDefaultFactory(PbFactory<?> defaultFactory) {
-    this.defaultFactory = defaultFactory;
+  /** Identifies a PM class and meta data combination. The meta data is compared by identity. */
+  private static final class MatchKey {
+    final Class<?> pmClass;
+    final Object metaData;
+
+    MatchKey(Class<?> pmClass, Object metaData) {
+      this.pmClass = pmClass;
+      this.metaData = metaData;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof MatchKey)) {
+        return false;
+      }
+      MatchKey other = (MatchKey) obj;
+      return pmClass == other.pmClass && metaData == other.metaData;
+    }
+
+    @Override
+    public int hashCode() {
+      return pmClass.hashCode() * 31 + System.identityHashCode(metaData);
+    }
   }
 
 }
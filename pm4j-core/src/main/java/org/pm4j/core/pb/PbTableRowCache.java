@@ -0,0 +1,356 @@
+package org.pm4j.core.pb;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.pm4j.common.pageable.PageableCollection;
+import org.pm4j.common.pageable.PageableCollectionUtil;
+import org.pm4j.common.query.QueryParams;
+import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEvent.ValueChangeKind;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmTable;
+import org.pm4j.core.pm.PmTableCol;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.core.pm.impl.pageable.PmBeanCollection;
+
+/**
+ * Provides the rows of a {@link PmTable} block by block for virtual table
+ * views. It does not depend on a UI technology.
+ * <p>
+ * Only the row PMs of the requested blocks get created. Each block is read as
+ * an item range of the table's {@link PageableCollection} (see
+ * {@link PmBeanCollection#getItems(long, int)}). The page size and the current
+ * page of the table are not changed. This cache keeps only the row PMs of the
+ * least recently used blocks. The PMs of released blocks get removed from the
+ * PM cache of the table if they are not modified.<br>
+ * If a requested row is near to a block border, the neighbour block gets
+ * loaded as well.
+ * <p>
+ * Changes of row PMs are reported as row changes to the {@link ChangeListener}.
+ * Sort order and filter changes of the table {@link QueryParams}, added or
+ * removed items, as well as value changes of the table, reset the cache.
+ * <p>
+ * The cells of a row are the row attributes that have the same name as the
+ * corresponding column.
+ *
+ * @author olaf boede
+ */
+public class PbTableRowCache {
+
+  /** The default number of rows to load with a single collection query. */
+  public static final int DEFAULT_BLOCK_SIZE = 50;
+
+  /** The default number of blocks to keep. */
+  public static final int DEFAULT_MAX_CACHED_BLOCKS = 8;
+
+  /**
+   * Gets informed about row changes.
+   */
+  public interface ChangeListener {
+
+    /**
+     * All rows and the number of rows may be changed.
+     */
+    void onRowsReset();
+
+    /**
+     * A row PM or one of its cells was changed.
+     *
+     * @param rowIdx The row index within the complete table.
+     * @param rowPm The changed row.
+     * @param columnIdx The changed column. <code>-1</code> if the column is not known.
+     */
+    void onRowChanged(int rowIdx, PmObject rowPm, int columnIdx);
+  }
+
+  private final PmTable<?> pmTable;
+  private final int blockSize;
+  private final int maxCachedBlocks;
+  private final ChangeListener changeListener;
+
+  private final List<PmTableCol> columns;
+  private int rowCount = -1;
+
+  /** The cached blocks in least recently used order. */
+  private final Map<Long, List<PmObject>> blockIdxToRowsMap = new LinkedHashMap<Long, List<PmObject>>(16, 0.75f, true);
+  /** The row index of each row PM within the cached blocks. */
+  private final Map<PmObject, Integer> rowPmToIdxMap = new IdentityHashMap<PmObject, Integer>();
+
+  private PageableCollection<?> observedCollection;
+  private int blockLoadCount;
+
+  private final PmEventListener pmTableListener = new PmEventListener() {
+    @Override
+    public void handleEvent(PmEvent event) {
+      onPmTableEvent(event);
+    }
+  };
+
+  private final PropertyChangeListener collectionChangeListener = new PropertyChangeListener() {
+    @Override
+    public void propertyChange(PropertyChangeEvent evt) {
+      if (PageableCollection.EVENT_ITEM_UPDATE.equals(evt.getPropertyName())) {
+        // Row PM changes are reported by the PM events of the rows.
+        Integer row = rowPmToIdxMap.get(evt.getNewValue());
+        if (row != null) {
+          changeListener.onRowChanged(row, (PmObject) evt.getNewValue(), -1);
+        }
+      }
+      else {
+        // Added or removed items. The row positions may be changed.
+        reset();
+      }
+    }
+  };
+
+  /**
+   * @param pmTable
+   *          The table to provide the rows for.
+   * @param blockSize
+   *          The number of rows to load with a single collection query.
+   * @param maxCachedBlocks
+   *          The number of row blocks to keep. Should cover at least two times
+   *          the visible rows.
+   * @param changeListener
+   *          Gets informed about row changes.
+   */
+  public PbTableRowCache(PmTable<?> pmTable, int blockSize, int maxCachedBlocks, ChangeListener changeListener) {
+    this.pmTable = pmTable;
+    this.blockSize = blockSize;
+    this.maxCachedBlocks = Math.max(2, maxCachedBlocks);
+    this.changeListener = changeListener;
+    this.columns = pmTable.getColumnPms();
+    PmEventApi.addWeakHierarchyListener(pmTable, PmEvent.ALL_CHANGE_EVENTS, pmTableListener);
+    observeCollection(pmTable.getPmPageableCollection());
+  }
+
+  /**
+   * @return The number of rows of the complete table.
+   */
+  public int getRowCount() {
+    if (rowCount < 0) {
+      rowCount = (int) Math.min(Integer.MAX_VALUE, pmTable.getPmPageableCollection().getNumOfItems());
+    }
+    return rowCount;
+  }
+
+  /**
+   * @return The columns of the table.
+   */
+  public List<PmTableCol> getColumns() {
+    return columns;
+  }
+
+  /**
+   * Provides the PM of a row. Loads the block of the row if it is not yet
+   * cached.
+   *
+   * @param rowIdx The index of the row within the complete table.
+   * @return The row PM. <code>null</code> if there is no row for the given index.
+   */
+  public PmObject getRowPm(int rowIdx) {
+    if (rowIdx < 0 || rowIdx >= getRowCount()) {
+      return null;
+    }
+
+    long blockIdx = rowIdx / blockSize;
+    int idxInBlock = rowIdx % blockSize;
+    List<PmObject> rows = getBlock(blockIdx);
+
+    // prefetch the neighbour block if the row is near to the block border.
+    int prefetchDistance = Math.max(1, blockSize / 4);
+    if (idxInBlock < prefetchDistance && blockIdx > 0) {
+      prefetchBlock(blockIdx - 1);
+    }
+    else if (idxInBlock >= blockSize - prefetchDistance && (blockIdx + 1) * blockSize < getRowCount()) {
+      prefetchBlock(blockIdx + 1);
+    }
+
+    return idxInBlock < rows.size()
+        ? rows.get(idxInBlock)
+        : null;
+  }
+
+  /**
+   * Provides the PM of a table cell.
+   *
+   * @return The row attribute that has the name of the column. <code>null</code> if there is no such attribute.
+   */
+  public PmObject getCellPm(int rowIdx, int columnIdx) {
+    PmObject rowPm = getRowPm(rowIdx);
+    return rowPm != null
+        ? PmUtil.findChildPm(rowPm, columns.get(columnIdx).getPmName())
+        : null;
+  }
+
+  /**
+   * @param rowPm A row PM.
+   * @return The index of the row. <code>-1</code> if the row is not cached.
+   */
+  public int getRowIdx(PmObject rowPm) {
+    Integer idx = rowPmToIdxMap.get(rowPm);
+    return idx != null ? idx.intValue() : -1;
+  }
+
+  /**
+   * @return The number of currently cached row PMs.
+   */
+  public int getCachedRowCount() {
+    return rowPmToIdxMap.size();
+  }
+
+  /**
+   * @return The number of blocks loaded since the cache was created.
+   */
+  public int getBlockLoadCount() {
+    return blockLoadCount;
+  }
+
+  /**
+   * Discards the cached rows and the row count.<br>
+   * Informs the change listener if there was something cached.
+   */
+  public void reset() {
+    boolean hadRows = (rowCount >= 0) || !blockIdxToRowsMap.isEmpty();
+    rowCount = -1;
+    clearBlocks();
+    observeCollection(pmTable.getPmPageableCollection());
+    if (hadRows) {
+      changeListener.onRowsReset();
+    }
+  }
+
+  /**
+   * Removes the listeners that were registered by this cache.
+   */
+  public void dispose() {
+    PmEventApi.removePmEventListener(pmTable, pmTableListener);
+    observeCollection(null);
+    clearBlocks();
+  }
+
+  /**
+   * Handles the events of the table and its row PMs.
+   */
+  protected void onPmTableEvent(PmEvent event) {
+    if (event.pm == pmTable) {
+      // Sort order changes are already handled by the query parameter listener.
+      boolean valueChange = ((event.getChangeMask() & PmEvent.VALUE_CHANGE) != 0) &&
+                            (event.getValueChangeKind() != ValueChangeKind.SORT_ORDER);
+      if (valueChange || ((event.getChangeMask() & PmEvent.RELOAD) != 0)) {
+        reset();
+      }
+      return;
+    }
+
+    // Find the changed row and the changed cell.
+    PmObject cellPm = null;
+    for (PmObject p = event.pm; p != null && p != pmTable; p = p.getPmParent()) {
+      Integer row = rowPmToIdxMap.get(p);
+      if (row != null) {
+        int col = (cellPm != null) ? getColumnIdx(cellPm.getPmName()) : -1;
+        changeListener.onRowChanged(row, p, col);
+        return;
+      }
+      cellPm = p;
+    }
+  }
+
+  private int getColumnIdx(String name) {
+    for (int i = 0; i < columns.size(); ++i) {
+      if (columns.get(i).getPmName().equals(name)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private List<PmObject> getBlock(long blockIdx) {
+    List<PmObject> rows = blockIdxToRowsMap.get(blockIdx);
+    if (rows == null) {
+      rows = loadBlock(blockIdx);
+    }
+    return rows;
+  }
+
+  private void prefetchBlock(long blockIdx) {
+    if (!blockIdxToRowsMap.containsKey(blockIdx)) {
+      loadBlock(blockIdx);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<PmObject> loadBlock(long blockIdx) {
+    // Reads the block as an item range. The paging state of the table stays untouched.
+    PageableCollection<?> pc = pmTable.getPmPageableCollection();
+    long startIdx = blockIdx * blockSize;
+    List<PmObject> rows = new ArrayList<PmObject>();
+    if (pc instanceof PmBeanCollection) {
+      rows.addAll(((PmBeanCollection<?, ?>) pc).getItems(startIdx, blockSize));
+    }
+    else {
+      rows.addAll(PageableCollectionUtil.getItems((PageableCollection<PmObject>) pc, startIdx, blockSize));
+    }
+    ++blockLoadCount;
+
+    // release the least recently used blocks.
+    while (blockIdxToRowsMap.size() >= maxCachedBlocks) {
+      Iterator<Map.Entry<Long, List<PmObject>>> it = blockIdxToRowsMap.entrySet().iterator();
+      List<PmObject> releasedRows = it.next().getValue();
+      for (PmObject rowPm : releasedRows) {
+        rowPmToIdxMap.remove(rowPm);
+      }
+      it.remove();
+      if (pc instanceof PmBeanCollection) {
+        ((PmBeanCollection<?, ?>) pc).releaseItems((List<PmBean<?>>) (List<?>) releasedRows);
+      }
+    }
+
+    blockIdxToRowsMap.put(blockIdx, rows);
+    int firstRow = (int) (blockIdx * blockSize);
+    for (int i = 0; i < rows.size(); ++i) {
+      rowPmToIdxMap.put(rows.get(i), firstRow + i);
+    }
+    return rows;
+  }
+
+  private void clearBlocks() {
+    blockIdxToRowsMap.clear();
+    rowPmToIdxMap.clear();
+  }
+
+  /**
+   * Observes the collection and its query parameters. Handles collection exchanges.
+   */
+  private void observeCollection(PageableCollection<?> pc) {
+    if (observedCollection == pc) {
+      return;
+    }
+    if (observedCollection != null) {
+      observedCollection.removePropertyChangeListener(PageableCollection.EVENT_ITEM_ADD, collectionChangeListener);
+      observedCollection.removePropertyChangeListener(PageableCollection.EVENT_ITEM_UPDATE, collectionChangeListener);
+      observedCollection.removePropertyChangeListener(PageableCollection.EVENT_REMOVE_SELECTION, collectionChangeListener);
+      observedCollection.getQueryParams().removePropertyChangeListener(QueryParams.PROP_EFFECTIVE_FILTER, collectionChangeListener);
+      observedCollection.getQueryParams().removePropertyChangeListener(QueryParams.PROP_EFFECTIVE_SORT_ORDER, collectionChangeListener);
+    }
+    observedCollection = pc;
+    if (pc != null) {
+      pc.addPropertyChangeListener(PageableCollection.EVENT_ITEM_ADD, collectionChangeListener);
+      pc.addPropertyChangeListener(PageableCollection.EVENT_ITEM_UPDATE, collectionChangeListener);
+      pc.addPropertyChangeListener(PageableCollection.EVENT_REMOVE_SELECTION, collectionChangeListener);
+      pc.getQueryParams().addPropertyChangeListener(QueryParams.PROP_EFFECTIVE_FILTER, collectionChangeListener);
+      pc.getQueryParams().addPropertyChangeListener(QueryParams.PROP_EFFECTIVE_SORT_ORDER, collectionChangeListener);
+    }
+  }
+
+}
@@ -0,0 +1,37 @@
+package org.pm4j.core.pb;
+
+/**
+ * Executes tasks within the UI thread of a view platform.
+ * <p>
+ * Used by the presentation bindings to apply coalesced PM events to the views
+ * (see {@link PbFactoryBase#setEventCoalescingScheduler(PbUiScheduler)}).<br>
+ * Platform specific implementations may use <code>SwingUtilities.invokeLater()</code>
+ * or the SWT <code>Display.asyncExec()</code>.
+ *
+ * @author olaf boede
+ */
+public interface PbUiScheduler {
+
+  /**
+   * Executes the task immediately within the calling thread.<br>
+   * Useful for tests that run without a UI thread.
+   */
+  PbUiScheduler SYNCHRONOUS = new PbUiScheduler() {
+    @Override
+    public void schedule(Runnable task) {
+      task.run();
+    }
+  };
+
+  /**
+   * Schedules the given task for execution within the UI thread.
+   * <p>
+   * Should return without executing the task if the caller is currently
+   * within a UI event handling. That allows to coalesce the PM events that are
+   * fired within this event handling.
+   *
+   * @param task The task to execute.
+   */
+  void schedule(Runnable task);
+
+}
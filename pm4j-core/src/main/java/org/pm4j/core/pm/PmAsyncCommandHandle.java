@@ -0,0 +1,83 @@
+package org.pm4j.core.pm;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Provides access to a command that gets executed asynchronously.
+ * <p>
+ * Only the <code>doItImpl()</code> logic of the command gets executed by a
+ * background thread. It runs without holding the lock of the conversation and
+ * should not modify the PM tree. The lock is only held while the result gets
+ * applied. Other threads that access the PM tree should use the same lock.
+ * <p>
+ * The result of the command (<code>afterDo</code> logic, messages, navigation
+ * etc.) gets applied to the PM tree by a call of {@link #applyResult()}. This
+ * call should be done by the thread that usually works with the PM tree. E.g.
+ * on the next UI poll request.<br>
+ * A rich client may configure a completion executor for the conversation that
+ * runs within its UI thread. That executor calls {@link #applyResult()} as
+ * soon as the background execution is done.
+ *
+ * @author olaf boede
+ */
+public interface PmAsyncCommandHandle {
+
+  /**
+   * @return The command clone that gets executed.
+   */
+  PmCommand getCommand();
+
+  /**
+   * @return <code>true</code> if the background execution is finished.
+   */
+  boolean isDone();
+
+  /**
+   * Provides the progress reported by the command.
+   *
+   * @return The progress in percent. A value between 0 and 100.
+   */
+  int getProgress();
+
+  /**
+   * Requests the cancellation of the command execution.
+   * <p>
+   * The cancellation is cooperative: A running command should check its cancel state
+   * and return as soon as possible. A command that was not yet started will not
+   * be executed.
+   *
+   * @return <code>false</code> if the command execution was already done.
+   */
+  boolean cancel();
+
+  /**
+   * @return <code>true</code> if {@link #cancel()} was called.
+   */
+  boolean isCancelRequested();
+
+  /**
+   * Waits for the end of the background execution.
+   *
+   * @param timeout The maximum time to wait.
+   * @param unit The time unit of the <code>timeout</code> argument.
+   * @return <code>true</code> if the execution is done. <code>false</code> if the timeout elapsed before.
+   * @throws InterruptedException if the current thread was interrupted while waiting.
+   */
+  boolean awaitDone(long timeout, TimeUnit unit) throws InterruptedException;
+
+  /**
+   * Applies the result of a finished execution to the PM tree.
+   * <p>
+   * Calls the <code>afterDo</code> logic of the command and its decorators or
+   * the exception handling logic. After that the command navigates to its
+   * result link.<br>
+   * It is done while holding the lock of the conversation.
+   * <p>
+   * Subsequent calls don't have any effect.
+   *
+   * @return <code>true</code> if the result is applied. <code>false</code> if the
+   *         command is still running.
+   */
+  boolean applyResult();
+
+}
@@ -2,6 +2,7 @@ package org.pm4j.core.pm;
 
 import java.util.List;
 
+import org.pm4j.core.pm.annotation.PmCommandCfg;
 import org.pm4j.core.pm.impl.PmCommandImpl;
 import org.pm4j.navi.NaviLink;
 
@@ -42,10 +43,14 @@ public interface PmCommand extends PmObject {
     CLONED,
     /** The <code>doItImpl</code> method was not executed because the <code>beforeDo</code> logic returned <code>false</code>. */
     BEFORE_DO_RETURNED_FALSE,
+    /** The <code>doItImpl</code> method of the command is executed asynchronously. See {@link PmCommand#doItAsync()}. */
+    RUNNING,
     /** The <code>doItImpl</code> method of the command was successfully executed. */
     EXECUTED,
     /** The execution of the command failed with an exception. */
-    FAILED
+    FAILED,
+    /** The asynchronous command execution was canceled. */
+    CANCELED
   }
 
   public static enum CommandSet { ALL, POPUP, MENU_BAR, TOOL_BAR, BUTTONS };
@@ -58,14 +63,36 @@ public interface PmCommand extends PmObject {
    * This prototype pattern approach allows to store execution time specific
    * values within the command (E.g. navigation links, values, an undo-command).
    * <p>
-   * Returns the command instance (clone) that performed the operation.
+   * Returns the command instance (clone) that performed the operation.<br>
+   * Commands that are configured as {@link PmCommandCfg#stateless()} don't get
+   * cloned. They perform the operation themselves.
    * <p>
    * Any error messages are reported as error messages.
    *
-   * @return The command clone that performed the operation.
+   * @return The command instance that performed the operation.
    */
   PmCommand doIt();
 
+  /**
+   * Does the operation asynchronously.
+   * <p>
+   * The <code>beforeDo</code> logic gets executed synchronously. After that the
+   * <code>doItImpl</code> logic of the command clone gets executed by the
+   * command executor of the conversation. If the conversation has no executor,
+   * the logic gets executed by the calling thread.<br>
+   * The <code>doItImpl</code> logic does not hold the lock of the conversation
+   * (<code>PmConversationImpl.getPmLock()</code>). It should not modify the PM
+   * tree. The result gets applied while holding the lock.
+   * <p>
+   * The command result will be applied to the PM tree when
+   * {@link PmAsyncCommandHandle#applyResult()} gets called. If the conversation
+   * has a completion executor (<code>PmConversationImpl.setPmCompletionExecutor()</code>),
+   * that executor applies the result as soon as the execution is done.
+   *
+   * @return A handle that provides access to the running command.
+   */
+  PmAsyncCommandHandle doItAsync();
+
   /**
    * Provides an instance that may undo the effect of this command.
    * <p>
@@ -52,4 +52,16 @@ public class PmConstants {
    * A resource key for cached exceptions. The first Parameter of the resource is used to transfer the exception message.
    */
   public static final String MSGKEY_EXCEPTION                                = "pmException";
+
+  /** The title of the placeholder node that gets displayed while tree child nodes get loaded. */
+  public static final String MSGKEY_TREE_NODE_LOADING                        = "pmTreeNode_loading";
+
+  /** The title of the placeholder node that represents the not yet loaded tree child nodes. */
+  public static final String MSGKEY_TREE_NODE_MORE                           = "pmTreeNode_more";
+
+  /** A message like: Loading failed: {exception-message} */
+  public static final String MSGKEY_TREE_NODE_LOAD_FAILED                    = "pmTreeNode_loadFailed";
+
+  /** The pager title that gets displayed while a table page gets loaded. */
+  public static final String MSGKEY_PAGER_LOADING                            = "pmPager_loading";
 }
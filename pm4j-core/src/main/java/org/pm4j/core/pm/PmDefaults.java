@@ -1,6 +1,7 @@
 package org.pm4j.core.pm;
 
 import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 
 import org.pm4j.common.exception.CheckedExceptionWrapper;
 import org.pm4j.common.expr.Expression.SyntaxVersion;
@@ -100,6 +101,16 @@ public class PmDefaults implements Cloneable {
 
   public boolean debugHints = false;
 
+  /**
+   * If set to <code>true</code>, each changed state request that is answered by
+   * the incrementally maintained changed state counters gets cross checked by a
+   * full sub tree scan. An inconsistency causes an exception.
+   * <p>
+   * Should only be used for debugging purposes. It switches off the performance
+   * gain of the incremental changed state tracking.
+   */
+  public boolean debugChangedStateTracking = false;
+
   /**
    * The default defines that a factory must be declared on the PM that uses the factory.
    * E.g. a PmTable should declare the factory for its row PMs directly.
@@ -127,6 +138,16 @@ public class PmDefaults implements Cloneable {
    */
   private SyntaxVersion expressionSyntaxVersion = SyntaxVersion.VERSION_2;
 
+  /**
+   * An optional executor that is used to perform the JSR-303 bean validation of
+   * table rows in parallel.<br>
+   * Should be a bounded thread pool. The read access to the row beans needs to be
+   * thread safe if this executor is configured.
+   * <p>
+   * The default is <code>null</code>: All rows get validated by the calling thread.
+   */
+  private ExecutorService beanValidationExecutor;
+
   @Override
   public PmDefaults clone() {
     try {
@@ -246,6 +267,20 @@ public class PmDefaults implements Cloneable {
     this.filterCompareDefinitionFactory = filterCompareDefinitionFactory;
   }
 
+  /**
+   * @return the executor used for parallel table row bean validation. May be <code>null</code>.
+   */
+  public ExecutorService getBeanValidationExecutor() {
+    return beanValidationExecutor;
+  }
+
+  /**
+   * @param beanValidationExecutor the executor used for parallel table row bean validation. May be <code>null</code>.
+   */
+  public void setBeanValidationExecutor(ExecutorService beanValidationExecutor) {
+    this.beanValidationExecutor = beanValidationExecutor;
+  }
+
   /**
    * @return the expressionSyntaxVersion
    */
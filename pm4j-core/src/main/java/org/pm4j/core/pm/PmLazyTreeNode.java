@@ -0,0 +1,74 @@
+package org.pm4j.core.pm;
+
+import java.util.List;
+
+/**
+ * A tree node that loads its child nodes on demand.
+ * <p>
+ * The child nodes may be loaded in the background and page by page. While a
+ * page gets loaded, or if there are more child nodes to load,
+ * {@link #getPmChildNodes()} provides a placeholder node after the already
+ * loaded child nodes.<br>
+ * Each completed load operation gets reported by a {@link PmEvent#VALUE_CHANGE}
+ * event of this node.
+ * <p>
+ * See <code>org.pm4j.core.pm.impl.PmLazyTreeNodeChildren</code> for an
+ * implementation helper.
+ *
+ * @author olaf boede
+ */
+public interface PmLazyTreeNode extends PmTreeNode {
+
+  /**
+   * The load state of the child nodes.
+   */
+  public enum ChildLoadState {
+    /** The loading was not yet requested. */
+    NOT_LOADED,
+    /** A page of child nodes gets loaded. */
+    LOADING,
+    /** Some pages are loaded. There are more child nodes to load. */
+    PARTIALLY_LOADED,
+    /** All child nodes are loaded. */
+    LOADED,
+    /** The last load operation failed. */
+    FAILED
+  }
+
+  /**
+   * Provides the already loaded child nodes. Does not wait for a load operation.
+   * <p>
+   * Starts to load the first page if the child nodes are not yet loaded.
+   *
+   * @return The loaded child nodes, followed by a placeholder node if the
+   *         loading is not yet complete.
+   */
+  @Override
+  List<PmTreeNode> getPmChildNodes();
+
+  /**
+   * Provides a hint without loading the child nodes.
+   *
+   * @return <code>true</code> if the node is known to have no child nodes.
+   */
+  @Override
+  boolean isPmTreeLeaf();
+
+  /**
+   * @return The load state of the child nodes.
+   */
+  ChildLoadState getPmChildLoadState();
+
+  /**
+   * Starts to load the next page of child nodes.<br>
+   * Has no effect if a load operation is running or all child nodes are loaded.
+   */
+  void loadMorePmChildNodes();
+
+  /**
+   * Discards the loaded child nodes. They will be loaded again on the next
+   * {@link #getPmChildNodes()} call.
+   */
+  void reloadPmChildNodes();
+
+}
@@ -0,0 +1,56 @@
+package org.pm4j.core.pm;
+
+import java.util.List;
+
+/**
+ * A searchable and pageable source of attribute options.
+ * <p>
+ * Is used for attributes that may reference a large number of items, e.g. customers
+ * or articles. In difference to {@link PmOptionSet} the options are not materialized
+ * at once. A typeahead selector may ask for a page of matching options.
+ *
+ * @author olaf boede
+ */
+public interface PmOptionSource {
+
+  /**
+   * @param searchString
+   *          the string to search options for. Provides all options if it is
+   *          <code>null</code> or empty.
+   * @return the number of options that match the search string.
+   */
+  long getOptionCount(String searchString);
+
+  /**
+   * Provides a page of options that match the search string.
+   *
+   * @param searchString
+   *          the string to search options for. Provides all options if it is
+   *          <code>null</code> or empty.
+   * @param startIdx
+   *          index of the first option to provide. Starts with zero.
+   * @param pageSize
+   *          the maximal number of options to provide.
+   * @return the found options. Never <code>null</code>.
+   */
+  List<PmOption> getOptions(String searchString, long startIdx, int pageSize);
+
+  /**
+   * Provides the option for the given option identifier without executing a search.
+   *
+   * @param idString
+   *          the string representation of the option id. See {@link PmOption#getIdAsString()}.
+   * @return the corresponding option or <code>null</code> if there is no option for this id.
+   */
+  PmOption findOptionForIdString(String idString);
+
+  /**
+   * Provides the option that represents the given attribute value.
+   *
+   * @param value
+   *          the attribute value to get the option for.
+   * @return the corresponding option or <code>null</code> if the value is <code>null</code>.
+   */
+  PmOption findOptionForValue(Object value);
+
+}
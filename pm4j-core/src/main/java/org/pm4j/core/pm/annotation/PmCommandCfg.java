@@ -33,6 +33,24 @@ public @interface PmCommandCfg {
      */
     VALIDATE,
 
+    /**
+     * Like {@link #VALIDATE}, but validates only the parts of the
+     * {@link PmDataInput} sub tree that were changed since the last validation
+     * of that sub tree.
+     * <p>
+     * The first validation of a sub tree is a full validation. After that, the
+     * following PMs get validated:
+     * <ul>
+     *  <li>PMs whose value or bean was changed via the PM API,</li>
+     *  <li>PMs that have messages from a previous validation,</li>
+     *  <li>PMs that are declared as cross field validators (see {@link PmValidationCfg#crossFieldValidation()}).</li>
+     * </ul>
+     * Changes that are made directly to the beans behind the PMs are not
+     * recognized. A full validation may be requested in this case by calling
+     * {@link org.pm4j.core.pm.api.PmValidationApi#requestFullValidation(org.pm4j.core.pm.PmObject)}.
+     */
+    VALIDATE_CHANGES,
+
     /**
      * Clears all messages within the current {@link PmConversation}.
      * <p>
@@ -74,6 +92,21 @@ public @interface PmCommandCfg {
    */
   boolean hideWhenNotEnabled() default false;
 
+  /**
+   * Defines that the command does not store any execution specific state in
+   * its fields. E.g. no undo command.
+   * <p>
+   * A stateless command gets executed by the command instance itself. Other
+   * commands get executed by a clone of the command instance.<br>
+   * The command state, a veto decorator and a navigation link that gets
+   * defined by <code>doItImpl()</code> are provided by the command that gets
+   * returned by <code>doIt()</code>. It's a flat copy that gets created after
+   * the execution.
+   *
+   * @return <code>true</code> if the command may be executed without cloning it.
+   */
+  boolean stateless() default false;
+
   /**
    * Defines the caches to clear within the element context of this command.
    *
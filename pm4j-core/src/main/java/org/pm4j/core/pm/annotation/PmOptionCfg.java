@@ -145,6 +145,23 @@ public @interface PmOptionCfg {
    */
   String nullOptionResKey() default NULL_OPTION_DEFAULT_RESKEY;
 
+  /**
+   * Defines if the option set may be shared by all attributes that use the same
+   * option definition. E.g. by all cells of a table column.
+   * <p>
+   * A shared option set gets created only once per conversation, option value source
+   * instance and locale. It can't be modified.<br>
+   * The option values should be provided by a stable collection instance. A
+   * new collection instance leads to a new option set. Added, removed or
+   * replaced values of the collection are detected by comparing the value
+   * instances.<br>
+   * Should only be used if the option titles and ids don't depend on the state of the
+   * individual attribute.
+   *
+   * @return <code>true</code> if the option set may be shared.
+   */
+  boolean shared() default false;
+
   /** Internal identifier string for no sort-by definition. */
   static final String NOT_SPECIFIED = "- Not specified. -";
 }
@@ -13,7 +13,7 @@ import org.pm4j.core.pm.impl.PmBeanBase;
  * @author olaf boede
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target({ElementType.TYPE})
+@Target({ElementType.TYPE, ElementType.FIELD})
 public @interface PmValidationCfg {
 
   /**
@@ -30,4 +30,16 @@ public @interface PmValidationCfg {
    */
   PmBoolean useJavaxValidationForBeans() default PmBoolean.UNDEFINED;
 
+  /**
+   * Declares a PM whose validation result depends on other values within the
+   * validated sub tree. An example: An element that checks that a start date is
+   * before an end date.
+   * <p>
+   * Is only relevant for commands that use {@link PmCommandCfg.BEFORE_DO#VALIDATE_CHANGES}.
+   * Cross field validators get validated on each validation of a changed sub tree.
+   *
+   * @return <code>true</code> if the PM validates values of other PMs.
+   */
+  boolean crossFieldValidation() default false;
+
 }
@@ -11,8 +11,10 @@ import org.pm4j.core.pm.PmElement;
 import org.pm4j.core.pm.PmMessage;
 import org.pm4j.core.pm.PmMessage.Severity;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmCommandCfg.BEFORE_DO;
 import org.pm4j.core.pm.api.PmVisitorApi.PmVisitCallBack;
 import org.pm4j.core.pm.api.PmVisitorApi.PmVisitResult;
+import org.pm4j.core.pm.impl.IncrementalValidation;
 import org.pm4j.core.pm.impl.PmConversationImpl;
 import org.pm4j.core.pm.impl.PmObjectBase;
 import org.pm4j.core.pm.impl.PmUtil;
@@ -54,6 +56,40 @@ public final class PmValidationApi {
    * @return The set of error messages that was generated by this call.
    */
   public static boolean validateSubTree(PmDataInput validationExecTreeRootPm, PmObject requiredValidSubtreeRoot) {
+    return validateSubTreeImpl(validationExecTreeRootPm, requiredValidSubtreeRoot, false);
+  }
+
+  /**
+   * Validates the parts of the sub tree of the given PM that were changed since
+   * the last validation of this sub tree.<br>
+   * The first call for a sub tree performs a full validation.
+   * <p>
+   * Checks afterwards if there are error messages in a sub tree specified by the second parameter.
+   * <p>
+   * See {@link BEFORE_DO#VALIDATE_CHANGES} for details.
+   *
+   * @param validationExecTreeRootPm
+   *            The root of the PM tree to validate.
+   * @param requiredValidSubtreeRoot
+   *            The root of the PM tree that should not contain errors.
+   * @return <code>true</code> if there are no errors within the sub tree of <code>requiredValidSubtreeRoot</code>.
+   */
+  public static boolean validateChangedSubTree(PmDataInput validationExecTreeRootPm, PmObject requiredValidSubtreeRoot) {
+    return validateSubTreeImpl(validationExecTreeRootPm, requiredValidSubtreeRoot, true);
+  }
+
+  /**
+   * Lets the next call to {@link #validateChangedSubTree(PmDataInput, PmObject)} perform
+   * a full validation.<br>
+   * Should be called if beans behind the PMs were changed without using the PM API.
+   *
+   * @param pm A PM within the conversation to handle.
+   */
+  public static void requestFullValidation(PmObject pm) {
+    IncrementalValidation.requestFullValidation(pm);
+  }
+
+  private static boolean validateSubTreeImpl(PmDataInput validationExecTreeRootPm, PmObject requiredValidSubtreeRoot, boolean changesOnly) {
       PmConversationImpl pmConversation = (PmConversationImpl) validationExecTreeRootPm.getPmConversation();
 
       // Clear existing, not attribute related, error messages within the validation exec scope.
@@ -63,7 +99,8 @@ public final class PmValidationApi {
       // Clearing them would lead to loss of entered data. They only get cleared by a successful re-validation or
       // setting a new value.
       // XXX olaf: This logic needs to be simplified!
-      for (PmMessage m : PmMessageApi.getPmTreeMessages(validationExecTreeRootPm, Severity.INFO)) {
+      List<PmMessage> execTreeMessages = PmMessageApi.getPmTreeMessages(validationExecTreeRootPm, Severity.INFO);
+      for (PmMessage m : execTreeMessages) {
         if (m.getSeverity().ordinal() < Severity.ERROR.ordinal() ||
             !(m.getPm() instanceof PmAttr)) {
           pmConversation.clearPmMessage(m);
@@ -71,7 +108,12 @@ public final class PmValidationApi {
       }
 
       List<PmMessage> conversationErrorsBeforeValidate = PmMessageApi.getPmTreeMessages(pmConversation, Severity.ERROR);
-      validationExecTreeRootPm.pmValidate();
+      if (changesOnly) {
+        IncrementalValidation.validateChanges(validationExecTreeRootPm, execTreeMessages);
+      }
+      else {
+        validationExecTreeRootPm.pmValidate();
+      }
       List<PmMessage> conversationErrorsAfterValidate = PmMessageApi.getPmTreeMessages(pmConversation, Severity.ERROR);
 
       if (conversationErrorsAfterValidate.isEmpty()) {
@@ -3,7 +3,7 @@ package org.pm4j.core.pm.impl;
 import java.util.Locale;
 import java.util.TimeZone;
 
-import org.pm4j.common.converter.string.StringConverterCtxt;
+import org.pm4j.common.converter.string.StringConverterCtxtBase;
 import org.pm4j.common.converter.string.StringConverterParseException;
 import org.pm4j.common.converter.string.StringConverterUtil;
 import org.pm4j.core.pm.PmAttr;
@@ -13,7 +13,7 @@ import org.pm4j.core.pm.api.PmLocalizeApi;
 /**
  * Provides context information for string and value converter operations.
  */
-public class AttrConverterCtxt implements StringConverterCtxt {
+public class AttrConverterCtxt extends StringConverterCtxtBase {
   private final PmAttrBase<?, ?> pmAttr;
 
   public AttrConverterCtxt(PmAttrBase<?, ?> pmAttr) {
@@ -41,6 +41,12 @@ public class AttrConverterCtxt implements StringConverterCtxt {
     return pmAttr.getFormatString();
   }
 
+  /** Provides the parse formats cached in the attribute meta data. */
+  @Override
+  public String[] getConverterCtxtParseFormats() {
+    return pmAttr.zz_getParseFormats(getConverterCtxtFormatString());
+  }
+
   @Override
   public StringConverterParseException createStringConverterParseException(String valueToConvert, Throwable exception, String... formats) {
     String msg = PmLocalizeApi.localize(pmAttr, PmConstants.MSGKEY_VALIDATION_CONVERSION_FROM_STRING_FAILED, valueToConvert);
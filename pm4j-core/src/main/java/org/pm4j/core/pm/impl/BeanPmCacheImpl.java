@@ -1,6 +1,7 @@
 package org.pm4j.core.pm.impl;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Map;
@@ -72,6 +73,10 @@ class BeanPmCacheImpl implements BeanPmCache {
     if (pmToBeanIdentityMap.put(pmElement, beanIdentity) != null) {
       throw new PmRuntimeException(pmElement, "Bean presentation model already added to the PM bean cache: " + PmUtil.getPmLogString(pmElement));
     }
+
+    if (pmElement instanceof PmDataInputBase) {
+      ((PmDataInputBase)pmElement).zz_onPmReused();
+    }
   }
 
   @SuppressWarnings("unchecked")
@@ -107,7 +112,9 @@ class BeanPmCacheImpl implements BeanPmCache {
       LOG.trace(this + ": removed PM '" + logString(pmBean) + "' for bean: " + bean);
     }
 
-    pmToBeanIdentityMap.remove(pmBean);
+    if (pmToBeanIdentityMap.remove(pmBean) != null) {
+      onPmReleased(pmBean);
+    }
     if (bean != null) {
       beanEqualToPmMap.remove(bean);
       beanIdentityToPmMap.remove(bean);
@@ -122,12 +129,14 @@ class BeanPmCacheImpl implements BeanPmCache {
       LOG.trace(this + ": removed bean '" + bean + "' cached PM was: " + (pmRef != null ? logString(pmRef.get()) : null));
     }
 
-    if (pmRef != null && pmRef.get() != null) {
-      pmToBeanIdentityMap.remove(pmRef.get());
+    if (pmRef != null && pmRef.get() != null &&
+        pmToBeanIdentityMap.remove(pmRef.get()) != null) {
+      onPmReleased(pmRef.get());
     }
     pmRef = beanEqualToPmMap.remove(bean);
-    if (pmRef != null && pmRef.get() != null) {
-      pmToBeanIdentityMap.remove(pmRef.get());
+    if (pmRef != null && pmRef.get() != null &&
+        pmToBeanIdentityMap.remove(pmRef.get()) != null) {
+      onPmReleased(pmRef.get());
     }
   }
 
@@ -141,6 +150,9 @@ class BeanPmCacheImpl implements BeanPmCache {
       }
     }
 
+    for (PmBean<?> pm : new ArrayList<PmBean<?>>(pmToBeanIdentityMap.keySet())) {
+      onPmReleased(pm);
+    }
     pmToBeanIdentityMap.clear();
     beanEqualToPmMap.clear();
     beanIdentityToPmMap.clear();
@@ -157,6 +169,13 @@ class BeanPmCacheImpl implements BeanPmCache {
     return (Collection<PmBean<?>>)(Object)pmToBeanIdentityMap.keySet();
   }
 
+  /** The parents of a released PM no longer count its changed state. */
+  private static void onPmReleased(PmBean<?> pm) {
+    if (pm instanceof PmDataInputBase) {
+      ((PmDataInputBase)pm).zz_onPmReleased();
+    }
+  }
+
   private String logString(PmObject pm) {
     return pm != null
         ? (PmInitApi.isPmInitialized(pm) ? pm.getPmRelativeName() : pm.getClass().getSimpleName()) + "(" + Integer.toHexString(pm.hashCode()) + ")"
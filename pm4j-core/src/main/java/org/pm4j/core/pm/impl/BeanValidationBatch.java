@@ -0,0 +1,233 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.Validator;
+import javax.validation.metadata.BeanDescriptor;
+import javax.validation.metadata.PropertyDescriptor;
+
+import org.pm4j.core.exception.PmRuntimeException;
+
+/**
+ * Collects the JSR-303 bean validation results of a PM validation run.
+ * <p>
+ * Each bean gets validated only once using {@link Validator#validate(Object, Class...)}.
+ * The attributes that are bound to the bean properties get their violations from
+ * that result. This replaces a {@link Validator#validateProperty(Object, String, Class...)}
+ * call per attribute.
+ * <p>
+ * Beans with class level constraints or cascaded properties are not handled this way,
+ * because the validation of the whole bean would check more than the attribute
+ * validation does.
+ * <p>
+ * The batch is bound to the {@link PmConversationImpl} that executes the validation.
+ * Nested validation calls share the batch of the outermost call.
+ *
+ * @author olaf boede
+ */
+class BeanValidationBatch {
+
+  /** The minimal number of beans that justifies a parallel validation task. */
+  static final int PARALLEL_CHUNK_SIZE = 64;
+
+  /** Caches the information if beans of a class can be validated as a whole. */
+  private static final Map<Class<?>, Boolean> classToBatchableMap = new ConcurrentHashMap<Class<?>, Boolean>();
+
+  private final PmConversationImpl conversation;
+  private final Validator validator;
+  private final Map<Object, Set<ConstraintViolation<?>>> beanToViolationsMap = new IdentityHashMap<Object, Set<ConstraintViolation<?>>>();
+
+  private BeanValidationBatch(PmConversationImpl conversation, Validator validator) {
+    this.conversation = conversation;
+    this.validator = validator;
+  }
+
+  /**
+   * Starts a validation batch for the given conversation.
+   *
+   * @param conversation The conversation that executes the validation.
+   * @return The new batch. Is <code>null</code> if there is already a running batch
+   *         or if there is no JSR-303 bean validator configured.
+   */
+  static BeanValidationBatch open(PmConversationImpl conversation) {
+    if (conversation.beanValidationBatch != null) {
+      return null;
+    }
+    Validator validator = PmImplUtil.getBeanValidator();
+    if (validator == null) {
+      return null;
+    }
+    BeanValidationBatch batch = new BeanValidationBatch(conversation, validator);
+    conversation.beanValidationBatch = batch;
+    return batch;
+  }
+
+  /**
+   * Finishes a batch opened by {@link #open(PmConversationImpl)}.
+   *
+   * @param batch The batch to close. May be <code>null</code>.
+   */
+  static void close(BeanValidationBatch batch) {
+    if (batch != null) {
+      batch.conversation.beanValidationBatch = null;
+    }
+  }
+
+  /**
+   * @param conversation The conversation to get the batch for.
+   * @return The currently running batch or <code>null</code>.
+   */
+  static BeanValidationBatch getCurrent(PmConversationImpl conversation) {
+    return conversation.beanValidationBatch;
+  }
+
+  /**
+   * Provides all constraint violations of the given bean.
+   *
+   * @param bean The bean to validate.
+   * @return The violations. Never <code>null</code>.
+   */
+  Set<ConstraintViolation<?>> getViolations(Object bean) {
+    Set<ConstraintViolation<?>> violations = beanToViolationsMap.get(bean);
+    if (violations == null) {
+      violations = validate(validator, bean);
+      beanToViolationsMap.put(bean, violations);
+    }
+    return violations;
+  }
+
+  /**
+   * Provides the constraint violations of a single bean property.
+   * <p>
+   * Provides the same result as {@link Validator#validateProperty(Object, String, Class...)}.
+   * Violations of cascaded beans are not reported for the property.
+   *
+   * @param bean The bean to validate.
+   * @param propertyName The name of the property to get the violations for.
+   * @return The violations. Is <code>null</code> if the bean can't be validated as a whole.
+   */
+  Set<ConstraintViolation<?>> getPropertyViolations(Object bean, String propertyName) {
+    if (!isBatchable(bean)) {
+      return null;
+    }
+    Set<ConstraintViolation<?>> violations = getViolations(bean);
+    if (violations.isEmpty()) {
+      return violations;
+    }
+
+    Set<ConstraintViolation<?>> propertyViolations = new LinkedHashSet<ConstraintViolation<?>>();
+    for (ConstraintViolation<?> v : violations) {
+      Iterator<Path.Node> pathIter = v.getPropertyPath().iterator();
+      if (pathIter.hasNext() &&
+          propertyName.equals(pathIter.next().getName()) &&
+          !pathIter.hasNext()) {
+        propertyViolations.add(v);
+      }
+    }
+    return propertyViolations;
+  }
+
+  /**
+   * Validates the given beans in advance.
+   * <p>
+   * If an executor is provided, the beans get validated in parallel. The read
+   * access to the beans needs to be thread safe in this case.<br>
+   * The generated PM messages are not affected. They are generated by the
+   * PMs within the calling thread.
+   *
+   * @param beans The beans to validate.
+   * @param executor An optional executor for parallel validation. May be <code>null</code>.
+   */
+  void prefetch(Collection<?> beans, ExecutorService executor) {
+    List<Object> beansToValidate = new ArrayList<Object>(beans.size());
+    for (Object b : beans) {
+      if (b != null && !beanToViolationsMap.containsKey(b) && isBatchable(b)) {
+        beansToValidate.add(b);
+      }
+    }
+
+    if (executor == null || beansToValidate.size() < 2 * PARALLEL_CHUNK_SIZE) {
+      for (Object b : beansToValidate) {
+        getViolations(b);
+      }
+      return;
+    }
+
+    List<Callable<List<Set<ConstraintViolation<?>>>>> tasks = new ArrayList<Callable<List<Set<ConstraintViolation<?>>>>>();
+    for (int i = 0; i < beansToValidate.size(); i += PARALLEL_CHUNK_SIZE) {
+      final List<Object> chunk = beansToValidate.subList(i, Math.min(i + PARALLEL_CHUNK_SIZE, beansToValidate.size()));
+      tasks.add(new Callable<List<Set<ConstraintViolation<?>>>>() {
+        @Override
+        public List<Set<ConstraintViolation<?>>> call() throws Exception {
+          List<Set<ConstraintViolation<?>>> result = new ArrayList<Set<ConstraintViolation<?>>>(chunk.size());
+          for (Object b : chunk) {
+            result.add(validate(validator, b));
+          }
+          return result;
+        }
+      });
+    }
+
+    try {
+      // The results are merged in bean order to get a deterministic result.
+      int beanIdx = 0;
+      for (Future<List<Set<ConstraintViolation<?>>>> f : executor.invokeAll(tasks)) {
+        for (Set<ConstraintViolation<?>> violations : f.get()) {
+          beanToViolationsMap.put(beansToValidate.get(beanIdx++), violations);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PmRuntimeException("Parallel bean validation interrupted.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new PmRuntimeException("Parallel bean validation failed.", e.getCause());
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the bean validation result provides the same property
+   *         violations as separate property validation calls.
+   */
+  private boolean isBatchable(Object bean) {
+    Class<?> beanClass = bean.getClass();
+    Boolean batchable = classToBatchableMap.get(beanClass);
+    if (batchable == null) {
+      BeanDescriptor d = validator.getConstraintsForClass(beanClass);
+      batchable = d.getConstraintDescriptors().isEmpty();
+      for (PropertyDescriptor pd : d.getConstrainedProperties()) {
+        if (pd.isCascaded()) {
+          batchable = false;
+        }
+      }
+      classToBatchableMap.put(beanClass, batchable);
+    }
+    return batchable;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Set<ConstraintViolation<?>> validate(Validator validator, Object bean) {
+    Set<ConstraintViolation<?>> violations = (Set<ConstraintViolation<?>>)(Object) validator.validate(bean);
+    return (violations == null || violations.isEmpty())
+        ? Collections.<ConstraintViolation<?>>emptySet()
+        : violations;
+  }
+
+}
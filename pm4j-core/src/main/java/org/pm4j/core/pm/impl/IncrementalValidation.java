@@ -0,0 +1,235 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+import org.pm4j.core.pm.PmConversation;
+import org.pm4j.core.pm.PmDataInput;
+import org.pm4j.core.pm.PmMessage;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmCommandCfg.BEFORE_DO;
+
+/**
+ * Tracks the PMs that need to be validated by the next validation of a
+ * changed sub tree (see {@link BEFORE_DO#VALIDATE_CHANGES}).
+ * <p>
+ * There is one instance per root conversation. The tracking starts with the
+ * first validation of a changed sub tree. Until then value changes are not
+ * recorded.
+ * <p>
+ * All PM references are weak. Discarded PMs (e.g. rows of a former table
+ * page) don't need to be validated.
+ *
+ * @author olaf boede
+ */
+public final class IncrementalValidation {
+
+  /** PMs that were changed since the last validation of their sub tree. */
+  private final Map<PmDataInput, Boolean> changedPms = new WeakHashMap<PmDataInput, Boolean>();
+  /** PMs declared as cross field validators. */
+  private final Map<PmDataInput, Boolean> crossFieldValidators = new WeakHashMap<PmDataInput, Boolean>();
+  /** The sub tree roots that were completely validated since tracking of changes. */
+  private final Map<PmObject, Boolean> validatedRoots = new WeakHashMap<PmObject, Boolean>();
+  /** Gets switched on by the first validation of a changed sub tree. */
+  private volatile boolean active;
+
+  private IncrementalValidation() {
+  }
+
+  /**
+   * Records a value or bean change of the given PM.
+   *
+   * @param pm The changed PM.
+   */
+  public static void onPmChanged(PmDataInput pm) {
+    IncrementalValidation iv = findInstance(pm);
+    if (iv != null && iv.active) {
+      synchronized (iv) {
+        iv.changedPms.put(pm, Boolean.TRUE);
+      }
+    }
+  }
+
+  /**
+   * Lets the next validation of each changed sub tree within the conversation
+   * of the given PM be a full validation.
+   *
+   * @param pm A PM within the conversation to handle.
+   */
+  public static void requestFullValidation(PmObject pm) {
+    IncrementalValidation iv = findInstance(pm);
+    if (iv != null) {
+      synchronized (iv) {
+        iv.validatedRoots.clear();
+        iv.changedPms.clear();
+      }
+    }
+  }
+
+  /**
+   * Validates the changed parts of the given sub tree.<br>
+   * Validates the complete sub tree if that was not yet done since the tracking
+   * of changes has started.
+   *
+   * @param rootPm The root of the sub tree to validate.
+   * @param messagesToUpdate The messages found within the sub tree before validation.
+   *          The PMs these messages are related to get validated again to update their messages.
+   */
+  public static void validateChanges(PmDataInput rootPm, Collection<PmMessage> messagesToUpdate) {
+    IncrementalValidation iv = getInstance(((PmObjectBase)rootPm).getPmConversationImpl());
+
+    Set<PmDataInput> pmsToValidate = new LinkedHashSet<PmDataInput>();
+    for (PmMessage m : messagesToUpdate) {
+      if (m.getPm() instanceof PmDataInput) {
+        pmsToValidate.add((PmDataInput) m.getPm());
+      }
+    }
+
+    boolean fullValidation;
+    synchronized (iv) {
+      iv.active = true;
+      fullValidation = !iv.isValidatedRoot(rootPm);
+      if (fullValidation) {
+        iv.validatedRoots.put(rootPm, Boolean.TRUE);
+      }
+
+      int changeCount = 0;
+      for (PmDataInput pm : new ArrayList<PmDataInput>(iv.changedPms.keySet())) {
+        if (isInSubTree(rootPm, pm)) {
+          iv.changedPms.remove(pm);
+          pmsToValidate.add(pm);
+          ++changeCount;
+        }
+      }
+
+      if (changeCount > 0) {
+        pmsToValidate.addAll(iv.crossFieldValidators.keySet());
+      }
+    }
+
+    if (fullValidation) {
+      rootPm.pmValidate();
+    }
+    else {
+      validatePms(rootPm, pmsToValidate);
+    }
+  }
+
+  /**
+   * Registers a PM that needs to be validated on each validation of a changed sub tree.
+   */
+  static void registerCrossFieldValidator(PmDataInput pm) {
+    IncrementalValidation iv = getInstance(((PmObjectBase)pm).getPmConversationImpl());
+    synchronized (iv) {
+      iv.crossFieldValidators.put(pm, Boolean.TRUE);
+    }
+  }
+
+  private static void validatePms(PmDataInput rootPm, Collection<PmDataInput> pms) {
+    // Visibility and readonly results are cached for the PMs on the path to the root.
+    Map<PmObject, Boolean> validatableMap = new IdentityHashMap<PmObject, Boolean>();
+    List<PmDataInput> validatablePms = new ArrayList<PmDataInput>(pms.size());
+    for (PmDataInput pm : pms) {
+      if (isValidatable(rootPm, pm, validatableMap)) {
+        validatablePms.add(pm);
+      }
+    }
+
+    BeanValidationBatch batch = BeanValidationBatch.open(((PmObjectBase)rootPm).getPmConversationImpl());
+    try {
+      for (PmDataInput pm : validatablePms) {
+        // PMs within the sub tree of another validated PM get validated by their parent.
+        if (!hasParentIn(rootPm, pm, pms)) {
+          pm.pmValidate();
+        }
+      }
+    }
+    finally {
+      BeanValidationBatch.close(batch);
+    }
+  }
+
+  /**
+   * Checks the conditions of {@link PmDataInputBase#pmValidate()} for each PM
+   * on the path from the given PM to the root.
+   */
+  private static boolean isValidatable(PmDataInput rootPm, PmObject pm, Map<PmObject, Boolean> validatableMap) {
+    if (!isInSubTree(rootPm, pm)) {
+      return false;
+    }
+
+    Boolean validatable = validatableMap.get(pm);
+    if (validatable == null) {
+      validatable = pm.isPmVisible() && !pm.isPmReadonly() &&
+                    (pm == rootPm || !(pm.getPmParent() instanceof PmDataInput) ||
+                     isValidatable(rootPm, pm.getPmParent(), validatableMap));
+      validatableMap.put(pm, validatable);
+    }
+    return validatable;
+  }
+
+  private static boolean hasParentIn(PmObject rootPm, PmObject pm, Collection<PmDataInput> pms) {
+    if (pm == rootPm) {
+      return false;
+    }
+    for (PmObject p = pm.getPmParent(); p != null; p = p.getPmParent()) {
+      if (pms.contains(p)) {
+        return true;
+      }
+      if (p == rootPm) {
+        break;
+      }
+    }
+    return false;
+  }
+
+  private static boolean isInSubTree(PmObject rootPm, PmObject pm) {
+    for (PmObject p = pm; p != null; p = p.getPmParent()) {
+      if (p == rootPm) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isValidatedRoot(PmObject rootPm) {
+    for (PmObject p = rootPm; p != null; p = p.getPmParent()) {
+      if (validatedRoots.containsKey(p)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static IncrementalValidation findInstance(PmObject pm) {
+    PmConversation c = pm.getPmConversation();
+    if (c == null) {
+      return null;
+    }
+    while (c.getPmParentConversation() != null) {
+      c = c.getPmParentConversation();
+    }
+    return ((PmConversationImpl)c).incrementalValidation;
+  }
+
+  private static IncrementalValidation getInstance(PmConversationImpl conversation) {
+    PmConversation c = conversation;
+    while (c.getPmParentConversation() != null) {
+      c = c.getPmParentConversation();
+    }
+    PmConversationImpl root = (PmConversationImpl) c;
+    synchronized (root) {
+      if (root.incrementalValidation == null) {
+        root.incrementalValidation = new IncrementalValidation();
+      }
+      return root.incrementalValidation;
+    }
+  }
+
+}
@@ -0,0 +1,120 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Memoizes the named object lookups of a {@link PmConversationImpl}.
+ * <p>
+ * Each conversation has its own cache. The cache entries are stamped with
+ * version numbers that are maintained by the cache of the root conversation:
+ * <ul>
+ *  <li>A key specific version gets incremented if a named object with that key
+ *      gets changed anywhere within the conversation tree.</li>
+ *  <li>A global version gets incremented if the set of named object resolvers
+ *      of a conversation gets changed.</li>
+ * </ul>
+ * Cache entries with an outdated stamp are ignored. That allows to invalidate
+ * the caches of all nested conversations without knowing them.
+ * <p>
+ * The root cache is not fixed. It gets passed by the caller for each operation.
+ * An entry that was created for a different root is ignored. This way a
+ * conversation that gets attached to a new parent does not use its old
+ * entries.
+ * <p>
+ * Cache hits are answered without locks.
+ *
+ * @author olaf boede
+ */
+final class NamedObjectCache {
+
+  /** A cached lookup result. */
+  static final class Entry {
+    /** The found object. Is <code>null</code> for a cached 'not found' result. */
+    final Object value;
+    /** <code>true</code> if the object was not found even after calling {@link PmConversationImpl#handleNamedPmObjectNotFound(String)}. */
+    final boolean notFoundHandled;
+    private final NamedObjectCache rootCache;
+    private final long stamp;
+
+    private Entry(Object value, boolean notFoundHandled, NamedObjectCache rootCache, long stamp) {
+      this.value = value;
+      this.notFoundHandled = notFoundHandled;
+      this.rootCache = rootCache;
+      this.stamp = stamp;
+    }
+  }
+
+  private final Map<String, Entry> keyToEntryMap = new ConcurrentHashMap<String, Entry>();
+
+  /** Only used within the root cache. */
+  private final AtomicInteger globalVersion = new AtomicInteger();
+  /** Only used within the root cache. */
+  private final Map<String, AtomicInteger> keyToVersionMap = new ConcurrentHashMap<String, AtomicInteger>();
+
+  /**
+   * Provides the current version stamp for the given key.<br>
+   * Should be requested before the object gets resolved to detect changes that
+   * happen while the object gets resolved.
+   * <p>
+   * Is called for the root cache.
+   */
+  long getStamp(String key) {
+    AtomicInteger keyVersion = keyToVersionMap.get(key);
+    return ((long)globalVersion.get() << 32) | (keyVersion != null ? keyVersion.get() : 0);
+  }
+
+  /**
+   * @return The cached entry. Is <code>null</code> if there is no valid entry for the given root and stamp.
+   */
+  Entry getEntry(NamedObjectCache rootCache, String key, long stamp) {
+    Entry e = keyToEntryMap.get(key);
+    return (e != null && e.rootCache == rootCache && e.stamp == stamp) ? e : null;
+  }
+
+  void put(NamedObjectCache rootCache, String key, long stamp, Object value) {
+    keyToEntryMap.put(key, new Entry(value, false, rootCache, stamp));
+  }
+
+  /**
+   * Marks a cached 'not found' result as handled.<br>
+   * Does nothing if there is no valid cached 'not found' result.
+   */
+  void markNotFoundHandled(NamedObjectCache rootCache, String key, long stamp) {
+    Entry e = getEntry(rootCache, key, stamp);
+    if (e != null && e.value == null) {
+      keyToEntryMap.put(key, new Entry(null, true, rootCache, stamp));
+    }
+  }
+
+  /**
+   * Invalidates the entries for the given key within all conversation caches
+   * of the tree.
+   * <p>
+   * Is called for the root cache.
+   */
+  void invalidate(String key) {
+    AtomicInteger keyVersion = keyToVersionMap.get(key);
+    if (keyVersion == null) {
+      synchronized (keyToVersionMap) {
+        keyVersion = keyToVersionMap.get(key);
+        if (keyVersion == null) {
+          keyVersion = new AtomicInteger();
+          keyToVersionMap.put(key, keyVersion);
+        }
+      }
+    }
+    keyVersion.incrementAndGet();
+  }
+
+  /**
+   * Invalidates all entries within all conversation caches of the tree.
+   * <p>
+   * Is called for the root cache.
+   */
+  void invalidateAll() {
+    globalVersion.incrementAndGet();
+  }
+
+}
@@ -11,6 +11,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.validation.ConstraintViolation;
 import javax.validation.Validator;
@@ -28,6 +29,7 @@ import org.pm4j.common.cache.CacheStrategy;
 import org.pm4j.common.cache.CacheStrategyNoCache;
 import org.pm4j.common.converter.string.StringConverter;
 import org.pm4j.common.converter.string.StringConverterParseException;
+import org.pm4j.common.converter.string.StringConverterUtil;
 import org.pm4j.common.converter.value.ValueConverter;
 import org.pm4j.common.converter.value.ValueConverterDefault;
 import org.pm4j.common.expr.Expression.SyntaxVersion;
@@ -53,6 +55,7 @@ import org.pm4j.core.pm.PmMessage.Severity;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.PmOption;
 import org.pm4j.core.pm.PmOptionSet;
+import org.pm4j.core.pm.PmOptionSource;
 import org.pm4j.core.pm.annotation.PmAttrCfg;
 import org.pm4j.core.pm.annotation.PmAttrCfg.Restriction;
 import org.pm4j.core.pm.annotation.PmAttrCfg.Validate;
@@ -74,7 +77,9 @@ import org.pm4j.core.pm.impl.cache.CacheStrategyRequest;
 import org.pm4j.core.pm.impl.converter.PmConverterErrorMessage;
 import org.pm4j.core.pm.impl.converter.PmConverterOptionBased;
 import org.pm4j.core.pm.impl.options.GenericOptionSetDef;
+import org.pm4j.core.pm.impl.options.OptionSetDefForOptionSource;
 import org.pm4j.core.pm.impl.options.OptionSetDefNoOption;
+import org.pm4j.core.pm.impl.options.PageQueryOptionSource;
 import org.pm4j.core.pm.impl.options.PmOptionSetDef;
 import org.pm4j.core.pm.impl.pathresolver.PassThroughPathResolver;
 import org.pm4j.core.pm.impl.pathresolver.PathResolver;
@@ -138,8 +143,8 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
   /** Converts between external value type and its string representation. */
   private StringConverter<T_PM_VALUE> stringConverter;
 
-  /** A lightweight helper that provides converter operation context information. */
-  private AttrConverterCtxt converterCtxt = makeConverterCtxt();
+  /** A lightweight helper that provides converter operation context information. Gets created on demand. */
+  private AttrConverterCtxt converterCtxt;
 
   /**
    * @param pmParent The PM hierarchy parent.
@@ -188,6 +193,26 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     return os;
   }
 
+  /**
+   * Provides a searchable and pageable source for the options of this attribute.
+   * <p>
+   * Override this method to provide options that should not be materialized at once.
+   * E.g. by returning a {@link PageQueryOptionSource}. The {@link #getOptionSet()}
+   * of such attributes provides only the option for the current value.<br>
+   * Such an attribute has to declare its kind of options by overriding
+   * {@link #makeOptionSetDef(PmOptionCfg, Method)}. It should return
+   * {@link OptionSetDefForOptionSource#INSTANCE}.
+   * <p>
+   * The default implementation returns <code>null</code>.
+   *
+   * @return The option source.<br>
+   *         <code>null</code> if the attribute provides its options only by
+   *         {@link #getOptionSet()}.
+   */
+  public PmOptionSource getOptionSource() {
+    return null;
+  }
+
   /**
    * A combination of {@link PmOptionCfg} and the implementation of this method
    * may be used to define the options for the attribute value.
@@ -714,6 +739,7 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
         valueChangedBySetValue = true;
 
         setValueChanged(currentValue, newPmValue);
+        IncrementalValidation.onPmChanged(this);
 
         // optional after-set validation done before afterChange calls. See: Validate.AFTER_SET.
         // TODO olaf: Check domain exception handling here. After an exception the value is
@@ -793,7 +819,7 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
   @Deprecated
   protected T_PM_VALUE stringToValueImpl(String s) throws PmConverterException {
     try {
-      return (T_PM_VALUE) getStringConverter().stringToValue(converterCtxt, s);
+      return (T_PM_VALUE) getStringConverter().stringToValue(getConverterCtxt(), s);
     } catch (StringConverterParseException e) {
       throw new PmConverterException(this, e);
     }
@@ -820,7 +846,7 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
    */
   @Deprecated
   protected String valueToStringImpl(T_PM_VALUE v) {
-    return getStringConverter().valueToString(converterCtxt, v);
+    return getStringConverter().valueToString(getConverterCtxt(), v);
   }
 
   /**
@@ -855,6 +881,9 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
   /** @return The converter operation context. */
   protected AttrConverterCtxt getConverterCtxt() {
+    if (converterCtxt == null) {
+      converterCtxt = makeConverterCtxt();
+    }
     return converterCtxt;
   }
 
@@ -940,6 +969,7 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     }
 
     if (fireStateChange) {
+      zz_onOwnChangedStateChange(dataContainer.originalValue != UNCHANGED_VALUE_INDICATOR);
       PmEventApi.firePmEvent(this, PmEvent.VALUE_CHANGED_STATE_CHANGE);
     }
   }
@@ -1094,15 +1124,25 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
    * Check the JSR-303 bean validation constraints for this attribute.
    * <p>
    * All found violations are reported as error messages in relation to this attribute.
+   * <p>
+   * Within a running {@link BeanValidationBatch} the violations are taken from the
+   * result of the validation of the whole bean.
    */
   void performJsr303Validations() {
     Validator validator = PmImplUtil.getBeanValidator();
-    if (validator != null) {
+    if (validator != null &&
+        getOwnMetaData().validationFieldName != null) {
       Object validationBean = getOwnMetaData().valueAccessStrategy.getPropertyContainingBean(this);
-      if (validationBean != null &&
-          getOwnMetaData().validationFieldName != null) {
-        @SuppressWarnings("unchecked")
-        Set<ConstraintViolation<?>> violations = (Set<ConstraintViolation<?>>)(Object)validator.validateProperty(validationBean, getOwnMetaData().validationFieldName);
+      if (validationBean != null) {
+        BeanValidationBatch batch = BeanValidationBatch.getCurrent(getPmConversationImpl());
+        Set<ConstraintViolation<?>> violations = (batch != null)
+            ? batch.getPropertyViolations(validationBean, getOwnMetaData().validationFieldName)
+            : null;
+        if (violations == null) {
+          @SuppressWarnings("unchecked")
+          Set<ConstraintViolation<?>> propertyViolations = (Set<ConstraintViolation<?>>)(Object)validator.validateProperty(validationBean, getOwnMetaData().validationFieldName);
+          violations = propertyViolations;
+        }
         PmImplUtil.beanConstraintViolationsToPmMessages(this, violations);
       }
     }
@@ -1176,7 +1216,7 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
    */
   @Deprecated
   public T_PM_VALUE convertBackingValueToPmValue(T_BEAN_VALUE backingValue) {
-    return getValueConverter().toExternalValue(converterCtxt, backingValue);
+    return getValueConverter().toExternalValue(getConverterCtxt(), backingValue);
   }
 
   /**
@@ -1184,7 +1224,7 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
    */
   @Deprecated
   public T_BEAN_VALUE convertPmValueToBackingValue(T_PM_VALUE externalValue) {
-    return getValueConverter().toInternalValue(converterCtxt, externalValue);
+    return getValueConverter().toInternalValue(getConverterCtxt(), externalValue);
   }
 
   /**
@@ -1261,8 +1301,26 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     getOwnMetaData().valueAccessStrategy.setValue(this, value);
   }
 
+  /**
+   * The default implementation provides the result of {@link #getFormatStringImpl()}.
+   * <p>
+   * The result gets cached within the meta data for the current locale of the
+   * PM conversation. A changed conversation locale leads to a new format
+   * string resolution.
+   */
   @Override
   public String getFormatString() {
+    return zz_getFormatInfo().formatString;
+  }
+
+  /**
+   * Resolves the format string based on the resource definitions for this attribute.
+   * <p>
+   * Is only called once per attribute meta data and locale.
+   *
+   * @return The format string or <code>null</code> if there is none.
+   */
+  protected String getFormatStringImpl() {
     String key = getOwnMetaData().formatResKey;
     String format = null;
 
@@ -1290,8 +1348,22 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     return format;
   }
 
+  /**
+   * The default implementation resolves the type of the first generics parameter of
+   * the attribute class.
+   * <p>
+   * The result gets cached within the meta data.
+   */
   @Override
   public Class<?> getValueType() {
+    MetaData md = getOwnMetaDataWithoutPmInitCall();
+    if (md.valueType == null) {
+      md.valueType = getValueTypeImpl();
+    }
+    return md.valueType;
+  }
+
+  private Class<?> getValueTypeImpl() {
     Type t = GenericsUtil.findFirstSuperClassParameterType(getClass());
     if (!(t instanceof Class)) {
       throw new PmRuntimeException(this, "Unable to handle an attribute value type that is not a class or interface. Found type: " + t);
@@ -1299,6 +1371,34 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     return (Class<?>) t;
   }
 
+  /**
+   * Provides the set of parse formats for the given format string.
+   * <p>
+   * Uses the format list cached within the meta data if the given string is
+   * the (cached) format string of the current locale.
+   *
+   * @param formatString The format string to split.
+   * @return The parse formats. Never <code>null</code>.
+   */
+  /* package */ String[] zz_getParseFormats(String formatString) {
+    FormatInfo fi = zz_getFormatInfo();
+    // Identity check: getFormatString() may be overridden to provide a different format.
+    return (fi.formatString == formatString)
+        ? fi.parseFormats
+        : StringConverterUtil.splitFormatString(formatString);
+  }
+
+  private FormatInfo zz_getFormatInfo() {
+    MetaData md = getOwnMetaData();
+    Locale locale = getPmConversation().getPmLocale();
+    FormatInfo fi = md.localeToFormatInfoMap.get(locale);
+    if (fi == null) {
+      fi = new FormatInfo(getFormatStringImpl());
+      md.localeToFormatInfoMap.put(locale, fi);
+    }
+    return fi;
+  }
+
   /**
    * Concrete attribute classes may specify here a default format resource key
    * as a fallback for unspecified format localizations.
@@ -1339,7 +1439,19 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
   // ======== meta data ======== //
 
-  // XXX olaf: really required? May be solved by overriding initMetaData too.
+  /**
+   * Provides the option set definition that is used by all instances of this
+   * attribute class.
+   * <p>
+   * Attributes that provide a {@link #getOptionSource()} return
+   * {@link OptionSetDefForOptionSource#INSTANCE}.
+   *
+   * @param cfg
+   *          The option configuration. May be <code>null</code>.
+   * @param getOptionValuesMethod
+   *          The overridden {@link #getOptionValues()} method. May be <code>null</code>.
+   * @return The option set definition. Never <code>null</code>.
+   */
   protected PmOptionSetDef<?> makeOptionSetDef(PmOptionCfg cfg, Method getOptionValuesMethod) {
     return cfg != null
               ? new GenericOptionSetDef(this, cfg, getOptionValuesMethod)
@@ -1385,7 +1497,6 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
     myMetaData.optionSetDef = (PmOptionSetDef)
           makeOptionSetDef(optionCfg, getOptionValuesMethod);
-
     if (myMetaData.optionSetDef != OptionSetDefNoOption.INSTANCE) {
       myMetaData.setStringConverter(
           new PmConverterOptionBased(optionCfg != null ? optionCfg.id() : ""));
@@ -1586,6 +1697,10 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     private int                             maxLen                  = -1;
     private int                             minLen                  = 0;
     private int                             maxLenDefault;
+    /** The attribute value type. Gets resolved on the first {@link PmAttrBase#getValueType()} call. */
+    private volatile Class<?>               valueType;
+    /** Locale specific format definitions. Get resolved on demand. */
+    private final Map<Locale, FormatInfo>   localeToFormatInfoMap   = new ConcurrentHashMap<Locale, FormatInfo>();
 
     /**
      * @param maxDefaultLen the attribute type specific maximum number of characters.
@@ -1599,7 +1714,10 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
     public PmOptionCfg.NullOption getNullOption() { return nullOption; }
 
     public String getFormatResKey() { return formatResKey; }
-    public void setFormatResKey(String formatResKey) { this.formatResKey = formatResKey; }
+    public void setFormatResKey(String formatResKey) {
+      this.formatResKey = formatResKey;
+      localeToFormatInfoMap.clear();
+    }
 
     public CacheStrategy getCacheStrategyForOptions() { return cacheStrategyForOptions; }
     public CacheStrategy getCacheStrategyForValue() { return cacheStrategyForValue; }
@@ -1642,6 +1760,19 @@ public abstract class PmAttrBase<T_PM_VALUE, T_BEAN_VALUE>
 
   }
 
+  /**
+   * The locale specific format information of an attribute.
+   */
+  private static final class FormatInfo {
+    final String formatString;
+    final String[] parseFormats;
+
+    FormatInfo(String formatString) {
+      this.formatString = formatString;
+      this.parseFormats = StringConverterUtil.splitFormatString(formatString);
+    }
+  }
+
   /**
    * The default implementation defines meta data for an attribute with
    * 'unlimited' length ({@link Short#MAX_VALUE}).
@@ -83,6 +83,7 @@ public abstract class PmBeanBase<T_BEAN>
       else {
         ((PmObjectBase)pmParent).registerInPmBeanCache(this);
       }
+      IncrementalValidation.onPmChanged(this);
     }
   }
 
@@ -188,6 +189,8 @@ public abstract class PmBeanBase<T_BEAN>
 
     pmBean = null;
 
+    IncrementalValidation.onPmChanged(this);
+
     if (bean != null) {
       checkBeanClass(bean);
       pmBean = bean;
@@ -278,17 +281,28 @@ public abstract class PmBeanBase<T_BEAN>
    */
   @Override
   public void pmValidate() {
-    super.pmValidate();
-    if (getPmBean() != null &&
-        getOwnMetaData().validateUsesBeanValidation &&
-        PmMessageApi.getPmTreeMessages(this, Severity.ERROR).size() == 0) {
-      Validator validator = PmImplUtil.getBeanValidator();
-      if (validator != null) {
-        @SuppressWarnings("unchecked")
-        Set<ConstraintViolation<?>> violations = (Set<ConstraintViolation<?>>)(Object) validator.validate(getPmBean());
-        PmImplUtil.beanConstraintViolationsToPmMessages(this, violations);
+    // The attribute and the bean validation share a single bean validation call.
+    BeanValidationBatch batch = BeanValidationBatch.open(getPmConversationImpl());
+    try {
+      super.pmValidate();
+      if (getPmBean() != null &&
+          getOwnMetaData().validateUsesBeanValidation &&
+          PmMessageApi.getPmTreeMessages(this, Severity.ERROR).size() == 0) {
+        BeanValidationBatch currentBatch = BeanValidationBatch.getCurrent(getPmConversationImpl());
+        Validator validator = PmImplUtil.getBeanValidator();
+        if (currentBatch != null) {
+          PmImplUtil.beanConstraintViolationsToPmMessages(this, currentBatch.getViolations(getPmBean()));
+        }
+        else if (validator != null) {
+          @SuppressWarnings("unchecked")
+          Set<ConstraintViolation<?>> violations = (Set<ConstraintViolation<?>>)(Object) validator.validate(getPmBean());
+          PmImplUtil.beanConstraintViolationsToPmMessages(this, violations);
+        }
       }
     }
+    finally {
+      BeanValidationBatch.close(batch);
+    }
   }
 
   private void checkBeanClass(Object bean) {
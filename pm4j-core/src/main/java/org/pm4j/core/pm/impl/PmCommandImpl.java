@@ -6,11 +6,16 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.exception.PmUserMessageException;
+import org.pm4j.core.pm.PmAsyncCommandHandle;
 import org.pm4j.core.pm.PmCommand;
 import org.pm4j.core.pm.PmCommandDecorator;
 import org.pm4j.core.pm.PmConstants;
@@ -70,17 +75,17 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
   /** The command logic commandDecorators to execute. */
   /* package */ PmCommandDecoratorSetImpl commandDecorators = new PmCommandDecoratorSetImpl();
 
+  /** The execution state of this command instance. */
+  private Execution execution = new Execution(CommandState.TEMPLATE);
+
   /**
-   * The command decorator that returned <code>false</code> for its call of
-   * {@link PmCommandDecorator#beforeDo(PmCommand)}.
-   * <p>
-   * In other words: The decorator that prevented the execution of the
-   * {@link #doItImpl()} logic of this command.
+   * The execution states of a stateless command. Each thread sees the state of
+   * its running execution. This way concurrent and nested executions don't
+   * overwrite each other within the shared command instance.<br>
+   * Is only set while the command logic is running. The caller gets the state
+   * with the result of {@link #doIt()}.
    */
-  private PmCommandDecorator vetoCommandDecorator;
-
-  /** The command (execution) state. */
-  private CommandState commandState = CommandState.TEMPLATE;
+  private final ThreadLocal<Execution> statelessExecutions = new ThreadLocal<Execution>();
 
   /**
    * A processed command (after starting {@link #doItImpl()}) was cloned from a
@@ -88,6 +93,9 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
    */
   private PmCommandImpl templateCommand;
 
+  /** The asynchronous execution of this command clone. Is <code>null</code> for synchronous executions. */
+  private AsyncExecution asyncExecution;
+
   /**
    * Constructor for fix commands that have an associated field in the parent
    * PM.
@@ -199,89 +207,60 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
    * @return
    */
   public PmCommand doIt(boolean changeCommandHistory) {
-    PmCommandImpl cmd = zz_doCloneAndRegisterEventSource();
-
-    if (cmd.beforeDo()) {
-      NaviLink link = null;
-      try {
-        cmd.doItImpl();
-        link = cmd.afterDo(changeCommandHistory);
-        cmd.commandState = CommandState.EXECUTED;
-      }
-      catch (Exception e) {
-        cmd.commandState = CommandState.FAILED;
-
-        // The standard exception handling can be prevented by a decorator that
-        // says that it already handeled everything.
-        boolean useStandardExceptionHandling = true;
-        Exception exceptionToHandle = e;
+    PmCommandImpl cmd = zz_getExecutionInstance();
+    Execution exec = cmd.startExecution();
 
+    try {
+      if (cmd.beforeDo()) {
+        NaviLink link = null;
         try {
-          useStandardExceptionHandling = commandDecorators.onException(this, e);
-        } catch (RuntimeException e2) {
-          LOG.info(PmUtil.getPmLogString(cmd) + ": Exception thrown by a command decorator while handling a catched exception '" + this + "'", e);
-          exceptionToHandle = e2;
+          cmd.doItImpl();
+          link = cmd.afterDo(changeCommandHistory);
+          exec.commandState = CommandState.EXECUTED;
         }
-
-        if (useStandardExceptionHandling) {
-          link = getPmConversationImpl().getPmExceptionHandler().onException(cmd, exceptionToHandle, false);
-        }
-
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("Command '" + PmUtil.getPmLogString(cmd) + "' failed with exception: '" + e.getMessage() + "'.");
+        catch (Exception e) {
+          link = handleDoItException(cmd, exec, e, false);
         }
+        execNavigateTo(link);
+      }
+      else {
+        exec.commandState = CommandState.BEFORE_DO_RETURNED_FALSE;
       }
-      execNavigateTo(link);
     }
-    else {
-      cmd.commandState = CommandState.BEFORE_DO_RETURNED_FALSE;
+    finally {
+      cmd.endExecution(exec);
     }
 
-    return cmd;
+    return (exec != cmd.execution)
+        ? cmd.makeExecutionResult(exec)
+        : cmd;
   }
 
   // TODO olaf: 80% code copy of doIt(boolean)...
   public final String doItReturnString() {
-    PmCommandImpl cmd = zz_doCloneAndRegisterEventSource();
+    PmCommandImpl cmd = zz_getExecutionInstance();
+    Execution exec = cmd.startExecution();
     NaviLink link = null;
 
-    if (!cmd.beforeDo()) {
-      cmd.commandState = CommandState.BEFORE_DO_RETURNED_FALSE;
-      link = cmd.actionReturnOnFailure(null);
-    }
-    else {
-      try {
-        cmd.doItImpl();
-        link = cmd.afterDo(true);
-        cmd.commandState = CommandState.EXECUTED;
+    try {
+      if (!cmd.beforeDo()) {
+        exec.commandState = CommandState.BEFORE_DO_RETURNED_FALSE;
+        link = cmd.actionReturnOnFailure(null);
       }
-      catch (Exception e) {
-        cmd.commandState = CommandState.FAILED;
-
-        // The standard exception handling can be prevented by a decorator that
-        // says that it already handeled everything.
-        boolean useStandardExceptionHandling = true;
-        Exception exceptionToHandle = e;
-
+      else {
         try {
-          useStandardExceptionHandling = commandDecorators.onException(this, e);
-        } catch (RuntimeException e2) {
-          LOG.info(PmUtil.getPmLogString(cmd) + ": Exception thrown by a command decorator while handling a catched exception '" + this + "'", e);
-          exceptionToHandle = e2;
-        }
-
-        if (useStandardExceptionHandling) {
-          link = getPmConversationImpl().getPmExceptionHandler().onException(cmd, exceptionToHandle, true);
+          cmd.doItImpl();
+          link = cmd.afterDo(true);
+          exec.commandState = CommandState.EXECUTED;
         }
-
-        link = cmd.actionReturnOnFailure(link);
-
-
-        if (LOG.isDebugEnabled()) {
-          LOG.debug("Command '" + PmUtil.getPmLogString(cmd) + "' failed with exception: '" + e.getMessage() + "'.");
+        catch (Exception e) {
+          link = cmd.actionReturnOnFailure(handleDoItException(cmd, exec, e, true));
         }
       }
     }
+    finally {
+      cmd.endExecution(exec);
+    }
 
     return execNavigateTo(link);
   }
@@ -290,6 +269,67 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
     doIt();
   }
 
+  @Override
+  public PmAsyncCommandHandle doItAsync() {
+    PmCommandImpl cmd = zz_doCloneAndRegisterEventSource();
+    AsyncExecution execution = new AsyncExecution(this, cmd);
+    cmd.asyncExecution = execution;
+
+    if (cmd.beforeDo()) {
+      cmd.execution.commandState = CommandState.RUNNING;
+      Executor executor = getPmConversationImpl().getPmCommandExecutor();
+      if (executor != null) {
+        executor.execute(execution);
+      }
+      else {
+        execution.run();
+      }
+    }
+    else {
+      cmd.execution.commandState = CommandState.BEFORE_DO_RETURNED_FALSE;
+      execution.doneLatch.countDown();
+    }
+
+    return execution;
+  }
+
+  /**
+   * Handles an exception thrown by the <code>doItImpl</code> or <code>afterDo</code>
+   * logic of an executed command clone.
+   *
+   * @param cmd the failed command clone.
+   * @param exec the execution state of the failed command.
+   * @param e the exception to handle.
+   * @param forActionString <code>true</code> if the caller needs to provide a navigation string.
+   * @return the navigation link provided by the exception handler. May be <code>null</code>.
+   */
+  private NaviLink handleDoItException(PmCommandImpl cmd, Execution exec, Exception e, boolean forActionString) {
+    NaviLink link = null;
+    exec.commandState = CommandState.FAILED;
+
+    // The standard exception handling can be prevented by a decorator that
+    // says that it already handeled everything.
+    boolean useStandardExceptionHandling = true;
+    Exception exceptionToHandle = e;
+
+    try {
+      useStandardExceptionHandling = commandDecorators.onException(this, e);
+    } catch (RuntimeException e2) {
+      LOG.info(PmUtil.getPmLogString(cmd) + ": Exception thrown by a command decorator while handling a catched exception '" + this + "'", e);
+      exceptionToHandle = e2;
+    }
+
+    if (useStandardExceptionHandling) {
+      link = getPmConversationImpl().getPmExceptionHandler().onException(cmd, exceptionToHandle, forActionString);
+    }
+
+    if (LOG.isDebugEnabled()) {
+      LOG.debug("Command '" + PmUtil.getPmLogString(cmd) + "' failed with exception: '" + e.getMessage() + "'.");
+    }
+
+    return link;
+  }
+
   @Override
   public PmCommand getUndoCommand() {
     return undoCommand;
@@ -297,10 +337,16 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
 
   /**
    * Defines the command that may undo this one.
+   * <p>
+   * Can't be used for stateless commands, because an undo command is execution
+   * specific state.
    *
    * @param undoCommand
    */
   public void setUndoCommand(PmCommand undoCommand) {
+    if (isStatelessInstance()) {
+      throw new PmRuntimeException(this, "A stateless command can't provide an undo command. Please remove the 'stateless' configuration.");
+    }
     this.undoCommand = undoCommand;
   }
 
@@ -316,6 +362,31 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
   protected void doItImpl() throws Exception {
   }
 
+  /**
+   * May be called by the {@link #doItImpl()} logic of an asynchronously executed
+   * command to report its progress.
+   * <p>
+   * Has no effect if the command is executed synchronously.
+   *
+   * @param percent the progress in percent. A value between 0 and 100.
+   */
+  protected void reportProgress(int percent) {
+    if (asyncExecution != null) {
+      asyncExecution.progress = Math.max(0, Math.min(100, percent));
+    }
+  }
+
+  /**
+   * Long running {@link #doItImpl()} implementations should check this state and
+   * return as soon as possible if it is <code>true</code>.
+   *
+   * @return <code>true</code> if the cancellation of the asynchronous execution
+   *         was requested.
+   */
+  protected boolean isCancelRequested() {
+    return asyncExecution != null && asyncExecution.cancelRequested;
+  }
+
   /**
    * Defines a target for navigation after command execution.
    * <p>
@@ -326,7 +397,7 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
    * @param naviLink The target to navigate to after command execution.
    */
   protected final void navigateTo(NaviLink naviLink) {
-    this.naviLink = naviLink;
+    setExecutionNaviLink(naviLink);
   }
 
   /**
@@ -340,7 +411,32 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
    *          pages of the wizzard itself.
    */
   protected void navigateBack(NaviLink... linksToSkip) {
-    this.naviLink = getNavigateBackLink(linksToSkip);
+    setExecutionNaviLink(getNavigateBackLink(linksToSkip));
+  }
+
+  /**
+   * A stateless command keeps a navigation link that gets defined while it
+   * gets executed as execution state.
+   */
+  private void setExecutionNaviLink(NaviLink naviLink) {
+    Execution exec = getExecution();
+    if (exec != execution) {
+      exec.naviLink = naviLink;
+      exec.naviLinkSet = true;
+    }
+    else {
+      this.naviLink = naviLink;
+    }
+  }
+
+  /**
+   * @return the navigation link defined by the current or last execution of a
+   *         stateless command. The configured navigation link in all other
+   *         cases.
+   */
+  private NaviLink getExecutionNaviLink() {
+    Execution exec = getExecution();
+    return exec.naviLinkSet ? exec.naviLink : naviLink;
   }
 
   /**
@@ -468,13 +564,14 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
   }
 
   protected NaviLink getNaviLinkImpl() {
-    return naviLink;
+    return getExecutionNaviLink();
   }
 
   @Override
   @Deprecated
   public boolean isRequiresValidValues() {
-    return getBeforeDoStrategy() == BEFORE_DO.VALIDATE;
+    BEFORE_DO beforeDo = getBeforeDoStrategy();
+    return beforeDo == BEFORE_DO.VALIDATE || beforeDo == BEFORE_DO.VALIDATE_CHANGES;
   }
 
   // -- internal helper --
@@ -513,6 +610,8 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
     try {
       PmCommandImpl clone = (PmCommandImpl)super.clone();
       clone.templateCommand = this;
+      clone.asyncExecution = null;
+      clone.execution = new Execution(CommandState.CLONED);
       return clone;
     }
     catch (CloneNotSupportedException e) {
@@ -525,9 +624,82 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
     // All other instances should share its meta data.
     zz_ensurePmInitialization();
 
-    PmCommandImpl clone = clone();
-    clone.commandState = CommandState.CLONED;
-    return clone;
+    return clone();
+  }
+
+  /**
+   * @return The command instance that executes the command logic. Is the command
+   *         itself for stateless commands and a clone for all other commands.
+   */
+  private PmCommandImpl zz_getExecutionInstance() {
+    zz_ensurePmInitialization();
+    return getOwnMetaData().stateless
+        ? this
+        : zz_doCloneAndRegisterEventSource();
+  }
+
+  /**
+   * @return <code>true</code> if this is a stateless command instance that
+   *         executes its logic itself.
+   */
+  private boolean isStatelessInstance() {
+    return templateCommand == null && getOwnMetaData().stateless;
+  }
+
+  /**
+   * Provides the state holder for a new execution of this instance.
+   * <p>
+   * A command clone has its own state holder. A stateless command gets a new
+   * state holder for each execution. It is visible for the executing thread only.
+   *
+   * @return the state holder to use for the execution.
+   */
+  private Execution startExecution() {
+    if (!isStatelessInstance()) {
+      return execution;
+    }
+    Execution exec = new Execution(CommandState.CLONED);
+    exec.outerExecution = statelessExecutions.get();
+    statelessExecutions.set(exec);
+    return exec;
+  }
+
+  /**
+   * Removes the state of a finished stateless execution from the executing thread.<br>
+   * A nested execution of the same stateless command gives the state of the outer
+   * execution back.
+   */
+  private void endExecution(Execution exec) {
+    if (exec != execution) {
+      if (exec.outerExecution != null) {
+        statelessExecutions.set(exec.outerExecution);
+        exec.outerExecution = null;
+      }
+      else {
+        statelessExecutions.remove();
+      }
+    }
+  }
+
+  /**
+   * Provides the state of a finished stateless execution to the caller.<br>
+   * It's a flat copy of this command that gets not registered within the PM tree.
+   */
+  private PmCommandImpl makeExecutionResult(Execution exec) {
+    PmCommandImpl result = clone();
+    result.execution = exec;
+    return result;
+  }
+
+  /**
+   * @return the state of the current or last execution of this instance. For
+   *         stateless commands: The state of the execution that is currently done
+   *         by the calling thread.
+   */
+  private Execution getExecution() {
+    // A clone shares the thread local with its template, but has its own state.
+    Execution exec = (templateCommand == null) ? statelessExecutions.get() : null;
+    return (exec != null) ? exec : execution;
   }
 
   /**
@@ -541,7 +713,9 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
    * {@link #getValidationErrorRootPm()}.
    */
   protected boolean validate() {
-    return PmValidationApi.validateSubTree(getValidationExecRootPm(), getValidationErrorRootPm());
+    return (getBeforeDoStrategy() == BEFORE_DO.VALIDATE_CHANGES)
+        ? PmValidationApi.validateChangedSubTree(getValidationExecRootPm(), getValidationErrorRootPm())
+        : PmValidationApi.validateSubTree(getValidationExecRootPm(), getValidationErrorRootPm());
   }
 
   /**
@@ -606,6 +780,7 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
 
     switch (getBeforeDoStrategy()) {
       case VALIDATE:
+      case VALIDATE_CHANGES:
         if (! validate()) {
           if (LOG.isDebugEnabled()) {
             LOG.debug("Command '" + PmUtil.getPmLogString(this) + "' was not executed because of validation errors.");
@@ -622,7 +797,8 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
         throw new PmRuntimeException(this, "Can't handle 'beforeDo' definition: " + getOwnMetaData().beforeDo);
     }
 
-    vetoCommandDecorator = commandDecorators.beforeDoReturnVetoDecorator(this);
+    PmCommandDecorator vetoCommandDecorator = commandDecorators.beforeDoReturnVetoDecorator(this);
+    getExecution().vetoCommandDecorator = vetoCommandDecorator;
     // before-do was successful if all decorators agree.
     return vetoCommandDecorator == null;
   }
@@ -633,7 +809,8 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
     }
 
     // TODO olaf: that's not really always true. Subclasses should be able to control that.
-    if (getBeforeDoStrategy() == BEFORE_DO.VALIDATE) {
+    BEFORE_DO beforeDo = getBeforeDoStrategy();
+    if (beforeDo == BEFORE_DO.VALIDATE || beforeDo == BEFORE_DO.VALIDATE_CHANGES) {
       PmDataInput validationParentPm = getValidationExecRootPm();
       validationParentPm.setPmValueChanged(false);
     }
@@ -662,7 +839,7 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
 
     PmEventApi.firePmEvent(this, PmEvent.EXEC_COMMAND);
 
-    return naviLink;
+    return getExecutionNaviLink();
   }
 
 
@@ -677,13 +854,19 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
    * @return activeCommandDecorator
    */
   public PmCommandDecorator getVetoCommandDecorator() {
-    return vetoCommandDecorator;
+    return getExecution().vetoCommandDecorator;
   }
 
-  /** {@inheritDoc} */
+  /**
+   * {@inheritDoc}
+   * <p>
+   * A stateless command reports the state of the execution that is currently
+   * done by the calling thread. The state of a finished execution is provided
+   * by the command returned by {@link #doIt()}.
+   */
   @Override
   public CommandState getCommandState() {
-    return commandState;
+    return getExecution().commandState;
   }
 
   private String execNavigateTo(NaviLink link) {
@@ -749,6 +932,159 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
     }
   }
 
+  /** The state of a command execution. */
+  private static final class Execution {
+    /** The command (execution) state. */
+    private volatile CommandState commandState;
+
+    /**
+     * The command decorator that returned <code>false</code> for its call of
+     * {@link PmCommandDecorator#beforeDo(PmCommand)}.
+     * <p>
+     * In other words: The decorator that prevented the execution of the
+     * {@link #doItImpl()} logic of this command.
+     */
+    private PmCommandDecorator vetoCommandDecorator;
+
+    /** A navigation link defined by the execution of a stateless command. */
+    private NaviLink naviLink;
+    private boolean naviLinkSet;
+
+    /** The state of a running outer execution of the same stateless command. */
+    private Execution outerExecution;
+
+    Execution(CommandState commandState) {
+      this.commandState = commandState;
+    }
+  }
+
+  /**
+   * Executes the {@link #doItImpl()} logic of a command clone in the background
+   * and applies its result on request.
+   */
+  private static final class AsyncExecution implements PmAsyncCommandHandle, Runnable {
+    private final PmCommandImpl template;
+    private final PmCommandImpl cmd;
+    private final CountDownLatch doneLatch = new CountDownLatch(1);
+    private volatile int progress;
+    private volatile boolean cancelRequested;
+    private volatile Exception failure;
+    /** Guarded by the conversation lock. */
+    private boolean applied;
+
+    AsyncExecution(PmCommandImpl template, PmCommandImpl cmd) {
+      this.template = template;
+      this.cmd = cmd;
+    }
+
+    /**
+     * Executes the {@link PmCommandImpl#doItImpl()} logic without holding the
+     * conversation lock. Only {@link #applyResult()} takes the lock.
+     */
+    @Override
+    public void run() {
+      try {
+        if (!cancelRequested) {
+          cmd.doItImpl();
+          if (!cancelRequested) {
+            progress = 100;
+          }
+        }
+      }
+      catch (Exception e) {
+        failure = e;
+      }
+      finally {
+        doneLatch.countDown();
+      }
+
+      Executor completionExecutor = template.getPmConversationImpl().getPmCompletionExecutor();
+      if (completionExecutor != null) {
+        completionExecutor.execute(new Runnable() {
+          @Override
+          public void run() {
+            applyResult();
+          }
+        });
+      }
+    }
+
+    @Override
+    public PmCommand getCommand() {
+      return cmd;
+    }
+
+    @Override
+    public boolean isDone() {
+      return doneLatch.getCount() == 0;
+    }
+
+    @Override
+    public int getProgress() {
+      return progress;
+    }
+
+    @Override
+    public boolean cancel() {
+      if (isDone()) {
+        return false;
+      }
+      cancelRequested = true;
+      return true;
+    }
+
+    @Override
+    public boolean isCancelRequested() {
+      return cancelRequested;
+    }
+
+    @Override
+    public boolean awaitDone(long timeout, TimeUnit unit) throws InterruptedException {
+      return doneLatch.await(timeout, unit);
+    }
+
+    @Override
+    public boolean applyResult() {
+      if (!isDone()) {
+        return false;
+      }
+
+      Lock lock = template.getPmConversationImpl().getPmLock();
+      lock.lock();
+      try {
+        if (applied || cmd.execution.commandState != CommandState.RUNNING) {
+          return true;
+        }
+        applied = true;
+
+        NaviLink link = null;
+        if (failure != null) {
+          link = template.handleDoItException(cmd, cmd.execution, failure, false);
+        }
+        else if (cancelRequested) {
+          cmd.execution.commandState = CommandState.CANCELED;
+          if (LOG.isDebugEnabled()) {
+            LOG.debug("Command '" + PmUtil.getPmLogString(cmd) + "' was canceled.");
+          }
+        }
+        else {
+          try {
+            link = cmd.afterDo(true);
+            cmd.execution.commandState = CommandState.EXECUTED;
+          }
+          catch (Exception e) {
+            link = template.handleDoItException(cmd, cmd.execution, e, false);
+          }
+        }
+        template.execNavigateTo(link);
+      }
+      finally {
+        lock.unlock();
+      }
+      return true;
+    }
+  }
+
   // ======== meta data ======== //
 
   @Override
@@ -767,6 +1103,7 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
       myMetaData.beforeDo = annotation.beforeDo();
       myMetaData.cmdKind = annotation.cmdKind();
       myMetaData.hideWhenNotEnabled = annotation.hideWhenNotEnabled();
+      myMetaData.stateless = annotation.stateless();
       if (annotation.clearCaches().length > 0) {
         myMetaData.clearCachesSet = new TreeSet<PmCacheApi.CacheKind>(Arrays.asList(annotation.clearCaches()));
       }
@@ -789,6 +1126,10 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
      * Should the command be hidden when not applicable. Defaults to <code>false</code>.
      */
     private boolean hideWhenNotEnabled = false;
+    /**
+     * Should the command be executed without creating a clone. Defaults to <code>false</code>.
+     */
+    private boolean stateless = false;
 
     public boolean isHideWhenNotEnabled() {
       return hideWhenNotEnabled;
@@ -796,6 +1137,12 @@ public class PmCommandImpl extends PmObjectBase implements PmCommand, Cloneable
     public void setHideWhenNotEnabled(boolean hideWhenNotEnabled) {
       this.hideWhenNotEnabled = hideWhenNotEnabled;
     }
+    public boolean isStateless() {
+      return stateless;
+    }
+    public void setStateless(boolean stateless) {
+      this.stateless = stateless;
+    }
     public CmdKind getCmdKind() {
       return cmdKind;
     }
@@ -11,9 +11,14 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.pm.PmCommand;
 import org.pm4j.core.pm.PmCommandHistory;
 import org.pm4j.core.pm.PmConversation;
 import org.pm4j.core.pm.PmDefaults;
@@ -74,6 +79,12 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
 
   private List<PmMessage> pmMessages = Collections.synchronizedList(new ArrayList<PmMessage>());
 
+  /** The bean validation results of the currently running validation. Is <code>null</code> if there is none. */
+  /* package */ BeanValidationBatch beanValidationBatch;
+
+  /** Tracks the changes for incremental validations. Is only used within the root conversation. */
+  /* package */ volatile IncrementalValidation incrementalValidation;
+
 
   /**
    * Weak references to failed attributes to allow an efficient error state
@@ -86,11 +97,51 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
    */
   private Map<Object, Object> pmNamedObjects = new ConcurrentHashMap<Object, Object>();
 
+  /**
+   * Memoized results of {@link #getPmNamedObject(String)}. Gets initialized on first access.
+   */
+  private volatile NamedObjectCache pmNamedObjectCache;
+
+  /**
+   * Memoized result of {@link #getNamedObjectScope()}. Is valid as long as
+   * {@link #namedObjectScopeVersion} is not changed.
+   */
+  private volatile NamedObjectScope pmNamedObjectScope;
+
+  /**
+   * Gets incremented for each parent or resolver change of any conversation.
+   * Such changes are rare. They invalidate the memoized named object scopes of
+   * all conversations.
+   */
+  private static final AtomicInteger namedObjectScopeVersion = new AtomicInteger();
+
+  /** Conversation classes and the information if they override {@link #handleNamedPmObjectNotFound(String)}. */
+  private static final Map<Class<?>, Boolean> classToNotFoundHandlerOverriddenMap = new ConcurrentHashMap<Class<?>, Boolean>();
+
   /**
    * The history of undo/redo commands.
    */
   private PmCommandHistoryImpl pmCommandHistory = new PmCommandHistoryImpl();
 
+  /**
+   * Executes the logic of asynchronous commands. Is optional. If not configured,
+   * the executor of the parent conversation will be used.
+   */
+  private Executor pmCommandExecutor;
+
+  /**
+   * Applies the results of background operations. E.g. an executor that runs
+   * its tasks within the UI thread. Is optional. If not configured, the
+   * executor of the parent conversation will be used.
+   */
+  private Executor pmCompletionExecutor;
+
+  /**
+   * Guards the application of asynchronous results. Only the lock of the root
+   * conversation is used.
+   */
+  private final Lock pmLock = new ReentrantLock();
+
   /**
    * Default constructor for some limited dependency injection frameworks
    * that don't support constructor parameters.
@@ -234,6 +285,72 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
     return result;
   }
 
+  /**
+   * Defines the executor that executes the logic of asynchronous commands.
+   * See {@link PmCommand#doItAsync()}.
+   *
+   * @param pmCommandExecutor the executor. May be <code>null</code>.
+   */
+  public void setPmCommandExecutor(Executor pmCommandExecutor) {
+    this.pmCommandExecutor = pmCommandExecutor;
+  }
+
+  /**
+   * @return The executor for asynchronous commands. If no local executor is defined,
+   *         the executor of the parent conversation will be returned.<br>
+   *         Is <code>null</code> if there is no executor defined.
+   */
+  public Executor getPmCommandExecutor() {
+    if (pmCommandExecutor == null && getPmParentConversation() != null) {
+      return ((PmConversationImpl)getPmParentConversation()).getPmCommandExecutor();
+    }
+    return pmCommandExecutor;
+  }
+
+  /**
+   * Defines the executor that applies the results of background operations.
+   * <p>
+   * A rich client UI may provide an executor that runs the tasks within its UI
+   * thread. The result of an asynchronous command then gets applied without an
+   * explicit {@link org.pm4j.core.pm.PmAsyncCommandHandle#applyResult()} call
+   * and all related events get fired within the UI thread.
+   *
+   * @param pmCompletionExecutor the executor. May be <code>null</code>.
+   */
+  public void setPmCompletionExecutor(Executor pmCompletionExecutor) {
+    this.pmCompletionExecutor = pmCompletionExecutor;
+  }
+
+  /**
+   * @return The executor that applies the results of background operations. If
+   *         no local executor is defined, the executor of the parent
+   *         conversation will be returned.<br>
+   *         Is <code>null</code> if there is no executor defined.
+   */
+  public Executor getPmCompletionExecutor() {
+    if (pmCompletionExecutor == null && getPmParentConversation() != null) {
+      return ((PmConversationImpl)getPmParentConversation()).getPmCompletionExecutor();
+    }
+    return pmCompletionExecutor;
+  }
+
+  /**
+   * Provides the lock that guards the PM tree while the results of asynchronous
+   * operations get applied.
+   * <p>
+   * The background logic of asynchronous commands and page loads runs without
+   * this lock. Applications that access the conversation by multiple threads
+   * may use it to synchronize their access with the application of these
+   * results.
+   *
+   * @return The lock of the root conversation.
+   */
+  public Lock getPmLock() {
+    return (getPmParentConversation() != null)
+        ? ((PmConversationImpl)getPmParentConversation()).getPmLock()
+        : pmLock;
+  }
+
   /**
    * Defines the {@link NamedObjectResolver} to be used for PM expressions.
    *
@@ -241,6 +358,8 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
    */
   public void setPmNamedObjectResolver(NamedObjectResolver namedObjectResolver) {
     this.pmNamedObjectResolver = namedObjectResolver;
+    namedObjectScopeVersion.incrementAndGet();
+    getRootPmConversationImpl().getPmNamedObjectCache().invalidateAll();
   }
 
   /**
@@ -252,6 +371,8 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
   public void setPmToViewTechnologyConnector(PmToViewTechnologyConnector pmToViewTechnologyConnector) {
     this.pmToViewTechnologyConnector = pmToViewTechnologyConnector;
     this.pmNamedObjectResolver = NamedObjectResolverChain.combineResolvers(pmNamedObjectResolver, pmToViewTechnologyConnector.getNamedObjectResolver());
+    namedObjectScopeVersion.incrementAndGet();
+    getRootPmConversationImpl().getPmNamedObjectCache().invalidateAll();
   }
 
   /**
@@ -282,13 +403,28 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
   @Override
   public PmConversation getPmParentConversation() {
     if (pmParentConversation == this) {
-      pmParentConversation = getPmParent() != null
+      PmConversationImpl parentConversation = getPmParent() != null
               ? (PmConversationImpl)getPmParent().getPmConversation()
               : null;
+      // A missing parent is not memoized. The parent may get attached later.
+      if (parentConversation == null) {
+        return null;
+      }
+      pmParentConversation = parentConversation;
     }
     return pmParentConversation;
   }
 
+  /**
+   * Resets the memoized parent conversation.
+   */
+  @Override
+  public void setPmParent(PmObject pmParent) {
+    super.setPmParent(pmParent);
+    pmParentConversation = this;
+    namedObjectScopeVersion.incrementAndGet();
+  }
+
   @Override
   protected BeanPmFactory getOwnPmElementFactory() {
     // local test factory support:
@@ -483,9 +619,9 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
    * @param name Name of the missing property.
    */
   protected void handleNamedPmObjectNotFound(String name) {
-    if (pmParentConversation != null &&
-        pmParentConversation != this) {
-      pmParentConversation.handleNamedPmObjectNotFound(name);
+    PmConversationImpl parentConversation = (PmConversationImpl) getPmParentConversation();
+    if (parentConversation != null) {
+      parentConversation.handleNamedPmObjectNotFound(name);
     }
   }
 
@@ -494,29 +630,57 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
     return !getPmMessages(null, Severity.ERROR).isEmpty();
   }
 
+  /**
+   * Looks for the named object in the named object maps and resolvers of this
+   * conversation and its parent conversations.
+   * <p>
+   * The results (including 'not found' results) are cached if there is no
+   * {@link NamedObjectResolver} within the conversation hierarchy. A cache hit
+   * does not walk the conversation hierarchy.<br>
+   * A resolver may provide context specific (e.g. request scoped) objects. A
+   * conversation hierarchy with a resolver (e.g. the resolver of a JSF
+   * connector) does not use the cache at all.
+   * <p>
+   * The cache gets invalidated by {@link #setPmNamedObject(String, Object)} calls within
+   * the conversation hierarchy and by resolver configuration changes.
+   */
   @Override
   public Object getPmNamedObject(String key) {
-    // 1. check the explicitely defined named objects
-    Object obj = pmNamedObjects.get(key);
-    if (obj != null) {
-      return obj;
+    NamedObjectCache rootCache = getRootPmNamedObjectCacheToUse();
+    if (rootCache == null) {
+      return findPmNamedObject(key);
     }
 
-    // 2. check the explicitely defined named object resolver
-    if (pmNamedObjectResolver != null) {
-      obj = pmNamedObjectResolver.findObject(key);
+    NamedObjectCache cache = getPmNamedObjectCache();
+    long stamp = rootCache.getStamp(key);
+    NamedObjectCache.Entry cacheEntry = cache.getEntry(rootCache, key, stamp);
+    if (cacheEntry != null) {
+      return cacheEntry.value;
+    }
+
+    Object obj = findPmNamedObject(key);
+    cache.put(rootCache, key, stamp, obj);
+    return obj;
+  }
+
+  private Object findPmNamedObject(String key) {
+    // if not found locally: ask the parent conversation
+    for (PmConversationImpl c = this; c != null; c = (PmConversationImpl) c.getPmParentConversation()) {
+      // 1. check the explicitely defined named objects
+      Object obj = c.pmNamedObjects.get(key);
       if (obj != null) {
+        return obj;
+      }
+
+      // 2. check the explicitely defined named object resolver
+      if (c.pmNamedObjectResolver != null) {
+        obj = c.pmNamedObjectResolver.findObject(key);
+        if (obj != null) {
           return obj;
         }
+      }
     }
-
-    // 3. if not found locally: ask the parent conversation
-    PmConversation pc = getPmParentConversation();
-    if (pc != null) {
-      obj = pc.getPmNamedObject(key);
-    }
-
-    return obj;
+    return null;
   }
 
   @Override
@@ -525,12 +689,135 @@ public class PmConversationImpl extends PmElementBase implements PmConversation
       LOG.debug("setPmNamedObject '" + key + "' to '" + value + "'. PmConversation context: " + PmUtil.getPmLogString(this));
     }
 
-    if (value == null) {
-      return pmNamedObjects.remove(key);
+    try {
+      if (value == null) {
+        return pmNamedObjects.remove(key);
+      }
+      else {
+        return pmNamedObjects.put(key, value);
+      }
     }
-    else {
-      return pmNamedObjects.put(key, value);
+    finally {
+      getRootPmConversationImpl().getPmNamedObjectCache().invalidate(key);
+    }
+  }
+
+  /**
+   * Calls {@link #handleNamedPmObjectNotFound(String)}. If the object can't be
+   * found after that call, the result will be remembered.<br>
+   * Nothing gets remembered if a conversation of the hierarchy overrides
+   * {@link #handleNamedPmObjectNotFound(String)}. It may provide the object
+   * on a later call.<br>
+   * See {@link #isPmNamedObjectNotFoundHandled(String)}.
+   */
+  /* package */ void handleNamedPmObjectNotFoundAndRemember(String key) {
+    NamedObjectScope scope = getNamedObjectScope();
+    NamedObjectCache rootCache = scope.notFoundHandlerOverridden ? null : scope.rootCache;
+    long stamp = (rootCache != null) ? rootCache.getStamp(key) : 0;
+    handleNamedPmObjectNotFound(key);
+    if (rootCache != null && getPmNamedObject(key) == null) {
+      getPmNamedObjectCache().markNotFoundHandled(rootCache, key, stamp);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if there is a valid cached information, that the named
+   *         object could not be found after calling {@link #handleNamedPmObjectNotFound(String)}.
+   */
+  /* package */ boolean isPmNamedObjectNotFoundHandled(String key) {
+    NamedObjectScope scope = getNamedObjectScope();
+    if (scope.rootCache == null || scope.notFoundHandlerOverridden) {
+      return false;
+    }
+    NamedObjectCache.Entry e = getPmNamedObjectCache().getEntry(scope.rootCache, key, scope.rootCache.getStamp(key));
+    return e != null && e.notFoundHandled;
+  }
+
+  /**
+   * @return The named object cache of the root conversation.<br>
+   *         <code>null</code> if there is a {@link NamedObjectResolver} within
+   *         the conversation hierarchy. In this case the cache can't be used.
+   */
+  private NamedObjectCache getRootPmNamedObjectCacheToUse() {
+    return getNamedObjectScope().rootCache;
+  }
+
+  /**
+   * Walks the current parent conversation chain only if a conversation parent
+   * or resolver was changed since the last call. This way the cache follows a
+   * conversation that gets attached to a parent after its cache was used.
+   */
+  private NamedObjectScope getNamedObjectScope() {
+    int version = namedObjectScopeVersion.get();
+    NamedObjectScope scope = pmNamedObjectScope;
+    if (scope == null || scope.version != version) {
+      PmConversationImpl root = this;
+      boolean hasResolver = false;
+      boolean notFoundHandlerOverridden = false;
+      for (PmConversationImpl c = this; c != null; c = (PmConversationImpl) c.getPmParentConversation()) {
+        hasResolver |= !NamedObjectResolverChain.isNullResolver(c.pmNamedObjectResolver);
+        notFoundHandlerOverridden |= isNotFoundHandlerOverridden(c.getClass());
+        root = c;
+      }
+      scope = new NamedObjectScope(hasResolver ? null : root.getPmNamedObjectCache(), notFoundHandlerOverridden, version);
+      pmNamedObjectScope = scope;
+    }
+    return scope;
+  }
+
+  private static boolean isNotFoundHandlerOverridden(Class<?> conversationClass) {
+    Boolean overridden = classToNotFoundHandlerOverriddenMap.get(conversationClass);
+    if (overridden == null) {
+      overridden = Boolean.FALSE;
+      for (Class<?> c = conversationClass; c != PmConversationImpl.class; c = c.getSuperclass()) {
+        try {
+          c.getDeclaredMethod("handleNamedPmObjectNotFound", String.class);
+          overridden = Boolean.TRUE;
+          break;
+        }
+        catch (NoSuchMethodException e) {
+          // not overridden by this class.
+        }
+      }
+      classToNotFoundHandlerOverriddenMap.put(conversationClass, overridden);
+    }
+    return overridden;
+  }
+
+  /** The named object lookup related information about the conversation hierarchy. */
+  private static final class NamedObjectScope {
+    /** The cache of the root conversation. Is <code>null</code> if there is a resolver within the hierarchy. */
+    final NamedObjectCache rootCache;
+    /** <code>true</code> if a conversation of the hierarchy overrides {@link PmConversationImpl#handleNamedPmObjectNotFound(String)}. */
+    final boolean notFoundHandlerOverridden;
+    final int version;
+
+    NamedObjectScope(NamedObjectCache rootCache, boolean notFoundHandlerOverridden, int version) {
+      this.rootCache = rootCache;
+      this.notFoundHandlerOverridden = notFoundHandlerOverridden;
+      this.version = version;
+    }
+  }
+
+  private PmConversationImpl getRootPmConversationImpl() {
+    PmConversationImpl root = this;
+    while (root.getPmParentConversation() != null) {
+      root = (PmConversationImpl) root.getPmParentConversation();
+    }
+    return root;
+  }
+
+  private NamedObjectCache getPmNamedObjectCache() {
+    NamedObjectCache cache = pmNamedObjectCache;
+    if (cache == null) {
+      synchronized (this) {
+        cache = pmNamedObjectCache;
+        if (cache == null) {
+          cache = pmNamedObjectCache = new NamedObjectCache();
+        }
+      }
     }
+    return cache;
   }
 
   // ======== Buffered data input support ======== //
@@ -1,10 +1,15 @@
 package org.pm4j.core.pm.impl;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmConversation;
 import org.pm4j.core.pm.PmDataInput;
+import org.pm4j.core.pm.PmDefaults;
 import org.pm4j.core.pm.PmEvent;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.api.PmEventApi;
@@ -15,11 +20,51 @@ import org.pm4j.core.pm.api.PmVisitorApi.PmVisitResult;
 
 public abstract class PmDataInputBase extends PmObjectBase implements PmDataInput {
 
+  /**
+   * The framework classes that override {@link #isPmValueChangedImpl()} with a
+   * logic that is covered by the changed state counters.
+   */
+  private static final Set<String> COUNTED_CHANGED_STATE_IMPL_CLASSES = new HashSet<String>(Arrays.asList(
+      PmDataInputBase.class.getName(),
+      PmAttrBase.class.getName(),
+      PmBeanBase.class.getName(),
+      PmPagerImpl.class.getName(),
+      PmTableColImpl.SortOrderAttr.class.getName(),
+      "org.pm4j.deprecated.core.pm.impl.DeprPmPagerImpl"));
+
   /**
    * An indicator that may be used to declare this PM as changed.
    */
   private boolean pmExpliciteChangedFlag;
 
+  /**
+   * The number of descendants that are marked as changed by an explicite changed
+   * flag or by an attribute value change.
+   * <p>
+   * Allows to answer {@link #isPmValueChanged()} without a sub tree scan if there
+   * is no changed descendant.
+   */
+  private int pmChangedDescendantCount;
+
+  /**
+   * The number of initialized descendants that have a custom changed state logic.<br>
+   * Their changed state is not reflected by {@link #pmChangedDescendantCount}.
+   * Thus the sub tree has to be scanned if this counter is not zero.
+   */
+  private int pmCustomChangedLogicDescendantCount;
+
+  /** The number of own changed states that are counted by the parents. */
+  private int pmOwnChangedCount;
+
+  /** The number of own custom changed logic registrations that are counted by the parents. */
+  private int pmOwnCustomChangedLogicCount;
+
+  /**
+   * Is <code>true</code> for a released factory PM. Its changed state is no
+   * longer counted by its parents.
+   */
+  private boolean pmChangedStateDetached;
+
   public PmDataInputBase(PmObject parentPm) {
     super(parentPm);
   }
@@ -37,11 +82,37 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
            isPmValueChangedImpl();
   }
 
+  /**
+   * Subclasses may override this method to report changes which are not
+   * based on the changed state of the child PMs.<br>
+   * An override gets detected when the meta data get initialized (see
+   * {@link PmObjectBase.MetaData#setCustomChangedStateLogic(boolean)}). The
+   * parents of such a PM always ask it for its changed state.
+   */
   protected boolean isPmValueChangedImpl() {
     if (pmExpliciteChangedFlag) {
       return true;
     }
 
+    // Nothing changed within the sub tree: No need to scan the children.
+    if (pmChangedDescendantCount == 0 &&
+        pmCustomChangedLogicDescendantCount == 0) {
+      if (PmDefaults.getInstance().debugChangedStateTracking &&
+          isAnyChildPmValueChanged()) {
+        throw new PmRuntimeException(this, "Incrementally tracked changed state is 'false' but the sub tree contains a changed PM.");
+      }
+      return false;
+    }
+
+    return isAnyChildPmValueChanged();
+  }
+
+  /**
+   * Scans the children for a changed state.
+   *
+   * @return <code>true</code> if a visible and editable child is changed.
+   */
+  private boolean isAnyChildPmValueChanged() {
     // XXX olaf: the tree related question should be factored out to a utiltiy.
     List<PmDataInput> items = PmUtil.getPmChildrenOfType(this, PmDataInput.class);
     for (int i = 0; i < items.size(); ++i) {
@@ -121,12 +192,153 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
   private boolean _setPmValueChangedForThisInstanceOnly(PmDataInputBase pm, boolean newChangedState) {
     boolean wasChanged = pm.isPmValueChanged();
 
-    pm.pmExpliciteChangedFlag = newChangedState;
+    if (pm.pmExpliciteChangedFlag != newChangedState) {
+      pm.pmExpliciteChangedFlag = newChangedState;
+      pm.zz_onOwnChangedStateChange(newChangedState);
+    }
     pm.setPmValueChangedImpl(newChangedState);
 
     return wasChanged != newChangedState;
   }
 
+  /**
+   * INTERNAL method.<br>
+   * Informs the parent hierarchy about a change of the changed state that is
+   * handled by this PM itself (explicite flag or attribute value change).
+   *
+   * @param changed the new own changed state.
+   */
+  /* package */ void zz_onOwnChangedStateChange(boolean changed) {
+    int delta = changed ? 1 : -1;
+    pmOwnChangedCount += delta;
+    if (!pmChangedStateDetached) {
+      addToParentCounters(delta, 0);
+    }
+  }
+
+  /**
+   * INTERNAL method.<br>
+   * Gets called when a factory generated PM gets released. The parents no longer
+   * count the changed states of this PM and its sub tree.
+   */
+  /* package */ void zz_onPmReleased() {
+    if (!pmChangedStateDetached) {
+      addToParentCounters(-(pmOwnChangedCount + pmChangedDescendantCount),
+                          -(pmOwnCustomChangedLogicCount + pmCustomChangedLogicDescendantCount));
+      pmChangedStateDetached = true;
+    }
+  }
+
+  /**
+   * INTERNAL method.<br>
+   * Gets called when a released factory PM gets used again. The parents count
+   * the changed states of this PM and its sub tree again.
+   */
+  /* package */ void zz_onPmReused() {
+    if (pmChangedStateDetached) {
+      pmChangedStateDetached = false;
+      addToParentCounters(pmOwnChangedCount + pmChangedDescendantCount,
+                          pmOwnCustomChangedLogicCount + pmCustomChangedLogicDescendantCount);
+    }
+  }
+
+  /** @return the number of changed descendants. Is used for tests. */
+  /* package */ int getPmChangedDescendantCount() {
+    return pmChangedDescendantCount;
+  }
+
+  /**
+   * Adds the given deltas to the counters of the parent hierarchy.
+   * <p>
+   * Stops at a sub-conversation because it does not influence the changed state
+   * of its parents. Stops also at a released parent, because that one is no
+   * longer counted by its own parents.
+   */
+  private void addToParentCounters(int changedDelta, int customChangedLogicDelta) {
+    for (PmObject p = getPmParent(); p != null; p = p.getPmParent()) {
+      if (p instanceof PmDataInputBase) {
+        PmDataInputBase d = (PmDataInputBase)p;
+        d.pmChangedDescendantCount += changedDelta;
+        d.pmCustomChangedLogicDescendantCount += customChangedLogicDelta;
+        if (d.pmChangedStateDetached) {
+          break;
+        }
+      }
+      if (p instanceof PmConversation) {
+        break;
+      }
+    }
+  }
+
+  /**
+   * A PM that gets its parent assigned after being used may already have a
+   * changed state. The new parents can't rely on their changed state counters in
+   * this case.
+   */
+  @Override
+  public void setPmParent(PmObject pmParent) {
+    super.setPmParent(pmParent);
+    if (pmInitState != PmInitState.NOT_INITIALIZED ||
+        pmChangedDescendantCount != 0 ||
+        pmCustomChangedLogicDescendantCount != 0) {
+      incCustomChangedLogicDescendantCount();
+    }
+  }
+
+  /**
+   * INTERNAL method.<br>
+   * Gets called when the PM initialization is done. Informs the parent hierarchy
+   * if this PM has a changed state logic that is not covered by the changed state
+   * counters.
+   */
+  /* package */ void zz_onPmInitialized() {
+    if (getPmMetaDataWithoutPmInitCall().isCustomChangedStateLogic()) {
+      incCustomChangedLogicDescendantCount();
+    }
+    if (getPmMetaDataWithoutPmInitCall().crossFieldValidation) {
+      IncrementalValidation.registerCrossFieldValidator(this);
+    }
+  }
+
+  /**
+   * In addition: Marks the meta data of PM classes with an own
+   * {@link #isPmValueChangedImpl()} logic as 'custom changed state logic'.
+   */
+  @Override
+  protected void initMetaData(MetaData metaData) {
+    super.initMetaData(metaData);
+    if (hasCustomChangedStateImpl(getClass())) {
+      metaData.setCustomChangedStateLogic(true);
+    }
+  }
+
+  /**
+   * @return <code>true</code> if the class or one of its super classes overrides
+   *         {@link #isPmValueChangedImpl()} and the override is not known to be
+   *         covered by the changed state counters.
+   */
+  private static boolean hasCustomChangedStateImpl(Class<?> pmClass) {
+    for (Class<?> c = pmClass; c != null && c != PmDataInputBase.class; c = c.getSuperclass()) {
+      if (!COUNTED_CHANGED_STATE_IMPL_CLASSES.contains(c.getName())) {
+        try {
+          c.getDeclaredMethod("isPmValueChangedImpl");
+          return true;
+        }
+        catch (NoSuchMethodException e) {
+          // not overridden by this class.
+        }
+      }
+    }
+    return false;
+  }
+
+  private void incCustomChangedLogicDescendantCount() {
+    ++pmOwnCustomChangedLogicCount;
+    if (!pmChangedStateDetached) {
+      addToParentCounters(0, 1);
+    }
+  }
+
   @Override
   public void resetPmValues() {
     for (PmDataInput d : PmUtil.getPmChildrenOfType(this, PmDataInput.class)) {
@@ -145,11 +357,18 @@ public abstract class PmDataInputBase extends PmObjectBase implements PmDataInpu
   @Override
   public void pmValidate() {
     if (isPmVisible() && !isPmReadonly()) {
-      for (PmDataInput d : PmUtil.getPmChildrenOfType(this, PmDataInput.class)) {
-        if (d.isPmVisible() && !d.isPmReadonly()) {
-          d.pmValidate();
+      // Beans that are shared by the child attributes get validated only once.
+      BeanValidationBatch batch = BeanValidationBatch.open(getPmConversationImpl());
+      try {
+        for (PmDataInput d : PmUtil.getPmChildrenOfType(this, PmDataInput.class)) {
+          if (d.isPmVisible() && !d.isPmReadonly()) {
+            d.pmValidate();
+          }
         }
       }
+      finally {
+        BeanValidationBatch.close(batch);
+      }
     }
   }
 
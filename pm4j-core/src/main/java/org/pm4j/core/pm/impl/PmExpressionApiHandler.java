@@ -35,12 +35,17 @@ public class PmExpressionApiHandler {
     Object result = _findNamedObjectImpl(pm, objName);
 
     if (result == null) {
+      PmConversationImpl s = (PmConversationImpl)pm.getPmConversation();
+      // Repeated requests for missing objects don't need to pass the lock.
+      if (s.isPmNamedObjectNotFoundHandled(objName)) {
+        return null;
+      }
+
       // prevent double initialization:
       synchronized(PmUtil.getRootSession(pm)) {
         result = _findNamedObjectImpl(pm, objName);
         if (result == null) {
-          PmConversationImpl s = (PmConversationImpl)pm.getPmConversation();
-          s.handleNamedPmObjectNotFound(objName);
+          s.handleNamedPmObjectNotFoundAndRemember(objName);
           result = _findNamedObjectImpl(pm, objName);
         }
       }
@@ -60,7 +65,8 @@ public class PmExpressionApiHandler {
     PmConversation pmConversation = (PmConversationImpl)pm.getPmConversation();
 
     // TODO olaf: move that out as a very optional configuration part of the conversation or view connector...
-    result = new NaviHistoryNamedObjectResolver(pmConversation).findObject(objName);
+    // The navigation history is not cached. It's asked for each request to reflect navigation scope changes.
+    result = NaviHistoryNamedObjectResolver.findObject(pmConversation, objName);
 
     if (result == null) {
       result = pmConversation.getPmNamedObject(objName);
@@ -0,0 +1,412 @@
+package org.pm4j.core.pm.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pm4j.core.pm.PmConstants;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEvent.ValueChangeKind;
+import org.pm4j.core.pm.PmLazyTreeNode;
+import org.pm4j.core.pm.PmLazyTreeNode.ChildLoadState;
+import org.pm4j.core.pm.PmTreeNode;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.api.PmLocalizeApi;
+
+/**
+ * Loads the child nodes of a {@link PmLazyTreeNode} page by page.
+ * <p>
+ * The pages get loaded by the asynchronous command executor of the
+ * conversation (see {@link PmConversationImpl#setPmCommandExecutor(Executor)}).
+ * If there is no executor configured, the pages get loaded by the calling
+ * thread.
+ * <p>
+ * A loaded page gets applied while holding the lock of the conversation.
+ * After that a {@link PmEvent#VALUE_CHANGE} event of the tree node informs the
+ * observers. A completion executor may be used to apply the page within the UI
+ * thread (see {@link #setCompletionExecutor(Executor)} and
+ * {@link PmConversationImpl#setPmCompletionExecutor(Executor)}).
+ * <p>
+ * Usage example:
+ * <pre>
+ * public class DirPm extends PmBeanBase&lt;File&gt; implements PmLazyTreeNode {
+ *
+ *   private final PmLazyTreeNodeChildren children = new PmLazyTreeNodeChildren(this, 100) {
+ *     protected List&lt;PmTreeNode&gt; loadPage(int offset, int maxCount) {
+ *       ...
+ *     }
+ *   };
+ *
+ *   public List&lt;PmTreeNode&gt; getPmChildNodes() {
+ *     return children.getChildNodes();
+ *   }
+ *   ...
+ * }
+ * </pre>
+ *
+ * @author olaf boede
+ */
+public abstract class PmLazyTreeNodeChildren {
+
+  private static final Log LOG = LogFactory.getLog(PmLazyTreeNodeChildren.class);
+
+  private final PmLazyTreeNode treeNode;
+  private final int pageSize;
+  private volatile Executor completionExecutor;
+
+  // -- guarded by this --
+  private List<PmTreeNode> loadedNodes = Collections.emptyList();
+  private ChildLoadState loadState = ChildLoadState.NOT_LOADED;
+  private Exception loadFailure;
+  /** Gets incremented on each reload. Results of older load operations get ignored. */
+  private int loadGeneration;
+  /** The thread that applies a result before its load request returns. It does not need an event. */
+  private Thread syncLoadThread;
+
+  private Placeholder loadingPlaceholder;
+  private Placeholder morePlaceholder;
+  private Placeholder failurePlaceholder;
+
+  /**
+   * @param treeNode
+   *          The node to load the child nodes for.
+   * @param pageSize
+   *          The maximum number of child nodes to load with a single load
+   *          operation. <code>0</code> loads all child nodes at once.
+   */
+  public PmLazyTreeNodeChildren(PmLazyTreeNode treeNode, int pageSize) {
+    this.treeNode = treeNode;
+    this.pageSize = pageSize;
+  }
+
+  /**
+   * Loads a page of child nodes.<br>
+   * May be called by a background thread.
+   *
+   * @param offset
+   *          The number of already loaded child nodes.
+   * @param maxCount
+   *          The maximum number of child nodes to provide.
+   *          <code>0</code> if all child nodes should be provided.
+   * @return The loaded child nodes. A page having less than
+   *         <code>maxCount</code> items is the last page.
+   * @throws Exception
+   *           A load failure. Will be reported by the load state
+   *           {@link ChildLoadState#FAILED}.
+   */
+  protected abstract List<? extends PmTreeNode> loadPage(int offset, int maxCount) throws Exception;
+
+  /**
+   * Provides a hint without loading the child nodes.<br>
+   * The default implementation returns <code>true</code>.
+   *
+   * @return <code>false</code> if the node is known to have no child nodes.
+   */
+  protected boolean mayHaveChildNodes() {
+    return true;
+  }
+
+  /**
+   * See {@link PmLazyTreeNode#getPmChildNodes()}.
+   */
+  public List<PmTreeNode> getChildNodes() {
+    boolean startLoad;
+    synchronized (this) {
+      startLoad = (loadState == ChildLoadState.NOT_LOADED);
+    }
+    if (startLoad) {
+      startLoad(ChildLoadState.NOT_LOADED);
+    }
+
+    synchronized (this) {
+      Placeholder placeholder = getPlaceholder();
+      if (placeholder == null) {
+        return loadedNodes;
+      }
+      List<PmTreeNode> list = new ArrayList<PmTreeNode>(loadedNodes.size() + 1);
+      list.addAll(loadedNodes);
+      list.add(placeholder);
+      return Collections.unmodifiableList(list);
+    }
+  }
+
+  /**
+   * See {@link PmLazyTreeNode#isPmTreeLeaf()}.
+   */
+  public synchronized boolean isLeaf() {
+    return (loadState == ChildLoadState.LOADED)
+        ? loadedNodes.isEmpty()
+        : (loadState == ChildLoadState.NOT_LOADED) && !mayHaveChildNodes();
+  }
+
+  /**
+   * See {@link PmLazyTreeNode#getPmChildLoadState()}.
+   */
+  public synchronized ChildLoadState getLoadState() {
+    return loadState;
+  }
+
+  /**
+   * @return The exception of the last failed load operation. <code>null</code> if the last operation did not fail.
+   */
+  public synchronized Exception getLoadFailure() {
+    return loadFailure;
+  }
+
+  /**
+   * See {@link PmLazyTreeNode#loadMorePmChildNodes()}.
+   */
+  public void loadMore() {
+    startLoad(ChildLoadState.PARTIALLY_LOADED);
+  }
+
+  /**
+   * See {@link PmLazyTreeNode#reloadPmChildNodes()}.<br>
+   * Informs the observers by a {@link PmEvent#VALUE_CHANGE} event having the
+   * change kind {@link ValueChangeKind#RELOAD}.
+   */
+  public void reload() {
+    synchronized (this) {
+      ++loadGeneration;
+      loadedNodes = Collections.emptyList();
+      loadState = ChildLoadState.NOT_LOADED;
+      loadFailure = null;
+    }
+    PmEventApi.firePmEvent(treeNode, PmEvent.VALUE_CHANGE, ValueChangeKind.RELOAD);
+  }
+
+  /**
+   * Defines the executor that applies the loaded pages.<br>
+   * A UI may use it to apply the pages within its UI thread.
+   * <p>
+   * If no executor is defined, the completion executor of the conversation
+   * will be used. If there is none, the pages will be applied by the loading
+   * thread.<br>
+   * Pages that get loaded synchronously (without a command executor) are
+   * always applied immediately.
+   *
+   * @param completionExecutor the executor. May be <code>null</code>.
+   */
+  public void setCompletionExecutor(Executor completionExecutor) {
+    this.completionExecutor = completionExecutor;
+  }
+
+  /**
+   * @return The tree node this instance loads the child nodes for.
+   */
+  public PmLazyTreeNode getTreeNode() {
+    return treeNode;
+  }
+
+  /**
+   * Starts a load operation if the current load state is the expected one.
+   */
+  private void startLoad(ChildLoadState expectedState) {
+    int offset;
+    int generation;
+    synchronized (this) {
+      if (loadState != expectedState) {
+        return;
+      }
+      loadState = ChildLoadState.LOADING;
+      loadFailure = null;
+      offset = loadedNodes.size();
+      generation = loadGeneration;
+    }
+
+    if (expectedState != ChildLoadState.NOT_LOADED) {
+      // Informs about the visible placeholder change.
+      PmEventApi.firePmEvent(treeNode, PmEvent.VALUE_CHANGE, ValueChangeKind.UNKNOWN);
+    }
+
+    PmConversationImpl conversation = ((PmObjectBase)treeNode).getPmConversationImpl();
+    Executor executor = conversation.getPmCommandExecutor();
+    if (executor != null) {
+      Executor completion = (completionExecutor != null)
+          ? completionExecutor
+          : conversation.getPmCompletionExecutor();
+      executor.execute(new LoadTask(offset, generation, completion));
+    }
+    else {
+      synchronized (this) {
+        syncLoadThread = Thread.currentThread();
+      }
+      try {
+        new LoadTask(offset, generation, null).run();
+      }
+      finally {
+        synchronized (this) {
+          syncLoadThread = null;
+        }
+      }
+    }
+  }
+
+  /**
+   * Applies the result of a load operation and informs the observers.
+   */
+  private void applyResult(LoadTask task) {
+    Lock lock = ((PmObjectBase)treeNode).getPmConversationImpl().getPmLock();
+    lock.lock();
+    try {
+      boolean fireEvent;
+      synchronized (this) {
+        if (task.generation != loadGeneration || loadState != ChildLoadState.LOADING) {
+          // outdated by a reload.
+          return;
+        }
+        if (task.failure != null) {
+          loadFailure = task.failure;
+          loadState = ChildLoadState.FAILED;
+        }
+        else {
+          List<PmTreeNode> list = new ArrayList<PmTreeNode>(loadedNodes.size() + task.page.size());
+          list.addAll(loadedNodes);
+          list.addAll(task.page);
+          loadedNodes = Collections.unmodifiableList(list);
+          loadState = (pageSize > 0 && task.page.size() >= pageSize)
+              ? ChildLoadState.PARTIALLY_LOADED
+              : ChildLoadState.LOADED;
+        }
+        fireEvent = (syncLoadThread != Thread.currentThread());
+      }
+
+      if (fireEvent) {
+        PmEventApi.firePmEvent(treeNode, PmEvent.VALUE_CHANGE,
+            task.failure != null ? ValueChangeKind.UNKNOWN : ValueChangeKind.ADD_ITEM);
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /** Guarded by this. */
+  private Placeholder getPlaceholder() {
+    switch (loadState) {
+      case LOADING:
+        if (loadingPlaceholder == null) {
+          loadingPlaceholder = new Placeholder(this, ChildLoadState.LOADING);
+        }
+        return loadingPlaceholder;
+      case PARTIALLY_LOADED:
+        if (morePlaceholder == null) {
+          morePlaceholder = new Placeholder(this, ChildLoadState.PARTIALLY_LOADED);
+        }
+        return morePlaceholder;
+      case FAILED:
+        if (failurePlaceholder == null) {
+          failurePlaceholder = new Placeholder(this, ChildLoadState.FAILED);
+        }
+        return failurePlaceholder;
+      default:
+        return null;
+    }
+  }
+
+  /** Loads a single page. */
+  private class LoadTask implements Runnable {
+    final int offset;
+    final int generation;
+    /** Applies the result. <code>null</code> if the loading thread should apply it. */
+    final Executor completion;
+    List<? extends PmTreeNode> page = Collections.emptyList();
+    Exception failure;
+
+    LoadTask(int offset, int generation, Executor completion) {
+      this.offset = offset;
+      this.generation = generation;
+      this.completion = completion;
+    }
+
+    @Override
+    public void run() {
+      try {
+        List<? extends PmTreeNode> p = loadPage(offset, pageSize);
+        if (p != null) {
+          page = p;
+        }
+      }
+      catch (Exception e) {
+        LOG.error("Unable to load the child nodes of '" + PmUtil.getPmLogString(treeNode) + "'.", e);
+        failure = e;
+      }
+
+      if (completion != null) {
+        completion.execute(new Runnable() {
+          @Override
+          public void run() {
+            applyResult(LoadTask.this);
+          }
+        });
+      }
+      else {
+        applyResult(this);
+      }
+    }
+  }
+
+  /**
+   * The node that gets displayed after the loaded child nodes while the child
+   * nodes get loaded or if there are more child nodes to load.
+   */
+  public static class Placeholder extends PmElementImpl {
+
+    private final PmLazyTreeNodeChildren children;
+    private final ChildLoadState loadState;
+
+    Placeholder(PmLazyTreeNodeChildren children, ChildLoadState loadState) {
+      super(children.treeNode);
+      this.children = children;
+      this.loadState = loadState;
+    }
+
+    /**
+     * @return The load state this placeholder is displayed for.
+     */
+    public ChildLoadState getLoadState() {
+      return loadState;
+    }
+
+    /**
+     * Loads the next page if this placeholder represents more child nodes to
+     * load. Reloads the child nodes if this placeholder represents a load
+     * failure.<br>
+     * Bindings may call this method if the user selects the placeholder.
+     */
+    public void requestLoad() {
+      if (loadState == ChildLoadState.PARTIALLY_LOADED) {
+        children.loadMore();
+      }
+      else if (loadState == ChildLoadState.FAILED) {
+        children.reload();
+      }
+    }
+
+    @Override
+    protected String getPmTitleImpl() {
+      switch (loadState) {
+        case LOADING:          return PmLocalizeApi.localize(this, PmConstants.MSGKEY_TREE_NODE_LOADING);
+        case PARTIALLY_LOADED: return PmLocalizeApi.localize(this, PmConstants.MSGKEY_TREE_NODE_MORE);
+        default:
+          Exception e = children.getLoadFailure();
+          return PmLocalizeApi.localize(this, PmConstants.MSGKEY_TREE_NODE_LOAD_FAILED, e != null ? e.getMessage() : "");
+      }
+    }
+
+    @Override
+    public List<PmTreeNode> getPmChildNodes() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isPmTreeLeaf() {
+      return true;
+    }
+  }
+
+}
@@ -34,6 +34,7 @@ import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmBean;
 import org.pm4j.core.pm.PmCommand;
 import org.pm4j.core.pm.PmConversation;
+import org.pm4j.core.pm.PmDataInput;
 import org.pm4j.core.pm.PmDefaults;
 import org.pm4j.core.pm.PmElement;
 import org.pm4j.core.pm.PmEvent;
@@ -46,6 +47,7 @@ import org.pm4j.core.pm.annotation.PmCacheCfg.CacheMode;
 import org.pm4j.core.pm.annotation.PmFactoryCfg;
 import org.pm4j.core.pm.annotation.PmInit;
 import org.pm4j.core.pm.annotation.PmTitleCfg;
+import org.pm4j.core.pm.annotation.PmValidationCfg;
 import org.pm4j.core.pm.annotation.customize.CustomizedAnnotationUtil;
 import org.pm4j.core.pm.annotation.customize.PmAnnotationApi;
 import org.pm4j.core.pm.api.PmCacheApi;
@@ -829,6 +831,9 @@ public abstract class PmObjectBase implements PmObject {
               throw PmRuntimeException.asPmRuntimeException(this, e);
             }
             pmInitState = PmInitState.INITIALIZED;
+            if (this instanceof PmDataInputBase) {
+              ((PmDataInputBase)this).zz_onPmInitialized();
+            }
           }
         }
       }
@@ -874,6 +879,11 @@ public abstract class PmObjectBase implements PmObject {
       }
     }
 
+    if (this instanceof PmDataInput) {
+      PmValidationCfg validationCfg = AnnotationUtil.findAnnotation(this, PmValidationCfg.class);
+      metaData.crossFieldValidation = (validationCfg != null) && validationCfg.crossFieldValidation();
+    }
+
     metaData.ensureDerivedNames(this);
 
     if (metaData.resKeyBase == null) {
@@ -1038,6 +1048,15 @@ public abstract class PmObjectBase implements PmObject {
     /** all methods annotated with {@link PmInit} */
     private List<Method> initMethods;
 
+    /** See {@link PmValidationCfg#crossFieldValidation()}. */
+    boolean crossFieldValidation;
+
+    /**
+     * Is <code>true</code> if the PM reports changes that are not based on the
+     * changed state of its child PMs. E.g. a table with modified row beans.
+     */
+    private boolean customChangedStateLogic;
+
     public String getName() { return name; }
     /* package */ String getAbsoluteName() { return absoluteName; }
 
@@ -1063,6 +1082,9 @@ public abstract class PmObjectBase implements PmObject {
     public boolean isReadOnly() { return readOnly; }
     public void setReadOnly(boolean readOnly) { this.readOnly = readOnly; }
 
+    public boolean isCustomChangedStateLogic() { return customChangedStateLogic; }
+    public void setCustomChangedStateLogic(boolean customChangedStateLogic) { this.customChangedStateLogic = customChangedStateLogic; }
+
     // TODO: change to a hierarchical name structure. is simpler and faster.
     void ensureDerivedNames(PmObjectBase pmObject) {
       compositeChildName = isSubPm
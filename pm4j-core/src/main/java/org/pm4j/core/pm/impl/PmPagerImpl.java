@@ -8,6 +8,7 @@ import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmAttrLong;
 import org.pm4j.core.pm.PmCommand;
 import org.pm4j.core.pm.PmCommandDecorator;
+import org.pm4j.core.pm.PmConstants;
 import org.pm4j.core.pm.PmLabel;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.PmPager;
@@ -15,6 +16,8 @@ import org.pm4j.core.pm.annotation.PmBeanCfg;
 import org.pm4j.core.pm.annotation.PmCommandCfg;
 import org.pm4j.core.pm.annotation.PmTitleCfg;
 import org.pm4j.core.pm.api.PmLocalizeApi;
+import org.pm4j.core.pm.impl.pageable.PmBeanCollectionAsync;
+import org.pm4j.core.pm.impl.pageable.PmBeanCollectionAsync.PageLoadState;
 
 /**
  * Implementation for standard pager functionality.
@@ -98,6 +101,9 @@ public class PmPagerImpl
   public final PmLabel itemXtillYofZ = new PmLabelImpl(this) {
     @Override
     protected String getPmTitleImpl() {
+        if (getPageLoadState() == PageLoadState.LOADING) {
+          return PmLocalizeApi.localize(this, PmConstants.MSGKEY_PAGER_LOADING);
+        }
         PageableCollection<?> ps = getPmBean();
         return PmLocalizeApi.localize(this, getPmResKey(),
                 PageableCollectionUtil.getIdxOfFirstItemOnPage(ps),
@@ -236,6 +242,18 @@ public class PmPagerImpl
             super.isPmValueChanged();
   }
 
+  /**
+   * @return the load state of the current page. Is always
+   *         {@link PageLoadState#LOADED} if the pages do not get loaded in the
+   *         background (see {@link PmBeanCollectionAsync}).
+   */
+  public PageLoadState getPageLoadState() {
+    PageableCollection<?> pc = getPmBean();
+    return (pc instanceof PmBeanCollectionAsync)
+        ? ((PmBeanCollectionAsync<?, ?>)pc).getPageLoadState()
+        : PageLoadState.LOADED;
+  }
+
   @Override
   public void setPageableCollection(PageableCollection<?> pageableCollection) {
     setPmBean(pageableCollection);
@@ -3,6 +3,7 @@ package org.pm4j.core.pm.impl;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyVetoException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
@@ -10,6 +11,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Executor;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
@@ -66,6 +68,8 @@ import org.pm4j.core.pm.api.PmValidationApi;
 import org.pm4j.core.pm.impl.cache.CacheStrategyBase;
 import org.pm4j.core.pm.impl.cache.CacheStrategyRequest;
 import org.pm4j.core.pm.impl.pageable.PmBeanCollection;
+import org.pm4j.core.pm.impl.pageable.PmBeanCollectionAsync;
+import org.pm4j.core.pm.impl.pageable.PmBeanCollectionAsync.PageLoadState;
 import org.pm4j.core.pm.impl.pathresolver.PathResolver;
 import org.pm4j.core.pm.impl.pathresolver.PmExpressionPathResolver;
 
@@ -472,13 +476,31 @@ public class PmTableImpl
 
   /**
    * Validates the changed row items only.
+   * <p>
+   * The JSR-303 bean validation is done once per row bean in advance. It's done in parallel
+   * if {@link PmDefaults#getBeanValidationExecutor()} is configured.<br>
+   * The row PMs get validated afterwards in row order.
    */
   @Override
   public void pmValidate() {
     Modifications<T_ROW_PM> m = getPmPageableCollection().getModifications();
     List<T_ROW_PM> changes = ListUtil.collectionsToList(m.getAddedItems(), m.getUpdatedItems());
-    for (T_ROW_PM itemPm : changes) {
-      PmValidationApi.validateSubTree(itemPm);
+    BeanValidationBatch batch = BeanValidationBatch.open(getPmConversationImpl());
+    try {
+      if (batch != null) {
+        List<T_ROW_BEAN> beans = new ArrayList<T_ROW_BEAN>(changes.size());
+        for (T_ROW_PM itemPm : changes) {
+          beans.add(itemPm.getPmBean());
+        }
+        batch.prefetch(beans, getPmConversation().getPmDefaults().getBeanValidationExecutor());
+      }
+
+      for (T_ROW_PM itemPm : changes) {
+        PmValidationApi.validateSubTree(itemPm);
+      }
+    }
+    finally {
+      BeanValidationBatch.close(batch);
     }
   }
 
@@ -561,9 +583,49 @@ public class PmTableImpl
       throw new PmRuntimeException(this,
           "The service type provided by 'getPmQueryServiceImpl()' is not a 'PageableQueryService' and not a 'PageableIdQueryService'. Possibly @PmTableCfg#serviceClass is not well configured. Found serivce: " + s);
     }
+    Executor pageLoadExecutor = getPmPageLoadExecutor();
+    if (pageLoadExecutor != null) {
+      if (!(pc instanceof PageQueryCollection)) {
+        throw new PmRuntimeException(this,
+            "A page load executor is only supported for tables that get their data from a 'PageQueryService'. Found service: " + s);
+      }
+      return new PmBeanCollectionAsync<T_ROW_PM, T_ROW_BEAN>(this, PmBean.class, (PageQueryCollection<T_ROW_BEAN, ?>) pc, pageLoadExecutor);
+    }
     return new PmBeanCollection<T_ROW_PM, T_ROW_BEAN>(this, PmBean.class, pc);
   }
 
+  /**
+   * Provides an optional executor that loads the pages in the background.
+   * Is usually used for tables that are backed by a slow service.
+   * <p>
+   * If an executor is provided, {@link #getRowPms()} does not wait for the
+   * service. It provides an empty list while the page gets loaded. A
+   * {@link PmEvent#VALUE_CHANGE} event informs about the loaded page. See
+   * {@link PmBeanCollectionAsync}.
+   * <p>
+   * Is only supported for tables that use a {@link PageQueryService}.
+   * <p>
+   * The base implementation provides <code>null</code>. The pages get loaded
+   * synchronously.
+   *
+   * @return the executor or <code>null</code>.
+   */
+  protected Executor getPmPageLoadExecutor() {
+    return null;
+  }
+
+  /**
+   * @return the load state of the current page. Is always
+   *         {@link PageLoadState#LOADED} if the table does not load its pages
+   *         in the background.
+   */
+  public PageLoadState getPmPageLoadState() {
+    PageableCollection<T_ROW_PM> pc = getPmPageableCollection();
+    return (pc instanceof PmBeanCollectionAsync)
+        ? ((PmBeanCollectionAsync<?, ?>)pc).getPageLoadState()
+        : PageLoadState.LOADED;
+  }
+
   /**
    * Reads the {@link QueryOptions} to using the information provided by the given {@link TablePm2}
    * and {@link QueryService}.
@@ -921,6 +983,8 @@ public class PmTableImpl
     super.initMetaData(metaData);
     @SuppressWarnings("unchecked")
     MetaData myMetaData = (MetaData) metaData;
+    // The modifications of the pageable collection are not reflected by child PMs.
+    myMetaData.setCustomChangedStateLogic(true);
 
     PmTableCfg cfg = AnnotationUtil.findAnnotation(this, PmTableCfg.class);
     if (cfg != null) {
@@ -347,6 +347,22 @@ public final class PmUtil {
     return ((PmObjectBase)pm).getPmMetaDataWithoutPmInitCall().getAbsoluteName();
   }
 
+  /**
+   * Provides an object that identifies the static definition of the given PM.<br>
+   * PM instances that are defined by the same declaration share the same identity.
+   * <p>
+   * May be used as a cache key for information that depends only on the PM definition.
+   * The returned object should only be compared by identity.
+   *
+   * @param pm The PM to get the definition identity for.
+   * @return The identity. <code>null</code> if the PM implementation does not provide meta data.
+   */
+  public static Object getPmMetaDataIdentity(PmObject pm) {
+    return (pm instanceof PmObjectBase)
+        ? ((PmObjectBase)pm).getPmMetaDataWithoutPmInitCall()
+        : null;
+  }
+
   /**
    * Provides a string for logging and debugging.
    *
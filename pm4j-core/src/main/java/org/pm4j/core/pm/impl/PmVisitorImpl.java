@@ -1,10 +1,12 @@
 package org.pm4j.core.pm.impl;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
 
 import org.pm4j.core.pm.PmConversation;
 import org.pm4j.core.pm.PmObject;
@@ -15,13 +17,20 @@ import org.pm4j.core.pm.api.PmVisitorApi.PmVisitResult;
 
 /**
  * Visitor implementations. Descends deep first.
+ * <p>
+ * The tree gets traversed iteratively using an explicit stack of child
+ * cursors. Deeply nested PM trees can't cause stack overflows and the
+ * field bound children of a PM are visited without creating a copy of the
+ * child list.
  *
  * @author dietmar zabel, olaf boede
  */
 public class PmVisitorImpl {
 
-  private final Set<PmVisitHint> hints;
+  private final EnumSet<PmVisitHint> hints;
   private final PmVisitCallBack callBack;
+  /** Is <code>null</code> if the call back is not interested in child enter/leave events. */
+  private final PmVisitHierarchyCallBack hierarchyCallBack;
   private PmObject stopOnPmObject = null;
 
   /**
@@ -33,10 +42,25 @@ public class PmVisitorImpl {
    *          static selections.
    */
   public PmVisitorImpl(PmVisitCallBack callBack, PmVisitHint... hints) {
+    this(callBack, toHintSet(hints));
+  }
+
+  /**
+   * Creates a visitor.
+   *
+   * @param callBack
+   *          the core part of the visitor client.
+   * @param hints
+   *          static selections.
+   */
+  public PmVisitorImpl(PmVisitCallBack callBack, EnumSet<PmVisitHint> hints) {
     assert callBack != null;
     assert hints != null;
     this.callBack = callBack;
-    this.hints = new HashSet<PmVisitHint>(Arrays.asList(hints));
+    this.hierarchyCallBack = (callBack instanceof PmVisitHierarchyCallBack)
+        ? (PmVisitHierarchyCallBack) callBack
+        : null;
+    this.hints = hints;
   }
 
   /**
@@ -48,6 +72,67 @@ public class PmVisitorImpl {
    */
   public PmVisitResult visit(PmObject pm) {
     assert pm != null;
+    PmVisitResult result = visitNode(pm);
+    return (result == PmVisitResult.CONTINUE)
+        ? visitChildren(pm)
+        : result;
+  }
+
+  /**
+   * Starts the visit of pm's children.
+   *
+   * @param pm
+   *          the PM to visit.
+   */
+  public PmVisitResult visitChildren(PmObject pm) {
+    assert pm != null;
+    Deque<ChildCursor> stack = new ArrayDeque<ChildCursor>();
+    ChildCursor rootCursor = openChildren(pm);
+    if (rootCursor != null) {
+      stack.push(rootCursor);
+    }
+
+    while (!stack.isEmpty()) {
+      ChildCursor cursor = stack.peek();
+      PmObject child = (stopOnPmObject == null)
+          ? cursor.next()
+          : null;
+
+      if (child == null) {
+        stack.pop();
+        if (hierarchyCallBack != null) {
+          hierarchyCallBack.leaveChildren(cursor.parent, cursor.children);
+        }
+      }
+      else if (visitNode(child) == PmVisitResult.CONTINUE) {
+        ChildCursor childCursor = openChildren(child);
+        if (childCursor != null) {
+          stack.push(childCursor);
+        }
+      }
+    }
+
+    return (stopOnPmObject != null)
+        ? PmVisitResult.STOP_VISIT
+        : PmVisitResult.CONTINUE;
+  }
+
+  /**
+   * If {@link PmVisitCallBack} visit returns {@link PmVisitResult#STOP_VISIT} the
+   * responsible pm child will be returned.
+   *
+   * @return the visit stopping pm object.
+   */
+  public PmObject getStopOnPmObject() {
+    return stopOnPmObject;
+  }
+
+  /**
+   * Visits the given PM without its children.
+   *
+   * @return {@link PmVisitResult#CONTINUE} if the children of the PM should be visited.
+   */
+  private PmVisitResult visitNode(PmObject pm) {
     PmVisitResult hintResult = considerHints(pm);
     if (hintResult != null) {
       return hintResult;
@@ -61,60 +146,50 @@ public class PmVisitorImpl {
         stopOnPmObject = pm;
         return PmVisitResult.STOP_VISIT;
       case SKIP_CHILDREN:
-        return PmVisitResult.SKIP_CHILDREN;
       case CONTINUE:
-        return visitChildren(pm);
+        return result;
       default:
         throw new RuntimeException("Unhandled visit result: " + result);
     }
   }
 
   /**
-   * Starts the visit of pm's children.
+   * Provides a cursor over the children to visit.
    *
-   * @param pm
-   *          the PM to visit.
+   * @return the cursor or <code>null</code> if there are no children to visit.
    */
-  public PmVisitResult visitChildren(PmObject pm) {
-    assert pm != null;
-    Collection<PmObject> children = getChildren(pm);
-    if (!children.isEmpty()) {
-      if(callBack instanceof PmVisitHierarchyCallBack) {
-        PmVisitHierarchyCallBack vhcb = (PmVisitHierarchyCallBack)callBack;
-        PmVisitResult enterResult = vhcb.enterChildren(pm, children);
-        switch (enterResult) {
+  private ChildCursor openChildren(PmObject pm) {
+    PmObjectBase pmBase = (PmObjectBase) pm;
+    List<PmObject> fieldChildren = pmBase.getPmChildren();
+    // Factory generated PMs are copied because the visit may change the set of factory generated PMs.
+    Collection<PmObject> factoryChildren = hints.contains(PmVisitHint.SKIP_FACTORY_GENERATED_CHILD_PMS)
+        ? Collections.<PmObject>emptyList()
+        : pmBase.getFactoryGeneratedChildPms();
+    List<PmObject> factoryChildList = factoryChildren.isEmpty()
+        ? Collections.<PmObject>emptyList()
+        : new ArrayList<PmObject>(factoryChildren);
+
+    if (fieldChildren.isEmpty() && factoryChildList.isEmpty()) {
+      return null;
+    }
+
+    if (hierarchyCallBack != null) {
+      // The hierarchy call back gets a stable collection of all children.
+      List<PmObject> allChildren = new ArrayList<PmObject>(fieldChildren.size() + factoryChildList.size());
+      allChildren.addAll(fieldChildren);
+      allChildren.addAll(factoryChildList);
+      switch (hierarchyCallBack.enterChildren(pm, allChildren)) {
         case CONTINUE:
-          visitChildrenCollection(children);
-          vhcb.leaveChildren(pm, children);
-          break;
+          return new ChildCursor(pm, allChildren, Collections.<PmObject>emptyList());
         case SKIP_CHILDREN:
-          // continue without having the children visited.
-          return PmVisitResult.CONTINUE;
+          return null;
         case STOP_VISIT:
-          return PmVisitResult.STOP_VISIT;
-        }
+          stopOnPmObject = pm;
+          return null;
       }
-      else {
-        visitChildrenCollection(children);
-      }
-    }
-    if (stopOnPmObject != null) {
-      return PmVisitResult.STOP_VISIT;
     }
 
-    // no stop
-    return PmVisitResult.CONTINUE;
-  }
-
-
-  /**
-   * If {@link PmVisitCallBack} visit returns {@link PmVisitResult#STOP_VISIT} the
-   * responsible pm child will be returned.
-   *
-   * @return the visit stopping pm object.
-   */
-  public PmObject getStopOnPmObject() {
-    return stopOnPmObject;
+    return new ChildCursor(pm, fieldChildren, factoryChildList);
   }
 
   private PmVisitResult considerHints(PmObject pm) {
@@ -150,21 +225,43 @@ public class PmVisitorImpl {
     return null;
   }
 
-  private Collection<PmObject> getChildren(PmObject pm) {
-    Collection<PmObject> allChildren = new ArrayList<PmObject>();
-    allChildren.addAll(((PmObjectBase) pm).getPmChildren());
-    if (!hints.contains(PmVisitHint.SKIP_FACTORY_GENERATED_CHILD_PMS)) {
-      allChildren.addAll(((PmObjectBase) pm).getFactoryGeneratedChildPms());
+  private static EnumSet<PmVisitHint> toHintSet(PmVisitHint... hints) {
+    assert hints != null;
+    EnumSet<PmVisitHint> set = EnumSet.noneOf(PmVisitHint.class);
+    for (PmVisitHint h : hints) {
+      set.add(h);
     }
-    return allChildren;
+    return set;
   }
 
-  private void visitChildrenCollection(Collection<PmObject> children) {
-    for (PmObject child : children) {
-      if (stopOnPmObject != null) {
-        return;
+  /**
+   * Iterates over the children of a PM. Uses index based access to prevent
+   * iterator instances and concurrent modification problems.
+   */
+  private static final class ChildCursor {
+    final PmObject parent;
+    final List<PmObject> children;
+    final List<PmObject> additionalChildren;
+    private int index;
+
+    ChildCursor(PmObject parent, List<PmObject> children, List<PmObject> additionalChildren) {
+      this.parent = parent;
+      this.children = children;
+      this.additionalChildren = additionalChildren;
+    }
+
+    /** @return the next child or <code>null</code> if there is none. */
+    PmObject next() {
+      int size = children.size();
+      if (index < size) {
+        return children.get(index++);
+      }
+      int additionalIdx = index - size;
+      if (additionalIdx < additionalChildren.size()) {
+        ++index;
+        return additionalChildren.get(additionalIdx);
       }
-      visit(child);
+      return null;
     }
   }
 }
@@ -6,6 +6,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.pm4j.core.pm.PmOption;
 import org.pm4j.core.pm.PmOptionSet;
+import org.pm4j.core.pm.PmOptionSource;
 import org.pm4j.core.pm.impl.AttrConverterCtxt;
 import org.pm4j.core.pm.impl.AttrStringConverterBase;
 import org.pm4j.core.pm.impl.PmAttrBase;
@@ -48,6 +49,9 @@ public class PmConverterOptionBased extends AttrStringConverterBase<Object> {
     }
     else {
       PmOption o = os.findOptionForIdString(s);
+      if (o == null && pmAttr.getOptionSource() != null) {
+        o = pmAttr.getOptionSource().findOptionForIdString(s);
+      }
       if (o != null) {
         if (o.getValue() != null) {
           value = o.getValue();
@@ -73,6 +77,11 @@ public class PmConverterOptionBased extends AttrStringConverterBase<Object> {
   protected String valueToStringImpl(AttrConverterCtxt ctxt, Object pmValue) {
     @SuppressWarnings("unchecked")
     PmAttrBase<Object, Object> pmAttr = (PmAttrBase<Object, Object>) ctxt.getPmAttr();
+    PmOptionSource optionSource = pmAttr.getOptionSource();
+    if (optionSource != null) {
+      PmOption o = optionSource.findOptionForValue(pmValue);
+      return (o != null) ? o.getIdAsString() : null;
+    }
     Object backingValue = pmAttr.convertPmValueToBackingValue(pmValue);
     return ObjectUtils.toString(idPath.getValue(backingValue));
   }
@@ -1,5 +1,8 @@
 package org.pm4j.core.pm.impl.expr;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.pm4j.common.expr.AttributeExpr;
 import org.pm4j.common.expr.ExprExecCtxt;
 import org.pm4j.common.expr.ExprExecExeption;
@@ -22,7 +25,12 @@ import org.pm4j.common.util.reflection.ReflectionException;
  */
 public class PmVariableOrAttributeExpr extends OptionalExpressionBase<ExprExecCtxt> {
 
-  private Expression concreteExpr;
+  /**
+   * The resolution result for each class of current values: An attribute
+   * expression or the exception that reports a missing attribute.<br>
+   * Parsed expressions may be shared between threads.
+   */
+  private final ConcurrentMap<Class<?>, Object> classToAttrExprMap = new ConcurrentHashMap<Class<?>, Object>();
 
   public PmVariableOrAttributeExpr(ParseCtxt ctxt, NameWithModifier nameWithModifier) {
     super(ctxt, nameWithModifier);
@@ -30,7 +38,10 @@ public class PmVariableOrAttributeExpr extends OptionalExpressionBase<ExprExecCt
 
   @Override
   protected Object execImpl(ExprExecCtxt ctxt) {
-    ensureResolver(ctxt);
+    Expression concreteExpr = makeConcreteExpr(ctxt);
+    if (concreteExpr == null) {
+      return null;
+    }
     try {
       return concreteExpr.exec(ctxt);
     }
@@ -42,32 +53,41 @@ public class PmVariableOrAttributeExpr extends OptionalExpressionBase<ExprExecCt
 
   @Override
   protected void execAssignImpl(ExprExecCtxt ctxt, Object value) {
-    ensureResolver(ctxt);
+    Expression concreteExpr = makeConcreteExpr(ctxt);
     if (concreteExpr != null) {
       concreteExpr.execAssign(ctxt, value);
     }
   }
 
-  private void ensureResolver(ExprExecCtxt ctxt) {
-    // TODO: enhance performance by checking if the current expression matches...
-    BeanAttrAccessor accessor = null;
+  /**
+   * Provides the expression to execute for the current value.<br>
+   * The attribute lookup result is cached per class of the current value.
+   */
+  private Expression makeConcreteExpr(ExprExecCtxt ctxt) {
     Class<?> classOfCurrentValue = ctxt.getCurrentValue().getClass();
-    try {
-      String name = nameWithModifier.getName();
-      accessor = new BeanAttrAccessorImpl(classOfCurrentValue, name);
-      concreteExpr = new AttributeExpr(getSyntaxVersion(), nameWithModifier, accessor);
-    }
-    catch (ReflectionException e) {
-      if (ctxt instanceof PmExprExecCtxt) {
-        concreteExpr = new PmVariableExpr(getSyntaxVersion(), nameWithModifier);
+    Object attrExpr = classToAttrExprMap.get(classOfCurrentValue);
+    if (attrExpr == null) {
+      try {
+        BeanAttrAccessor accessor = new BeanAttrAccessorImpl(classOfCurrentValue, nameWithModifier.getName());
+        attrExpr = new AttributeExpr(getSyntaxVersion(), nameWithModifier, accessor);
       }
-      else {
-        if (! nameWithModifier.isOptional()) {
-          throw new ExprExecExeption(ctxt, "Unable to resolve '" + nameWithModifier + "' in class '" +
-                                            classOfCurrentValue + "'.", e);
-        }
+      catch (ReflectionException e) {
+        attrExpr = e;
       }
+      classToAttrExprMap.put(classOfCurrentValue, attrExpr);
+    }
+
+    if (attrExpr instanceof Expression) {
+      return (Expression) attrExpr;
+    }
+    if (ctxt instanceof PmExprExecCtxt) {
+      return new PmVariableExpr(getSyntaxVersion(), nameWithModifier);
+    }
+    if (! nameWithModifier.isOptional()) {
+      throw new ExprExecExeption(ctxt, "Unable to resolve '" + nameWithModifier + "' in class '" +
+                                        classOfCurrentValue + "'.", (ReflectionException) attrExpr);
     }
+    return null;
   }
 
   public static OptionalExpression parse(ParseCtxt ctxt) {
@@ -0,0 +1,218 @@
+package org.pm4j.core.pm.impl.inject;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.pm4j.core.exception.PmRuntimeException;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.impl.pathresolver.PathResolver;
+
+/**
+ * A {@link DiResolver} that executes a list of injections that was prepared
+ * once for a PM class.
+ * <p>
+ * Each {@link Injection} combines a pre-bound value source (an expression or a
+ * parent-of-type lookup) with an accessible target field or setter method.<br>
+ * The injections get executed in the order they were found by reflection. That
+ * order is not specified. Please don't rely on it.
+ *
+ * @author olaf boede
+ */
+public class DiInjectionPlan implements DiResolver {
+
+  private final Injection[] injections;
+
+  public DiInjectionPlan(List<Injection> injections) {
+    this.injections = injections.toArray(new Injection[injections.size()]);
+  }
+
+  /**
+   * Combines the given plans to a single plan that executes the injections in the given order.
+   */
+  static DiInjectionPlan combine(List<DiInjectionPlan> plans) {
+    List<Injection> injections = new ArrayList<Injection>();
+    for (DiInjectionPlan p : plans) {
+      injections.addAll(Arrays.asList(p.injections));
+    }
+    return new DiInjectionPlan(injections);
+  }
+
+  @Override
+  public void resolveDi(PmObject pm) {
+    for (Injection i : injections) {
+      Object value = i.getValue(pm);
+
+      if (value == null) {
+        if (i.nullAllowed) {
+          if (i.skipNullValue) {
+            continue;
+          }
+        }
+        else {
+          throw new PmRuntimeException(pm, "Found value for dependency injection of '" + i.getTargetMember() +
+              "' was null. But null value is not allowed. " +
+              "You may configure null-value handling using @PmInject(nullAllowed=...).");
+        }
+      }
+
+      i.inject(pm, value);
+    }
+  }
+
+  /**
+   * @return the number of injections executed by this plan.
+   */
+  public int getInjectionCount() {
+    return injections.length;
+  }
+
+  /**
+   * Injects a value into a field or by calling a setter.
+   */
+  public static abstract class Injection {
+    final boolean nullAllowed;
+    /** If set to <code>true</code>, the target will not be touched for a <code>null</code> value. */
+    final boolean skipNullValue;
+
+    protected Injection(boolean nullAllowed, boolean skipNullValue) {
+      this.nullAllowed = nullAllowed;
+      this.skipNullValue = skipNullValue;
+    }
+
+    /** Provides the value to inject. */
+    protected abstract Object getValue(PmObject pm);
+
+    /** Writes the value to the target member. */
+    protected abstract void inject(PmObject pm, Object value);
+
+    /** @return the field or method that gets the injected value. For error messages. */
+    protected abstract Object getTargetMember();
+
+    /** @return an injection of an expression value into a field. */
+    public static Injection fieldByExpression(Field f, PathResolver pathResolver) {
+      return new FieldInjection(f, new ExpressionSource(pathResolver), pathResolver.isNullAllowed(), false);
+    }
+
+    /** @return an injection of the next parent having the field type. */
+    public static Injection fieldByParentOfType(Field f, boolean nullAllowed) {
+      return new FieldInjection(f, new ParentOfTypeSource(f.getType()), nullAllowed, false);
+    }
+
+    /** @return an injection of an expression value using a setter. */
+    public static Injection setterByExpression(Method m, PathResolver pathResolver) {
+      return new SetterInjection(m, new ExpressionSource(pathResolver), pathResolver.isNullAllowed(), false);
+    }
+
+    /**
+     * @return an injection of the next parent having the setter parameter type.<br>
+     *         The setter will not be called if there is no matching parent.
+     */
+    public static Injection setterByParentOfType(Method m, Class<?> type, boolean nullAllowed) {
+      return new SetterInjection(m, new ParentOfTypeSource(type), nullAllowed, true);
+    }
+  }
+
+  /** Provides the value to inject. */
+  interface ValueSource {
+    Object getValue(PmObject pm);
+  }
+
+  static final class ExpressionSource implements ValueSource {
+    private final PathResolver pathResolver;
+
+    ExpressionSource(PathResolver pathResolver) {
+      this.pathResolver = pathResolver;
+    }
+
+    @Override
+    public Object getValue(PmObject pm) {
+      return pathResolver.getValue(pm);
+    }
+  }
+
+  /** Walks up the PM parent hierarchy to find the next parent of the given type. */
+  static final class ParentOfTypeSource implements ValueSource {
+    private final Class<?> type;
+
+    ParentOfTypeSource(Class<?> type) {
+      this.type = type;
+    }
+
+    @Override
+    public Object getValue(PmObject pm) {
+      for (PmObject p = pm.getPmParent(); p != null; p = p.getPmParent()) {
+        if (type.isInstance(p)) {
+          return p;
+        }
+      }
+      return null;
+    }
+  }
+
+  static final class FieldInjection extends Injection {
+    private final Field field;
+    private final ValueSource valueSource;
+
+    FieldInjection(Field field, ValueSource valueSource, boolean nullAllowed, boolean skipNullValue) {
+      super(nullAllowed, skipNullValue);
+      this.field = field;
+      this.valueSource = valueSource;
+      DiResolverUtil.ensureAccessibility(field);
+    }
+
+    @Override
+    protected Object getValue(PmObject pm) {
+      return valueSource.getValue(pm);
+    }
+
+    @Override
+    protected void inject(PmObject pm, Object value) {
+      try {
+        field.set(pm, value);
+      } catch (Exception ex) {
+        throw new PmRuntimeException(pm, "Can't initialize field '" + field.getName() + "' in class '"
+            + pm.getClass().getName() + "'.", ex);
+      }
+    }
+
+    @Override
+    protected Object getTargetMember() {
+      return field;
+    }
+  }
+
+  static final class SetterInjection extends Injection {
+    private final Method method;
+    private final ValueSource valueSource;
+
+    SetterInjection(Method method, ValueSource valueSource, boolean nullAllowed, boolean skipNullValue) {
+      super(nullAllowed, skipNullValue);
+      this.method = method;
+      this.valueSource = valueSource;
+      DiResolverUtil.ensureAccessibility(method);
+    }
+
+    @Override
+    protected Object getValue(PmObject pm) {
+      return valueSource.getValue(pm);
+    }
+
+    @Override
+    protected void inject(PmObject pm, Object value) {
+      try {
+        method.invoke(pm, value);
+      } catch (Exception ex) {
+        throw new PmRuntimeException(pm, "Can't invoke method '" + method + "'.", ex);
+      }
+    }
+
+    @Override
+    protected Object getTargetMember() {
+      return method;
+    }
+  }
+
+}
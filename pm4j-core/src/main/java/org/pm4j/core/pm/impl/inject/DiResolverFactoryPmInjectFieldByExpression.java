@@ -1,16 +1,16 @@
 package org.pm4j.core.pm.impl.inject;
 
 import java.lang.reflect.Field;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.pm4j.common.expr.parser.ParseCtxt;
 import org.pm4j.common.util.reflection.ClassUtil;
-import org.pm4j.core.exception.PmRuntimeException;
-import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.annotation.PmInject;
 import org.pm4j.core.pm.annotation.PmInject.Mode;
+import org.pm4j.core.pm.impl.inject.DiInjectionPlan.Injection;
 import org.pm4j.core.pm.impl.pathresolver.PathResolver;
 import org.pm4j.core.pm.impl.pathresolver.PmExpressionPathResolver;
 
@@ -23,7 +23,7 @@ public class DiResolverFactoryPmInjectFieldByExpression implements DiResolverFac
 
   @Override
   public DiResolver makeDiResolver(Class<?> classToInspect) {
-    Map<Field, PathResolver> fieldInjectionMap = new HashMap<Field, PathResolver>();
+    List<Injection> injections = new ArrayList<Injection>();
 
     for (Field f : ClassUtil.getAllFields(classToInspect)) {
       PmInject a = f.getAnnotation(PmInject.class);
@@ -36,43 +36,30 @@ public class DiResolverFactoryPmInjectFieldByExpression implements DiResolverFac
         PathResolver r = PmExpressionPathResolver.parse(new ParseCtxt(propName));
         r.setNullAllowed(a.nullAllowed());
 
-        fieldInjectionMap.put(f, r);
-        DiResolverUtil.ensureAccessibility(f);
+        injections.add(Injection.fieldByExpression(f, r));
       }
     }
 
-    return !fieldInjectionMap.isEmpty()
-        ? new Resolver(fieldInjectionMap)
+    return !injections.isEmpty()
+        ? new DiInjectionPlan(injections)
         : null;
   }
 
-  public static class Resolver implements DiResolver {
-    private Map<Field, PathResolver> fieldInjectionMap;
-
+  /**
+   * @deprecated Please use {@link DiInjectionPlan}.
+   */
+  @Deprecated
+  public static class Resolver extends DiInjectionPlan {
     public Resolver(Map<Field, PathResolver> fieldInjectionMap) {
-      this.fieldInjectionMap = fieldInjectionMap;
+      super(toInjections(fieldInjectionMap));
     }
 
-    @Override
-    public void resolveDi(PmObject pm) {
+    private static List<Injection> toInjections(Map<Field, PathResolver> fieldInjectionMap) {
+      List<Injection> injections = new ArrayList<Injection>();
       for (Map.Entry<Field, PathResolver> e : fieldInjectionMap.entrySet()) {
-        Field f = e.getKey();
-        PathResolver r = e.getValue();
-        Object value = r.getValue(pm);
-
-        if (value == null && ! r.isNullAllowed()) {
-          throw new PmRuntimeException(pm, "Found value for dependency injection of field '" + f +
-              "' was null. But null value is not allowed. " +
-              "You may configure null-value handling using @PmInject(nullAllowed=...).");
-        }
-
-        try {
-          f.set(pm, value);
-        } catch (Exception ex) {
-          throw new PmRuntimeException(pm, "Can't initialize field '" + f.getName() + "' in class '"
-              + getClass().getName() + "'.", ex);
-        }
+        injections.add(Injection.fieldByExpression(e.getKey(), e.getValue()));
       }
+      return injections;
     }
   }
 }
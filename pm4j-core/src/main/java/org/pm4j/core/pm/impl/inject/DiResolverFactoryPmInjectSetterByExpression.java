@@ -1,16 +1,16 @@
 package org.pm4j.core.pm.impl.inject;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 
 import org.apache.commons.lang.StringUtils;
 import org.pm4j.common.expr.parser.ParseCtxt;
 import org.pm4j.common.util.reflection.ClassUtil;
-import org.pm4j.core.exception.PmRuntimeException;
-import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.annotation.PmInject;
 import org.pm4j.core.pm.annotation.PmInject.Mode;
+import org.pm4j.core.pm.impl.inject.DiInjectionPlan.Injection;
 import org.pm4j.core.pm.impl.pathresolver.PathResolver;
 import org.pm4j.core.pm.impl.pathresolver.PmExpressionPathResolver;
 
@@ -23,7 +23,7 @@ public class DiResolverFactoryPmInjectSetterByExpression implements DiResolverFa
 
   @Override
   public DiResolver makeDiResolver(Class<?> classToInspect) {
-    Map<Method, PathResolver> methodInjectionMap = new HashMap<Method, PathResolver>();
+    List<Injection> injections = new ArrayList<Injection>();
 
     for (Method m : ClassUtil.findMethods(classToInspect, "set.*")) {
       PmInject a = m.getAnnotation(PmInject.class);
@@ -35,42 +35,30 @@ public class DiResolverFactoryPmInjectSetterByExpression implements DiResolverFa
         PathResolver r = PmExpressionPathResolver.parse(new ParseCtxt(propName));
         r.setNullAllowed(a.nullAllowed());
 
-        methodInjectionMap.put(m, r);
-        DiResolverUtil.ensureAccessibility(m);
+        injections.add(Injection.setterByExpression(m, r));
       }
     }
 
-    return !methodInjectionMap.isEmpty()
-        ? new Resolver(methodInjectionMap)
+    return !injections.isEmpty()
+        ? new DiInjectionPlan(injections)
         : null;
   }
 
-  public static class Resolver implements DiResolver {
-    private Map<Method, PathResolver> fieldInjectionMap;
-
+  /**
+   * @deprecated Please use {@link DiInjectionPlan}.
+   */
+  @Deprecated
+  public static class Resolver extends DiInjectionPlan {
     public Resolver(Map<Method, PathResolver> fieldInjectionMap) {
-      this.fieldInjectionMap = fieldInjectionMap;
+      super(toInjections(fieldInjectionMap));
     }
 
-    @Override
-    public void resolveDi(PmObject pm) {
+    private static List<Injection> toInjections(Map<Method, PathResolver> fieldInjectionMap) {
+      List<Injection> injections = new ArrayList<Injection>();
       for (Map.Entry<Method, PathResolver> e : fieldInjectionMap.entrySet()) {
-        Method m = e.getKey();
-        PathResolver r = e.getValue();
-        Object value = r.getValue(pm);
-
-        if (value == null && ! r.isNullAllowed()) {
-          throw new PmRuntimeException(pm, "Found value for dependency injection of field '" + m +
-              "' was null. But null value is not allowed. " +
-              "You may configure null-value handling using @PmInject(nullAllowed=...).");
-        }
-
-        try {
-          m.invoke(pm, value);
-        } catch (Exception ex) {
-          throw new PmRuntimeException(pm, "Can't invoke method '" + m + "'.", ex);
-        }
+        injections.add(Injection.setterByExpression(e.getKey(), e.getValue()));
       }
+      return injections;
     }
   }
 }
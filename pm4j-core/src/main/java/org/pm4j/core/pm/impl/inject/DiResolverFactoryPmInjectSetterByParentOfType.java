@@ -6,10 +6,9 @@ import java.util.List;
 
 import org.pm4j.common.util.reflection.ClassUtil;
 import org.pm4j.core.exception.PmRuntimeException;
-import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.annotation.PmInject;
 import org.pm4j.core.pm.annotation.PmInject.Mode;
-import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.core.pm.impl.inject.DiInjectionPlan.Injection;
 
 /**
  * DI resolver for setter methods annotated with {@link PmInject} using {@link PmInject#mode()} PARENT_OF_TYPE.
@@ -27,46 +26,30 @@ public class DiResolverFactoryPmInjectSetterByParentOfType implements DiResolver
 
       if (a != null && (a.mode() == Mode.PARENT_OF_TYPE)) {
         annotatedMethods.add(new MethodData(m, a));
-        DiResolverUtil.ensureAccessibility(m);
       }
     }
 
+    // A plain plan allows DiResolverUtil to combine it with the plans of the other factories.
     return !annotatedMethods.isEmpty()
-        ? new Resolver(annotatedMethods)
+        ? new DiInjectionPlan(toInjections(annotatedMethods))
         : null;
   }
 
-  public static class Resolver implements DiResolver {
-    private final List<MethodData> annotatedMethods;
-
-    public Resolver(List<MethodData> annotatedMethods) {
-      this.annotatedMethods = annotatedMethods;
+  private static List<Injection> toInjections(List<MethodData> annotatedMethods) {
+    List<Injection> injections = new ArrayList<Injection>();
+    for (MethodData md : annotatedMethods) {
+      injections.add(Injection.setterByParentOfType(md.method, md.type, md.annotation.nullAllowed()));
     }
+    return injections;
+  }
 
-    @Override
-    public void resolveDi(PmObject pm) {
-      for (MethodData md : annotatedMethods) {
-        Object value = PmUtil.findPmParentOfType(pm, md.type);
-
-        if (value == null) {
-          if (md.annotation.nullAllowed()) {
-            // in this case there is nothing more to do here.
-            return;
-          } else {
-            throw new PmRuntimeException(pm, "Found value for dependency injection of method '" + md.method +
-                "' was null. But null value is not allowed.\n" +
-                "You may configure null-value handling using @PmInject(nullAllowed=...).");
-          }
-        }
-
-        try {
-          md.method.invoke(pm, value);
-        } catch (Exception ex) {
-          throw new PmRuntimeException(pm, "Can't call setter '" + md.method.getName() + "' in class '"
-              + getClass().getName() + "'.", ex);
-        }
-
-      }
+  /**
+   * @deprecated Please use {@link DiInjectionPlan}.
+   */
+  @Deprecated
+  public static class Resolver extends DiInjectionPlan {
+    public Resolver(List<MethodData> annotatedMethods) {
+      super(toInjections(annotatedMethods));
     }
   }
 
@@ -14,17 +14,36 @@ public class DiResolverUtil  {
 
   public static DiResolver[] getDiResolvers(Class<?> forClass) {
     List<DiResolver> resolverList = new ArrayList<DiResolver>();
+    List<DiInjectionPlan> plansToCombine = new ArrayList<DiInjectionPlan>();
     for (DiResolverFactory f : PmDefaults.getInstance().getDiResolverFactories()) {
       DiResolver r = f.makeDiResolver(forClass);
       if (r != null) {
-        resolverList.add(r);
+        // Subsequent plain injection plans get combined to a single plan.
+        if (r.getClass() == DiInjectionPlan.class) {
+          plansToCombine.add((DiInjectionPlan) r);
+        }
+        else {
+          addCombinedPlan(resolverList, plansToCombine);
+          resolverList.add(r);
+        }
       }
     }
+    addCombinedPlan(resolverList, plansToCombine);
     return resolverList.isEmpty()
         ? EMPTY_ARRAY
         : resolverList.toArray(new DiResolver[resolverList.size()]);
   }
 
+  private static void addCombinedPlan(List<DiResolver> resolverList, List<DiInjectionPlan> plansToCombine) {
+    if (plansToCombine.size() == 1) {
+      resolverList.add(plansToCombine.get(0));
+    }
+    else if (plansToCombine.size() > 1) {
+      resolverList.add(DiInjectionPlan.combine(plansToCombine));
+    }
+    plansToCombine.clear();
+  }
+
   static void ensureAccessibility(Field f) {
     // TODO olaf: Check if there is a public setter to prevent some trouble
     //            in case of enabled security manager...
@@ -3,6 +3,7 @@ package org.pm4j.core.pm.impl.options;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import org.apache.commons.lang.StringUtils;
@@ -80,19 +81,33 @@ public class EnumOptionSetDefWithOptionCfg extends OptionSetDefBase<PmAttrEnumIm
       return super.makeOptions(forAttr);
     }
     else {
-      // XXX in parts redundant to the base class implementation...
-      Enum<?>[] values = (Enum<?>[])enumClass.getEnumConstants();
-      List<PmOption> options = new ArrayList<PmOption>(values.length);
-
-      if (shouldMakeNullOption(forAttr)) {
-        options.add(new PmOptionImpl("", getNullOptionTitle(forAttr), null));
+      boolean withNullOption = shouldMakeNullOption(forAttr);
+      if (shared) {
+        // The enum constants never change. No values need to be compared.
+        PmOptionSet os = SharedOptionSetCache.get(forAttr, this, enumClass, Collections.emptyList(), withNullOption);
+        if (os == null) {
+          os = new PmOptionSetImpl.Immutable(makeEnumOptions(forAttr, withNullOption));
+          SharedOptionSetCache.put(forAttr, this, enumClass, Collections.emptyList(), withNullOption, os);
+        }
+        return os;
       }
+      return new PmOptionSetImpl(makeEnumOptions(forAttr, withNullOption));
+    }
+  }
 
-      for (Enum<?> e : values) {
-        options.add(makeOption(forAttr, e));
-      }
-      return new PmOptionSetImpl(options);
+  // XXX in parts redundant to the base class implementation...
+  private List<PmOption> makeEnumOptions(PmAttrEnumImpl<?> forAttr, boolean withNullOption) {
+    Enum<?>[] values = (Enum<?>[])enumClass.getEnumConstants();
+    List<PmOption> options = new ArrayList<PmOption>(values.length + 1);
+
+    if (withNullOption) {
+      options.add(new PmOptionImpl("", getNullOptionTitle(forAttr), null));
+    }
+
+    for (Enum<?> e : values) {
+      options.add(makeOption(forAttr, e));
     }
+    return options;
   }
 
   @Override
@@ -44,6 +44,7 @@ public abstract class OptionSetDefBase<T_ATTR extends PmAttrBase<?,?>> implement
   protected final NullOption nullOption;
   protected final String nullOptionTitleResKey;
   protected final PathComparatorFactory sortComparatorFactory;
+  protected final boolean shared;
 
 
   public OptionSetDefBase(PmAttr<?> pmAttr, PmOptionCfg cfg, Method getOptionValuesMethod) {
@@ -74,12 +75,11 @@ public abstract class OptionSetDefBase<T_ATTR extends PmAttrBase<?,?>> implement
     this.sortComparatorFactory = PmOptionCfg.NOT_SPECIFIED.equals(cfg.sortBy())
                 ? null
                 : PathComparatorFactory.parse(cfg.sortBy(), syntaxVersion);
+    this.shared = cfg.shared();
   }
 
   @Override
   public PmOptionSet makeOptions(T_ATTR forAttr) {
-    List<PmOption> list;
-
     Object o = null;
 
     if (getOptionValuesMethod != null) {
@@ -94,30 +94,45 @@ public abstract class OptionSetDefBase<T_ATTR extends PmAttrBase<?,?>> implement
       o = valuesPath != null
         ? valuesPath.getValue(PmUtil.getPmParentOfType(forAttr, PmElement.class))
         : getOptionValues(forAttr);
+    }
+
+    Collection<?> values = toValueCollection(forAttr, o);
+
+    if (shared && !values.isEmpty()) {
+      // The source instance identifies the cached set. Its values detect a modified source.
+      boolean withNullOption = shouldMakeNullOption(forAttr);
+      PmOptionSet os = SharedOptionSetCache.get(forAttr, this, o, values, withNullOption);
+      if (os == null) {
+        os = new PmOptionSetImpl.Immutable(makeOptions(forAttr, values));
+        SharedOptionSetCache.put(forAttr, this, o, values, withNullOption, os);
+      }
+      return os;
+    }
+
+    return new PmOptionSetImpl.WithIdMap(makeOptions(forAttr, values));
   }
 
+  private Collection<?> toValueCollection(T_ATTR forAttr, Object o) {
     if (o == null) {
-      list = Collections.emptyList();
+      return Collections.emptyList();
     }
     else if (o instanceof Collection<?>) {
-      list = makeOptions(forAttr, (Collection<?>)o);
+      return (Collection<?>)o;
     }
     else if (o instanceof Object[]) {
-      list = makeOptions(forAttr, Arrays.asList((Object[]) o));
+      return Arrays.asList((Object[]) o);
     }
     else if (o instanceof Iterable<?>) {
-      list = makeOptions(forAttr, IterableUtil.shallowCopy((Iterable<?>)o));
+      return IterableUtil.shallowCopy((Iterable<?>)o);
     }
     else if (o instanceof Iterator<?>) {
-      list = makeOptions(forAttr, IterableUtil.shallowCopy((Iterator<?>)o));
+      return IterableUtil.shallowCopy((Iterator<?>)o);
     }
     else {
       throw new PmRuntimeException(forAttr,
           "The options path does not reference a collection, array, iterable or iterator. Found type: " +
           o.getClass());
     }
-
-    return new PmOptionSetImpl.WithIdMap(list);
   }
 
   @Override
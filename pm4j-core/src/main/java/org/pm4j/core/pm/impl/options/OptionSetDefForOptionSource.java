@@ -0,0 +1,53 @@
+package org.pm4j.core.pm.impl.options;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.StringUtils;
+import org.pm4j.core.pm.PmOption;
+import org.pm4j.core.pm.PmOptionSet;
+import org.pm4j.core.pm.PmOptionSource;
+import org.pm4j.core.pm.annotation.PmOptionCfg.NullOption;
+import org.pm4j.core.pm.impl.PmAttrBase;
+
+/**
+ * Option set definition for attributes that provide a {@link PmOptionSource}.
+ * <p>
+ * Does not materialize all options of the source. The provided option set contains
+ * only the option for the current attribute value and an optional <code>null</code> option.
+ * The other options may be found using the source of the attribute.
+ *
+ * @author olaf boede
+ */
+public class OptionSetDefForOptionSource implements PmOptionSetDef<PmAttrBase<?, ?>> {
+
+  /** An instance that may be used as singleton. */
+  public static final OptionSetDefForOptionSource INSTANCE = new OptionSetDefForOptionSource();
+
+  @Override
+  public PmOptionSet makeOptions(PmAttrBase<?, ?> forAttr) {
+    List<PmOption> options = new ArrayList<PmOption>(2);
+    Object value = forAttr.getValue();
+
+    if (value == null || forAttr.getNullOptionDefault() == NullOption.YES ||
+        (forAttr.getNullOptionDefault() == NullOption.FOR_OPTIONAL_ATTR && !forAttr.isRequired())) {
+      options.add(new PmOptionImpl("", StringUtils.defaultString(getNullOptionTitle(forAttr)), null));
+    }
+
+    PmOptionSource source = forAttr.getOptionSource();
+    PmOption valueOption = (source != null)
+        ? source.findOptionForValue(value)
+        : null;
+    if (valueOption != null) {
+      options.add(valueOption);
+    }
+
+    return new PmOptionSetImpl.WithIdMap(options);
+  }
+
+  @Override
+  public String getNullOptionTitle(PmAttrBase<?, ?> forAttr) {
+    return PmOptionSetUtil.getNullOptionTitle(forAttr);
+  }
+
+}
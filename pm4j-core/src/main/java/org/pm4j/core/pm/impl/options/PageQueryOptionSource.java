@@ -0,0 +1,223 @@
+package org.pm4j.core.pm.impl.options;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.apache.commons.lang.StringUtils;
+import org.pm4j.common.pageable.querybased.pagequery.PageQueryService;
+import org.pm4j.common.query.CompOp;
+import org.pm4j.common.query.CompOpContains;
+import org.pm4j.common.query.CompOpStartsWith;
+import org.pm4j.common.query.QueryAttr;
+import org.pm4j.common.query.QueryExpr;
+import org.pm4j.common.query.QueryExprAnd;
+import org.pm4j.common.query.QueryExprCompare;
+import org.pm4j.common.query.QueryParams;
+import org.pm4j.core.exception.PmRuntimeException;
+import org.pm4j.core.pm.PmOption;
+import org.pm4j.core.pm.PmOptionSource;
+import org.pm4j.core.pm.impl.PmAttrBase;
+import org.pm4j.core.pm.impl.pathresolver.ExpressionPathResolver;
+import org.pm4j.core.pm.impl.pathresolver.PathResolver;
+
+/**
+ * An option source that gets its items from a {@link PageQueryService}.
+ * <p>
+ * The search string gets applied as a filter condition on the search attribute.
+ * The value of the search attribute is also used as option title.<br>
+ * The option ids are provided by the query service.
+ * <p>
+ * An attribute that uses this source provides it by {@link PmAttrBase#getOptionSource()}
+ * and declares {@link OptionSetDefForOptionSource#INSTANCE} as its option set
+ * definition.
+ *
+ * @param <T_ITEM>
+ *          the type of items to provide as options.
+ * @param <T_ID>
+ *          the item identifier type.
+ *
+ * @author olaf boede
+ */
+public class PageQueryOptionSource<T_ITEM, T_ID> implements PmOptionSource {
+
+  /** Defines how the search string is compared to the search attribute value. */
+  public static enum MatchMode {
+    /** The search attribute value starts with the search string. */
+    PREFIX,
+    /** The search attribute value contains the search string. */
+    SUBSTRING
+  }
+
+  private final PageQueryService<T_ITEM, T_ID> service;
+  private final Class<T_ID> idType;
+  private final QueryAttr searchAttr;
+  private final PathResolver titlePath;
+  private QueryParams baseQuery = new QueryParams();
+  private MatchMode matchMode = MatchMode.PREFIX;
+
+  /**
+   * @param service
+   *          the service that provides the items.
+   * @param idType
+   *          the item identifier type. The default implementation of
+   *          {@link #getIdForIdString(String)} supports {@link String},
+   *          {@link Integer} and {@link Long}.
+   * @param searchAttr
+   *          the attribute to search by. Its path also provides the option title.
+   */
+  public PageQueryOptionSource(PageQueryService<T_ITEM, T_ID> service, Class<T_ID> idType, QueryAttr searchAttr) {
+    assert service != null;
+    assert idType != null;
+    assert searchAttr != null;
+
+    this.service = service;
+    this.idType = idType;
+    this.searchAttr = searchAttr;
+    this.titlePath = ExpressionPathResolver.parse(searchAttr.getPath());
+  }
+
+  @Override
+  public long getOptionCount(String searchString) {
+    return service.getItemCount(makeQuery(searchString));
+  }
+
+  @Override
+  public List<PmOption> getOptions(String searchString, long startIdx, int pageSize) {
+    List<T_ITEM> items = service.getItems(makeQuery(searchString), startIdx, pageSize);
+    List<PmOption> options = new ArrayList<PmOption>(items.size());
+    for (T_ITEM i : items) {
+      options.add(makeOption(i));
+    }
+    return options;
+  }
+
+  @Override
+  public PmOption findOptionForIdString(String idString) {
+    if (StringUtils.isEmpty(idString)) {
+      return null;
+    }
+    T_ITEM item = service.getItemForId(getIdForIdString(idString));
+    return (item != null)
+        ? makeOption(item)
+        : null;
+  }
+
+  /**
+   * Supports attributes with item values and attributes with item id values.<br>
+   * An id value gets resolved by {@link PageQueryService#getItemForId(Object)}.
+   * The provided option has the id as value.
+   */
+  // A value that is not an id is passed as item to the service and the title path.
+  @SuppressWarnings("unchecked")
+  @Override
+  public PmOption findOptionForValue(Object value) {
+    if (value == null) {
+      return null;
+    }
+    if (idType.isInstance(value)) {
+      T_ITEM item = service.getItemForId(idType.cast(value));
+      return (item != null)
+          ? new PmOptionImpl(ObjectUtils.toString(value), getTitle(item), value)
+          : null;
+    }
+    return makeOption((T_ITEM) value);
+  }
+
+  /**
+   * Generates the query to execute for the given search string.
+   * <p>
+   * Combines the filter of the {@link #getBaseQuery()} with a compare
+   * condition for the search attribute.
+   *
+   * @param searchString the string to search for. May be <code>null</code>.
+   * @return the query to execute.
+   */
+  protected QueryParams makeQuery(String searchString) {
+    QueryParams query = baseQuery.clone();
+    if (StringUtils.isNotEmpty(searchString)) {
+      CompOp compOp = (matchMode == MatchMode.PREFIX)
+          ? new CompOpStartsWith()
+          : new CompOpContains();
+      QueryExpr searchExpr = new QueryExprCompare(searchAttr, compOp, searchString);
+      QueryExpr baseExpr = query.getFilterExpression();
+      query.setFilterExpression(baseExpr != null
+          ? new QueryExprAnd(baseExpr, searchExpr)
+          : searchExpr);
+    }
+    return query;
+  }
+
+  /**
+   * @param item the item to generate an option for.
+   * @return the option.
+   */
+  protected PmOption makeOption(T_ITEM item) {
+    String id = ObjectUtils.toString(service.getIdForItem(item));
+    return new PmOptionImpl(id, getTitle(item), item);
+  }
+
+  /**
+   * The default implementation provides the search attribute value as title.
+   *
+   * @param item the item to get the title for.
+   * @return the option title.
+   */
+  protected String getTitle(T_ITEM item) {
+    return ObjectUtils.toString(titlePath.getValue(item));
+  }
+
+  /**
+   * Converts an option id string to the item identifier used by the service.
+   * <p>
+   * Needs to be overridden for identifier types other than {@link String},
+   * {@link Integer} and {@link Long}.
+   *
+   * @param idString the id string to convert.
+   * @return the item identifier.
+   */
+  protected T_ID getIdForIdString(String idString) {
+    Object id;
+    if (idType == String.class) {
+      id = idString;
+    }
+    else if (idType == Integer.class) {
+      id = Integer.valueOf(idString);
+    }
+    else if (idType == Long.class) {
+      id = Long.valueOf(idString);
+    }
+    else {
+      throw new PmRuntimeException("Unsupported option id type " + idType.getName() +
+          ". Please override getIdForIdString() in " + getClass().getName());
+    }
+    return idType.cast(id);
+  }
+
+  // -- getter / setter --
+
+  /**
+   * @return the query that provides the sort order and the filter conditions applied to each search.
+   */
+  public QueryParams getBaseQuery() {
+    return baseQuery;
+  }
+
+  /**
+   * @param baseQuery the query that provides the sort order and the filter conditions applied to each search.
+   */
+  public void setBaseQuery(QueryParams baseQuery) {
+    assert baseQuery != null;
+    this.baseQuery = baseQuery;
+  }
+
+  public MatchMode getMatchMode() {
+    return matchMode;
+  }
+
+  public void setMatchMode(MatchMode matchMode) {
+    assert matchMode != null;
+    this.matchMode = matchMode;
+  }
+
+}
@@ -2,6 +2,7 @@ package org.pm4j.core.pm.impl.options;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -227,4 +228,61 @@ public class PmOptionSetImpl implements PmOptionSet {
       idToOptionMap = null;
     }
   }
+
+  /**
+   * An option set that can't be modified after creation.
+   * <p>
+   * Provides map based lookups for option ids, titles and backing values.
+   * Is used for option sets that are shared by several attributes (see
+   * {@link org.pm4j.core.pm.annotation.PmOptionCfg#shared()}).
+   */
+  public static class Immutable extends PmOptionSetImpl {
+
+    private final Map<String, PmOption> idToOptionMap;
+    private final Map<String, PmOption> titleToOptionMap;
+    private final Map<Object, PmOption> backingValueToOptionMap;
+
+    public Immutable(List<PmOption> pmOptions) {
+      super(Collections.unmodifiableList(new ArrayList<PmOption>(pmOptions)));
+      int size = pmOptions.size();
+      idToOptionMap = new HashMap<String, PmOption>(size);
+      titleToOptionMap = new HashMap<String, PmOption>(size);
+      backingValueToOptionMap = new HashMap<Object, PmOption>(size);
+      // The first matching option wins. Same behavior as the sequential search.
+      for (int i = size - 1; i >= 0; --i) {
+        PmOption o = pmOptions.get(i);
+        idToOptionMap.put(ObjectUtils.toString(o.getId()), o);
+        titleToOptionMap.put(o.getPmTitle(), o);
+        backingValueToOptionMap.put(o.getBackingValue(), o);
+      }
+    }
+
+    @Override
+    public PmOption findOptionForIdString(String idString) {
+      return idToOptionMap.get(idString);
+    }
+
+    @Override
+    public PmOption findOptionForTitle(String title) {
+      return titleToOptionMap.get(title);
+    }
+
+    /**
+     * @param backingValue The backing value to find the option for.
+     * @return The first option having the given backing value or <code>null</code>.
+     */
+    public PmOption findOptionForBackingValue(Object backingValue) {
+      return backingValueToOptionMap.get(backingValue);
+    }
+
+    @Override
+    public void addOption(PmOption pmOption) {
+      throw new UnsupportedOperationException("Options can't be added to an immutable option set.");
+    }
+
+    @Override
+    public void setMultiselection(boolean multiselection) {
+      throw new UnsupportedOperationException("An immutable option set can't be modified.");
+    }
+  }
 }
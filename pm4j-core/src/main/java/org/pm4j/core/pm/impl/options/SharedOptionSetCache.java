@@ -0,0 +1,142 @@
+package org.pm4j.core.pm.impl.options;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.commons.lang.ObjectUtils;
+import org.pm4j.common.util.collection.LRUMap;
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmConversation;
+import org.pm4j.core.pm.PmOptionSet;
+import org.pm4j.core.pm.annotation.PmOptionCfg;
+
+/**
+ * Provides option sets that are shared by all attributes that use the same
+ * option set definition. E.g. all cells of a table column.
+ * <p>
+ * Is used for option definitions with {@link PmOptionCfg#shared()} set to <code>true</code>.
+ * <p>
+ * The option sets are cached within the conversation of the attribute. The
+ * cache key consists of the option set definition, the identity of the option
+ * value source, the conversation locale and the information if a
+ * <code>null</code> option is part of the set.<br>
+ * A cached option set is only provided if the source still provides the same
+ * value instances in the same order. A source that provides a new collection
+ * instance for each call gets a new option set for each call.
+ * <p>
+ * Only the {@link #MAX_CACHED_OPTION_SETS} least recently used option sets are
+ * kept per conversation.
+ *
+ * @author olaf boede
+ */
+class SharedOptionSetCache {
+
+  /** The name of the conversation property that holds the cache. */
+  static final String CACHE_PROP_NAME = "pm4j.sharedOptionSetCache";
+
+  /** The maximum number of option sets cached per conversation. */
+  static final int MAX_CACHED_OPTION_SETS = 100;
+
+  /**
+   * @param forAttr The attribute to get the options for.
+   * @param optionSetDef The option definition that provides the options.
+   * @param source The source of the option values. Is compared by identity.
+   * @param values The current values of the source. Are compared by identity.
+   * @param withNullOption <code>true</code> if the set contains a <code>null</code> option.
+   * @return The cached option set or <code>null</code>.
+   */
+  static PmOptionSet get(PmAttr<?> forAttr, Object optionSetDef, Object source, Collection<?> values, boolean withNullOption) {
+    Map<Key, Entry> cache = getCache(forAttr.getPmConversation(), false);
+    Entry e = (cache != null)
+        ? cache.get(new Key(optionSetDef, source, forAttr.getPmConversation().getPmLocale(), withNullOption))
+        : null;
+    return (e != null && e.hasSameValues(values))
+        ? e.optionSet
+        : null;
+  }
+
+  /**
+   * Adds an option set to the cache.
+   *
+   * @param forAttr The attribute the options were made for.
+   * @param optionSetDef The option definition that provides the options.
+   * @param source The source of the option values. Is compared by identity.
+   * @param values The values the option set was made for.
+   * @param withNullOption <code>true</code> if the set contains a <code>null</code> option.
+   * @param optionSet The option set to share. Should be immutable.
+   */
+  static void put(PmAttr<?> forAttr, Object optionSetDef, Object source, Collection<?> values, boolean withNullOption, PmOptionSet optionSet) {
+    PmConversation conversation = forAttr.getPmConversation();
+    getCache(conversation, true).put(new Key(optionSetDef, source, conversation.getPmLocale(), withNullOption),
+                                     new Entry(values, optionSet));
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<Key, Entry> getCache(PmConversation conversation, boolean create) {
+    Map<Key, Entry> cache = (Map<Key, Entry>) conversation.getPmProperty(CACHE_PROP_NAME);
+    if (cache == null && create) {
+      cache = new LRUMap<Key, Entry>(MAX_CACHED_OPTION_SETS);
+      conversation.setPmProperty(CACHE_PROP_NAME, cache);
+    }
+    return cache;
+  }
+
+  /** Compares the definition and the value source by identity. */
+  private static final class Key {
+    private final Object optionSetDef;
+    private final Object source;
+    private final Locale locale;
+    private final boolean withNullOption;
+
+    Key(Object optionSetDef, Object source, Locale locale, boolean withNullOption) {
+      this.optionSetDef = optionSetDef;
+      this.source = source;
+      this.locale = locale;
+      this.withNullOption = withNullOption;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key k = (Key) obj;
+      return optionSetDef == k.optionSetDef &&
+             source == k.source &&
+             withNullOption == k.withNullOption &&
+             ObjectUtils.equals(locale, k.locale);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * System.identityHashCode(optionSetDef) + System.identityHashCode(source)) +
+             (withNullOption ? 1 : 0);
+    }
+  }
+
+  /** A cached option set and a copy of the values it was made for. */
+  private static final class Entry {
+    private final Object[] values;
+    private final PmOptionSet optionSet;
+
+    Entry(Collection<?> values, PmOptionSet optionSet) {
+      this.values = values.toArray();
+      this.optionSet = optionSet;
+    }
+
+    /** Detects added, removed and replaced values of a modified source. */
+    boolean hasSameValues(Collection<?> currentValues) {
+      if (currentValues.size() != values.length) {
+        return false;
+      }
+      int i = 0;
+      for (Object v : currentValues) {
+        if (v != values[i++]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -11,6 +11,7 @@ import java.util.List;
 import org.pm4j.common.modifications.ModificationHandler;
 import org.pm4j.common.modifications.Modifications;
 import org.pm4j.common.pageable.PageableCollection;
+import org.pm4j.common.pageable.PageableCollectionUtil;
 import org.pm4j.common.pageable.inmem.InMemCollectionImpl;
 import org.pm4j.common.query.QueryOptions;
 import org.pm4j.common.query.QueryParams;
@@ -166,7 +167,52 @@ public class PmBeanCollection<T_PM extends PmBean<T_BEAN>, T_BEAN> extends Prope
       idxOfLastPmBeanCacheUpdate = getPageIdx();
     }
 
-    return (List<T_PM>) PmFactoryApi.getPmListForBeans(pmCtxt, beanCollection.getItemsOnPage(), false);
+    return (List<T_PM>) PmFactoryApi.getPmListForBeans(pmCtxt, getBeansOnPage(), false);
+  }
+
+  /**
+   * Provides the beans to represent by {@link #getItemsOnPage()}.
+   * <p>
+   * The default implementation asks the backing bean collection.
+   *
+   * @return the beans of the current page.
+   */
+  protected List<T_BEAN> getBeansOnPage() {
+    return beanCollection.getItemsOnPage();
+  }
+
+  /**
+   * Provides the PM's for a range of the collection items.
+   * <p>
+   * Other than {@link #getItemsOnPage()} it does not change the current page.
+   * A caller that does no longer need the provided PM's should release them
+   * by calling {@link #releaseItems(Collection)}.
+   *
+   * @param startIdx the zero based index of the first item to provide.
+   * @param count the maximal number of items to provide.
+   * @return the PM's of the range.
+   */
+  @SuppressWarnings("unchecked")
+  public List<T_PM> getItems(long startIdx, int count) {
+    List<T_BEAN> beans = PageableCollectionUtil.getItems(beanCollection, startIdx, count);
+    return (List<T_PM>) PmFactoryApi.getPmListForBeans(pmCtxt, beans, false);
+  }
+
+  /**
+   * Removes the given item PM's from the PM cache if their beans are not
+   * added or updated.
+   *
+   * @param items the PM's to release.
+   */
+  public void releaseItems(Collection<? extends PmBean<?>> items) {
+    releaseUnModifiedPmBeanCacheItems(items);
+  }
+
+  /**
+   * @return the PM context used to create the PM's for the bean items.
+   */
+  protected PmObject getPmCtxt() {
+    return pmCtxt;
   }
 
   @Override
@@ -267,7 +313,10 @@ public class PmBeanCollection<T_PM extends PmBean<T_BEAN>, T_BEAN> extends Prope
 
   /** Ensures that all unmodified PM factory generated item PMs get released. */
   private void releaseUnModifiedPmBeanCacheItems() {
-    Collection<PmBean<?>> cachedPms = BeanPmCacheUtil.getCachedPms(pmCtxt);
+    releaseUnModifiedPmBeanCacheItems(BeanPmCacheUtil.getCachedPms(pmCtxt));
+  }
+
+  private void releaseUnModifiedPmBeanCacheItems(Collection<? extends PmBean<?>> cachedPms) {
     if (cachedPms.isEmpty()) {
       return;
     }
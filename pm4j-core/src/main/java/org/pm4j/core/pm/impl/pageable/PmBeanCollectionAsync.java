@@ -0,0 +1,330 @@
+package org.pm4j.core.pm.impl.pageable;
+
+import java.beans.PropertyChangeEvent;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.Lock;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.pm4j.common.pageable.PageableCollection;
+import org.pm4j.common.pageable.querybased.pagequery.PageQueryCollection;
+import org.pm4j.common.query.QueryParams;
+import org.pm4j.core.pm.PmBean;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEvent.ValueChangeKind;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmUtil;
+
+/**
+ * A {@link PmBeanCollection} that loads the items of the current page in the
+ * background.
+ * <p>
+ * A page request does not wait for the backing collection. While the page
+ * gets loaded {@link #getItemsOnPage()} provides an empty list and
+ * {@link #getNumOfItems()} provides the last known number of items. The
+ * {@link #getPageLoadState()} reports {@link PageLoadState#LOADING}.
+ * <p>
+ * The page gets requested by a {@link PageQueryCollection.RangeQuery}. It gets
+ * created by the requesting thread and contains a copy of the page position
+ * and the query parameters. The executor calls only the backing service with
+ * these copies. The collection state is not touched by the executor thread.
+ * <p>
+ * The load operations of a collection are executed one after the other. A
+ * page request that is made while a load operation is running waits for it.
+ * Only the latest waiting request gets executed.
+ * <p>
+ * The result gets applied while holding the lock of the conversation. After
+ * that a single {@link PmEvent#VALUE_CHANGE} event of the PM context (usually
+ * the table) informs the observers. If the conversation provides a completion
+ * executor (see {@link PmConversationImpl#setPmCompletionExecutor(Executor)}),
+ * the result gets applied by that executor. E.g. within the UI thread.
+ * <p>
+ * Each page index, page size, sort order, filter or item set change supersedes
+ * the running load operation. The results of superseded load operations get
+ * discarded.
+ * <p>
+ * Only the page items and the number of items are provided asynchronously.
+ * All other operations (e.g. the {@link #iterator()}) still call the backing
+ * collection synchronously.
+ *
+ * @author olaf boede
+ *
+ * @param <T_PM>
+ *          The kind of {@link PmBean} provided by this class.
+ * @param <T_BEAN>
+ *          The kind of corresponding bean, handled by the backing
+ *          {@link PageableCollection} instance.
+ */
+public class PmBeanCollectionAsync<T_PM extends PmBean<T_BEAN>, T_BEAN> extends PmBeanCollection<T_PM, T_BEAN> {
+
+  private static final Log LOG = LogFactory.getLog(PmBeanCollectionAsync.class);
+
+  /** The load states of the current page. */
+  public enum PageLoadState {
+    /** The current page gets loaded. */
+    LOADING,
+    /** The items of the current page are available. */
+    LOADED,
+    /** The last load operation failed. See {@link PmBeanCollectionAsync#getLoadFailure()}. */
+    FAILED
+  }
+
+  private final PageQueryCollection<T_BEAN, ?> pageQueryCollection;
+  private final Executor executor;
+
+  // -- guarded by this --
+  /** Gets incremented on each change that makes the loaded page invalid. */
+  private int requestGeneration;
+  /** The generation of the running load operation. <code>-1</code> if there is none. */
+  private int loadingGeneration = -1;
+  /** The generation of the applied result. <code>-1</code> if there is none. */
+  private int loadedGeneration = -1;
+  private List<T_BEAN> loadedBeans = Collections.emptyList();
+  private long loadedNumOfItems;
+  private Exception loadFailure;
+  /** The load operation that is executed. <code>null</code> if there is none. */
+  private LoadTask runningTask;
+  /** The load operation that waits for the running one. */
+  private LoadTask waitingTask;
+
+  /**
+   * @param pmCtxt
+   *          The PM context used to create the PM's for the bean items.
+   *          Receives the event that reports a loaded page.
+   * @param itemPmClass
+   *          Type of item PM's to provide.
+   * @param pageQueryCollection
+   *          The collection of beans to represent by this collection of bean-PM's.
+   * @param executor
+   *          The executor that calls the backing service.
+   */
+  public PmBeanCollectionAsync(PmObject pmCtxt, Class<?> itemPmClass, PageQueryCollection<T_BEAN, ?> pageQueryCollection, Executor executor) {
+    super(pmCtxt, itemPmClass, pageQueryCollection);
+    assert executor != null;
+    this.pageQueryCollection = pageQueryCollection;
+    this.executor = executor;
+
+    PropertyChangeListener invalidatingListener = new PropertyChangeListener() {
+      @Override
+      public void propertyChange(PropertyChangeEvent evt) {
+        invalidatePage();
+      }
+    };
+    addPropertyChangeListener(PageableCollection.PROP_PAGE_IDX, invalidatingListener);
+    addPropertyChangeListener(PageableCollection.PROP_PAGE_SIZE, invalidatingListener);
+    addPropertyChangeListener(PageableCollection.EVENT_ITEM_ADD, invalidatingListener);
+    addPropertyChangeListener(PageableCollection.EVENT_REMOVE_SELECTION, invalidatingListener);
+    getQueryParams().addPropertyChangeListener(QueryParams.PROP_EFFECTIVE_SORT_ORDER, invalidatingListener);
+    getQueryParams().addPropertyChangeListener(QueryParams.PROP_EFFECTIVE_FILTER, invalidatingListener);
+  }
+
+  /**
+   * Provides the loaded beans of the current page.<br>
+   * Starts a load operation if the current page is not yet requested.
+   *
+   * @return the loaded beans. An empty list while the page gets loaded.
+   */
+  @Override
+  protected List<T_BEAN> getBeansOnPage() {
+    ensurePageRequested();
+    synchronized (this) {
+      return (loadedGeneration == requestGeneration)
+          ? loadedBeans
+          : Collections.<T_BEAN>emptyList();
+    }
+  }
+
+  /**
+   * Starts a load operation if the current page is not yet requested.
+   *
+   * @return the number of items reported by the last load operation.
+   */
+  @Override
+  public long getNumOfItems() {
+    ensurePageRequested();
+    synchronized (this) {
+      return loadedNumOfItems;
+    }
+  }
+
+  @Override
+  public void clearCaches() {
+    super.clearCaches();
+    invalidatePage();
+  }
+
+  /**
+   * Provides the load state of the current page.<br>
+   * Starts a load operation if the current page is not yet requested.
+   *
+   * @return the load state. Never <code>null</code>.
+   */
+  public PageLoadState getPageLoadState() {
+    ensurePageRequested();
+    synchronized (this) {
+      if (loadedGeneration != requestGeneration) {
+        return PageLoadState.LOADING;
+      }
+      return (loadFailure != null)
+          ? PageLoadState.FAILED
+          : PageLoadState.LOADED;
+    }
+  }
+
+  /**
+   * @return the failure of the last load operation. <code>null</code> if it was successful.
+   */
+  public synchronized Exception getLoadFailure() {
+    return loadFailure;
+  }
+
+  /**
+   * Discards the current page. The next page request loads it again.
+   */
+  public void reload() {
+    invalidatePage();
+    PmEventApi.firePmEvent(getPmCtxt(), PmEvent.VALUE_CHANGE, ValueChangeKind.RELOAD);
+  }
+
+  private synchronized void invalidatePage() {
+    ++requestGeneration;
+  }
+
+  /**
+   * Starts a load operation if the current page is neither loaded nor requested.<br>
+   * The page position and the query get copied within the calling thread. The
+   * executor gets called without holding the monitor of this collection.
+   */
+  private void ensurePageRequested() {
+    int generation;
+    synchronized (this) {
+      if (loadedGeneration == requestGeneration ||
+          loadingGeneration == requestGeneration) {
+        return;
+      }
+      loadingGeneration = generation = requestGeneration;
+    }
+
+    long startIdx = getPageIdx() * getPageSize();
+    PmConversationImpl conversation = (PmConversationImpl)getPmCtxt().getPmConversation();
+    LoadTask task = new LoadTask(generation,
+        pageQueryCollection.makeRangeQuery(startIdx, getPageSize()),
+        conversation.getPmCompletionExecutor());
+
+    synchronized (this) {
+      if (runningTask != null) {
+        // replaces a waiting request. It is superseded by this one.
+        waitingTask = task;
+        return;
+      }
+      runningTask = task;
+    }
+    executor.execute(task);
+  }
+
+  /**
+   * Starts the waiting load operation after the running one is done.
+   */
+  private void startWaitingTask() {
+    LoadTask next;
+    synchronized (this) {
+      next = waitingTask;
+      waitingTask = null;
+      runningTask = next;
+    }
+    if (next != null) {
+      executor.execute(next);
+    }
+  }
+
+  private synchronized boolean isSuperseded(LoadTask task) {
+    return task.generation != requestGeneration;
+  }
+
+  /**
+   * Applies the result of a load operation and informs the observers.
+   */
+  private void applyResult(LoadTask task) {
+    Lock lock = ((PmConversationImpl)getPmCtxt().getPmConversation()).getPmLock();
+    lock.lock();
+    try {
+      synchronized (this) {
+        if (task.generation != requestGeneration) {
+          // superseded by a later request.
+          return;
+        }
+        loadedGeneration = task.generation;
+        loadingGeneration = -1;
+        loadFailure = task.failure;
+        loadedBeans = task.beans;
+        if (task.failure == null) {
+          loadedNumOfItems = task.numOfItems;
+        }
+      }
+
+      PmEventApi.firePmEvent(getPmCtxt(), PmEvent.VALUE_CHANGE,
+          task.failure != null ? ValueChangeKind.UNKNOWN : ValueChangeKind.RELOAD);
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /** Loads a page using the query copy made by the requesting thread. */
+  private class LoadTask implements Runnable {
+    final int generation;
+    final PageQueryCollection.RangeQuery<T_BEAN> query;
+    /** Applies the result. <code>null</code> if the loading thread should apply it. */
+    final Executor completion;
+    List<T_BEAN> beans = Collections.emptyList();
+    long numOfItems;
+    Exception failure;
+
+    LoadTask(int generation, PageQueryCollection.RangeQuery<T_BEAN> query, Executor completion) {
+      this.generation = generation;
+      this.query = query;
+      this.completion = completion;
+    }
+
+    @Override
+    public void run() {
+      try {
+        if (isSuperseded(this)) {
+          // the result would be discarded.
+          return;
+        }
+        try {
+          List<T_BEAN> pageBeans = new ArrayList<T_BEAN>(query.getItems());
+          numOfItems = query.getNumOfItems();
+          beans = Collections.unmodifiableList(pageBeans);
+        }
+        catch (Exception e) {
+          LOG.error("Unable to load the page items of '" + PmUtil.getPmLogString(getPmCtxt()) + "'.", e);
+          failure = e;
+        }
+      }
+      finally {
+        startWaitingTask();
+      }
+
+      if (completion != null) {
+        completion.execute(new Runnable() {
+          @Override
+          public void run() {
+            applyResult(LoadTask.this);
+          }
+        });
+      }
+      else {
+        applyResult(this);
+      }
+    }
+  }
+
+}
@@ -15,10 +15,15 @@ public class ExpressionPathResolver extends PathResolverBase {
 
   private final Expression expression;
 
+  /**
+   * @param exprString The string to parse.
+   * @param syntaxVersion The expression syntax version to use.
+   * @return A new resolver that uses the expression provided by the {@link ParsedExpressionCache}.
+   */
   public static PathResolver parse(String exprString, SyntaxVersion syntaxVersion) {
     return StringUtils.isEmpty(exprString)
         ? PassThroughPathResolver.INSTANCE
-        : new ExpressionPathResolver(syntaxVersion, exprString);
+        : new ExpressionPathResolver(ParsedExpressionCache.getInstance().getExpression(exprString, syntaxVersion), syntaxVersion);
   }
 
   public static PathResolver parse(String exprString) {
@@ -26,8 +31,12 @@ public class ExpressionPathResolver extends PathResolverBase {
   }
 
   protected ExpressionPathResolver(SyntaxVersion syntaxVersion, String exprString) {
+    this(PathExpressionChain.parse(exprString, syntaxVersion), syntaxVersion);
+  }
+
+  protected ExpressionPathResolver(Expression expression, SyntaxVersion syntaxVersion) {
     super(syntaxVersion);
-    this.expression = PathExpressionChain.parse(exprString, syntaxVersion);
+    this.expression = expression;
   }
 
   @Override
@@ -0,0 +1,133 @@
+package org.pm4j.core.pm.impl.pathresolver;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.pm4j.common.expr.Expression;
+import org.pm4j.common.expr.Expression.SyntaxVersion;
+import org.pm4j.common.util.collection.LRUMap;
+import org.pm4j.core.pm.impl.expr.PathExpressionChain;
+
+/**
+ * A bounded, thread safe cache for parsed path expressions.
+ * <p>
+ * The same expression strings get evaluated again and again (e.g. for each
+ * table row or page render). The cache prevents repeated parse operations.<br>
+ * Parsed expressions don't depend on a conversation. The cache instance
+ * provided by {@link #getInstance()} is shared within the application.
+ * <p>
+ * The cache provides parsed {@link Expression}s, not {@link PathResolver}s.
+ * Path resolvers have some configurable behavior (see {@link PathResolver#setNullAllowed(boolean)})
+ * and are therefore created for each caller.
+ *
+ * @author olaf boede
+ */
+public class ParsedExpressionCache {
+
+  /** The default maximum number of cached expressions. */
+  public static final int DEFAULT_MAX_SIZE = 2000;
+
+  private static final ParsedExpressionCache INSTANCE = new ParsedExpressionCache(DEFAULT_MAX_SIZE);
+
+  private final Map<Key, Expression> keyToExpressionMap;
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+
+  /**
+   * @param maxSize The maximum number of cached expressions. If more expressions get parsed,
+   *          the least recently used ones get removed from the cache.
+   */
+  public ParsedExpressionCache(int maxSize) {
+    this.keyToExpressionMap = new LRUMap<Key, Expression>(maxSize);
+  }
+
+  /**
+   * @return The application wide expression cache.
+   */
+  public static ParsedExpressionCache getInstance() {
+    return INSTANCE;
+  }
+
+  /**
+   * Provides the parsed expression for the given string.
+   *
+   * @param exprString The expression string to parse. Should not be empty.
+   * @param syntaxVersion The expression syntax version to use.
+   * @return The parsed expression. Never <code>null</code>.
+   */
+  public Expression getExpression(String exprString, SyntaxVersion syntaxVersion) {
+    Key key = new Key(exprString, syntaxVersion);
+    Expression expr = keyToExpressionMap.get(key);
+    if (expr != null) {
+      hitCount.incrementAndGet();
+      return expr;
+    }
+
+    missCount.incrementAndGet();
+    // Parallel misses for the same key may parse the string twice. Both results are equivalent.
+    expr = PathExpressionChain.parse(exprString, syntaxVersion);
+    keyToExpressionMap.put(key, expr);
+    return expr;
+  }
+
+  /**
+   * @return The number of requests that were answered by the cache.
+   */
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  /**
+   * @return The number of requests that needed to parse an expression string.
+   */
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  /**
+   * @return The number of currently cached expressions.
+   */
+  public int size() {
+    return keyToExpressionMap.size();
+  }
+
+  /**
+   * Removes all cached expressions and resets the hit/miss statistics.
+   */
+  public void clear() {
+    keyToExpressionMap.clear();
+    hitCount.set(0);
+    missCount.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount() + "]";
+  }
+
+  /** The cache key: The expression string and its syntax version. */
+  private static final class Key {
+    private final String exprString;
+    private final SyntaxVersion syntaxVersion;
+
+    Key(String exprString, SyntaxVersion syntaxVersion) {
+      this.exprString = exprString;
+      this.syntaxVersion = syntaxVersion;
+    }
+
+    @Override
+    public int hashCode() {
+      return exprString.hashCode() * 31 + (syntaxVersion != null ? syntaxVersion.hashCode() : 0);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (!(obj instanceof Key)) {
+        return false;
+      }
+      Key other = (Key) obj;
+      return exprString.equals(other.exprString) && syntaxVersion == other.syntaxVersion;
+    }
+  }
+
+}
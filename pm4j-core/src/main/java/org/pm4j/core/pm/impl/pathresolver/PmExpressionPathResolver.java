@@ -24,11 +24,12 @@ public class PmExpressionPathResolver extends PathResolverBase {
   /**
    * @param exprString The string to parse.
    * @param syntaxVersion The expression syntax version to use.
+   * @return A new resolver that uses the expression provided by the {@link ParsedExpressionCache}.
    */
   public static PathResolver parse(String exprString, SyntaxVersion syntaxVersion) {
     return StringUtils.isEmpty(exprString)
             ? PassThroughPathResolver.INSTANCE
-            : new PmExpressionPathResolver(PathExpressionChain.parse(exprString, syntaxVersion), syntaxVersion);
+            : new PmExpressionPathResolver(ParsedExpressionCache.getInstance().getExpression(exprString, syntaxVersion), syntaxVersion);
   }
 
   /**
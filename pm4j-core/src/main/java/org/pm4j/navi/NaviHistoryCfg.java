@@ -56,6 +56,26 @@ public class NaviHistoryCfg {
     boolean isNaviHistoryPath(String path);
   }
 
+  /**
+   * Provides the time used for the live time handling of navigation histories
+   * and sessions.<br>
+   * Allows tests to control the expiry of navigation information.
+   */
+  public static interface Clock {
+    /** The default clock based on {@link System#currentTimeMillis()}. */
+    Clock SYSTEM = new Clock() {
+      @Override
+      public long currentTimeMillis() {
+        return System.currentTimeMillis();
+      }
+    };
+
+    /**
+     * @return The current time in milliseconds.
+     */
+    long currentTimeMillis();
+  }
+
   /**
    * A fix configured start link that may be provided as a fall back link when
    * no previous history item is available.
@@ -101,6 +121,33 @@ public class NaviHistoryCfg {
    */
   private boolean newNaviVersionOnPagePosChange;
 
+  /**
+   * The estimated memory [bytes] the history versions of a single navigation
+   * session may retain. If exceeded, the oldest versions that are not the
+   * current one get removed.
+   * <p>
+   * A value less or equal to zero means: no limit.<br>
+   * Defaults to no limit.
+   */
+  private long maxHistoryBytesPerSession;
+
+  /**
+   * The estimated memory [bytes] the history versions of all navigation sessions
+   * may retain. If exceeded, the versions of the least recently used sessions get
+   * removed. Their current versions are kept.
+   * <p>
+   * A value less or equal to zero means: no limit.<br>
+   * Defaults to no limit.
+   */
+  private long maxHistoryBytes;
+
+  /**
+   * The time source used to check the live time of navigation information.
+   * <p>
+   * Default value: {@link Clock#SYSTEM}.
+   */
+  private Clock clock = Clock.SYSTEM;
+
   /**
    * @param unusedLinkLiveTimeSec Unused live time im seconds.
    */
@@ -159,4 +206,29 @@ public class NaviHistoryCfg {
     this.newNaviVersionOnPagePosChange = newNaviVersionOnPagePosChange;
   }
 
+  public long getMaxHistoryBytesPerSession() {
+    return maxHistoryBytesPerSession;
+  }
+
+  public void setMaxHistoryBytesPerSession(long maxHistoryBytesPerSession) {
+    this.maxHistoryBytesPerSession = maxHistoryBytesPerSession;
+  }
+
+  public long getMaxHistoryBytes() {
+    return maxHistoryBytes;
+  }
+
+  public void setMaxHistoryBytes(long maxHistoryBytes) {
+    this.maxHistoryBytes = maxHistoryBytes;
+  }
+
+  public Clock getClock() {
+    return clock;
+  }
+
+  public void setClock(Clock clock) {
+    assert clock != null;
+    this.clock = clock;
+  }
+
 }
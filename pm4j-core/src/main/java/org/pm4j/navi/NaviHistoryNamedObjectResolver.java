@@ -22,8 +22,20 @@ public class NaviHistoryNamedObjectResolver implements NamedObjectResolver {
 
   @Override
   public Object findObject(String name) {
+    return findObject(pmConversation, name);
+  }
+
+  /**
+   * Provides a named object that was stored within the navigation context of
+   * the given conversation.
+   *
+   * @param pmConversation The conversation to get the navigation context for.
+   * @param name Name of the object to find.
+   * @return The found instance or <code>null</code>.
+   */
+  public static Object findObject(PmConversation pmConversation, String name) {
     Object result = null;
-    PmToViewTechnologyConnector viewTechnologyConnector = pmConversation.getPmToViewTechnologyConnector();
+    PmToViewTechnologyConnector viewTechnologyConnector = ((PmConversationImpl)pmConversation).getPmToViewTechnologyConnector();
     NaviHistory h = viewTechnologyConnector.getNaviHistory();
 
     if (h != null) {
@@ -0,0 +1,24 @@
+package org.pm4j.navi;
+
+/**
+ * A fast clone strategy for navigation scope values of a specific type.
+ * <p>
+ * Navigation scope values get cloned when they are passed to a forked
+ * navigation session. Without a registered cloner the values get copied
+ * by {@link Object#clone()} or by a serialization round trip.<br>
+ * A cloner that returns the passed instance declares the type as immutable.
+ *
+ * @param <T> The handled value type.
+ *
+ * @author olaf boede
+ */
+public interface NaviScopeValueCloner<T> {
+
+  /**
+   * @param value
+   *          The value to copy. Never <code>null</code>.
+   * @return The copy.
+   */
+  T cloneValue(T value);
+
+}
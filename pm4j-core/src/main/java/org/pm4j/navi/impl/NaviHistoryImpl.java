@@ -6,12 +6,12 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.TreeMap;
 
-import org.pm4j.common.util.collection.ArrayUtil;
 import org.pm4j.navi.NaviHistory;
 import org.pm4j.navi.NaviHistoryCfg;
 import org.pm4j.navi.NaviLink;
@@ -19,13 +19,25 @@ import org.pm4j.navi.NaviManager;
 
 /**
  * A simple navigation history that maintains a simple list of navigation items.
+ * <p>
+ * The item list is stored as an immutable chain of {@link ItemNode}s. History
+ * versions that are based on each other share their common item prefix. A
+ * navigation step creates only a single new node instead of copying the whole
+ * item list.
  *
  * @author olaf boede
  */
 public class NaviHistoryImpl implements NaviHistory {
 
-  /** The current navigation history item set. */
-  private NaviLink[] items;
+  /** Rough estimation of the fix memory costs [bytes] of a history version and its own item node. */
+  private static final int HISTORY_BYTES = 128;
+
+  /**
+   * The last (current) item of the navigation history item chain.<br>
+   * The chain itself is never modified. Changes are done by replacing this
+   * reference.
+   */
+  private volatile ItemNode lastItem;
 
   /**
    * The navigation manager configuration.
@@ -42,7 +54,22 @@ public class NaviHistoryImpl implements NaviHistory {
   private final String version;
 
   /** Time stamp of the last observed usage of this history. */
-  private long lastVisitTime = System.currentTimeMillis();
+  private volatile long lastVisitTime;
+
+  /**
+   * The memory estimation for this version that was reported to its session.
+   * Is <code>0</code> before the version gets added to its session.
+   */
+  private int estimatedBytes;
+
+  /**
+   * The navigation scope property values that were counted for this version by
+   * its session.
+   */
+  private List<Object> countedValues = Collections.emptyList();
+
+  /** The owning navigation session. */
+  private final NaviSessionImpl naviSession;
 
   /**
    * A navigation history fork that was created, based on this history.<br>
@@ -79,10 +106,12 @@ public class NaviHistoryImpl implements NaviHistory {
    *          The version ID to be used for this history.
    */
   public NaviHistoryImpl(NaviSessionImpl naviSession, NaviLink naviLink, String version) {
+    this.naviSession = naviSession;
     this.naviManager = naviSession.getNaviManager();
     this.sessionId = naviSession.getSessionId();
     this.version = version;
-    this.items = ArrayUtil.toArray(naviLink);
+    this.lastItem = new ItemNode(naviLink, null);
+    this.lastVisitTime = naviManager.currentTimeMillis();
   }
 
   /**
@@ -95,50 +124,48 @@ public class NaviHistoryImpl implements NaviHistory {
    * @param newLastItem The new last history item.
    */
   public NaviHistoryImpl(NaviSessionImpl naviSession, NaviHistoryImpl baseHistory, NaviLink newLastItem) {
+    this.naviSession = naviSession;
     this.naviManager = naviSession.getNaviManager();
     this.sessionId = naviSession.getSessionId();
     this.version = NaviUtil.nextId(naviSession.getVersion());
+    this.lastVisitTime = naviManager.currentTimeMillis();
 
-    NaviLink[] baseItems = (baseHistory).items;
-    int historyPos = findPosInList(baseItems, newLastItem);
-    NaviLink[] newItems;
+    ItemNode baseItems = baseHistory.lastItem;
+    ItemNode historyPosNode = findNodeInList(baseItems, newLastItem);
 
-    if (historyPos != -1) {
-      // Back-navigation: Link found in the existing history.
-      newItems = Arrays.copyOfRange(baseItems, 0, historyPos+1);
-      newItems[historyPos] = newLastItem;
-    }
-    else {
-      // Forward navigation:
-      newItems = Arrays.copyOf(baseItems, baseItems.length+1);
-      newItems[baseItems.length] = newLastItem;
-    }
-
-    this.items = newItems;
+    this.lastItem = (historyPosNode != null)
+        // Back-navigation: Link found in the existing history. The new item replaces the found one.
+        ? new ItemNode(newLastItem, historyPosNode.prev)
+        // Forward navigation:
+        : new ItemNode(newLastItem, baseItems);
   }
 
   @Override
   public NaviLink getCurrentLink() {
-    NaviLink[] itemListRef = items;
-    return (itemListRef.length > 0)
-              ? itemListRef[itemListRef.length-1]
+    ItemNode n = lastItem;
+    return (n != null)
+              ? n.link
               : null;
   }
 
   @Override
   public NaviLink getPrevLink() {
-    NaviLink[] itemListRef = items;
-    return (itemListRef.length >= 2)
-        ? itemListRef[itemListRef.length-2]
+    ItemNode n = lastItem;
+    return (n != null && n.prev != null)
+        ? n.prev.link
         : null;
   }
 
   @Override
   public NaviLink getFirstLink() {
-    NaviLink[] itemListRef = items;
-    return itemListRef.length > 0
-        ? itemListRef[0]
-        : null;
+    ItemNode n = lastItem;
+    if (n == null) {
+      return null;
+    }
+    while (n.prev != null) {
+      n = n.prev;
+    }
+    return n.link;
   }
 
   @Override
@@ -148,11 +175,10 @@ public class NaviHistoryImpl implements NaviHistory {
                       ? new HashSet<NaviLink>(Arrays.asList(linksToSkip))
                       : Collections.EMPTY_SET;
 
-    NaviLink[] itemListRef = items;
-    for (int i=itemListRef.length-2; i>=0; --i) {
-      NaviLink l = itemListRef[i];
-      if (! skipSet.contains(l)) {
-        return l;
+    ItemNode n = lastItem;
+    for (n = (n != null) ? n.prev : null; n != null; n = n.prev) {
+      if (! skipSet.contains(n.link)) {
+        return n.link;
       }
     }
 
@@ -162,50 +188,45 @@ public class NaviHistoryImpl implements NaviHistory {
 
   @Override
   public NaviLink findLinkBefore(NaviLink l) {
-    NaviLink predecessor = null;
-    for (NaviLink item : items) {
-      if (item.equals(l)) {
-        return predecessor;
-      }
-      else {
-        predecessor = item;
+    // The chain gets walked backwards. The predecessor of the first matching item is relevant.
+    ItemNode firstMatch = null;
+    for (ItemNode n = lastItem; n != null; n = n.prev) {
+      if (n.link.equals(l)) {
+        firstMatch = n;
       }
     }
     // link not found in list.
     // TODO olaf: should we throw an exception in this case?
-    return null;
+    return (firstMatch != null && firstMatch.prev != null)
+        ? firstMatch.prev.link
+        : null;
   }
 
   @Override
   public boolean containsLinkToPage(NaviLink naviLink) {
-    for (Iterator<NaviLink> iter = getItemIterator(); iter.hasNext(); ) {
-      if (iter.next().isLinkToSamePage(naviLink)) {
-        return true;
-      }
-    }
-    // link not found in history:
-    return false;
+    return findNodeInList(lastItem, naviLink) != null;
   }
 
   @Override
   public Iterator<NaviLink> getItemIterator() {
-    return Arrays.asList(items).iterator();
+    return Collections.unmodifiableList(getItemList()).iterator();
   }
 
   @Override
   public Iterator<NaviLink> getReverseIterator() {
     return new Iterator<NaviLink>() {
       // copied reference to prevent concurrent modification issues on item list replacements.
-      private NaviLink[] itemListRef = items;
-      private int posIdx = itemListRef.length;
+      private ItemNode node = lastItem;
       @Override public boolean hasNext() {
-        return posIdx > 1;
+        return node != null && node.prev != null;
       }
       @Override public NaviLink next() {
-        if (posIdx < 1) {
+        if (node == null) {
           throw new NoSuchElementException();
         }
-        return itemListRef[--posIdx];
+        NaviLink l = node.link;
+        node = node.prev;
+        return l;
       }
       @Override public void remove() {
         throw new UnsupportedOperationException();
@@ -215,7 +236,8 @@ public class NaviHistoryImpl implements NaviHistory {
 
   @Override
   public int getSize() {
-    return items.length;
+    ItemNode n = lastItem;
+    return (n != null) ? n.size : 0;
   }
 
   @Override
@@ -267,21 +289,19 @@ public class NaviHistoryImpl implements NaviHistory {
 
   @Override
   public void ping() {
-    lastVisitTime = System.currentTimeMillis();
+    lastVisitTime = naviManager.currentTimeMillis();
   }
 
   @Override
   public void setPosOnPage(String pos) {
-    NaviLink[] newItems = Arrays.copyOf(items, items.length);
-
-    int lastPos = newItems.length-1;
-    if (lastPos < 0) {
+    ItemNode n = lastItem;
+    if (n == null) {
       throw new NaviRuntimeException("History is empty. Unable to set page position to '" + pos + "'.");
     }
-    NaviLinkImpl newLink = new NaviLinkImpl((NaviLinkImpl)newItems[lastPos], pos);
+    NaviLinkImpl newLink = new NaviLinkImpl((NaviLinkImpl)n.link, pos);
 
-    newItems[lastPos] = newLink;
-    items = newItems;
+    // Only the last node gets replaced. The older items are shared with the previous state.
+    lastItem = new ItemNode(newLink, n.prev);
   }
 
   @Override @SuppressWarnings("unchecked")
@@ -323,6 +343,7 @@ public class NaviHistoryImpl implements NaviHistory {
       naviScopeProperties = new TreeMap<String, Object>();
     }
     naviScopeProperties.put(propName, value);
+    naviSession.onVersionChanged(this);
   }
 
   /**
@@ -371,8 +392,10 @@ public class NaviHistoryImpl implements NaviHistory {
       }
 
       if (cloneNaviProps) {
-        this.naviScopeProperties =
-          NaviUtil.deepCloneValues(naviScopeProperties, new TreeMap<String, Object>());
+        this.naviScopeProperties = (newCount == 0)
+          ? NaviUtil.deepCloneValues(naviScopeProperties, new TreeMap<String, Object>())
+          // The merged map is already a new instance. Only its values need to be cloned.
+          : NaviUtil.deepCloneValues(naviScopeProperties, naviScopeProperties);
       }
       else {
         this.naviScopeProperties = naviScopeProperties;
@@ -387,6 +410,46 @@ public class NaviHistoryImpl implements NaviHistory {
     return lastVisitTime;
   }
 
+  /**
+   * Provides a rough estimation of the memory retained by this history version.
+   * <p>
+   * Only the last item is counted. The older items are shared with the predecessor
+   * versions. The navigation scope property values are not included. They are
+   * often shared by several versions and get counted by the session.
+   *
+   * @return The estimation that was last calculated by {@link #updateEstimatedBytes()}.
+   */
+  /* package */ int getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  /**
+   * Calculates the memory estimation of this version again.<br>
+   * Includes the navigation scope property keys but not their values.
+   *
+   * @return The difference to the previous estimation.
+   */
+  /* package */ int updateEstimatedBytes() {
+    int bytes = HISTORY_BYTES +
+                estimateLinkBytes(getCurrentLink()) +
+                NaviUtil.estimateMapEntryBytes(naviScopeProperties);
+    int delta = bytes - estimatedBytes;
+    estimatedBytes = bytes;
+    return delta;
+  }
+
+  /**
+   * @return The navigation scope property values that were counted for this
+   *         version by its session.
+   */
+  /* package */ List<Object> getCountedValues() {
+    return countedValues;
+  }
+
+  /* package */ void setCountedValues(List<Object> countedValues) {
+    this.countedValues = countedValues;
+  }
+
   /**
    * @return A report about the state of the history.
    */
@@ -397,7 +460,7 @@ public class NaviHistoryImpl implements NaviHistory {
   @Override
   public String toString() {
     StringBuilder sb = new StringBuilder(100);
-    sb.append("history (").append(getVersionString()).append("): ").append(Arrays.asList(items));
+    sb.append("history (").append(getVersionString()).append("): ").append(getItemList());
     if (naviScopeProperties.size() > 0) {
       sb.append(" naviProps: ").append(naviScopeProperties);
     }
@@ -410,15 +473,60 @@ public class NaviHistoryImpl implements NaviHistory {
    * XXX olaf: That might be fine for most use cases. When the position on the
    * page gets relevant for the history, this code should get configurable...
    */
-  private int findPosInList(NaviLink[] list, NaviLink itemToFind) {
-    for (int i = 0; i < list.length; ++i) {
-      if (itemToFind.isLinkToSamePage(list[i])) {
-        return i;
+  private static ItemNode findNodeInList(ItemNode lastNode, NaviLink itemToFind) {
+    // The chain gets walked backwards. The first matching item of the list is relevant.
+    ItemNode found = null;
+    for (ItemNode n = lastNode; n != null; n = n.prev) {
+      if (itemToFind.isLinkToSamePage(n.link)) {
+        found = n;
       }
     }
+    return found;
+  }
+
+  private static int estimateLinkBytes(NaviLink link) {
+    if (!(link instanceof NaviLinkImpl)) {
+      return 0;
+    }
+    NaviLinkImpl l = (NaviLinkImpl) link;
+    int bytes = NaviUtil.estimateStringBytes(l.getPath()) +
+                NaviUtil.estimateStringBytes(l.getPosOnPage()) +
+                NaviUtil.estimateMapBytes(l.getParams());
+    // The navigation scope parameter values are counted as navigation scope properties.
+    bytes += l.getNaviScopeParams().size() * NaviUtil.MAP_ENTRY_BYTES;
+    return bytes;
+  }
 
-    // not found
-    return -1;
+  /**
+   * @return A new list containing the history items. Starts with the first item.
+   */
+  private List<NaviLink> getItemList() {
+    ItemNode n = lastItem;
+    if (n == null) {
+      return Collections.emptyList();
+    }
+    NaviLink[] arr = new NaviLink[n.size];
+    for (; n != null; n = n.prev) {
+      arr[n.size-1] = n.link;
+    }
+    return Arrays.asList(arr);
+  }
+
+  /**
+   * An immutable history item chain element.<br>
+   * Each node knows its predecessor. Nodes are shared between history versions.
+   */
+  private static final class ItemNode {
+    final NaviLink link;
+    final ItemNode prev;
+    /** The number of items in the chain, ending with this node. */
+    final int size;
+
+    ItemNode(NaviLink link, ItemNode prev) {
+      this.link = link;
+      this.prev = prev;
+      this.size = (prev != null) ? prev.size + 1 : 1;
+    }
   }
 
 }
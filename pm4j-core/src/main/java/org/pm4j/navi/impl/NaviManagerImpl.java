@@ -1,8 +1,13 @@
 package org.pm4j.navi.impl;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.lang.ObjectUtils;
 import org.apache.commons.lang.StringUtils;
@@ -17,6 +22,13 @@ import org.pm4j.navi.NaviManager;
  * Responsible for managing a set of client sessions (e.g. browser tab sessions).
  * <p>
  * It knows about the set of active sessions.
+ * <p>
+ * Each navigation session has its own lock. Navigation requests of different
+ * sessions are handled in parallel.<br>
+ * Unused sessions are removed incrementally: each navigation request checks only
+ * a few sessions that are due according to an expiry ordered queue.<br>
+ * The same queue is used to find the least recently used sessions if the
+ * retained history versions exceed {@link NaviHistoryCfg#getMaxHistoryBytes()}.
  *
  * @author olaf boede
  */
@@ -24,6 +36,9 @@ public class NaviManagerImpl implements NaviManager {
 
   private static final Log LOG = LogFactory.getLog(NaviManagerImpl.class);
 
+  /** The maximal number of session expiry checks done within a single navigation request. */
+  static final int MAX_EXPIRY_CHECKS_PER_REQUEST = 16;
+
   /**
    * The navigation configuration.
    */
@@ -38,19 +53,30 @@ public class NaviManagerImpl implements NaviManager {
   /**
    * The set of conversation sessions.
    */
-  private Map<String, NaviSessionImpl> idToSessionMap = new LinkedHashMap<String, NaviSessionImpl>();
+  private final ConcurrentMap<String, NaviSessionImpl> idToSessionMap = new ConcurrentHashMap<String, NaviSessionImpl>();
 
   /**
-   * The unique id that will be used when the next navigation will be created.<br>
-   * Is initially randomized to minimize the likelihood of matches with stored browser links.
+   * Contains an entry for each registered session. Ordered by the time the
+   * session needs to be checked for expiry.
    */
-  private int nextSessionId;
+  private final PriorityBlockingQueue<ExpiryCheck> expiryQueue = new PriorityBlockingQueue<ExpiryCheck>();
+
+  /**
+   * Ensures that only a single thread works on the {@link #expiryQueue}.
+   */
+  private final ReentrantLock expiryLock = new ReentrantLock();
+
+  /** The number of history versions retained by all sessions. */
+  private final AtomicInteger retainedVersionCount = new AtomicInteger();
+
+  /** The estimated memory consumption of all retained history versions. */
+  private final AtomicLong estimatedHistoryBytes = new AtomicLong();
 
   /**
-   * The last time [ms] this manager checked for histories and sessions that are
-   * out of date.
+   * The unique id that will be used when the next navigation will be created.<br>
+   * Is initially randomized to minimize the likelihood of matches with stored browser links.
    */
-  private long lastUnusedCheckTime;
+  private int nextSessionId;
 
   /**
    * Constructor for application use.
@@ -67,7 +93,7 @@ public class NaviManagerImpl implements NaviManager {
   /**
    * @return A session id that is unique within the scope of this navigation manager.
    */
-  /* package */ String newSessionId() {
+  /* package */ synchronized String newSessionId() {
     String id;
 
     do {
@@ -100,63 +126,29 @@ public class NaviManagerImpl implements NaviManager {
       versionId = sarr[1];
     }
 
-    synchronized(this) {
-      NaviSessionImpl session = idToSessionMap.get(sessionId);
-
-      if (session == null) {
-        if (sessionId != null) {
-          session = new NaviSessionImpl(this, sessionId, versionId, link);
+    NaviHistory history = null;
+    while (history == null) {
+      NaviSessionImpl session = getOrCreateSession(sessionId, versionId, link);
 
-          if (LOG.isInfoEnabled())
-            LOG.info("Received request for a dead navigation session. VersionString: '" +
-                NaviUtil.makeVersionString(sessionId, versionId) +
-                "'. A new navigation session with the same ID will be generated " +
-                "to be able to handle request from the 'dead' page somehow.");
+      session.lock.lock();
+      try {
+        if (session.isExpired()) {
+          // The session was removed while this thread was waiting for its lock.
+          // The next loop cycle handles the request like a request for a dead session.
+          idToSessionMap.remove(session.getSessionId(), session);
         }
         else {
-          session = new NaviSessionImpl(this);
-
-          if (LOG.isDebugEnabled())
-            LOG.debug("New navigation session with ID=" + session.getSessionId() +
-                " started on navigation to '" + link + "'.");
+          history = navigateWithinSession(session, link, sessionId, versionId, versionString, naviMode);
         }
-
-        idToSessionMap.put(session.getSessionId(), session);
-
-        if (LOG.isTraceEnabled()) LOG.trace(getTraceString());
       }
-
-      NaviSessionImpl forkedSession = session.onNavigateTo((NaviLinkImpl)link, versionId, naviMode);
-
-      if (forkedSession != null) {
-        idToSessionMap.put(forkedSession.getSessionId(), forkedSession);
-        session = forkedSession;
-
-        // XXX olaf: Sollte das Log nicht in der SessionImpl gemacht werden (bei der Fork Herstellung)
-        if (LOG.isDebugEnabled())
-          LOG.debug("Created a navigation session fork: " + forkedSession +
-                    " for " + naviCfg.getVersionParamName() + "=" + versionString + "" +
-                    " caused by link: " + link +
-                    "\nTrace: " + getTraceString());
-
-        if (LOG.isTraceEnabled()) LOG.trace(getTraceString());
+      finally {
+        session.lock.unlock();
       }
+    }
 
-      removeUnused();
-
-      if (LOG.isDebugEnabled()) {
-        if (! ( ObjectUtils.equals(sessionId, session.getSessionId()) &&
-                ObjectUtils.equals(versionId, session.getVersion()) )
-           ) {
-          LOG.debug("Changed to history: " + session.getNaviHistory());
-        }
-        else if (LOG.isTraceEnabled()) {
-          LOG.trace("Navigation history not changed: " + session.getNaviHistory());
-        }
-      }
+    removeUnused();
 
-      return session.getNaviHistory();
-    }
+    return history;
   }
 
   @Override
@@ -176,7 +168,7 @@ public class NaviManagerImpl implements NaviManager {
 
   @Override
   public NaviHistory getCurrentHistoryOfSession(String sessionId) {
-    NaviSessionImpl session = idToSessionMap.get(sessionId);
+    NaviSessionImpl session = findNaviSession(sessionId);
     return session != null
             ? session.getNaviHistory()
             : null;
@@ -184,10 +176,18 @@ public class NaviManagerImpl implements NaviManager {
 
   @Override
   public NaviHistory findHistory(String sessionId, String versionId) {
-    NaviSessionImpl session = idToSessionMap.get(sessionId);
-    return session != null
-            ? session.findHistoryVersion(versionId)
-            : null;
+    NaviSessionImpl session = findNaviSession(sessionId);
+    if (session == null) {
+      return null;
+    }
+
+    session.lock.lock();
+    try {
+      return session.findHistoryVersion(versionId);
+    }
+    finally {
+      session.lock.unlock();
+    }
   }
 
   /**
@@ -197,7 +197,47 @@ public class NaviManagerImpl implements NaviManager {
    *         the given ID.
    */
   /* package */ NaviSessionImpl findNaviSession(String sessionId) {
-    return idToSessionMap.get(sessionId);
+    return sessionId != null
+            ? idToSessionMap.get(sessionId)
+            : null;
+  }
+
+  /**
+   * @return The number of history versions retained by all navigation sessions of this manager.
+   */
+  public int getRetainedVersionCount() {
+    return retainedVersionCount.get();
+  }
+
+  /**
+   * @return The estimated memory [bytes] retained by the history versions of all
+   *         navigation sessions of this manager.
+   */
+  public long getEstimatedHistoryBytes() {
+    return estimatedHistoryBytes.get();
+  }
+
+  /**
+   * Gets called by the sessions when they add history versions.
+   */
+  /* package */ void onVersionsAdded(int count, long bytes) {
+    retainedVersionCount.addAndGet(count);
+    estimatedHistoryBytes.addAndGet(bytes);
+  }
+
+  /**
+   * Gets called by the sessions when they remove history versions.
+   */
+  /* package */ void onVersionsRemoved(int count, long bytes) {
+    retainedVersionCount.addAndGet(-count);
+    estimatedHistoryBytes.addAndGet(-bytes);
+  }
+
+  /**
+   * @return The current time according to the configured {@link NaviHistoryCfg#getClock()}.
+   */
+  /* package */ long currentTimeMillis() {
+    return naviCfg.getClock().currentTimeMillis();
   }
 
   /**
@@ -209,36 +249,237 @@ public class NaviManagerImpl implements NaviManager {
     sb.append("NaviManager State:");
 
     for (NaviSessionImpl s : idToSessionMap.values()) {
-      sb.append("\n").append(s.getTraceString());
+      // Sessions that are in use by other threads are not traced to prevent dead locks.
+      if (s.lock.tryLock()) {
+        try {
+          sb.append("\n").append(s.getTraceString());
+        }
+        finally {
+          s.lock.unlock();
+        }
+      }
+      else {
+        sb.append("\n").append("NaviSession ").append(s.getSessionId()).append(" (in use)");
+      }
     }
 
     return sb.toString();
   }
 
   /**
-   * Gets called on each {@link #onNavigateTo(NaviLink, String, String)}. Checks for unused
-   * items only in an interval of {@link NaviHistoryCfg#getUnusedLinkLiveTimeMs()}.
+   * Provides the registered session for the given ID. Creates and registers a new one
+   * if there is none.
+   */
+  private NaviSessionImpl getOrCreateSession(String sessionId, String versionId, NaviLink link) {
+    NaviSessionImpl session = findNaviSession(sessionId);
+    if (session != null) {
+      return session;
+    }
+
+    if (sessionId != null) {
+      session = new NaviSessionImpl(this, sessionId, versionId, link);
+      NaviSessionImpl concurrentlyCreatedSession = idToSessionMap.putIfAbsent(sessionId, session);
+      if (concurrentlyCreatedSession != null) {
+        onVersionsRemoved(session.getRetainedVersionCount(), session.getEstimatedBytes());
+        return concurrentlyCreatedSession;
+      }
+      scheduleExpiryCheck(session, currentTimeMillis() + naviCfg.getUnusedLinkLiveTimeMs());
+
+      if (LOG.isInfoEnabled())
+        LOG.info("Received request for a dead navigation session. VersionString: '" +
+            NaviUtil.makeVersionString(sessionId, versionId) +
+            "'. A new navigation session with the same ID will be generated " +
+            "to be able to handle request from the 'dead' page somehow.");
+    }
+    else {
+      session = new NaviSessionImpl(this);
+      register(session);
+
+      if (LOG.isDebugEnabled())
+        LOG.debug("New navigation session with ID=" + session.getSessionId() +
+            " started on navigation to '" + link + "'.");
+    }
+
+    if (LOG.isTraceEnabled()) LOG.trace(getTraceString());
+
+    return session;
+  }
+
+  /**
+   * Handles the navigation request within the given session.<br>
+   * The caller has to hold the lock of the session.
+   *
+   * @return The history to use for the request.
+   */
+  private NaviHistory navigateWithinSession(NaviSessionImpl session, NaviLink link,
+      String sessionId, String versionId, String versionString, NaviMode naviMode) {
+    NaviSessionImpl forkedSession = session.onNavigateTo((NaviLinkImpl)link, versionId, naviMode);
+
+    if (forkedSession != null) {
+      register(forkedSession);
+      session = forkedSession;
+
+      // XXX olaf: Sollte das Log nicht in der SessionImpl gemacht werden (bei der Fork Herstellung)
+      if (LOG.isDebugEnabled())
+        LOG.debug("Created a navigation session fork: " + forkedSession +
+                  " for " + naviCfg.getVersionParamName() + "=" + versionString + "" +
+                  " caused by link: " + link);
+
+      if (LOG.isTraceEnabled()) LOG.trace(getTraceString());
+    }
+
+    if (LOG.isDebugEnabled()) {
+      if (! ( ObjectUtils.equals(sessionId, session.getSessionId()) &&
+              ObjectUtils.equals(versionId, session.getVersion()) )
+         ) {
+        LOG.debug("Changed to history: " + session.getNaviHistory());
+      }
+      else if (LOG.isTraceEnabled()) {
+        LOG.trace("Navigation history not changed: " + session.getNaviHistory());
+      }
+    }
+
+    return session.getNaviHistory();
+  }
+
+  /**
+   * Registers the given session if it is not yet known.
+   */
+  private void register(NaviSessionImpl session) {
+    if (!session.isExpired() &&
+        idToSessionMap.putIfAbsent(session.getSessionId(), session) == null) {
+      scheduleExpiryCheck(session, currentTimeMillis() + naviCfg.getUnusedLinkLiveTimeMs());
+    }
+  }
+
+  private void scheduleExpiryCheck(NaviSessionImpl session, long dueTime) {
+    expiryQueue.add(new ExpiryCheck(session, dueTime));
+  }
+
+  /**
+   * Gets called on each {@link #onNavigateTo(NaviLink, String, NaviMode)}.
+   * Checks the sessions that may be unused for more than
+   * {@link NaviHistoryCfg#getUnusedLinkLiveTimeMs()}.
+   * <p>
+   * Only {@link #MAX_EXPIRY_CHECKS_PER_REQUEST} sessions get checked per call. The
+   * check gets skipped if another thread is already checking.
    */
   private void removeUnused() {
-    long now = System.currentTimeMillis();
-    long timeSinceLastUnusedCheck = now - naviCfg.getUnusedLinkLiveTimeMs();
-    if (lastUnusedCheckTime < timeSinceLastUnusedCheck) {
-      if (LOG.isTraceEnabled()) {
-        LOG.trace("Checking for unused histories. Previous check was " + (now - lastUnusedCheckTime) + "ms ago.");
+    if (!expiryLock.tryLock()) {
+      return;
+    }
+
+    try {
+      long now = currentTimeMillis();
+      long liveTimeMs = naviCfg.getUnusedLinkLiveTimeMs();
+
+      for (int i = 0; i < MAX_EXPIRY_CHECKS_PER_REQUEST; ++i) {
+        ExpiryCheck check = expiryQueue.peek();
+        if (check == null || check.dueTime > now) {
+          break;
+        }
+        checkExpiry(expiryQueue.poll().session, now, liveTimeMs);
+      }
+
+      long maxBytes = naviCfg.getMaxHistoryBytes();
+      if (maxBytes > 0 && estimatedHistoryBytes.get() > maxBytes) {
+        removeLeastRecentlyUsedVersions(maxBytes);
       }
+    }
+    finally {
+      expiryLock.unlock();
+    }
+  }
+
+  /**
+   * Removes the unused histories of the given session. Removes the whole session if
+   * none of its histories was used within the live time.
+   */
+  private void checkExpiry(NaviSessionImpl s, long now, long liveTimeMs) {
+    // A session that is currently in use will not be blocked. It's obviously not unused.
+    if (!s.lock.tryLock()) {
+      scheduleExpiryCheck(s, now + liveTimeMs);
+      return;
+    }
 
-      lastUnusedCheckTime = now;
-      for (Iterator<NaviSessionImpl> i = idToSessionMap.values().iterator(); i.hasNext(); ) {
-        NaviSessionImpl s = i.next();
-        if (! s.removeUnusedAndCheckIfActive(timeSinceLastUnusedCheck)) {
-          i.remove();
-          if (LOG.isDebugEnabled()) {
-            LOG.debug("Removed unused navigation session: " + s);
+    try {
+      if (s.getNaviHistory() == null ||
+          s.removeUnusedAndCheckIfActive(now - liveTimeMs)) {
+        long lastVisitTime = (s.getNaviHistory() != null) ? s.getLastVisitTime() : now;
+        scheduleExpiryCheck(s, Math.max(lastVisitTime + liveTimeMs, now + 1));
+      }
+      else {
+        s.setExpired();
+        idToSessionMap.remove(s.getSessionId(), s);
+        onVersionsRemoved(s.getRetainedVersionCount(), s.getEstimatedBytes());
+        if (LOG.isDebugEnabled()) {
+          LOG.debug("Removed unused navigation session: " + s);
+        }
+      }
+    }
+    finally {
+      s.lock.unlock();
+    }
+  }
+
+  /**
+   * Removes the non-current history versions of the least recently used sessions
+   * till the global memory budget is met.<br>
+   * Only {@link #MAX_EXPIRY_CHECKS_PER_REQUEST} sessions get visited per call. Sessions
+   * that are currently in use are skipped.
+   */
+  private void removeLeastRecentlyUsedVersions(long maxBytes) {
+    List<ExpiryCheck> visited = new ArrayList<ExpiryCheck>(MAX_EXPIRY_CHECKS_PER_REQUEST);
+    try {
+      while (estimatedHistoryBytes.get() > maxBytes &&
+             visited.size() < MAX_EXPIRY_CHECKS_PER_REQUEST) {
+        ExpiryCheck check = expiryQueue.poll();
+        if (check == null) {
+          break;
+        }
+        visited.add(check);
+
+        NaviSessionImpl s = check.session;
+        if (s.lock.tryLock()) {
+          try {
+            if (!s.isExpired()) {
+              int removedCount = s.removeVersionsExceeding(0);
+              if (removedCount > 0 && LOG.isDebugEnabled()) {
+                LOG.debug("Removed " + removedCount + " history versions of navigation session " + s +
+                    " to limit the memory consumption.");
+              }
+            }
+          }
+          finally {
+            s.lock.unlock();
           }
         }
       }
     }
+    finally {
+      // The visited sessions keep their expiry check times.
+      expiryQueue.addAll(visited);
+    }
   }
 
-}
+  /**
+   * An entry of the {@link NaviManagerImpl#expiryQueue}.
+   */
+  private static final class ExpiryCheck implements Comparable<ExpiryCheck> {
+    final NaviSessionImpl session;
+    final long dueTime;
+
+    ExpiryCheck(NaviSessionImpl session, long dueTime) {
+      this.session = session;
+      this.dueTime = dueTime;
+    }
 
+    @Override
+    public int compareTo(ExpiryCheck o) {
+      return (dueTime < o.dueTime)
+          ? -1
+          : (dueTime == o.dueTime ? 0 : 1);
+    }
+  }
+
+}
@@ -1,14 +1,17 @@
 package org.pm4j.navi.impl;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
-import org.apache.commons.lang.SerializationUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -34,6 +37,18 @@ class NaviSessionImpl {
   /** Identifier of this session. Is unique within its {@link NaviManager} scope. */
   private final String sessionId;
 
+  /**
+   * Guards the navigation state of this session.<br>
+   * Navigation requests of different sessions don't block each other.
+   */
+  /* package */ final ReentrantLock lock = new ReentrantLock();
+
+  /**
+   * Gets set when the {@link NaviManagerImpl} removed this session because of
+   * its live time.
+   */
+  private volatile boolean expired;
+
   /**
    * The set of navigation versions this session keeps track of.
    */
@@ -49,10 +64,24 @@ class NaviSessionImpl {
   /**
    * The currently active (latest) history version.
    */
-  private NaviHistoryImpl currentHistory;
+  private volatile NaviHistoryImpl currentHistory;
 
   /** The current version ID. */
-  private String currentVersion = "-1";
+  private volatile String currentVersion = "-1";
+
+  /**
+   * The sum of the estimated memory consumption of all versions within
+   * {@link #versionToHistoryMap} and {@link #loopVersionToHistoryMap}.
+   */
+  private long estimatedBytes;
+
+  /**
+   * The navigation scope property values of the retained versions. Key: the value
+   * instance (identity).<br>
+   * Versions usually share their values. Each value gets estimated and counted
+   * only once.
+   */
+  private final Map<Object, ValueUsage> valueUsages = new IdentityHashMap<Object, ValueUsage>();
 
   /**
    * Properties that are stored within the scope of this navigation session.
@@ -120,12 +149,12 @@ class NaviSessionImpl {
    * @param newLastItem
    *          The new last navigation item for the new session.
    */
-  @SuppressWarnings("unchecked")
   private NaviSessionImpl(NaviSessionImpl baseSession, NaviHistoryImpl baseHistory, NaviLink newLastItem) {
     this(baseSession.naviManager);
     if (baseSession.conversationProperties != null) {
-      this.conversationProperties = (ConcurrentHashMap<String, Serializable>)
-        SerializationUtils.clone(baseSession.conversationProperties);
+      // Immutable values are shared. The mutable ones get a deep copy.
+      this.conversationProperties = NaviUtil.deepCopyValues(baseSession.conversationProperties,
+          new ConcurrentHashMap<String, Serializable>());
     }
 
     // FIXME olaf: naviHistory property transfer from base session not yet implemented for this case.
@@ -254,16 +283,7 @@ class NaviSessionImpl {
             NaviSessionImpl existingFork = baseHistory.getForkedSession();
 
             if ((existingFork != null) &&
-                isSamePageRef(link, existingFork.getNaviHistory().getCurrentLink())) {
-              // If the forked session is located on the requested link, it will be
-              // re-used.
-              NaviHistoryImpl h = existingFork.getNaviHistory();
-              h.ping();
-              // ensure that new navigation scope properties get transferred to the
-              // re-used session history.
-              h.setNaviScopeProperties(h.getNaviScopeProperties(), link.getNaviScopeParams(),
-                  false /* don't clone the values, because they are already in the scope of the forked session. */);
-
+                reuseFork(existingFork, link)) {
               forkedSession = existingFork;
             }
             else {
@@ -277,7 +297,8 @@ class NaviSessionImpl {
           LOG.warn("No history found for navigation version=" +
               NaviUtil.makeVersionString(sessionId, versionId) +
               " in link " + link +
-              ".\nThe link might have been stored as a bookmark of browser favorite." +
+              ".\nThe link might have been stored as a bookmark of browser favorite" +
+              " or the version was removed to limit the memory consumption." +
               "\nA new navigation session with an empty history will be created.");
 
           // TODO: Hier wäre ein guter Platz für die Verwaltung von 'alten'
@@ -336,6 +357,7 @@ class NaviSessionImpl {
       NaviHistoryImpl h = i.next();
       if (h.getLastVisitTime() < minLastVisitTime) {
         i.remove();
+        onVersionRemoved(h);
         if (traceEnabled) {
           LOG.trace("Unused history removed: " + h);
         }
@@ -357,6 +379,67 @@ class NaviSessionImpl {
     return isActive;
   }
 
+  /**
+   * @return The latest usage time of the active histories of this session.
+   */
+  /* package */ long getLastVisitTime() {
+    long lastVisitTime = currentHistory != null
+        ? currentHistory.getLastVisitTime()
+        : Long.MIN_VALUE;
+    for (NaviHistoryImpl h : versionToHistoryMap.values()) {
+      lastVisitTime = Math.max(lastVisitTime, h.getLastVisitTime());
+    }
+    return lastVisitTime;
+  }
+
+  /**
+   * Removes the oldest versions till the estimated memory consumption of this session
+   * fits into the given budget. Moved-out loop versions get removed first.<br>
+   * The current version is never removed.
+   * <p>
+   * A request for a removed version is handled like a request for an unknown
+   * (e.g. bookmarked) version.
+   *
+   * @param maxBytes
+   *          The memory budget for this session.
+   * @return The number of removed versions.
+   */
+  /* package */ int removeVersionsExceeding(long maxBytes) {
+    int removedCount = 0;
+    removedCount += removeVersionsExceeding(loopVersionToHistoryMap, maxBytes);
+    removedCount += removeVersionsExceeding(versionToHistoryMap, maxBytes);
+    return removedCount;
+  }
+
+  /**
+   * @return The number of history versions retained by this session.
+   */
+  /* package */ int getRetainedVersionCount() {
+    return versionToHistoryMap.size() + loopVersionToHistoryMap.size();
+  }
+
+  /**
+   * @return The estimated memory consumption of the versions retained by this session.
+   */
+  /* package */ long getEstimatedBytes() {
+    return estimatedBytes;
+  }
+
+  /**
+   * @return <code>true</code> if the session was removed because of its live time.
+   */
+  /* package */ boolean isExpired() {
+    return expired;
+  }
+
+  /**
+   * Marks this session as removed. Should only be called by the thread that holds
+   * the {@link #lock}.
+   */
+  /* package */ void setExpired() {
+    this.expired = true;
+  }
+
   /**
    * Find the matching history version within the active version
    * history or within the moved-out loop version set.
@@ -446,6 +529,124 @@ class NaviSessionImpl {
             StringUtils.equals(l1.getPosOnPage(), l2.getPosOnPage()));
   }
 
+  /**
+   * Re-uses the given fork if it is still alive and located on the requested link.
+   * <p>
+   * A fork is always younger than its base session. Locking it while holding the
+   * lock of the base session can't cause a dead lock.
+   */
+  private boolean reuseFork(NaviSessionImpl fork, NaviLinkImpl link) {
+    fork.lock.lock();
+    try {
+      if (fork.expired ||
+          !isSamePageRef(link, fork.getNaviHistory().getCurrentLink())) {
+        return false;
+      }
+
+      NaviHistoryImpl h = fork.getNaviHistory();
+      h.ping();
+      // ensure that new navigation scope properties get transferred to the
+      // re-used session history.
+      h.setNaviScopeProperties(h.getNaviScopeProperties(), link.getNaviScopeParams(),
+          false /* don't clone the values, because they are already in the scope of the forked session. */);
+      fork.onVersionChanged(h);
+      return true;
+    }
+    finally {
+      fork.lock.unlock();
+    }
+  }
+
+  /** Removes the oldest versions of the given map. Starts with the oldest entry. */
+  private int removeVersionsExceeding(LinkedHashMap<String, NaviHistoryImpl> map, long maxBytes) {
+    int removedCount = 0;
+    for (Iterator<NaviHistoryImpl> i = map.values().iterator(); estimatedBytes > maxBytes && i.hasNext(); ) {
+      NaviHistoryImpl h = i.next();
+      if (h != currentHistory) {
+        i.remove();
+        onVersionRemoved(h);
+        ++removedCount;
+        if (LOG.isTraceEnabled()) {
+          LOG.trace("History removed to limit the memory consumption: " + h);
+        }
+      }
+    }
+    return removedCount;
+  }
+
+  /**
+   * Updates the memory consumption information after a change of the navigation
+   * scope properties of a version.<br>
+   * Does nothing if the version is no longer retained by this session.
+   */
+  /* package */ void onVersionChanged(NaviHistoryImpl h) {
+    lock.lock();
+    try {
+      if (versionToHistoryMap.get(h.getVersion()) == h ||
+          loopVersionToHistoryMap.get(h.getVersion()) == h) {
+        int delta = updateEstimatedBytes(h);
+        estimatedBytes += delta;
+        naviManager.onVersionsAdded(0, delta);
+        removeVersionsExceedingBudget();
+      }
+    }
+    finally {
+      lock.unlock();
+    }
+  }
+
+  /** Updates the memory consumption information after removing a version. */
+  private void onVersionRemoved(NaviHistoryImpl h) {
+    int bytes = h.getEstimatedBytes() + releaseCountedValues(h);
+    estimatedBytes -= bytes;
+    naviManager.onVersionsRemoved(1, bytes);
+  }
+
+  /**
+   * Calculates the memory estimation of the given version again. Its navigation
+   * scope property values are counted only if they are not yet used by another
+   * version of this session.
+   *
+   * @return The difference to the previous estimation.
+   */
+  private int updateEstimatedBytes(NaviHistoryImpl h) {
+    int delta = h.updateEstimatedBytes() - releaseCountedValues(h);
+    List<Object> values = new ArrayList<Object>(h.getNaviScopeProperties().size());
+    for (Object v : h.getNaviScopeProperties().values()) {
+      if (v != null) {
+        ValueUsage u = valueUsages.get(v);
+        if (u == null) {
+          u = new ValueUsage(NaviUtil.estimateValueBytes(v));
+          valueUsages.put(v, u);
+          delta += u.bytes;
+        }
+        ++u.refCount;
+        values.add(v);
+      }
+    }
+    h.setCountedValues(values);
+    return delta;
+  }
+
+  /**
+   * Releases the values counted for the given version.
+   *
+   * @return The estimated bytes of the values that are no longer used by any
+   *         version of this session.
+   */
+  private int releaseCountedValues(NaviHistoryImpl h) {
+    int bytes = 0;
+    for (Object v : h.getCountedValues()) {
+      ValueUsage u = valueUsages.get(v);
+      if (--u.refCount == 0) {
+        valueUsages.remove(v);
+        bytes += u.bytes;
+      }
+    }
+    h.setCountedValues(Collections.<Object>emptyList());
+    return bytes;
+  }
+
   /** Maintains all related attributes consistently. */
   private void addVersionWithPrevHistory(NaviHistoryImpl history, NaviHistoryImpl prevHistory) {
     @SuppressWarnings("unchecked")
@@ -471,6 +672,31 @@ class NaviSessionImpl {
         inheritedNaviScopeProps,
         ((NaviLinkImpl)history.getCurrentLink()).getNaviScopeParams(),
         shouldCloneNaviProps);
+
+    int bytes = updateEstimatedBytes(history);
+    estimatedBytes += bytes;
+    naviManager.onVersionsAdded(1, bytes);
+
+    removeVersionsExceedingBudget();
+  }
+
+  /** Applies {@link NaviHistoryCfg#getMaxHistoryBytesPerSession()}. */
+  private void removeVersionsExceedingBudget() {
+    long maxBytes = getNaviCfg().getMaxHistoryBytesPerSession();
+    if (maxBytes > 0 && estimatedBytes > maxBytes) {
+      removeVersionsExceeding(maxBytes);
+    }
+  }
+
+  /** The usage information of a navigation scope property value. */
+  private static final class ValueUsage {
+    final int bytes;
+    /** The number of versions that use the value. */
+    int refCount;
+
+    ValueUsage(int bytes) {
+      this.bytes = bytes;
+    }
   }
 
 }
@@ -1,16 +1,25 @@
 package org.pm4j.navi.impl;
 
 import java.io.Serializable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.lang.SerializationUtils;
 import org.apache.commons.lang.StringUtils;
 import org.pm4j.common.util.CloneUtil;
 import org.pm4j.common.util.reflection.ClassUtil;
 import org.pm4j.core.pm.PmObject;
+import org.pm4j.navi.NaviScopeValueCloner;
 
 
 public final class NaviUtil {
@@ -95,17 +104,184 @@ public final class NaviUtil {
     return sarr;
   }
 
+  /**
+   * Registers a clone strategy for navigation scope values of the given type.
+   * <p>
+   * The cloner is used instead of {@link Object#clone()} or a serialization
+   * round trip. It applies only to values of exactly the given class.
+   *
+   * @param valueClass
+   *          The value type to handle.
+   * @param cloner
+   *          The clone strategy. <code>null</code> removes a registered cloner.
+   */
+  public static <T> void registerValueCloner(Class<T> valueClass, NaviScopeValueCloner<T> cloner) {
+    if (cloner != null) {
+      VALUE_CLONERS.put(valueClass, cloner);
+    }
+    else {
+      VALUE_CLONERS.remove(valueClass);
+    }
+  }
+
+  /**
+   * Provides a rough estimation of the memory retained by the entries of the
+   * given map. Includes the keys and the values.
+   *
+   * @param map
+   *          The map to estimate. May be <code>null</code>.
+   * @return The estimated number of bytes.
+   */
+  static int estimateMapBytes(Map<?, ?> map) {
+    return estimateMapBytes(map, 0);
+  }
+
+  /**
+   * Provides a rough estimation of the memory retained by the entries of the
+   * given map. Includes the keys but not the values.
+   *
+   * @param map
+   *          The map to estimate. May be <code>null</code>.
+   * @return The estimated number of bytes.
+   */
+  static int estimateMapEntryBytes(Map<?, ?> map) {
+    if (map == null) {
+      return 0;
+    }
+    int bytes = OBJECT_BYTES;
+    for (Object key : map.keySet()) {
+      bytes += MAP_ENTRY_BYTES + estimateValueBytes(key, 1);
+    }
+    return bytes;
+  }
+
+  /**
+   * Provides a rough estimation of the memory retained by a value.
+   * <p>
+   * Strings and the other immutable values are estimated by their type.
+   * Collections and maps are estimated by their elements. Other values are
+   * estimated by the number of their fields. Their referenced objects are not
+   * followed.
+   *
+   * @param value
+   *          The value to estimate. May be <code>null</code>.
+   * @return The estimated number of bytes.
+   */
+  static int estimateValueBytes(Object value) {
+    return estimateValueBytes(value, 0);
+  }
+
+  static int estimateStringBytes(String s) {
+    return (s != null) ? 40 + 2 * s.length() : 0;
+  }
+
+  /** Rough estimation of the memory costs [bytes] of a small object (e.g. an Integer). */
+  private static final int OBJECT_BYTES = 16;
+
+  /** Rough estimation of the memory costs [bytes] of a collection element reference. */
+  private static final int ELEMENT_BYTES = 8;
+
+  /** Rough estimation of the memory costs [bytes] of a map entry without its key and value content. */
+  static final int MAP_ENTRY_BYTES = 48;
+
+  /** Nested collections below that depth are estimated like other objects. */
+  private static final int MAX_ESTIMATION_DEPTH = 4;
+
+  /** The estimated shallow memory costs of other value classes. */
+  private static final Map<Class<?>, Integer> CLASS_TO_SHALLOW_BYTES_MAP = new ConcurrentHashMap<Class<?>, Integer>();
+
+  private static int estimateMapBytes(Map<?, ?> map, int depth) {
+    if (map == null) {
+      return 0;
+    }
+    int bytes = OBJECT_BYTES;
+    for (Map.Entry<?, ?> e : map.entrySet()) {
+      bytes += MAP_ENTRY_BYTES + estimateValueBytes(e.getKey(), depth + 1) + estimateValueBytes(e.getValue(), depth + 1);
+    }
+    return bytes;
+  }
+
+  private static int estimateValueBytes(Object value, int depth) {
+    if (value == null || value instanceof Enum) {
+      return 0;
+    }
+    if (value instanceof String) {
+      return estimateStringBytes((String)value);
+    }
+    if (IMMUTABLE_CLASSES.contains(value.getClass())) {
+      return OBJECT_BYTES;
+    }
+    if (depth < MAX_ESTIMATION_DEPTH) {
+      if (value instanceof Map) {
+        return estimateMapBytes((Map<?, ?>)value, depth);
+      }
+      if (value instanceof Collection) {
+        int bytes = OBJECT_BYTES;
+        for (Object o : (Collection<?>)value) {
+          bytes += ELEMENT_BYTES + estimateValueBytes(o, depth + 1);
+        }
+        return bytes;
+      }
+    }
+    return estimateShallowBytes(value.getClass());
+  }
+
+  /**
+   * A cheap estimation that is calculated only once per class: The object header
+   * and a slot for each instance field.
+   */
+  private static int estimateShallowBytes(Class<?> valueClass) {
+    Integer bytes = CLASS_TO_SHALLOW_BYTES_MAP.get(valueClass);
+    if (bytes == null) {
+      int fieldCount = 0;
+      for (Class<?> c = valueClass; c != null; c = c.getSuperclass()) {
+        for (Field f : c.getDeclaredFields()) {
+          if (!Modifier.isStatic(f.getModifiers())) {
+            ++fieldCount;
+          }
+        }
+      }
+      bytes = OBJECT_BYTES + fieldCount * ELEMENT_BYTES;
+      CLASS_TO_SHALLOW_BYTES_MAP.put(valueClass, bytes);
+    }
+    return bytes;
+  }
+
+  /**
+   * Puts all entries of srcMap to targetMap. The values will be copied by a
+   * serialization round trip. Only immutable values and values with a
+   * registered {@link NaviScopeValueCloner} are handled without serialization.
+   * <p>
+   * In difference to {@link #deepCloneValues(Map, Map)} nested mutable state of
+   * the values is never shared.
+   *
+   * @param srcMap
+   *          A map with the values to copy.
+   * @param targetMap
+   *          The map to put the copied entries to.
+   * @return A reference to the targetMap.
+   */
+  static <K, V extends Serializable, M extends Map<K, V>> M deepCopyValues(Map<K, V> srcMap, M targetMap) {
+    for (Map.Entry<K, V> e : srcMap.entrySet()) {
+      targetMap.put(e.getKey(), copyOrSerialize(e.getValue()));
+    }
+    return targetMap;
+  }
+
   /**
    * Puts all entries of srcMap to targetMap. The values will be cloned using
-   * {@link ClassUtil#cloneOrSerialize(Object)}.
+   * {@link #cloneOrSerialize(Object)}.<br>
+   * The {@link Object#clone()} method of a {@link Cloneable} value defines
+   * whether nested mutable state gets copied too.
    *
    * @param srcMap
    *          A map with the values to clone.
    * @param targetMap
-   *          The map to put the cloned entries to.
+   *          The map to put the cloned entries to. May be the srcMap to
+   *          replace the values by their clones.
    * @return A reference to the targetMap.
    */
-  static <K, V> Map<K, V> deepCloneValues(Map<K, V> srcMap, Map<K, V> targetMap) {
+  static <K, V, M extends Map<K, V>> M deepCloneValues(Map<K, V> srcMap, M targetMap) {
     for (Map.Entry<K, V> e : srcMap.entrySet()) {
       targetMap.put(e.getKey(), cloneOrSerialize(e.getValue()));
     }
@@ -114,13 +290,20 @@ public final class NaviUtil {
 
   @SuppressWarnings("unchecked")
   private static final Set<Class<?>> IMMUTABLE_CLASSES = new HashSet<Class<?>>(Arrays.asList(
-      String.class,
-      Integer.class, Long.class, Short.class, Double.class, Float.class,
+      String.class, Boolean.class, Character.class,
+      Byte.class, Integer.class, Long.class, Short.class, Double.class, Float.class,
+      BigDecimal.class, BigInteger.class,
+      Locale.class, UUID.class,
       Class.class));
 
+  /** Registered clone strategies. Key: The handled value class. */
+  private static final Map<Class<?>, NaviScopeValueCloner<?>> VALUE_CLONERS = new ConcurrentHashMap<Class<?>, NaviScopeValueCloner<?>>();
+
 
   /**
    * Generates a clone for the given object.<br>
+   * Immutable values (including enums) are shared. For classes with a registered
+   * {@link NaviScopeValueCloner} the cloner will be used.<br>
    * If the object is {@link Cloneable}, its <code>clone</code> method will be
    * called.<br>
    * If the object is not {@link Cloneable} but {@link Serializable}, a clone
@@ -141,10 +324,15 @@ public final class NaviUtil {
 
     Class<?> objClass = ori.getClass();
 
-    if (IMMUTABLE_CLASSES.contains(objClass)) {
+    if (IMMUTABLE_CLASSES.contains(objClass) || ori instanceof Enum) {
       return ori;
     }
 
+    NaviScopeValueCloner<T> cloner = (NaviScopeValueCloner<T>) VALUE_CLONERS.get(objClass);
+    if (cloner != null) {
+      return cloner.cloneValue(ori);
+    }
+
     Object clone = null;
 
     if (ori instanceof Cloneable) {
@@ -169,6 +357,30 @@ public final class NaviUtil {
     return (T) clone;
   }
 
+  /**
+   * Generates a copy for the given value that shares no mutable state with it.<br>
+   * Immutable values (including enums) are shared. For classes with a registered
+   * {@link NaviScopeValueCloner} the cloner will be used. All other values get
+   * copied by a serialization round trip.
+   *
+   * @param ori
+   *          The value to copy.
+   * @return The copy.
+   */
+  @SuppressWarnings("unchecked")
+  private static <T extends Serializable> T copyOrSerialize(T ori) {
+    if (ori == null ||
+        IMMUTABLE_CLASSES.contains(ori.getClass()) ||
+        ori instanceof Enum) {
+      return ori;
+    }
+
+    NaviScopeValueCloner<T> cloner = (NaviScopeValueCloner<T>) VALUE_CLONERS.get(ori.getClass());
+    return (cloner != null)
+        ? cloner.cloneValue(ori)
+        : (T) SerializationUtils.clone(ori);
+  }
+
   /**
    * @param o The instance to test. May be <code>null</code>.
    * @return <code>true</code> if the given object is a formally correct
@@ -177,7 +389,8 @@ public final class NaviUtil {
   private static boolean canCloneOrSerialize(Object o) {
     return o == null ||
            o instanceof Cloneable ||
-           o instanceof Serializable;
+           o instanceof Serializable ||
+           VALUE_CLONERS.containsKey(o.getClass());
   }
 
 
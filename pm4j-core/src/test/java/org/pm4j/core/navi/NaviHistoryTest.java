@@ -1,11 +1,15 @@
 package org.pm4j.core.navi;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
 
 import junit.framework.TestCase;
 
+import org.apache.commons.lang.StringUtils;
 import org.pm4j.navi.NaviHistory;
 import org.pm4j.navi.NaviHistoryCfg;
+import org.pm4j.navi.NaviHistoryCfg.Clock;
 import org.pm4j.navi.NaviHistoryCfg.SessionIdGenStrategy;
 import org.pm4j.navi.NaviLink;
 import org.pm4j.navi.NaviManager;
@@ -231,8 +235,117 @@ public class NaviHistoryTest extends TestCase {
     assertNull(LINK_2.getPosOnPage());
   }
 
+  public void testUnusedSessionsExpire() {
+    TestClock clock = new TestClock();
+    naviCfg.setClock(clock);
+    naviCfg.setUnusedLinkLiveTimeMs(1000);
+    NaviManager m = new NaviManagerImpl(naviCfg);
+
+    check(m.onNavigateTo(LINK_1, null), "0.0", LINK_1);
+    check(m.onNavigateTo(LINK_1, null), "1.0", LINK_1);
+
+    clock.time = 600;
+    check(m.onNavigateTo(LINK_2, "1.0"), "1.1", LINK_1, LINK_2);
+
+    // Session 0 was not used within the live time. Session 1 was.
+    clock.time = 1001;
+    check(m.onNavigateTo(LINK_1, null), "2.0", LINK_1);
+    assertNull(m.getCurrentHistoryOfSession("0"));
+    assertNotNull(m.getCurrentHistoryOfSession("1"));
+
+    // A request from a page of the expired session starts a session with the same ID.
+    check(m.onNavigateTo(LINK_1, "0.0"), "0.0", LINK_1);
+
+    // The live time of session 1 is counted from its last usage.
+    clock.time = 1601;
+    check(m.onNavigateTo(LINK_1, "2.0"), "2.0", LINK_1);
+    assertNull(m.getCurrentHistoryOfSession("1"));
+    assertNotNull(m.getCurrentHistoryOfSession("0"));
+    assertNotNull(m.getCurrentHistoryOfSession("2"));
+  }
+
+  public void testSessionHistoryMemoryBudget() {
+    NaviManagerImpl m = new NaviManagerImpl(naviCfg);
+
+    check(m.onNavigateTo(LINK_1, null), "0.0", LINK_1);
+    assertEquals(1, m.getRetainedVersionCount());
+    long versionBytes = m.getEstimatedHistoryBytes();
+    assertTrue(versionBytes > 0);
+
+    // Space for about three versions.
+    naviCfg.setMaxHistoryBytesPerSession(3 * versionBytes + versionBytes / 2);
+    check(m.onNavigateTo(LINK_2, "0.0"), "0.1", LINK_1, LINK_2);
+    check(m.onNavigateTo(LINK_3, "0.1"), "0.2", LINK_1, LINK_2, LINK_3);
+    check(m.onNavigateTo(LINK_1, "0.2"), "0.3", LINK_1);
+    check(m.onNavigateTo(LINK_2, "0.3"), "0.4", LINK_1, LINK_2);
+
+    assertTrue(m.getRetainedVersionCount() < 5);
+    assertTrue(m.getEstimatedHistoryBytes() <= naviCfg.getMaxHistoryBytesPerSession());
+    assertNull("The oldest version should be removed.", m.findHistory("0", "0"));
+    assertNotNull("The current version is never removed.", m.findHistory("0", "4"));
+
+    // A request for a removed version is handled like a request for an unknown version.
+    check(m.onNavigateTo(LINK_3, "0.0"), "1.0", LINK_3);
+  }
+
+  public void testNaviScopePropertyValuesAreEstimated() {
+    NaviManagerImpl m = new NaviManagerImpl(naviCfg);
+    NaviHistory h = m.onNavigateTo(LINK_1, null);
+    long versionBytes = m.getEstimatedHistoryBytes();
+
+    h.setNaviScopeProperty("p", "a short value");
+    long withShortValue = m.getEstimatedHistoryBytes();
+    assertTrue(withShortValue > versionBytes);
+
+    h.setNaviScopeProperty("p", StringUtils.repeat("x", 1000));
+    assertTrue("The value size is counted.", m.getEstimatedHistoryBytes() > withShortValue + 1000);
+
+    h.setNaviScopeProperty("p", new ArrayList<String>(Arrays.asList(StringUtils.repeat("y", 2000))));
+    assertTrue("Collection elements are counted.", m.getEstimatedHistoryBytes() > withShortValue + 2000);
+
+    h.setNaviScopeProperty("p", null);
+    assertTrue(m.getEstimatedHistoryBytes() < withShortValue);
+  }
+
+  public void testValuesSharedByVersionsAreCountedOnce() {
+    NaviManagerImpl m = new NaviManagerImpl(naviCfg);
+    NaviHistory h = m.onNavigateTo(LINK_1, null);
+    h.setNaviScopeProperty("p", StringUtils.repeat("x", 1000));
+    long firstVersionBytes = m.getEstimatedHistoryBytes();
+
+    check(m.onNavigateTo(LINK_2, "0.0"), "0.1", LINK_1, LINK_2);
+    assertEquals("The new version inherits the value.", 2, m.getRetainedVersionCount());
+    assertTrue(m.getEstimatedHistoryBytes() < firstVersionBytes + 1000);
+  }
+
+  public void testGlobalHistoryMemoryBudget() {
+    NaviManagerImpl m = new NaviManagerImpl(naviCfg);
+
+    check(m.onNavigateTo(LINK_1, null), "0.0", LINK_1);
+    check(m.onNavigateTo(LINK_2, "0.0"), "0.1", LINK_1, LINK_2);
+    check(m.onNavigateTo(LINK_3, "0.1"), "0.2", LINK_1, LINK_2, LINK_3);
+    assertEquals(3, m.getRetainedVersionCount());
+
+    // The versions of the least recently used session get removed, its current version is kept.
+    naviCfg.setMaxHistoryBytes(m.getEstimatedHistoryBytes());
+    check(m.onNavigateTo(LINK_1, null), "1.0", LINK_1);
+    assertEquals(2, m.getRetainedVersionCount());
+    assertNull(m.findHistory("0", "1"));
+    assertNotNull(m.findHistory("0", "2"));
+    assertNotNull(m.findHistory("1", "0"));
+  }
+
   // -- internal helper --
 
+  static class TestClock implements Clock {
+    long time;
+
+    @Override
+    public long currentTimeMillis() {
+      return time;
+    }
+  }
+
   private void check(NaviHistory h, String versionString, NaviLink... expectedLinks) {
     assertEquals(versionString, h.getVersionString());
 
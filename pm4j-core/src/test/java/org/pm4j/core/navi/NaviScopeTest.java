@@ -1,5 +1,8 @@
 package org.pm4j.core.navi;
 
+import java.io.Serializable;
+import java.util.ArrayList;
+
 import junit.framework.TestCase;
 
 import org.pm4j.navi.NaviHistory;
@@ -7,8 +10,10 @@ import org.pm4j.navi.NaviHistoryCfg;
 import org.pm4j.navi.NaviHistoryCfg.SessionIdGenStrategy;
 import org.pm4j.navi.NaviLink;
 import org.pm4j.navi.NaviManager;
+import org.pm4j.navi.NaviScopeValueCloner;
 import org.pm4j.navi.impl.NaviLinkImpl;
 import org.pm4j.navi.impl.NaviManagerImpl;
+import org.pm4j.navi.impl.NaviUtil;
 
 public class NaviScopeTest extends TestCase {
 
@@ -32,6 +37,11 @@ public class NaviScopeTest extends TestCase {
     m = new NaviManagerImpl(naviCfg);
   }
 
+  @Override
+  protected void tearDown() throws Exception {
+    NaviUtil.registerValueCloner(MyValue.class, null);
+  }
+
   public void testPassValueToNextPage() {
     NaviHistory h;
 
@@ -181,5 +191,64 @@ public class NaviScopeTest extends TestCase {
                  null, h.getNaviScopeProperty("k2"));
 }
 
+  public void testSessionForkUsesRegisteredValueCloner() {
+    final int[] cloneCount = {0};
+    NaviUtil.registerValueCloner(MyValue.class, new NaviScopeValueCloner<MyValue>() {
+      @Override
+      public MyValue cloneValue(MyValue value) {
+        ++cloneCount[0];
+        return new MyValue(value.s);
+      }
+    });
+    MyValue v = new MyValue("a");
+    NaviHistory h;
+
+    h = m.onNavigateTo(L1, null);
+    h = m.onNavigateTo(NaviLinkImpl.makeNaviScopeParamLink("l2", "k", v), "0.0");
+    h = m.onNavigateTo(L3_VAL, "0.1");
+    assertSame("no clone within the same navigation session", v, h.getNaviScopeProperty("k"));
+    assertEquals(0, cloneCount[0]);
+
+    // fork based on an old version:
+    h = m.onNavigateTo(L3, "0.1");
+    assertEquals("1.0", h.getVersionString());
+    MyValue forkValue = h.getNaviScopeProperty("k");
+    assertNotSame("the fork gets its own value instance", v, forkValue);
+    assertEquals("a", forkValue.s);
+    assertEquals(1, cloneCount[0]);
+  }
+
+  public void testSessionForkSharesNoNestedConversationState() {
+    NaviHistory h0 = m.onNavigateTo(L1, null);
+    CloneableValue v = new CloneableValue();
+    v.items.add("a");
+    h0.setConversationProperty("k", v);
+    m.onNavigateTo(L2, "0.0");
+
+    // fork based on an old version:
+    NaviHistory h1 = m.onNavigateTo(L3, "0.0");
+    assertEquals("1.0", h1.getVersionString());
+    CloneableValue forkValue = h1.getConversationProperty("k");
+    forkValue.items.add("b");
+
+    assertEquals("[a]", v.items.toString());
+  }
+
+  /** Its clone() implementation shares the item list. */
+  @SuppressWarnings("serial")
+  static class CloneableValue implements Serializable, Cloneable {
+    ArrayList<String> items = new ArrayList<String>();
+
+    @Override
+    public CloneableValue clone() throws CloneNotSupportedException {
+      return (CloneableValue) super.clone();
+    }
+  }
+
+  @SuppressWarnings("serial")
+  static class MyValue implements Serializable {
+    final String s;
+    MyValue(String s) { this.s = s; }
+  }
 
 }
@@ -0,0 +1,134 @@
+package org.pm4j.core.pb;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+
+public class PbFactoryBaseEventCoalescingTest {
+
+  private final MyPm pm = new MyPm();
+  private final CountingFactory factory = new CountingFactory();
+
+  @Test
+  public void testEachEventGetsAppliedWithoutCoalescing() {
+    factory.build(null, pm.s);
+    assertEquals("Initial state gets applied on bind.", 1, factory.valueChangeCalls);
+
+    for (int i = 0; i < 10; ++i) {
+      pm.s.setValue("v" + i);
+    }
+    assertEquals(11, factory.valueChangeCalls);
+  }
+
+  @Test
+  public void testSynchronousSchedulerAppliesEachEvent() {
+    factory.setEventCoalescingScheduler(PbUiScheduler.SYNCHRONOUS);
+    factory.build(null, pm.s);
+
+    for (int i = 0; i < 10; ++i) {
+      pm.s.setValue("v" + i);
+    }
+    assertEquals(11, factory.valueChangeCalls);
+  }
+
+  @Test
+  public void testEventsGetCoalescedTillTheFlush() {
+    DeferringScheduler scheduler = new DeferringScheduler();
+    factory.setEventCoalescingScheduler(scheduler);
+    factory.build(null, pm.s);
+    assertEquals("Initial state gets applied immediately.", 1, factory.valueChangeCalls);
+    assertEquals(1, factory.titleChangeCalls);
+
+    for (int i = 0; i < 10; ++i) {
+      pm.s.setValue("v" + i);
+    }
+    factory.lastBinding.handleEvent(new PmEvent(pm.s, PmEvent.TITLE_CHANGE));
+
+    assertEquals(1, factory.valueChangeCalls);
+    assertEquals("Only a single flush task gets scheduled.", 1, scheduler.tasks.size());
+
+    scheduler.runAll();
+    assertEquals(2, factory.valueChangeCalls);
+    assertEquals(2, factory.titleChangeCalls);
+    assertEquals("v9", factory.lastValue);
+
+    // A new event schedules a new flush.
+    pm.s.setValue("x");
+    assertEquals(1, scheduler.tasks.size());
+    scheduler.runAll();
+    assertEquals(3, factory.valueChangeCalls);
+  }
+
+  @Test
+  public void testNoFlushAfterUnbind() {
+    DeferringScheduler scheduler = new DeferringScheduler();
+    factory.setEventCoalescingScheduler(scheduler);
+    factory.build(null, pm.s);
+
+    pm.s.setValue("a");
+    factory.lastBinding.unbind();
+    scheduler.runAll();
+
+    assertEquals(1, factory.valueChangeCalls);
+  }
+
+  /** Collects the tasks to run them later. */
+  static class DeferringScheduler implements PbUiScheduler {
+    List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @Override
+    public void schedule(Runnable task) {
+      tasks.add(task);
+    }
+
+    void runAll() {
+      List<Runnable> toRun = tasks;
+      tasks = new ArrayList<Runnable>();
+      for (Runnable r : toRun) {
+        r.run();
+      }
+    }
+  }
+
+  /** Binds a string attribute to a dummy view object. */
+  static class CountingFactory extends PbFactoryBase<Object, Object, PmAttrString> {
+    int valueChangeCalls;
+    int titleChangeCalls;
+    String lastValue;
+    Binding lastBinding;
+
+    @Override
+    public Object makeView(Object parent, PmAttrString pm) {
+      return new Object();
+    }
+
+    @Override
+    protected PbBinding makeBinding(PmAttrString pm) {
+      lastBinding = new Binding() {
+        @Override
+        protected void onPmValueChange(PmEvent event) {
+          ++valueChangeCalls;
+          lastValue = this.pm.getValue();
+        }
+
+        @Override
+        protected void onPmTitleChange(PmEvent event) {
+          ++titleChangeCalls;
+        }
+      };
+      return lastBinding;
+    }
+  }
+
+  public static class MyPm extends PmConversationImpl {
+    public final PmAttrString s = new PmAttrStringImpl(this);
+  }
+
+}
@@ -0,0 +1,114 @@
+package org.pm4j.core.pb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmAttrInteger;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmAttrStringCfg;
+import org.pm4j.core.pm.impl.PmAttrIntegerImpl;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmUtil;
+
+public class PbMatcherMappedTest {
+
+  private final MyPm pm = new MyPm();
+
+  private final PbFactory<?> intFactory = new TestFactory();
+  private final PbFactory<?> stringFactory = new TestFactory();
+  private final PbFactory<?> textAreaFactory = new TestFactory();
+  private final PbFactory<?> namedFactory = new TestFactory();
+  private final PbFactory<?> attrFactory = new TestFactory();
+
+  @Test
+  public void testMatchOrderWithinCascade() {
+    PbMatcherMapped parent = PbMatcherMapped.makeBinderMap(
+        new PbMatcherByClass(PmAttrInteger.class, intFactory),
+        new PbMatcherByClass(PmAttr.class, attrFactory));
+    PbMatcherMapped child = PbMatcherMapped.makeCascadedBinderMap(parent,
+        new PbMatcherByName(PmUtil.getAbsoluteName(pm.s2), namedFactory),
+        new PbMatcherForStrings(stringFactory, textAreaFactory));
+
+    assertSame(intFactory, child.findPbFactory(pm.i));
+    assertSame(stringFactory, child.findPbFactory(pm.s1));
+    assertSame(namedFactory, child.findPbFactory(pm.s2));
+    assertSame(textAreaFactory, child.findPbFactory(pm.multiLine));
+    assertNull(child.findPbFactory(pm));
+
+    // the second calls get served by the lookup table
+    assertSame(stringFactory, child.findPbFactory(pm.s1));
+    assertSame(namedFactory, child.findPbFactory(pm.s2));
+    assertNull(child.findPbFactory(pm));
+  }
+
+  @Test
+  public void testParentChangesGetConsidered() {
+    PbMatcherMapped parent = PbMatcherMapped.makeBinderMap();
+    PbMatcherMapped child = PbMatcherMapped.makeCascadedBinderMap(parent);
+
+    assertNull(child.findPbFactory(pm.i));
+
+    parent.addMatcher(PmAttrInteger.class, intFactory);
+    assertSame(intFactory, child.findPbFactory(pm.i));
+
+    child.addMatcher(PmAttr.class, attrFactory);
+    assertSame("The child matchers are evaluated first.", attrFactory, child.findPbFactory(pm.i));
+  }
+
+  @Test
+  public void testInstanceMatchersGetEvaluatedForEachRequest() {
+    SwitchableMatcher switchable = new SwitchableMatcher(namedFactory);
+    PbMatcherMapped m = PbMatcherMapped.makeBinderMap(
+        switchable,
+        new PbMatcherByClass(PmAttr.class, attrFactory));
+
+    assertSame(attrFactory, m.findPbFactory(pm.i));
+    switchable.on = true;
+    assertSame(namedFactory, m.findPbFactory(pm.i));
+    switchable.on = false;
+    assertSame(attrFactory, m.findPbFactory(pm.i));
+    assertEquals(3, switchable.callCount);
+  }
+
+  public static class MyPm extends PmConversationImpl {
+    public final PmAttrInteger i = new PmAttrIntegerImpl(this);
+    public final PmAttrString s1 = new PmAttrStringImpl(this);
+    public final PmAttrString s2 = new PmAttrStringImpl(this);
+    @PmAttrStringCfg(multiLine=true)
+    public final PmAttrString multiLine = new PmAttrStringImpl(this);
+  }
+
+  static class TestFactory implements PbFactory<Object> {
+    @Override
+    public Object build(Object parentViewCtxt, PmObject pm) {
+      return null;
+    }
+
+    @Override
+    public void bind(Object view, PmObject pm) {
+    }
+  }
+
+  /** A matcher that depends on runtime state. */
+  static class SwitchableMatcher extends PbMatcher {
+    boolean on;
+    int callCount;
+    private final PbFactory<?> factory;
+
+    SwitchableMatcher(PbFactory<?> factory) {
+      this.factory = factory;
+    }
+
+    @Override
+    public PbFactory<?> findPbFactory(PmObject pm) {
+      ++callCount;
+      return on ? factory : null;
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+package org.pm4j.core.pb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.common.pageable.PageableCollection;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmTableCol;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.annotation.PmBoolean;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.pm.annotation.PmTableColCfg;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmBeanImpl;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmTableColImpl;
+import org.pm4j.core.pm.impl.PmTableImpl;
+
+public class PbTableRowCacheTest {
+
+  private final List<RowBean> beans = new ArrayList<RowBean>();
+  private final List<String> changes = new ArrayList<String>();
+  private TablePm tablePm;
+  private PbTableRowCache rowCache;
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 100; ++i) {
+      beans.add(new RowBean(String.format("r%02d", i)));
+    }
+    tablePm = new TablePm(new PmConversationImpl());
+    rowCache = new PbTableRowCache(tablePm, 10, 3, new PbTableRowCache.ChangeListener() {
+      @Override
+      public void onRowsReset() {
+        changes.add("reset");
+      }
+
+      @Override
+      public void onRowChanged(int rowIdx, PmObject rowPm, int columnIdx) {
+        changes.add(rowIdx + "/" + columnIdx);
+      }
+    });
+  }
+
+  @Test
+  public void testNeighbourBlockGetsPrefetchedNearTheBorder() {
+    assertEquals("r05", rowCache.getRowPm(5).toString());
+    assertEquals(1, rowCache.getBlockLoadCount());
+
+    rowCache.getRowPm(19);
+    assertEquals("The block of row 20 is prefetched.", 3, rowCache.getBlockLoadCount());
+    assertEquals("r25", rowCache.getRowPm(25).toString());
+    assertEquals(3, rowCache.getBlockLoadCount());
+
+    assertNull(rowCache.getRowPm(100));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedBlocksGetReleased() {
+    PmObject row5 = rowCache.getRowPm(5);
+    rowCache.getRowPm(45);
+    rowCache.getRowPm(65);
+    assertEquals(30, rowCache.getCachedRowCount());
+    assertEquals(5, rowCache.getRowIdx(row5));
+
+    rowCache.getRowPm(85);
+    assertEquals(30, rowCache.getCachedRowCount());
+    assertEquals("The least recently used block is released.", -1, rowCache.getRowIdx(row5));
+
+    rowCache.getRowPm(65);
+    assertEquals(4, rowCache.getBlockLoadCount());
+    rowCache.getRowPm(5);
+    assertEquals("The released block gets loaded again.", 5, rowCache.getBlockLoadCount());
+  }
+
+  @Test
+  public void testTablePagingStaysUntouched() {
+    PageableCollection<?> pc = tablePm.getPmPageableCollection();
+    int pageSize = pc.getPageSize();
+
+    assertEquals("r55", rowCache.getRowPm(55).toString());
+    assertEquals("r95", rowCache.getRowPm(95).toString());
+
+    assertEquals(pageSize, pc.getPageSize());
+    assertEquals(0, pc.getPageIdx());
+    assertEquals("r00", pc.getItemsOnPage().get(0).toString());
+  }
+
+  @Test
+  public void testRowChangesGetReported() {
+    RowPm row = (RowPm) rowCache.getRowPm(42);
+    assertSame(row.description, rowCache.getCellPm(42, 1));
+
+    row.description.setValue("changed");
+    assertEquals("42/1", changes.get(0));
+  }
+
+  @Test
+  public void testSortOrderChangeResetsOnce() {
+    rowCache.getRowPm(5);
+    tablePm.name.getCmdSort().doIt();
+
+    assertEquals("[reset]", changes.toString());
+    assertEquals(0, rowCache.getCachedRowCount());
+    assertEquals(100, rowCache.getRowCount());
+  }
+
+  @Test
+  public void testNoChangesAfterDispose() {
+    RowPm row = (RowPm) rowCache.getRowPm(42);
+    rowCache.dispose();
+
+    row.description.setValue("changed");
+    tablePm.name.getCmdSort().doIt();
+    assertEquals("[]", changes.toString());
+  }
+
+  @PmFactoryCfg(beanPmClasses=RowPm.class)
+  public class TablePm extends PmTableImpl<RowPm, RowBean> {
+    @PmTableColCfg(sortable=PmBoolean.TRUE)
+    public final PmTableCol name = new PmTableColImpl(this);
+    public final PmTableCol description = new PmTableColImpl(this);
+
+    public TablePm(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected Collection<RowBean> getPmBeansImpl() {
+      return beans;
+    }
+  }
+
+  @PmBeanCfg(beanClass=RowBean.class)
+  public static class RowPm extends PmBeanImpl<RowBean> {
+    public final PmAttrString name = new PmAttrStringImpl(this);
+    public final PmAttrString description = new PmAttrStringImpl(this);
+
+    @Override
+    public String toString() {
+      return name.getValue();
+    }
+  }
+
+  public static class RowBean {
+    public String name;
+    public String description;
+
+    public RowBean(String name) {
+      this.name = name;
+      this.description = name + " text";
+    }
+  }
+
+}
@@ -1,6 +1,8 @@
 package org.pm4j.core.pm;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Test;
 import org.pm4j.core.pm.annotation.PmInject;
@@ -8,6 +10,7 @@ import org.pm4j.core.pm.annotation.PmInject.Mode;
 import org.pm4j.core.pm.impl.PmConversationImpl;
 import org.pm4j.core.pm.impl.PmElementImpl;
 import org.pm4j.core.pm.impl.PmLabelImpl;
+import org.pm4j.core.pm.impl.inject.DiResolverUtil;
 
 /**
  * Demonstrates the injection of a parent interface within a PM subtree member.
@@ -30,6 +33,25 @@ public class PmInjectParentOfTypeTest {
     assertEquals("Current User Name: Mr. X", elemPm.userInfo.getPmTitle());
   }
 
+  @Test
+  public void testMissingOptionalParentDoesNotPreventOtherSetterInjections() {
+    MyConversationPm conversationPm = new MyConversationPm();
+    MyElementWithSettersPm elemPm = new MyElementWithSettersPm(conversationPm);
+
+    assertEquals("Current User Name: unknown", elemPm.getPmTitle());
+    assertNull(elemPm.missingParent);
+  }
+
+  @Test
+  public void testFieldAndSetterInjectionsGetCombinedToASinglePlan() {
+    MyConversationPm conversationPm = new MyConversationPm();
+    MyElementWithSettersPm elemPm = new MyElementWithSettersPm(conversationPm);
+    elemPm.getPmTitle();
+
+    assertSame(conversationPm, elemPm.injectedField);
+    assertEquals(1, DiResolverUtil.getDiResolvers(MyElementWithSettersPm.class).length);
+  }
+
   /** An interface that needs to be injected somewhere within the PM tree. */
   interface UserInfoProvider {
     String getUserName();
@@ -63,4 +85,32 @@ public class PmInjectParentOfTypeTest {
     }
   }
 
+  public static class MyElementWithSettersPm extends PmElementImpl {
+
+    private UserInfoProvider userInfoProvider;
+    private PmTable<?> missingParent;
+
+    @PmInject(mode=Mode.PARENT_OF_TYPE)
+    UserInfoProvider injectedField;
+
+    public MyElementWithSettersPm(PmObject parentPm) {
+      super(parentPm);
+    }
+
+    @PmInject(mode=Mode.PARENT_OF_TYPE, nullAllowed=true)
+    public void setAMissingParent(PmTable<?> missingParent) {
+      this.missingParent = missingParent;
+    }
+
+    @PmInject(mode=Mode.PARENT_OF_TYPE)
+    public void setUserInfoProvider(UserInfoProvider userInfoProvider) {
+      this.userInfoProvider = userInfoProvider;
+    }
+
+    @Override
+    protected String getPmTitleImpl() {
+      return "Current User Name: " + userInfoProvider.getUserName();
+    }
+  }
+
 }
@@ -4,6 +4,7 @@ import static org.junit.Assert.assertEquals;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import org.junit.Before;
@@ -12,6 +13,7 @@ import org.pm4j.core.pm.annotation.PmBeanCfg;
 import org.pm4j.core.pm.annotation.PmFactoryCfg;
 import org.pm4j.core.pm.api.PmVisitorApi;
 import org.pm4j.core.pm.api.PmVisitorApi.PmVisitCallBack;
+import org.pm4j.core.pm.api.PmVisitorApi.PmVisitHierarchyCallBack;
 import org.pm4j.core.pm.api.PmVisitorApi.PmVisitHint;
 import org.pm4j.core.pm.api.PmVisitorApi.PmVisitResult;
 import org.pm4j.core.pm.impl.PmAttrPmListImpl;
@@ -151,6 +153,50 @@ public class PmVisitorTest {
     assertEquals(expected, calls.toString());
   }
 
+  @Test
+  public void testHierarchyCallBack() {
+    PmVisitorApi.visit(pm.myChPm1, new PmVisitHierarchyCallBack() {
+      @Override
+      public PmVisitResult visit(PmObject pm) {
+        storeVisit(pm);
+        return PmVisitResult.CONTINUE;
+      }
+      @Override
+      public PmVisitResult enterChildren(PmObject pmParent, Collection<PmObject> pmChildren) {
+        calls.add("enter " + pmParent.getPmRelativeName() + " " + pmChildren.size());
+        return PmVisitResult.CONTINUE;
+      }
+      @Override
+      public void leaveChildren(PmObject pmParent, Collection<PmObject> pmChildren) {
+        calls.add("leave " + pmParent.getPmRelativeName());
+      }
+    });
+    String expected = "[myChPm1, enter myChPm1 4, myChPm1_disabled, myChPm1_convImpl, myChPm1_readOnly, myChPm1_invisible, leave myChPm1]";
+    assertEquals(expected, calls.toString());
+  }
+
+  @Test
+  public void testStopVisitWithinHierarchy() {
+    assertEquals(PmVisitResult.STOP_VISIT, PmVisitorApi.visit(pm, new PmVisitHierarchyCallBack() {
+      @Override
+      public PmVisitResult visit(PmObject pm) {
+        storeVisit(pm);
+        return PmVisitResult.CONTINUE;
+      }
+      @Override
+      public PmVisitResult enterChildren(PmObject pmParent, Collection<PmObject> pmChildren) {
+        return (pmParent instanceof MyPmChild)
+            ? PmVisitResult.STOP_VISIT
+            : PmVisitResult.CONTINUE;
+      }
+      @Override
+      public void leaveChildren(PmObject pmParent, Collection<PmObject> pmChildren) {
+        calls.add("leave " + pmParent.getPmRelativeName());
+      }
+    }));
+    assertEquals("[pmVisitorTest_MyRootPm, myChPm1, leave pmVisitorTest_MyRootPm]", calls.toString());
+  }
+
   public static class MyRootPm extends PmElementImpl {
     public final MyPmChild myChPm1 = new MyPmChild(this);
     public final MyPmChild myChPm2 = new MyPmChild(this);
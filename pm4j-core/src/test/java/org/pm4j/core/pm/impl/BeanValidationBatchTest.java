@@ -0,0 +1,126 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmAttrInteger;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmMessage;
+import org.pm4j.core.pm.PmMessage.Severity;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.api.PmMessageApi;
+import org.pm4j.core.pm.api.PmValidationApi;
+
+/**
+ * Tests for {@link BeanValidationBatch}.
+ *
+ * @author olaf boede
+ */
+public class BeanValidationBatchTest {
+
+  private Locale systemDefaultLocale = Locale.getDefault();
+  private PmConversationImpl conversation = new PmConversationImpl();
+
+  @Before
+  public void setUp() {
+    Locale.setDefault(Locale.ENGLISH);
+  }
+
+  @After
+  public void tearDown() {
+    Locale.setDefault(systemDefaultLocale);
+  }
+
+  @Test
+  public void testPropertyViolationsAreTakenFromTheBeanValidationResult() {
+    BeanValidationBatch batch = BeanValidationBatch.open(conversation);
+    try {
+      assertNull("A nested open call does not create a new batch.", BeanValidationBatch.open(conversation));
+
+      MyBean bean = new MyBean("too long", null);
+      assertEquals(2, batch.getViolations(bean).size());
+      assertEquals(1, batch.getPropertyViolations(bean, "s").size());
+      assertEquals(1, batch.getPropertyViolations(bean, "i").size());
+      assertSame(batch.getViolations(bean), batch.getViolations(bean));
+    }
+    finally {
+      BeanValidationBatch.close(batch);
+    }
+    assertNull(BeanValidationBatch.getCurrent(conversation));
+  }
+
+  @Test
+  public void testParallelPrefetchProvidesSameResultAsSequentialValidation() {
+    List<MyBean> beans = new ArrayList<MyBean>();
+    for (int i = 0; i < 5 * BeanValidationBatch.PARALLEL_CHUNK_SIZE; ++i) {
+      beans.add((i % 3 == 0) ? new MyBean("invalid", i) : new MyBean("ok", i));
+    }
+
+    ExecutorService executor = Executors.newFixedThreadPool(3);
+    BeanValidationBatch parallelBatch = BeanValidationBatch.open(conversation);
+    try {
+      parallelBatch.prefetch(beans, executor);
+    }
+    finally {
+      BeanValidationBatch.close(parallelBatch);
+      executor.shutdown();
+    }
+
+    BeanValidationBatch sequentialBatch = BeanValidationBatch.open(conversation);
+    try {
+      sequentialBatch.prefetch(beans, null);
+      for (MyBean b : beans) {
+        assertEquals(sequentialBatch.getViolations(b).size(), parallelBatch.getViolations(b).size());
+      }
+    }
+    finally {
+      BeanValidationBatch.close(sequentialBatch);
+    }
+  }
+
+  @Test
+  public void testAttributeMessagesWithinBeanPmValidation() {
+    MyBeanPm pm = new MyBeanPm(conversation, new MyBean("too long", null));
+    PmValidationApi.validateSubTree(pm);
+
+    List<PmMessage> messages = PmMessageApi.getPmTreeMessages(pm, Severity.ERROR);
+    assertEquals(2, messages.size());
+    assertEquals(1, PmMessageApi.getMessages(pm.s, Severity.ERROR).size());
+    assertEquals(1, PmMessageApi.getMessages(pm.i, Severity.ERROR).size());
+  }
+
+  public static class MyBean {
+    @Size(max=4)
+    public String s;
+    @NotNull
+    public Integer i;
+
+    public MyBean(String s, Integer i) {
+      this.s = s;
+      this.i = i;
+    }
+  }
+
+  @PmBeanCfg(beanClass=MyBean.class)
+  public static class MyBeanPm extends PmBeanImpl<MyBean> {
+    public final PmAttrString s = new PmAttrStringImpl(this);
+    public final PmAttrInteger i = new PmAttrIntegerImpl(this);
+
+    public MyBeanPm(PmConversationImpl pmParent, MyBean b) {
+      super(pmParent, b);
+    }
+  }
+}
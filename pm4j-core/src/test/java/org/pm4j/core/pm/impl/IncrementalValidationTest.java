@@ -0,0 +1,114 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+import org.pm4j.core.exception.PmValidationException;
+import org.pm4j.core.pm.PmCommand;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmCommand.CommandState;
+import org.pm4j.core.pm.annotation.PmAttrCfg;
+import org.pm4j.core.pm.annotation.PmCommandCfg;
+import org.pm4j.core.pm.annotation.PmCommandCfg.BEFORE_DO;
+import org.pm4j.core.pm.annotation.PmValidationCfg;
+import org.pm4j.core.pm.api.PmValidationApi;
+
+public class IncrementalValidationTest {
+
+  private TestPm pm = new TestPm();
+
+  @Test
+  public void testFirstValidationIsAFullValidation() {
+    assertEquals(CommandState.BEFORE_DO_RETURNED_FALSE, pm.cmdSave.doIt().getCommandState());
+    assertEquals(1, pm.a.validateCallCount);
+    assertEquals(1, pm.b.validateCallCount);
+    assertEquals(1, pm.cross.validateCallCount);
+  }
+
+  @Test
+  public void testOnlyChangedAndInvalidPmsGetValidatedAgain() {
+    pm.cmdSave.doIt();
+    assertFalse("b is required.", pm.b.isPmValid());
+
+    pm.a.setValue("a value");
+    assertEquals(CommandState.BEFORE_DO_RETURNED_FALSE, pm.cmdSave.doIt().getCommandState());
+    assertEquals("changed", 2, pm.a.validateCallCount);
+    assertEquals("has an error message", 2, pm.b.validateCallCount);
+    assertEquals("cross field validator", 2, pm.cross.validateCallCount);
+
+    pm.b.setValue("b value");
+    assertEquals(CommandState.EXECUTED, pm.cmdSave.doIt().getCommandState());
+    assertEquals("unchanged and valid", 2, pm.a.validateCallCount);
+    assertEquals(3, pm.b.validateCallCount);
+    assertEquals(3, pm.cross.validateCallCount);
+
+    assertEquals(CommandState.EXECUTED, pm.cmdSave.doIt().getCommandState());
+    assertEquals("Nothing changed. Nothing to validate.", 2, pm.a.validateCallCount);
+    assertEquals(3, pm.b.validateCallCount);
+    assertEquals(3, pm.cross.validateCallCount);
+  }
+
+  @Test
+  public void testCrossFieldValidatorDetectsProblemCausedByOtherAttribute() {
+    pm.b.setValue("x");
+    assertEquals(CommandState.EXECUTED, pm.cmdSave.doIt().getCommandState());
+
+    pm.a.setValue("x");
+    assertEquals(CommandState.BEFORE_DO_RETURNED_FALSE, pm.cmdSave.doIt().getCommandState());
+    assertFalse(pm.cross.isPmValid());
+
+    pm.a.setValue("y");
+    assertEquals(CommandState.EXECUTED, pm.cmdSave.doIt().getCommandState());
+    assertTrue(pm.cross.isPmValid());
+  }
+
+  @Test
+  public void testRequestedFullValidation() {
+    pm.b.setValue("b value");
+    pm.cmdSave.doIt();
+    assertEquals(1, pm.a.validateCallCount);
+
+    PmValidationApi.requestFullValidation(pm);
+    pm.cmdSave.doIt();
+    assertEquals(2, pm.a.validateCallCount);
+  }
+
+  public static class CountingAttr extends PmAttrStringImpl {
+    int validateCallCount;
+
+    public CountingAttr(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected void validate(String value) throws PmValidationException {
+      ++validateCallCount;
+      super.validate(value);
+    }
+  }
+
+  public static class TestPm extends PmConversationImpl {
+    public final CountingAttr a = new CountingAttr(this);
+
+    @PmAttrCfg(required=true)
+    public final CountingAttr b = new CountingAttr(this);
+
+    /** Reports an error if 'a' and 'b' have the same value. */
+    @PmValidationCfg(crossFieldValidation=true)
+    public final CountingAttr cross = new CountingAttr(this) {
+      @Override
+      protected void validate(String value) throws PmValidationException {
+        super.validate(value);
+        if (a.getValue() != null && a.getValue().equals(b.getValue())) {
+          throw new PmValidationException(this, "incrementalValidationTest.a_and_b_are_equal");
+        }
+      }
+    };
+
+    @PmCommandCfg(beforeDo=BEFORE_DO.VALIDATE_CHANGES)
+    public final PmCommand cmdSave = new PmCommandImpl(this);
+  }
+
+}
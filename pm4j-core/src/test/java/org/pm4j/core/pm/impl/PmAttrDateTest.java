@@ -68,6 +68,21 @@ public class PmAttrDateTest extends TestCase {
     assertEquals("09.09.1999", pmAttr.getValueAsString());
   }
 
+  public void testFormatStringOfConversationsWithDifferentLocales() {
+    DateTestPm englishPm = new DateTestPm();
+    englishPm.setPmLocale(Locale.ENGLISH);
+    DateTestPm germanPm = new DateTestPm();
+    germanPm.setPmLocale(Locale.GERMAN);
+
+    // Both attributes share the same meta data. The format depends on the locale.
+    assertEquals("dd/MM/yyyy", ((PmAttrBase<?,?>)englishPm.withDefaultFormat).getFormatString());
+    assertEquals("dd.MM.yyyy", ((PmAttrBase<?,?>)germanPm.withDefaultFormat).getFormatString());
+    assertEquals("dd/MM/yyyy", ((PmAttrBase<?,?>)englishPm.withDefaultFormat).getFormatString());
+
+    englishPm.setPmLocale(Locale.GERMAN);
+    assertEquals("dd.MM.yyyy", ((PmAttrBase<?,?>)englishPm.withDefaultFormat).getFormatString());
+  }
+
   public void testWithResKeyPostfixFormat() {
     DateTestPm pmElement = new DateTestPm();
     PmAttrDate pmAttr = pmElement.withResKeyPostfixFormat;
@@ -0,0 +1,177 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmAttrInteger;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmDefaults;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.pm.api.PmFactoryApi;
+
+/**
+ * Tests for the incremental changed state tracking of {@link PmDataInputBase}.
+ *
+ * @author olaf boede
+ */
+public class PmChangedStateTrackingTest {
+
+  private PmConversationImpl conversation = new PmConversationImpl();
+  private OuterPm outerPm = new OuterPm(conversation);
+
+  @Before
+  public void setUp() {
+    // Each changed state request gets cross checked by a full sub tree scan.
+    PmDefaults.getInstance().debugChangedStateTracking = true;
+    // A not initialized PM is always unchanged.
+    PmInitApi.ensurePmInitialization(outerPm.inner.s);
+    PmInitApi.ensurePmInitialization(outerPm.i);
+  }
+
+  @After
+  public void tearDown() {
+    PmDefaults.getInstance().debugChangedStateTracking = false;
+  }
+
+  @Test
+  public void testChangeOfNestedAttributeIsReportedByAllParents() {
+    assertEquals(false, outerPm.isPmValueChanged());
+
+    outerPm.inner.s.setValue("a");
+    assertEquals(true, outerPm.inner.s.isPmValueChanged());
+    assertEquals(true, outerPm.inner.isPmValueChanged());
+    assertEquals(true, outerPm.isPmValueChanged());
+    assertEquals(false, outerPm.i.isPmValueChanged());
+  }
+
+  @Test
+  public void testChangeBackToOriginalValue() {
+    outerPm.inner.s.setValue("a");
+    outerPm.i.setValue(3);
+    assertEquals(true, outerPm.isPmValueChanged());
+
+    outerPm.inner.s.setValue(null);
+    assertEquals(false, outerPm.inner.isPmValueChanged());
+    assertEquals(true, outerPm.isPmValueChanged());
+
+    outerPm.i.setValue(null);
+    assertEquals(false, outerPm.isPmValueChanged());
+  }
+
+  @Test
+  public void testExpliciteChangedFlag() {
+    outerPm.inner.setPmValueChanged(true);
+    assertEquals(true, outerPm.isPmValueChanged());
+
+    outerPm.inner.setPmValueChanged(false);
+    assertEquals(false, outerPm.isPmValueChanged());
+  }
+
+  @Test
+  public void testResetChangedStateOfSubTree() {
+    outerPm.inner.s.setValue("a");
+    outerPm.i.setValue(3);
+
+    outerPm.setPmValueChanged(false);
+    assertEquals(false, outerPm.inner.s.isPmValueChanged());
+    assertEquals(false, outerPm.isPmValueChanged());
+    assertEquals(false, conversation.isPmValueChanged());
+  }
+
+  @Test
+  public void testChangeOfInvisiblePmIsNotReported() {
+    outerPm.inner.s.setValue("a");
+    assertEquals(true, outerPm.isPmValueChanged());
+
+    outerPm.inner.visible = false;
+    assertEquals(false, outerPm.isPmValueChanged());
+  }
+
+  @Test
+  public void testReleasedFactoryPmIsNoLongerCounted() {
+    RowPm rowPm = PmFactoryApi.getPmForBean(outerPm, new Bean());
+    rowPm.name.setValue("a");
+    assertEquals(1, outerPm.getPmChangedDescendantCount());
+
+    BeanPmCacheUtil.clearBeanPmCache(outerPm);
+    assertEquals(0, outerPm.getPmChangedDescendantCount());
+
+    rowPm.name.setValue(null);
+    assertEquals("A change of the released PM is not counted.", 0, outerPm.getPmChangedDescendantCount());
+  }
+
+  @Test
+  public void testReleasedUnchangedFactoryPmsDoNotChangeTheCounters() {
+    outerPm.i.setValue(3);
+    PmFactoryApi.getPmForBean(outerPm, new Bean());
+    BeanPmCacheUtil.clearBeanPmCache(outerPm);
+
+    assertEquals(1, outerPm.getPmChangedDescendantCount());
+    assertEquals(true, outerPm.isPmValueChanged());
+  }
+
+  @Test
+  public void testCustomChangedStateOverrideIsAskedByTheParents() {
+    PmInitApi.ensurePmInitialization(outerPm.custom);
+    assertEquals(false, outerPm.isPmValueChanged());
+
+    outerPm.custom.changed = true;
+    assertEquals(true, outerPm.custom.isPmValueChanged());
+    assertEquals(true, outerPm.isPmValueChanged());
+
+    outerPm.custom.changed = false;
+    assertEquals(false, outerPm.isPmValueChanged());
+  }
+
+  @PmFactoryCfg(beanPmClasses=RowPm.class)
+  public static class OuterPm extends PmElementImpl {
+    public final PmAttrInteger i = new PmAttrIntegerImpl(this);
+    public final InnerPm inner = new InnerPm(this);
+    public final CustomChangedPm custom = new CustomChangedPm(this);
+
+    public OuterPm(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+
+  public static class InnerPm extends PmElementImpl {
+    public final PmAttrString s = new PmAttrStringImpl(this);
+    boolean visible = true;
+
+    public InnerPm(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected boolean isPmVisibleImpl() {
+      return visible;
+    }
+  }
+
+  /** An application PM with its own changed state logic. */
+  public static class CustomChangedPm extends PmElementImpl {
+    boolean changed;
+
+    public CustomChangedPm(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected boolean isPmValueChangedImpl() {
+      return changed || super.isPmValueChangedImpl();
+    }
+  }
+
+  public static class Bean {
+    public String name;
+  }
+
+  @PmBeanCfg(beanClass=Bean.class)
+  public static class RowPm extends PmBeanImpl<Bean> {
+    public final PmAttrString name = new PmAttrStringImpl(this);
+  }
+}
@@ -0,0 +1,202 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmAsyncCommandHandle;
+import org.pm4j.core.pm.PmCommand;
+import org.pm4j.core.pm.PmCommand.CommandState;
+import org.pm4j.core.pm.PmCommandDecorator;
+import org.pm4j.core.pm.PmMessage.Severity;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.annotation.PmCommandCfg;
+import org.pm4j.core.pm.annotation.PmCommandCfg.BEFORE_DO;
+import org.pm4j.core.pm.api.PmMessageUtil;
+import org.pm4j.navi.NaviLink;
+
+/**
+ * Tests for {@link PmCommand#doItAsync()}.
+ *
+ * @author olaf boede
+ */
+public class PmCommandAsyncTest {
+
+  private ExecutorService executor = Executors.newSingleThreadExecutor();
+  private PmConversationImpl conversation = new PmConversationImpl();
+  private MyPm pm = new MyPm(conversation);
+
+  @Before
+  public void setUp() {
+    conversation.setPmCommandExecutor(executor);
+    conversation.setPmExceptionHandler(new PmExceptionHandlerImpl() {
+      @Override
+      public NaviLink onException(PmObject pmObject, Throwable throwable, boolean inNaviContext) {
+        PmMessageUtil.makeExceptionMsg(pmObject, Severity.ERROR, throwable);
+        return null;
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testResultIsAppliedOnRequest() throws Exception {
+    PmAsyncCommandHandle h = pm.cmdLongRunning.doItAsync();
+    assertEquals(CommandState.RUNNING, h.getCommand().getCommandState());
+    assertFalse("Not yet finished.", h.applyResult());
+
+    pm.release.countDown();
+    assertTrue(h.awaitDone(5, TimeUnit.SECONDS));
+    assertEquals(100, h.getProgress());
+    assertEquals("afterDo is not called before the result gets applied.", 0, pm.afterDoCallCount);
+
+    assertTrue(h.applyResult());
+    assertEquals(CommandState.EXECUTED, h.getCommand().getCommandState());
+    assertEquals(1, pm.afterDoCallCount);
+
+    assertTrue("Repeated calls don't apply the result again.", h.applyResult());
+    assertEquals(1, pm.afterDoCallCount);
+  }
+
+  @Test
+  public void testUiThreadGetsTheLockWhileTheCommandRuns() throws Exception {
+    PmAsyncCommandHandle h = pm.cmdLongRunning.doItAsync();
+    assertTrue(pm.started.await(5, TimeUnit.SECONDS));
+
+    // the UI thread works with the PM tree while the command is still running.
+    assertTrue("The running command does not hold the lock.", conversation.getPmLock().tryLock());
+    try {
+      assertFalse(h.isDone());
+      assertFalse(h.applyResult());
+    }
+    finally {
+      conversation.getPmLock().unlock();
+    }
+
+    pm.release.countDown();
+    assertTrue(h.awaitDone(5, TimeUnit.SECONDS));
+    assertTrue(h.applyResult());
+    assertEquals(CommandState.EXECUTED, h.getCommand().getCommandState());
+  }
+
+  @Test
+  public void testCompletionExecutorAppliesTheResult() throws Exception {
+    final BlockingQueue<Runnable> uiQueue = new LinkedBlockingQueue<Runnable>();
+    conversation.setPmCompletionExecutor(new Executor() {
+      @Override
+      public void execute(Runnable command) {
+        uiQueue.add(command);
+      }
+    });
+
+    PmAsyncCommandHandle h = pm.cmdLongRunning.doItAsync();
+    pm.release.countDown();
+    Runnable completion = uiQueue.poll(5, TimeUnit.SECONDS);
+    assertEquals("afterDo is called by the completion executor.", 0, pm.afterDoCallCount);
+
+    completion.run();
+    assertEquals(CommandState.EXECUTED, h.getCommand().getCommandState());
+    assertEquals(1, pm.afterDoCallCount);
+  }
+
+  @Test
+  public void testCancel() throws Exception {
+    PmAsyncCommandHandle h = pm.cmdLongRunning.doItAsync();
+    assertTrue(h.cancel());
+    pm.release.countDown();
+    assertTrue(h.awaitDone(5, TimeUnit.SECONDS));
+
+    assertTrue(h.applyResult());
+    assertEquals(CommandState.CANCELED, h.getCommand().getCommandState());
+    assertEquals(0, pm.afterDoCallCount);
+    assertFalse("A finished command can't be canceled.", h.cancel());
+  }
+
+  @Test
+  public void testFailureIsHandledWhenTheResultIsApplied() throws Exception {
+    PmAsyncCommandHandle h = pm.cmdFailing.doItAsync();
+    assertTrue(h.awaitDone(5, TimeUnit.SECONDS));
+    assertEquals(0, PmMessageUtil.getPmErrors(conversation).size());
+
+    h.applyResult();
+    assertEquals(CommandState.FAILED, h.getCommand().getCommandState());
+    assertEquals(1, PmMessageUtil.getPmErrors(conversation).size());
+  }
+
+  @Test
+  public void testDecoratorVetoPreventsExecution() {
+    pm.cmdLongRunning.addCommandDecorator(new PmCommandDecorator() {
+      @Override
+      public boolean beforeDo(PmCommand cmd) {
+        return false;
+      }
+      @Override
+      public void afterDo(PmCommand cmd) {
+      }
+    });
+
+    PmAsyncCommandHandle h = pm.cmdLongRunning.doItAsync();
+    assertTrue(h.isDone());
+    assertTrue(h.applyResult());
+    assertEquals(CommandState.BEFORE_DO_RETURNED_FALSE, h.getCommand().getCommandState());
+  }
+
+  @Test
+  public void testSynchronousExecutionWithoutExecutor() {
+    conversation.setPmCommandExecutor(null);
+    pm.release.countDown();
+
+    PmAsyncCommandHandle h = pm.cmdLongRunning.doItAsync();
+    assertTrue(h.isDone());
+    assertTrue(h.applyResult());
+    assertEquals(CommandState.EXECUTED, h.getCommand().getCommandState());
+  }
+
+  public static class MyPm extends PmElementImpl {
+    final CountDownLatch started = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    int afterDoCallCount;
+
+    @PmCommandCfg(beforeDo=BEFORE_DO.DO_NOTHING)
+    public final PmCommand cmdLongRunning = new PmCommandImpl(this) {
+      @Override
+      protected void doItImpl() throws Exception {
+        reportProgress(10);
+        started.countDown();
+        release.await(5, TimeUnit.SECONDS);
+      }
+      @Override
+      protected NaviLink afterDo(boolean changeCommandHistory) {
+        ++afterDoCallCount;
+        return super.afterDo(changeCommandHistory);
+      }
+    };
+
+    @PmCommandCfg(beforeDo=BEFORE_DO.DO_NOTHING)
+    public final PmCommand cmdFailing = new PmCommandImpl(this) {
+      @Override
+      protected void doItImpl() throws Exception {
+        throw new IllegalStateException("failed");
+      }
+    };
+
+    public MyPm(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+}
@@ -7,7 +7,9 @@ import org.pm4j.core.exception.PmRuntimeException;
 import org.pm4j.core.pm.PmAttrEnum;
 import org.pm4j.core.pm.PmAttrString;
 import org.pm4j.core.pm.PmCommand;
+import org.pm4j.core.pm.PmCommand.CommandState;
 import org.pm4j.core.pm.annotation.PmAttrCfg;
+import org.pm4j.core.pm.annotation.PmCommandCfg;
 import org.pm4j.core.pm.api.PmMessageApi;
 import org.pm4j.core.pm.api.PmMessageUtil;
 import org.pm4j.navi.NaviLink;
@@ -68,6 +70,43 @@ public class PmCommandImplTest extends TestCase {
 
   }
 
+  public void testStatelessCommandIsExecutedWithoutClone() {
+    TestPm pm = new TestPm();
+
+    PmCommand cmd = pm.cmdStatelessNavi.doIt();
+    assertEquals(CommandState.EXECUTED, cmd.getCommandState());
+    assertEquals(FIX_LINK, cmd.getNaviLink());
+
+    pm.cmdStatelessDynNavi.doIt();
+    assertSame(pm.cmdStatelessDynNavi, pm.lastExecutedStatelessCmd);
+
+    assertNotSame("Commands with state are still cloned.", pm.cmdStaticNavi, pm.cmdStaticNavi.doIt());
+  }
+
+  public void testStatelessCommandCantProvideAnUndoCommand() {
+    TestPm pm = new TestPm();
+    try {
+      pm.cmdStatelessWithUndo.doIt();
+      fail("The default exception handler should forward the configuration problem.");
+    } catch (PmRuntimeException e) {
+      assertEquals(CommandState.TEMPLATE, pm.cmdStatelessWithUndo.getCommandState());
+      assertNull(pm.cmdStatelessWithUndo.getUndoCommand());
+    }
+  }
+
+  public void testStatelessCommandReturnsTheExecutionState() {
+    TestPm pm = new TestPm();
+    pm.dynLinkTargetString.setValue("dynTarget");
+
+    PmCommand cmd = pm.cmdStatelessDynNavi.doIt();
+    assertEquals(CommandState.EXECUTED, cmd.getCommandState());
+    assertEquals("dynTarget", cmd.getNaviLink().getPath());
+
+    assertEquals("The shared instance keeps no execution state.",
+                 CommandState.TEMPLATE, pm.cmdStatelessDynNavi.getCommandState());
+    assertNull(pm.cmdStatelessDynNavi.getNaviLink());
+  }
+
 
   enum SuccessKind { SUCCESS, USER_MSG_EXCEPTION, OTHER_EXCEPTION };
 
@@ -76,6 +115,7 @@ public class PmCommandImplTest extends TestCase {
     @PmAttrCfg(defaultValue="SUCCESS")
     public final PmAttrEnum<SuccessKind> successKind = new PmAttrEnumImpl<SuccessKind>(this, SuccessKind.class);
     public final PmAttrString dynLinkTargetString = new PmAttrStringImpl(this);
+    PmCommand lastExecutedStatelessCmd;
 
     /** Navigates to a fix page via NaviLink. */
     public final PmCommand cmdStaticNavi = new PmCommandImpl(this, FIX_LINK) {
@@ -85,6 +125,29 @@ public class PmCommandImplTest extends TestCase {
       };
     };
 
+    /** Navigates to a fix page. Does not need to be cloned for execution. */
+    @PmCommandCfg(stateless=true)
+    public final PmCommand cmdStatelessNavi = new PmCommandImpl(this, FIX_LINK);
+
+    /** An invalid configuration: Provides an undo command. */
+    @PmCommandCfg(stateless=true)
+    public final PmCommand cmdStatelessWithUndo = new PmCommandImpl(this) {
+      @Override
+      protected void doItImpl() throws Exception {
+        setUndoCommand(cmdStaticNavi);
+      }
+    };
+
+    /** Navigates to a calculated page. Does not need to be cloned for execution. */
+    @PmCommandCfg(stateless=true)
+    public final PmCommand cmdStatelessDynNavi = new PmCommandImpl(this) {
+      @Override
+      protected void doItImpl() throws Exception {
+        lastExecutedStatelessCmd = this;
+        navigateTo(new NaviLinkImpl(dynLinkTargetString.getValue()));
+      }
+    };
+
     /** Navigates to calculated page via NaviLink. */
     public final PmCommand cmdDynNavi = new PmCommandImpl(this) {
       @Override
@@ -0,0 +1,150 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.pm4j.core.pm.impl.inject.NamedObjectResolver;
+
+public class PmConversationNamedObjectCacheTest {
+
+  private PmConversationImpl root = new PmConversationImpl();
+  private PmConversationImpl child = new PmConversationImpl(root);
+
+  @Test
+  public void testNestedConversationSeesChangesOfParent() {
+    assertNull(child.getPmNamedObject("a"));
+
+    root.setPmNamedObject("a", "v1");
+    assertEquals("v1", child.getPmNamedObject("a"));
+
+    root.setPmNamedObject("a", "v2");
+    assertEquals("v2", child.getPmNamedObject("a"));
+
+    root.setPmNamedObject("a", null);
+    assertNull(child.getPmNamedObject("a"));
+  }
+
+  @Test
+  public void testLocalObjectHidesParentObject() {
+    root.setPmNamedObject("a", "rootValue");
+    assertEquals("rootValue", child.getPmNamedObject("a"));
+
+    child.setPmNamedObject("a", "childValue");
+    assertEquals("childValue", child.getPmNamedObject("a"));
+    assertEquals("rootValue", root.getPmNamedObject("a"));
+  }
+
+  @Test
+  public void testResolverResultsAreNotCached() {
+    final AtomicInteger callCount = new AtomicInteger();
+    root.setPmNamedObjectResolver(new NamedObjectResolver() {
+      @Override
+      public Object findObject(String name) {
+        return "r" + callCount.incrementAndGet();
+      }
+    });
+
+    assertEquals("r1", child.getPmNamedObject("a"));
+    assertEquals("r2", child.getPmNamedObject("a"));
+
+    root.setPmNamedObjectResolver(null);
+    assertNull(child.getPmNamedObject("a"));
+  }
+
+  @Test
+  public void testCacheFollowsAParentThatGetsSetLater() {
+    PmConversationImpl lateChild = new PmConversationImpl();
+    assertNull(lateChild.getPmNamedObject("a"));
+
+    root.setPmNamedObject("a", "rootValue");
+    lateChild.setPmParent(root);
+    assertEquals("rootValue", lateChild.getPmNamedObject("a"));
+
+    root.setPmNamedObject("a", null);
+    assertNull(lateChild.getPmNamedObject("a"));
+  }
+
+  @Test
+  public void testMissOfNestedConversationGetsInvalidatedByParentChange() {
+    PmConversationImpl grandChild = new PmConversationImpl(child);
+    assertNull(grandChild.getPmNamedObject("a"));
+
+    child.setPmNamedObject("a", "childValue");
+    assertEquals("childValue", grandChild.getPmNamedObject("a"));
+  }
+
+  @Test
+  public void testNotFoundHandlerIsCalledForEachLookupIfThereIsAResolver() {
+    final AtomicInteger callCount = new AtomicInteger();
+    PmConversationImpl pm = new PmConversationImpl() {
+      @Override
+      protected void handleNamedPmObjectNotFound(String name) {
+        callCount.incrementAndGet();
+      }
+    };
+    pm.setPmNamedObjectResolver(new NamedObjectResolver() {
+      @Override
+      public Object findObject(String name) {
+        return null;
+      }
+    });
+    PmExpressionApiHandler handler = new PmExpressionApiHandler();
+
+    assertNull(handler.findNamedObject(pm, "a"));
+    assertNull(handler.findNamedObject(pm, "a"));
+    assertEquals("The resolver may provide the object later.", 2, callCount.get());
+  }
+
+  @Test
+  public void testOverriddenNotFoundHandlerIsCalledForEachLookup() {
+    final AtomicInteger callCount = new AtomicInteger();
+    PmConversationImpl pm = new PmConversationImpl() {
+      @Override
+      protected void handleNamedPmObjectNotFound(String name) {
+        if (callCount.incrementAndGet() > 1) {
+          setPmNamedObject(name, "provided later");
+        }
+      }
+    };
+    PmExpressionApiHandler handler = new PmExpressionApiHandler();
+
+    assertNull(handler.findNamedObject(pm, "a"));
+    assertEquals("The handler may provide the object later.", "provided later", handler.findNamedObject(pm, "a"));
+    assertEquals(2, callCount.get());
+  }
+
+  @Test
+  public void testOverriddenNotFoundHandlerOfAParentIsCalledForEachLookup() {
+    final AtomicInteger callCount = new AtomicInteger();
+    PmConversationImpl parent = new PmConversationImpl() {
+      @Override
+      protected void handleNamedPmObjectNotFound(String name) {
+        callCount.incrementAndGet();
+      }
+    };
+    PmConversationImpl pm = new PmConversationImpl(parent);
+    PmExpressionApiHandler handler = new PmExpressionApiHandler();
+
+    assertNull(handler.findNamedObject(pm, "a"));
+    assertNull(handler.findNamedObject(pm, "a"));
+    assertEquals(2, callCount.get());
+  }
+
+  @Test
+  public void testMissingObjectIsRememberedIfTheNotFoundHandlerIsNotOverridden() {
+    PmExpressionApiHandler handler = new PmExpressionApiHandler();
+
+    assertNull(handler.findNamedObject(child, "a"));
+    assertTrue(child.isPmNamedObjectNotFoundHandled("a"));
+
+    root.setPmNamedObject("a", "v");
+    assertFalse("A changed object needs to be resolved again.", child.isPmNamedObjectNotFoundHandled("a"));
+    assertEquals("v", handler.findNamedObject(child, "a"));
+  }
+
+}
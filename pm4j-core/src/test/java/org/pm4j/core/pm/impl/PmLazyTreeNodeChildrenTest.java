@@ -0,0 +1,222 @@
+package org.pm4j.core.pm.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import org.junit.Test;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmLazyTreeNode;
+import org.pm4j.core.pm.PmLazyTreeNode.ChildLoadState;
+import org.pm4j.core.pm.PmTreeNode;
+import org.pm4j.core.pm.api.PmEventApi;
+
+/**
+ * Tests for {@link PmLazyTreeNodeChildren}.
+ *
+ * @author olaf boede
+ */
+public class PmLazyTreeNodeChildrenTest {
+
+  private PmConversationImpl conversation = new PmConversationImpl();
+  private DeferringExecutor executor = new DeferringExecutor();
+  private EventCounter events = new EventCounter();
+
+  @Test
+  public void testSynchronousLoadWithoutExecutor() {
+    LazyNode node = new LazyNode(conversation, 0, 5);
+    PmEventApi.addPmEventListener(node, PmEvent.VALUE_CHANGE, events);
+
+    assertEquals(ChildLoadState.NOT_LOADED, node.getPmChildLoadState());
+    assertFalse("The hint does not load the child nodes.", node.isPmTreeLeaf());
+    assertEquals(0, node.loadCalls);
+
+    assertEquals(5, node.getPmChildNodes().size());
+    assertEquals(ChildLoadState.LOADED, node.getPmChildLoadState());
+    assertEquals("The result is available before the getter returns.", 0, events.count);
+  }
+
+  @Test
+  public void testAsyncLoadProvidesPlaceholderFirst() {
+    conversation.setPmCommandExecutor(executor);
+    LazyNode node = new LazyNode(conversation, 0, 3);
+    PmEventApi.addPmEventListener(node, PmEvent.VALUE_CHANGE, events);
+
+    List<PmTreeNode> children = node.getPmChildNodes();
+    assertEquals(1, children.size());
+    assertPlaceholder(children.get(0), ChildLoadState.LOADING);
+    assertEquals(ChildLoadState.LOADING, node.getPmChildLoadState());
+    node.getPmChildNodes();
+    assertEquals("A running load operation is not started again.", 1, executor.tasks.size());
+
+    executor.runAll();
+    assertEquals(1, events.count);
+    assertEquals(3, node.getPmChildNodes().size());
+    assertEquals(ChildLoadState.LOADED, node.getPmChildLoadState());
+  }
+
+  @Test
+  public void testPagesGetLoadedOnRequest() {
+    LazyNode node = new LazyNode(conversation, 2, 5);
+
+    List<PmTreeNode> children = node.getPmChildNodes();
+    assertEquals(3, children.size());
+    assertPlaceholder(children.get(2), ChildLoadState.PARTIALLY_LOADED);
+
+    ((PmLazyTreeNodeChildren.Placeholder)children.get(2)).requestLoad();
+    assertEquals(5, node.getPmChildNodes().size());
+    assertSame("Already loaded nodes are kept.", children.get(0), node.getPmChildNodes().get(0));
+
+    node.loadMorePmChildNodes();
+    assertEquals(5, node.getPmChildNodes().size());
+    assertEquals(ChildLoadState.LOADED, node.getPmChildLoadState());
+    assertTrue(node.getPmChildNodes().get(4) instanceof LazyNode);
+    assertEquals(3, node.loadCalls);
+  }
+
+  @Test
+  public void testLoadFailureAndReload() {
+    LazyNode node = new LazyNode(conversation, 0, 2);
+    node.failure = new RuntimeException("backend not available");
+
+    List<PmTreeNode> children = node.getPmChildNodes();
+    assertEquals(ChildLoadState.FAILED, node.getPmChildLoadState());
+    assertPlaceholder(children.get(0), ChildLoadState.FAILED);
+
+    node.failure = null;
+    PmEventApi.addPmEventListener(node, PmEvent.VALUE_CHANGE, events);
+    ((PmLazyTreeNodeChildren.Placeholder)children.get(0)).requestLoad();
+    assertEquals("Reload event.", 1, events.count);
+    assertEquals(2, node.getPmChildNodes().size());
+  }
+
+  @Test
+  public void testConversationCompletionExecutorAppliesTheResult() {
+    DeferringExecutor uiThread = new DeferringExecutor();
+    conversation.setPmCommandExecutor(executor);
+    conversation.setPmCompletionExecutor(uiThread);
+    LazyNode node = new LazyNode(conversation, 0, 3);
+    PmEventApi.addPmEventListener(node, PmEvent.VALUE_CHANGE, events);
+
+    node.getPmChildNodes();
+    executor.runAll();
+    assertEquals("The result is not yet applied.", ChildLoadState.LOADING, node.getPmChildLoadState());
+    assertEquals(0, events.count);
+
+    uiThread.runAll();
+    assertEquals(ChildLoadState.LOADED, node.getPmChildLoadState());
+    assertEquals(1, events.count);
+  }
+
+  @Test
+  public void testSynchronousLoadIgnoresTheCompletionExecutor() {
+    DeferringExecutor uiThread = new DeferringExecutor();
+    conversation.setPmCompletionExecutor(uiThread);
+    LazyNode node = new LazyNode(conversation, 0, 3);
+
+    assertEquals(3, node.getPmChildNodes().size());
+    assertTrue(uiThread.tasks.isEmpty());
+  }
+
+  @Test
+  public void testResultOfOutdatedLoadGetsIgnored() {
+    conversation.setPmCommandExecutor(executor);
+    LazyNode node = new LazyNode(conversation, 0, 3);
+
+    node.getPmChildNodes();
+    node.reloadPmChildNodes();
+    executor.runAll();
+    assertEquals(ChildLoadState.NOT_LOADED, node.getPmChildLoadState());
+  }
+
+  private static void assertPlaceholder(PmTreeNode node, ChildLoadState state) {
+    assertTrue(node instanceof PmLazyTreeNodeChildren.Placeholder);
+    assertEquals(state, ((PmLazyTreeNodeChildren.Placeholder)node).getLoadState());
+    assertTrue(node.isPmTreeLeaf());
+  }
+
+  /** A node that provides a configurable number of child nodes. */
+  static class LazyNode extends PmElementImpl implements PmLazyTreeNode {
+    int loadCalls;
+    RuntimeException failure;
+
+    private final PmLazyTreeNodeChildren children;
+
+    LazyNode(PmObjectBase pmParent, int pageSize, final int childCount) {
+      super(pmParent);
+      children = new PmLazyTreeNodeChildren(this, pageSize) {
+        @Override
+        protected List<? extends PmTreeNode> loadPage(int offset, int maxCount) throws Exception {
+          ++loadCalls;
+          if (failure != null) {
+            throw failure;
+          }
+          int end = (maxCount > 0) ? Math.min(childCount, offset + maxCount) : childCount;
+          List<PmTreeNode> list = new ArrayList<PmTreeNode>();
+          for (int i = offset; i < end; ++i) {
+            list.add(new LazyNode(LazyNode.this, 0, 0));
+          }
+          return list;
+        }
+      };
+    }
+
+    @Override
+    public List<PmTreeNode> getPmChildNodes() {
+      return children.getChildNodes();
+    }
+
+    @Override
+    public boolean isPmTreeLeaf() {
+      return children.isLeaf();
+    }
+
+    @Override
+    public ChildLoadState getPmChildLoadState() {
+      return children.getLoadState();
+    }
+
+    @Override
+    public void loadMorePmChildNodes() {
+      children.loadMore();
+    }
+
+    @Override
+    public void reloadPmChildNodes() {
+      children.reload();
+    }
+  }
+
+  static class DeferringExecutor implements Executor {
+    List<Runnable> tasks = new ArrayList<Runnable>();
+
+    @Override
+    public void execute(Runnable command) {
+      tasks.add(command);
+    }
+
+    void runAll() {
+      List<Runnable> toRun = tasks;
+      tasks = new ArrayList<Runnable>();
+      for (Runnable r : toRun) {
+        r.run();
+      }
+    }
+  }
+
+  static class EventCounter implements PmEventListener {
+    int count;
+
+    @Override
+    public void handleEvent(PmEvent event) {
+      ++count;
+    }
+  }
+
+}
@@ -0,0 +1,168 @@
+package org.pm4j.core.pm.impl.options;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.common.pageable.querybased.pagequery.PageQueryService;
+import org.pm4j.common.query.QueryAttr;
+import org.pm4j.common.query.QueryParams;
+import org.pm4j.common.query.inmem.InMemQueryEvaluator;
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmOption;
+import org.pm4j.core.pm.PmOptionSource;
+import org.pm4j.core.pm.annotation.PmOptionCfg;
+import org.pm4j.core.pm.impl.PmAttrImpl;
+import org.pm4j.core.pm.impl.PmAttrIntegerImpl;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.options.PageQueryOptionSource.MatchMode;
+
+/**
+ * Tests for {@link PageQueryOptionSource}.
+ *
+ * @author olaf boede
+ */
+public class PageQueryOptionSourceTest {
+
+  private CustomerService service = new CustomerService();
+  private PageQueryOptionSource<Customer, Integer> optionSource;
+  private TestPm pm;
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 1000; ++i) {
+      service.add(new Customer(i, ((i % 2 == 0) ? "Miller " : "Smith ") + i));
+    }
+    optionSource = new PageQueryOptionSource<Customer, Integer>(service, Integer.class, new QueryAttr("name", String.class));
+    pm = new TestPm();
+  }
+
+  @Test
+  public void testPagedPrefixSearch() {
+    assertEquals(1000, optionSource.getOptionCount(null));
+    assertEquals(500, optionSource.getOptionCount("Mil"));
+
+    List<PmOption> page = optionSource.getOptions("Smith", 10, 3);
+    assertEquals("[Smith 21, Smith 23, Smith 25]", PmOptionSetUtil.getOptionTitles(new PmOptionSetImpl(page)).toString());
+    assertEquals("21", page.get(0).getIdAsString());
+    assertEquals(0, optionSource.getOptionCount("ith"));
+  }
+
+  @Test
+  public void testSubstringSearch() {
+    optionSource.setMatchMode(MatchMode.SUBSTRING);
+    assertEquals(1, optionSource.getOptionCount("ith 999"));
+  }
+
+  @Test
+  public void testLookupById() {
+    assertEquals("Miller 42", optionSource.findOptionForIdString("42").getPmTitle());
+    assertNull(optionSource.findOptionForIdString("4711"));
+    assertNull(optionSource.findOptionForIdString(""));
+  }
+
+  @Test
+  public void testAttributeOptionSetContainsOnlyTheCurrentValueOption() {
+    // The optional attribute provides a null option and the option for its value.
+    assertEquals(1, pm.customer.getOptionSet().getSize().intValue());
+    assertNull(pm.customer.getOptionSet().getFirstOptionValue());
+
+    pm.customer.setValueAsString("7");
+    assertSame(service.getItemForId(7), pm.customer.getValue());
+    assertEquals("7", pm.customer.getValueAsString());
+    assertEquals("[, Smith 7]", PmOptionSetUtil.getOptionTitles(pm.customer.getOptionSet()).toString());
+    assertEquals("Smith 7", pm.customer.getValueLocalized());
+  }
+
+  @Test
+  public void testAttributeWithIdValue() {
+    pm.customerId.setValue(8);
+    assertEquals("[, Miller 8]", PmOptionSetUtil.getOptionTitles(pm.customerId.getOptionSet()).toString());
+    assertEquals(Integer.valueOf(8), pm.customerId.getOptionSet().getOptions().get(1).getValue());
+  }
+
+  // -- Test PMs and services --
+
+  public class TestPm extends PmConversationImpl {
+    public final PmAttr<Customer> customer = new PmAttrImpl<Customer>(this) {
+      @Override
+      public PmOptionSource getOptionSource() {
+        return optionSource;
+      }
+
+      @Override
+      protected PmOptionSetDef<?> makeOptionSetDef(PmOptionCfg cfg, Method getOptionValuesMethod) {
+        return OptionSetDefForOptionSource.INSTANCE;
+      }
+    };
+
+    public final PmAttr<Integer> customerId = new PmAttrIntegerImpl(this) {
+      @Override
+      public PmOptionSource getOptionSource() {
+        return optionSource;
+      }
+
+      @Override
+      protected PmOptionSetDef<?> makeOptionSetDef(PmOptionCfg cfg, Method getOptionValuesMethod) {
+        return OptionSetDefForOptionSource.INSTANCE;
+      }
+    };
+  }
+
+  public static class Customer {
+    public final Integer id;
+    public final String name;
+
+    public Customer(Integer id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+
+  static class CustomerService implements PageQueryService<Customer, Integer> {
+    private Map<Integer, Customer> idToCustomerMap = new LinkedHashMap<Integer, Customer>();
+
+    void add(Customer c) {
+      idToCustomerMap.put(c.id, c);
+    }
+
+    @Override
+    public List<Customer> getItems(QueryParams query, long startIdx, int pageSize) {
+      List<Customer> result = getQueryResult(query);
+      int endIdx = Math.min((int)startIdx + pageSize, result.size());
+      return (startIdx < endIdx)
+          ? new ArrayList<Customer>(result.subList((int)startIdx, endIdx))
+          : new ArrayList<Customer>();
+    }
+
+    @Override
+    public long getItemCount(QueryParams query) {
+      return getQueryResult(query).size();
+    }
+
+    @Override
+    public Integer getIdForItem(Customer item) {
+      return item.id;
+    }
+
+    @Override
+    public Customer getItemForId(Integer id) {
+      return idToCustomerMap.get(id);
+    }
+
+    private List<Customer> getQueryResult(QueryParams query) {
+      List<Customer> customers = new ArrayList<Customer>(idToCustomerMap.values());
+      return (query.getFilterExpression() != null)
+          ? new InMemQueryEvaluator<Customer>().evaluateSubSet(customers, query.getFilterExpression())
+          : customers;
+    }
+  }
+}
@@ -0,0 +1,169 @@
+package org.pm4j.core.pm.impl.options;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmAttrEnum;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmOptionSet;
+import org.pm4j.core.pm.annotation.PmOptionCfg;
+import org.pm4j.core.pm.annotation.PmOptionCfg.NullOption;
+import org.pm4j.core.pm.impl.PmAttrEnumImpl;
+import org.pm4j.core.pm.impl.PmAttrImpl;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmElementImpl;
+
+/**
+ * Tests for option sets configured with {@link PmOptionCfg#shared()}.
+ *
+ * @author olaf boede
+ */
+public class SharedOptionSetTest {
+
+  private PmConversationImpl conversation = new PmConversationImpl();
+
+  @Test
+  public void testRowsShareTheSameOptionSet() {
+    RowPm row1 = new RowPm(conversation);
+    RowPm row2 = new RowPm(conversation);
+
+    PmOptionSet os = row1.sharedItem.getOptionSet();
+    assertTrue(os instanceof PmOptionSetImpl.Immutable);
+    assertSame(os, row2.sharedItem.getOptionSet());
+    assertEquals("[, a, b]", PmOptionSetUtil.getOptionTitles(os).toString());
+
+    assertNotSame("Not shared by default.", row1.item.getOptionSet(), row2.item.getOptionSet());
+  }
+
+  @Test
+  public void testSharedEnumOptionSet() {
+    RowPm row1 = new RowPm(conversation);
+    RowPm row2 = new RowPm(conversation);
+
+    assertSame(row1.sharedEnum.getOptionSet(), row2.sharedEnum.getOptionSet());
+
+    // The null option is only provided for the attribute without a value.
+    row2.sharedEnum.setValue(MyEnum.TWO);
+    assertNotSame(row1.sharedEnum.getOptionSet(), row2.sharedEnum.getOptionSet());
+  }
+
+  @Test
+  public void testNewSourceInstanceLeadsToANewOptionSet() {
+    RowPm row = new RowPm(conversation);
+    PmOptionSet os = row.sharedItem.getOptionSet();
+
+    row.items = new ArrayList<Item>(ITEMS);
+    assertNotSame(os, row.sharedItem.getOptionSet());
+  }
+
+  @Test
+  public void testSizeChangeOfTheSourceLeadsToANewOptionSet() {
+    RowPm row = new RowPm(conversation);
+    row.items = new ArrayList<Item>(ITEMS);
+    PmOptionSet os = row.sharedItem.getOptionSet();
+    assertSame(os, row.sharedItem.getOptionSet());
+
+    row.items.add(new Item(3, "c"));
+    assertEquals("[, a, b, c]", PmOptionSetUtil.getOptionTitles(row.sharedItem.getOptionSet()).toString());
+  }
+
+  @Test
+  public void testReplacedSourceValueLeadsToANewOptionSet() {
+    RowPm row = new RowPm(conversation);
+    row.items = new ArrayList<Item>(ITEMS);
+    PmOptionSet os = row.sharedItem.getOptionSet();
+
+    row.items.set(1, new Item(3, "c"));
+    assertNotSame(os, row.sharedItem.getOptionSet());
+    assertEquals("[, a, c]", PmOptionSetUtil.getOptionTitles(row.sharedItem.getOptionSet()).toString());
+  }
+
+  @Test
+  public void testCacheSizeIsLimited() {
+    RowPm row = new RowPm(conversation);
+    for (int i = 0; i < SharedOptionSetCache.MAX_CACHED_OPTION_SETS + 10; ++i) {
+      row.items = new ArrayList<Item>(ITEMS);
+      row.sharedItem.getOptionSet();
+    }
+    assertEquals(SharedOptionSetCache.MAX_CACHED_OPTION_SETS,
+                 ((Map<?, ?>)conversation.getPmProperty(SharedOptionSetCache.CACHE_PROP_NAME)).size());
+  }
+
+  @Test
+  public void testOptionSetsOfDifferentConversationsAreNotShared() {
+    RowPm row1 = new RowPm(conversation);
+    RowPm row2 = new RowPm(new PmConversationImpl());
+
+    assertNotSame(row1.sharedItem.getOptionSet(), row2.sharedItem.getOptionSet());
+  }
+
+  @Test
+  public void testImmutableOptionSetLookups() {
+    PmOptionSetImpl.Immutable os = (PmOptionSetImpl.Immutable) new RowPm(conversation).sharedItem.getOptionSet();
+
+    assertEquals("b", os.findOptionForId(2).getPmTitle());
+    assertEquals("a", os.findOptionForIdString("1").getPmTitle());
+    assertNull(os.findOptionForId(null).getValue());
+    assertEquals("2", os.findOptionForTitle("b").getIdAsString());
+    assertNull(os.findOptionForTitle("x"));
+    assertEquals("a", os.findOptionForBackingValue(ITEMS.get(0)).getPmTitle());
+  }
+
+  @Test(expected=UnsupportedOperationException.class)
+  public void testImmutableOptionSetCantBeModified() {
+    ((PmOptionSetImpl) new RowPm(conversation).sharedItem.getOptionSet()).addOption(3, "c");
+  }
+
+  // -- Test PMs and domain objects --
+
+  static final List<Item> ITEMS = Arrays.asList(new Item(1, "a"), new Item(2, "b"));
+
+  public static class RowPm extends PmElementImpl {
+    List<Item> items = ITEMS;
+
+    public final PmAttr<Item> sharedItem = new PmAttrImpl<Item>(this) {
+      @Override
+      @PmOptionCfg(id="id", title="name", shared=true)
+      public Iterable<?> getOptionValues() {
+        return items;
+      }
+    };
+
+    public final PmAttr<Item> item = new PmAttrImpl<Item>(this) {
+      @Override
+      @PmOptionCfg(id="id", title="name")
+      public Iterable<?> getOptionValues() {
+        return ITEMS;
+      }
+    };
+
+    @PmOptionCfg(shared=true, nullOption=NullOption.NO)
+    public final PmAttrEnum<MyEnum> sharedEnum = new PmAttrEnumImpl<MyEnum>(this, MyEnum.class);
+
+    public RowPm(PmObject pmParent) {
+      super(pmParent);
+    }
+  }
+
+  public static enum MyEnum { ONE, TWO };
+
+  public static class Item {
+    public final int id;
+    public final String name;
+
+    public Item(int id, String name) {
+      this.id = id;
+      this.name = name;
+    }
+  }
+}
@@ -0,0 +1,299 @@
+package org.pm4j.core.pm.impl.pageable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.common.pageable.querybased.QueryService;
+import org.pm4j.common.pageable.querybased.pagequery.PageQueryService;
+import org.pm4j.common.query.QueryParams;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmPager;
+import org.pm4j.core.pm.PmTableCol;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmBeanImpl;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmTableColImpl;
+import org.pm4j.core.pm.impl.PmTableImpl;
+import org.pm4j.core.pm.impl.pageable.PmBeanCollectionAsync.PageLoadState;
+
+/**
+ * Tests for {@link PmBeanCollectionAsync} used by a service based table.
+ *
+ * @author olaf boede
+ */
+public class PmBeanCollectionAsyncTest {
+
+  private ExecutorService executor = Executors.newCachedThreadPool();
+  private SlowService service = new SlowService();
+  private TablePm tablePm = new TablePm(new PmConversationImpl());
+  private Semaphore tableEvents = new Semaphore(0);
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 25; ++i) {
+      service.beans.add(new Bean("b" + i));
+    }
+    PmEventApi.addPmEventListener(tablePm, PmEvent.VALUE_CHANGE, new PmEventListener() {
+      @Override
+      public void handleEvent(PmEvent event) {
+        tableEvents.release();
+      }
+    });
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void testPageRequestReturnsImmediately() throws Exception {
+    CountDownLatch release = service.blockRequestsFor(0);
+
+    assertEquals(0, tablePm.getRowPms().size());
+    assertEquals(PageLoadState.LOADING, tablePm.getPmPageLoadState());
+    assertEquals(PageLoadState.LOADING, tablePm.pager.getPageLoadState());
+    assertEquals("Loading...", tablePm.pager.getItemXtillYofZ().getPmTitle());
+
+    release.countDown();
+    assertTrue(tableEvents.tryAcquire(5, TimeUnit.SECONDS));
+
+    assertEquals(PageLoadState.LOADED, tablePm.getPmPageLoadState());
+    assertEquals("[b0, b1, b2, b3, b4, b5, b6, b7, b8, b9]", tablePm.getRowPms().toString());
+    assertEquals(25, tablePm.getTotalNumOfPmRows());
+    assertEquals(3, tablePm.pager.getNumOfPages());
+    assertEquals("The loaded page gets reported by a single event.", 0, tableEvents.availablePermits());
+  }
+
+  @Test
+  public void testResponseOfSupersededRequestGetsDiscarded() throws Exception {
+    CountDownLatch release = service.blockRequestsFor(0);
+    tablePm.getRowPms();
+    assertTrue(service.blockedRequestStarted.await(5, TimeUnit.SECONDS));
+
+    // Switch to the second page while the first one is still loading.
+    tablePm.getPmPageableCollection().setPageIdx(1);
+    assertEquals(0, tablePm.getRowPms().size());
+    assertEquals("The second request waits for the running one.", 1, service.getItemsCallCount.get());
+
+    release.countDown();
+    assertTrue(tableEvents.tryAcquire(5, TimeUnit.SECONDS));
+    assertEquals("[b10, b11, b12, b13, b14, b15, b16, b17, b18, b19]", tablePm.getRowPms().toString());
+
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+    assertEquals(2, service.getItemsCallCount.get());
+    assertEquals("The service gets not called concurrently.", 1, service.maxActiveCalls.get());
+    assertEquals("The late response does not change the table.", 0, tableEvents.availablePermits());
+    assertEquals("[b10, b11, b12, b13, b14, b15, b16, b17, b18, b19]", tablePm.getRowPms().toString());
+  }
+
+  @Test
+  public void testOnlyTheLatestWaitingRequestGetsExecuted() throws Exception {
+    CountDownLatch release = service.blockRequestsFor(0);
+    tablePm.getRowPms();
+    assertTrue(service.blockedRequestStarted.await(5, TimeUnit.SECONDS));
+
+    tablePm.getPmPageableCollection().setPageIdx(1);
+    tablePm.getRowPms();
+    tablePm.getPmPageableCollection().setPageIdx(2);
+    tablePm.getRowPms();
+
+    release.countDown();
+    assertTrue(tableEvents.tryAcquire(5, TimeUnit.SECONDS));
+    assertEquals("[b20, b21, b22, b23, b24]", tablePm.getRowPms().toString());
+    assertEquals("[0, 20]", service.requestedStartIdxs.toString());
+  }
+
+  @Test
+  public void testQueryGetsCopiedByTheRequestingThread() throws Exception {
+    CountDownLatch release = service.blockRequestsFor(0);
+    tablePm.getRowPms();
+    assertTrue(service.blockedRequestStarted.await(5, TimeUnit.SECONDS));
+
+    QueryParams runningQuery = service.lastQuery;
+    assertTrue("The service gets a copy of the query parameters.", runningQuery != tablePm.getPmPageableCollection().getQueryParams());
+    tablePm.getPmPageableCollection().getQueryParams().setBaseQueryParam("p", "changed");
+    assertEquals(null, runningQuery.getBaseQueryParam("p"));
+
+    // the filter change supersedes the running request.
+    release.countDown();
+    tablePm.getRowPms();
+    assertTrue(tableEvents.tryAcquire(5, TimeUnit.SECONDS));
+    assertEquals("changed", service.lastQuery.getBaseQueryParam("p"));
+  }
+
+  @Test
+  public void testConversationCompletionExecutorAppliesTheResult() throws Exception {
+    final List<Runnable> completions = new ArrayList<Runnable>();
+    ((PmConversationImpl)tablePm.getPmConversation()).setPmCompletionExecutor(new Executor() {
+      @Override
+      public synchronized void execute(Runnable command) {
+        completions.add(command);
+      }
+    });
+
+    tablePm.getRowPms();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    assertEquals(PageLoadState.LOADING, tablePm.getPmPageLoadState());
+    assertEquals(0, tableEvents.availablePermits());
+
+    assertEquals(1, completions.size());
+    completions.get(0).run();
+    assertEquals(1, tableEvents.availablePermits());
+    assertEquals(PageLoadState.LOADED, tablePm.getPmPageLoadState());
+    assertEquals(10, tablePm.getRowPms().size());
+  }
+
+  @Test
+  public void testLoadFailureAndReload() throws Exception {
+    service.fail = true;
+    tablePm.getRowPms();
+    assertTrue(tableEvents.tryAcquire(5, TimeUnit.SECONDS));
+    assertEquals(PageLoadState.FAILED, tablePm.getPmPageLoadState());
+    assertEquals(0, tablePm.getRowPms().size());
+
+    service.fail = false;
+    ((PmBeanCollectionAsync<?, ?>)tablePm.getPmPageableCollection()).reload();
+    tableEvents.drainPermits();
+    tablePm.getRowPms();
+    assertTrue(tableEvents.tryAcquire(5, TimeUnit.SECONDS));
+    assertEquals(PageLoadState.LOADED, tablePm.getPmPageLoadState());
+    assertEquals(10, tablePm.getRowPms().size());
+  }
+
+  @PmFactoryCfg(beanPmClasses=RowPm.class)
+  public class TablePm extends PmTableImpl<RowPm, Bean> {
+    public final PmTableCol name = new PmTableColImpl(this);
+    public final Pager pager = new Pager(this);
+
+    public TablePm(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected QueryService<Bean, ?> getPmQueryServiceImpl() {
+      return service;
+    }
+
+    @Override
+    protected Executor getPmPageLoadExecutor() {
+      return executor;
+    }
+
+    @Override
+    public PmPager getPmPager() {
+      return pager;
+    }
+  }
+
+  @PmBeanCfg(beanClass=Bean.class)
+  public static class RowPm extends PmBeanImpl<Bean> {
+    public final PmAttrString name = new PmAttrStringImpl(this);
+
+    @Override
+    public String toString() {
+      return name.getValue();
+    }
+  }
+
+  public static class Bean {
+    public final String name;
+
+    public Bean(String name) {
+      this.name = name;
+    }
+  }
+
+  /** An in-memory service that lets the requests for a start index wait. */
+  static class SlowService implements PageQueryService<Bean, String> {
+    final List<Bean> beans = new ArrayList<Bean>();
+    volatile boolean fail;
+    final AtomicInteger getItemsCallCount = new AtomicInteger();
+    final AtomicInteger maxActiveCalls = new AtomicInteger();
+    final List<Long> requestedStartIdxs = new CopyOnWriteArrayList<Long>();
+    volatile QueryParams lastQuery;
+    private final AtomicInteger activeCalls = new AtomicInteger();
+    private volatile long blockedStartIdx = -1;
+    private volatile CountDownLatch blockLatch;
+    final CountDownLatch blockedRequestStarted = new CountDownLatch(1);
+
+    CountDownLatch blockRequestsFor(long startIdx) {
+      blockLatch = new CountDownLatch(1);
+      blockedStartIdx = startIdx;
+      return blockLatch;
+    }
+
+    @Override
+    public List<Bean> getItems(QueryParams query, long startIdx, int pageSize) {
+      getItemsCallCount.incrementAndGet();
+      requestedStartIdxs.add(startIdx);
+      lastQuery = query;
+      int active = activeCalls.incrementAndGet();
+      try {
+        if (active > maxActiveCalls.get()) {
+          maxActiveCalls.set(active);
+        }
+        if (startIdx == blockedStartIdx) {
+          blockedRequestStarted.countDown();
+          try {
+            blockLatch.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+        }
+        if (fail) {
+          throw new RuntimeException("Service not available.");
+        }
+        int endIdx = Math.min((int)startIdx + pageSize, beans.size());
+        return new ArrayList<Bean>(beans.subList((int)startIdx, endIdx));
+      }
+      finally {
+        activeCalls.decrementAndGet();
+      }
+    }
+
+    @Override
+    public long getItemCount(QueryParams query) {
+      return beans.size();
+    }
+
+    @Override
+    public String getIdForItem(Bean item) {
+      return item.name;
+    }
+
+    @Override
+    public Bean getItemForId(String id) {
+      for (Bean b : beans) {
+        if (b.name.equals(id)) {
+          return b;
+        }
+      }
+      return null;
+    }
+  }
+
+}
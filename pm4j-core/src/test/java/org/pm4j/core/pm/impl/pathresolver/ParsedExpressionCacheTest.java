@@ -0,0 +1,71 @@
+package org.pm4j.core.pm.impl.pathresolver;
+
+import junit.framework.TestCase;
+
+import org.pm4j.common.expr.Expression;
+import org.pm4j.common.expr.Expression.SyntaxVersion;
+
+public class ParsedExpressionCacheTest extends TestCase {
+
+  public void testSecondParseIsAnsweredByTheCache() {
+    ParsedExpressionCache cache = new ParsedExpressionCache(10);
+
+    Expression e1 = cache.getExpression("sub.name", SyntaxVersion.VERSION_2);
+    Expression e2 = cache.getExpression("sub.name", SyntaxVersion.VERSION_2);
+
+    assertSame(e1, e2);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  public void testSyntaxVersionIsPartOfTheKey() {
+    ParsedExpressionCache cache = new ParsedExpressionCache(10);
+
+    Expression e1 = cache.getExpression("name", SyntaxVersion.VERSION_1);
+    Expression e2 = cache.getExpression("name", SyntaxVersion.VERSION_2);
+
+    assertNotSame(e1, e2);
+    assertEquals(0, cache.getHitCount());
+    assertEquals(2, cache.getMissCount());
+  }
+
+  public void testCacheSizeIsBounded() {
+    ParsedExpressionCache cache = new ParsedExpressionCache(2);
+
+    cache.getExpression("a", SyntaxVersion.VERSION_2);
+    cache.getExpression("b", SyntaxVersion.VERSION_2);
+    cache.getExpression("c", SyntaxVersion.VERSION_2);
+    assertEquals(2, cache.size());
+
+    cache.clear();
+    assertEquals(0, cache.size());
+    assertEquals(0, cache.getMissCount());
+  }
+
+  public void testSharedExpressionWorksForDifferentBeanClasses() {
+    PathResolver r1 = ExpressionPathResolver.parse("name", SyntaxVersion.VERSION_2);
+    PathResolver r2 = ExpressionPathResolver.parse("name", SyntaxVersion.VERSION_2);
+
+    assertNotSame("Each caller gets its own resolver instance.", r1, r2);
+    assertEquals("pojo", r1.getValue(new Pojo("pojo")));
+    assertEquals("other", r2.getValue(new OtherBean("other")));
+    assertEquals("pojo2", r1.getValue(new Pojo("pojo2")));
+  }
+
+  public void testVersion1ExpressionResolvesTheAttributePerBeanClass() {
+    PathResolver r = ExpressionPathResolver.parse("name", SyntaxVersion.VERSION_1);
+
+    assertEquals("pojo", r.getValue(new Pojo("pojo")));
+    assertEquals("other", r.getValue(new OtherBean("other")));
+    assertEquals("pojo2", r.getValue(new Pojo("pojo2")));
+  }
+
+  public static class OtherBean {
+    public String name;
+
+    public OtherBean(String name) {
+      this.name = name;
+    }
+  }
+
+}
@@ -790,4 +790,11 @@ public class DeprPmTableImpl
   protected PmObjectBase.MetaData makeMetaData() {
     return new MetaData();
   }
+
+  @Override
+  protected void initMetaData(PmObjectBase.MetaData metaData) {
+    super.initMetaData(metaData);
+    // The changed state registry is not reflected by child PMs.
+    metaData.setCustomChangedStateLogic(true);
+  }
 }
@@ -1,11 +1,6 @@
 package org.pm4j.jsf.preprocess;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import javax.faces.FacesException;
@@ -29,7 +24,6 @@ import org.pm4j.navi.NaviHistoryCfg;
 import org.pm4j.navi.NaviLink;
 import org.pm4j.navi.NaviManager;
 import org.pm4j.navi.impl.NaviLinkImpl;
-import org.pm4j.navi.impl.NaviRuntimeException;
 import org.pm4j.web.RequestUrlReader;
 import org.pm4j.web.UrlInfo;
 
@@ -47,6 +41,17 @@ public class PreprocessPhaseListener implements PhaseListener {
   private static final String ATTR_SESSION_START_HANDLED = "pm4j.session_start_handled";
   private static final Log    log = LogFactory.getLog(PreprocessPhaseListener.class);
 
+  /**
+   * The session start handling is synchronized per session. Requests of different
+   * sessions use different locks (in most cases).
+   */
+  private static final Object[] SESSION_START_LOCKS = new Object[64];
+  static {
+    for (int i = 0; i < SESSION_START_LOCKS.length; ++i) {
+      SESSION_START_LOCKS[i] = new Object();
+    }
+  }
+
   /** Marker instance for pages without preprocess logic. */
   protected static final PagePreprocessLogic NO_PREPROCESS_LOGIC = new PagePreprocessLogic() {
     @Override public RedirectInfo preprocess(UrlInfo requestUrlInfo, RequestKind requestKind) {
@@ -55,18 +60,17 @@ public class PreprocessPhaseListener implements PhaseListener {
   };
 
   /**
-   * The url patterns are sorted according to the sequence of
-   * {@link #addPreprocessLogic(String, PagePreprocessLogic)} calls.<br>
+   * Provides the preprocessors for the requested pages.<br>
    * In case of multiple preprocessors per page, the preprocessors will be
    * applied according to the preprocessor add-sequence.
    */
-  private Map<Pattern, PagePreprocessLogic> urlPatternToPreprocessLogicMap = new LinkedHashMap<Pattern, PagePreprocessLogic>();
-  private Map<String, List<PagePreprocessLogic>> cachedUrlToPreprocessLogicMap = Collections.synchronizedMap(new LinkedHashMap<String, List<PagePreprocessLogic>>());
+  private final UrlPatternRouter<PagePreprocessLogic> preprocessLogicRouter = new UrlPatternRouter<PagePreprocessLogic>();
   /**
    * Only URL page pathes that are not longer than {@link #maxCachedUrlLen} will be cached.<br>
-   * This should help to prevent memory problem in case of generated URLs.
+   * The cache is bounded. This limit just prevents that generated URLs replace the
+   * cached results of the regular pages.
    */
-  private int maxCachedUrlLen = 40;
+  private int maxCachedUrlLen = 2048;
   private NaviLink defaultTimeOutRedirectLink = new NaviLinkImpl("/index.jsf");
   private String naviVersionParamName = null;
 
@@ -76,8 +80,12 @@ public class PreprocessPhaseListener implements PhaseListener {
     HttpSession session = (HttpSession)extCtx.getSession(false);
     HttpServletRequest request = (HttpServletRequest) extCtx.getRequest();
 
-    if (session == null || session.isNew()) {
-      synchronized (this) {
+    if (session == null) {
+      // Nobody else knows the session that gets created for this request.
+      handleSessionStart(facesCtx, request);
+    }
+    else if (session.isNew()) {
+      synchronized (getSessionStartLock(session)) {
         if (session.getAttribute(ATTR_SESSION_START_HANDLED) == null) {
           try {
             handleSessionStart(facesCtx, request);
@@ -243,36 +251,10 @@ public class PreprocessPhaseListener implements PhaseListener {
    * @return The found set. An empty list if there is no preprocessing defined
    *         for the given page.
    */
-  @SuppressWarnings("unchecked")
   protected List<PagePreprocessLogic> getPagePreprocessLogic(String urlPath) {
-    List<PagePreprocessLogic> list = null;
-    boolean cacheCandidate = isCacheableUrlPath(urlPath);
-
-    // check the cache first:
-    if (cacheCandidate) {
-      list = cachedUrlToPreprocessLogicMap.get(urlPath);
-      if (list != null) {
-        return list;
-      }
-    }
-
-    // no cache hit:
-    list = new ArrayList<PagePreprocessLogic>();
-    for (Map.Entry<Pattern, PagePreprocessLogic> e : urlPatternToPreprocessLogicMap.entrySet()) {
-      Matcher matcher = e.getKey().matcher(urlPath);
-      if (matcher.matches()) {
-        list.add(e.getValue());
-      }
-    }
-
-    // maintain the cache:
-    if (cacheCandidate) {
-      cachedUrlToPreprocessLogicMap.put(urlPath, list.size() > 0
-                                      ? list
-                                      : Collections.EMPTY_LIST);
-    }
-
-    return list;
+    return isCacheableUrlPath(urlPath)
+        ? preprocessLogicRouter.getTargets(urlPath)
+        : preprocessLogicRouter.findTargets(urlPath);
   }
 
   /**
@@ -314,9 +296,12 @@ public class PreprocessPhaseListener implements PhaseListener {
    *          The URL specific redirect logic.
    */
   public void addPreprocessLogic(String urlPattern, PagePreprocessLogic logic) {
-    if (urlPatternToPreprocessLogicMap.put(Pattern.compile(urlPattern), logic) != null) {
-      throw new NaviRuntimeException("Page URL pattern is already added to the preprocesser set: " + urlPattern);
-    }
+    preprocessLogicRouter.add(urlPattern, logic);
+  }
+
+  private Object getSessionStartLock(HttpSession session) {
+    int hash = session.getId().hashCode();
+    return SESSION_START_LOCKS[(hash ^ (hash >>> 16)) & (SESSION_START_LOCKS.length - 1)];
   }
 
   private String getNaviVersionParamName() {
@@ -345,7 +330,8 @@ public class PreprocessPhaseListener implements PhaseListener {
 
   /**
    * Only URL page pathes that are not longer than {@link #maxCachedUrlLen} will be cached.<br>
-   * This should help to prevent memory problem in case of generated URLs.
+   * The cache is bounded. This limit just prevents that generated URLs replace the
+   * cached results of the regular pages.
    *
    * @param maxCachedUrlLen The defined limit.
    */
@@ -0,0 +1,240 @@
+package org.pm4j.jsf.preprocess;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.pm4j.common.util.collection.LRUMap;
+import org.pm4j.navi.impl.NaviRuntimeException;
+
+/**
+ * Finds the targets that are registered for URL path patterns.
+ * <p>
+ * The patterns are compiled into a prefix tree that is keyed by the literal
+ * prefix of each pattern. A single pass over the path provides the few
+ * patterns that may match. Only these get checked using their regular
+ * expression. Patterns without any regular expression characters are checked
+ * by a simple string comparison.
+ * <p>
+ * The results are cached in a bounded LRU cache.<br>
+ * The router is thread safe. It does not depend on a servlet container.
+ *
+ * @param <T> The type of the registered targets.
+ *
+ * @author olaf boede
+ */
+public class UrlPatternRouter<T> {
+
+  /** The default maximum number of cached path results. */
+  public static final int DEFAULT_MAX_CACHED_PATH_COUNT = 1000;
+
+  /** Characters that have a special meaning within a regular expression. */
+  private static final String REGEX_META_CHARS = ".[]{}()\\*+?^$|";
+
+  private final int maxCachedPathCount;
+
+  /** The registered routes in add-sequence. */
+  private final List<Route<T>> routes = new ArrayList<Route<T>>();
+
+  /** The compiled prefix tree. Gets replaced on each {@link #add(String, Object)} call. */
+  private volatile TrieNode<T> root = new TrieNode<T>();
+
+  private volatile Map<String, List<T>> pathToTargetsCache;
+
+  /**
+   * Creates a router with a cache for {@link #DEFAULT_MAX_CACHED_PATH_COUNT} paths.
+   */
+  public UrlPatternRouter() {
+    this(DEFAULT_MAX_CACHED_PATH_COUNT);
+  }
+
+  /**
+   * @param maxCachedPathCount
+   *          The maximum number of cached path results. If more paths get
+   *          requested, the least recently used results get removed from the
+   *          cache.
+   */
+  public UrlPatternRouter(int maxCachedPathCount) {
+    this.maxCachedPathCount = maxCachedPathCount;
+    this.pathToTargetsCache = new LRUMap<String, List<T>>(maxCachedPathCount);
+  }
+
+  /**
+   * Adds a target for the given URL pattern.
+   * <p>
+   * See {@link Pattern} for the regular expression syntax used here.
+   *
+   * @param urlPattern
+   *          The URL pattern to add the target for. The same pattern may be added only once.
+   * @param target
+   *          The target to provide for matching paths.
+   */
+  public synchronized void add(String urlPattern, T target) {
+    for (Route<T> r : routes) {
+      if (r.pattern.pattern().equals(urlPattern)) {
+        throw new NaviRuntimeException("Page URL pattern is already added to the preprocesser set: " + urlPattern);
+      }
+    }
+
+    routes.add(new Route<T>(routes.size(), urlPattern, target));
+
+    TrieNode<T> newRoot = new TrieNode<T>();
+    for (Route<T> r : routes) {
+      newRoot.add(r);
+    }
+    root = newRoot;
+    pathToTargetsCache = new LRUMap<String, List<T>>(maxCachedPathCount);
+  }
+
+  /**
+   * Provides the targets for the given path. Uses the cache.
+   *
+   * @param urlPath
+   *          The path to get the targets for.
+   * @return The targets of all matching patterns in add-sequence. An empty list
+   *         if no pattern matches.
+   */
+  public List<T> getTargets(String urlPath) {
+    Map<String, List<T>> cache = pathToTargetsCache;
+    List<T> targets = cache.get(urlPath);
+    if (targets == null) {
+      targets = findTargets(urlPath);
+      cache.put(urlPath, targets);
+    }
+    return targets;
+  }
+
+  /**
+   * Provides the targets for the given path without using the cache.
+   *
+   * @param urlPath
+   *          The path to get the targets for.
+   * @return The targets of all matching patterns in add-sequence. An empty list
+   *         if no pattern matches.
+   */
+  public List<T> findTargets(String urlPath) {
+    List<Route<T>> matches = null;
+    TrieNode<T> node = root;
+    int pos = 0;
+
+    while (node != null) {
+      for (Route<T> r : node.routes) {
+        if (r.matches(urlPath)) {
+          if (matches == null) {
+            matches = new ArrayList<Route<T>>();
+          }
+          matches.add(r);
+        }
+      }
+
+      node = (pos < urlPath.length())
+          ? node.getChild(urlPath.charAt(pos++))
+          : null;
+    }
+
+    if (matches == null) {
+      return Collections.emptyList();
+    }
+
+    Collections.sort(matches, ROUTE_INDEX_COMPARATOR);
+    List<T> targets = new ArrayList<T>(matches.size());
+    for (Route<T> r : matches) {
+      targets.add(r.target);
+    }
+    return Collections.unmodifiableList(targets);
+  }
+
+  /**
+   * Provides the part of the pattern that every matching path has to start with.
+   *
+   * @param urlPattern The pattern to analyze.
+   * @return The literal prefix. An empty string if the pattern may match any path.
+   */
+  static String getLiteralPrefix(String urlPattern) {
+    if (urlPattern.indexOf('|') != -1) {
+      // Alternatives may start with anything.
+      return "";
+    }
+
+    for (int i = 0; i < urlPattern.length(); ++i) {
+      char c = urlPattern.charAt(i);
+      if (REGEX_META_CHARS.indexOf(c) != -1) {
+        // These quantifiers make the preceding character optional.
+        boolean prevCharIsOptional = (c == '*' || c == '?' || c == '{');
+        return urlPattern.substring(0, (prevCharIsOptional && i > 0) ? i - 1 : i);
+      }
+    }
+    return urlPattern;
+  }
+
+  @SuppressWarnings("rawtypes")
+  private static final Comparator<Route> ROUTE_INDEX_COMPARATOR = new Comparator<Route>() {
+    @Override
+    public int compare(Route o1, Route o2) {
+      return o1.index - o2.index;
+    }
+  };
+
+  /** A registered pattern with its target. */
+  private static final class Route<T> {
+    final int index;
+    final Pattern pattern;
+    final String literalPrefix;
+    /** <code>true</code> if the pattern contains no regular expression characters. */
+    final boolean isLiteral;
+    final T target;
+
+    Route(int index, String urlPattern, T target) {
+      this.index = index;
+      this.pattern = Pattern.compile(urlPattern);
+      this.literalPrefix = getLiteralPrefix(urlPattern);
+      this.isLiteral = literalPrefix.equals(urlPattern);
+      this.target = target;
+    }
+
+    /** Gets only called for paths that start with the {@link #literalPrefix}. */
+    boolean matches(String urlPath) {
+      return isLiteral
+          ? urlPath.length() == literalPrefix.length()
+          : pattern.matcher(urlPath).matches();
+    }
+  }
+
+  /** A prefix tree node. Is not modified after construction of the tree. */
+  private static final class TrieNode<T> {
+    private Map<Character, TrieNode<T>> children = Collections.emptyMap();
+    private List<Route<T>> routes = Collections.emptyList();
+
+    void add(Route<T> route) {
+      TrieNode<T> node = this;
+      for (int i = 0; i < route.literalPrefix.length(); ++i) {
+        Character c = route.literalPrefix.charAt(i);
+        TrieNode<T> child = node.children.get(c);
+        if (child == null) {
+          if (node.children.isEmpty()) {
+            node.children = new HashMap<Character, TrieNode<T>>();
+          }
+          child = new TrieNode<T>();
+          node.children.put(c, child);
+        }
+        node = child;
+      }
+
+      if (node.routes.isEmpty()) {
+        node.routes = new ArrayList<Route<T>>(2);
+      }
+      node.routes.add(route);
+    }
+
+    TrieNode<T> getChild(char c) {
+      return children.isEmpty()
+          ? null
+          : children.get(c);
+    }
+  }
+
+}
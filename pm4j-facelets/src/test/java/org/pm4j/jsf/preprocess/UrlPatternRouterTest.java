@@ -0,0 +1,69 @@
+package org.pm4j.jsf.preprocess;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.pm4j.navi.impl.NaviRuntimeException;
+
+public class UrlPatternRouterTest extends TestCase {
+
+  public void testLiteralPrefix() {
+    assertEquals("/admin/users", UrlPatternRouter.getLiteralPrefix("/admin/users"));
+    assertEquals("/admin/users", UrlPatternRouter.getLiteralPrefix("/admin/users\\.jsf"));
+    assertEquals("/admin/", UrlPatternRouter.getLiteralPrefix("/admin/.*"));
+    assertEquals("/admi", UrlPatternRouter.getLiteralPrefix("/admin?/.*"));
+    assertEquals("/admin", UrlPatternRouter.getLiteralPrefix("/admin+/.*"));
+    assertEquals("", UrlPatternRouter.getLiteralPrefix("/admin/.*|/user/.*"));
+    assertEquals("", UrlPatternRouter.getLiteralPrefix(".*\\.jsf"));
+  }
+
+  public void testMatchesInAddSequence() {
+    UrlPatternRouter<String> router = new UrlPatternRouter<String>();
+    router.add(".*", "all");
+    router.add("/admin/.*", "admin");
+    router.add("/admin/users\\.jsf", "users");
+    router.add("/admin/users", "usersWithoutExtension");
+    router.add("/user/.*|/admin/x.*", "alternatives");
+
+    assertEquals(Arrays.asList("all", "admin", "users"), router.getTargets("/admin/users.jsf"));
+    assertEquals(Arrays.asList("all", "admin", "usersWithoutExtension"), router.getTargets("/admin/users"));
+    assertEquals(Arrays.asList("all", "admin", "alternatives"), router.getTargets("/admin/x.jsf"));
+    assertEquals(Arrays.asList("all", "alternatives"), router.getTargets("/user/a.jsf"));
+    assertEquals(Arrays.asList("all"), router.getTargets("/index.jsf"));
+    assertEquals(Arrays.asList("all"), router.getTargets(""));
+  }
+
+  public void testNoMatch() {
+    UrlPatternRouter<String> router = new UrlPatternRouter<String>();
+    router.add("/admin/.*", "admin");
+
+    assertEquals(Collections.emptyList(), router.getTargets("/index.jsf"));
+    assertEquals(Collections.emptyList(), router.findTargets("/admin"));
+  }
+
+  public void testCacheGetsResetOnAdd() {
+    UrlPatternRouter<String> router = new UrlPatternRouter<String>(2);
+    router.add("/a.*", "a");
+
+    assertEquals(Arrays.asList("a"), router.getTargets("/ab"));
+    assertEquals(Arrays.asList("a"), router.getTargets("/ac"));
+    assertEquals(Arrays.asList("a"), router.getTargets("/ad"));
+
+    router.add("/ab", "ab");
+    assertEquals(Arrays.asList("a", "ab"), router.getTargets("/ab"));
+  }
+
+  public void testPatternCanBeAddedOnlyOnce() {
+    UrlPatternRouter<String> router = new UrlPatternRouter<String>();
+    router.add("/a.*", "a");
+    try {
+      router.add("/a.*", "b");
+      fail("The same pattern should not be accepted twice.");
+    } catch (NaviRuntimeException e) {
+      // ok
+    }
+  }
+
+}
@@ -0,0 +1,262 @@
+package org.pm4j.swing.pb;
+
+import java.awt.Container;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+
+import org.pm4j.core.pb.PbTableRowCache;
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmCommand;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmTable;
+import org.pm4j.swing.pb.base.PbComponentToPmBase;
+
+/**
+ * Presentation binder for {@link PmTable} PMs.
+ * <p>
+ * Presents the table rows using a {@link PmTableModel}. A click on a column
+ * header switches the sort order of the column using the PM sort command.
+ */
+public class PbJTable extends PbComponentToPmBase<JTable, PmTable<?>> {
+
+  @Override
+  public JTable makeView(Container parent, PmTable<?> pm) {
+    JTable table = new JTable();
+    table.setAutoCreateRowSorter(false);
+    parent.add(new JScrollPane(table));
+    return table;
+  }
+
+  @Override
+  protected PbBinding makeBinding(PmTable<?> pm) {
+    return new Binding();
+  }
+
+  protected class Binding extends PbComponentToPmBase<JTable, PmTable<?>>.Binding {
+    private PmTableModel tableModel;
+
+    /** Sorts by the PM of the clicked column. */
+    private final MouseAdapter headerClickListener = new MouseAdapter() {
+      @Override
+      public void mouseClicked(MouseEvent e) {
+        int viewCol = view.getTableHeader().columnAtPoint(e.getPoint());
+        if (viewCol >= 0 && tableModel != null) {
+          tableModel.sortByColumn(view.convertColumnIndexToModel(viewCol));
+        }
+      }
+    };
+
+    @Override
+    public void bind() {
+      super.bind();
+      tableModel = new PmTableModel(pm);
+      tableModel.setDispatchEventsToEdt(true);
+      view.setModel(tableModel);
+      if (view.getTableHeader() != null) {
+        view.getTableHeader().addMouseListener(headerClickListener);
+      }
+    }
+
+    @Override
+    public void unbind() {
+      super.unbind();
+      if (view.getTableHeader() != null) {
+        view.getTableHeader().removeMouseListener(headerClickListener);
+      }
+      if (tableModel != null) {
+        tableModel.dispose();
+        tableModel = null;
+      }
+    }
+  }
+
+  /**
+   * A table model that provides the rows of a {@link PmTable} block by block.
+   * <p>
+   * Only the row PMs of the requested blocks get created. See
+   * {@link PbTableRowCache} for the details of the block handling and the
+   * observed changes.<br>
+   * Changes of row PMs are reported as row or cell updates. Changes of the
+   * row set are reported as data change.
+   * <p>
+   * A {@link javax.swing.RowSorter} should not be used with this model: Sorting
+   * is done by the PM table.
+   * <p>
+   * Changes that are reported outside of the event dispatch thread get
+   * reported within the event dispatch thread if
+   * {@link #setDispatchEventsToEdt(boolean)} is switched on.
+   */
+  public static class PmTableModel extends AbstractTableModel implements PbTableRowCache.ChangeListener {
+
+    private static final long serialVersionUID = 1L;
+
+    protected final PmTable<?> pm;
+    private final PbTableRowCache rowCache;
+
+    private volatile boolean dispatchEventsToEdt;
+    private volatile boolean disposed;
+
+    public PmTableModel(PmTable<?> pm) {
+      this(pm, PbTableRowCache.DEFAULT_BLOCK_SIZE, PbTableRowCache.DEFAULT_MAX_CACHED_BLOCKS);
+    }
+
+    /**
+     * @param pm
+     *          The table to present.
+     * @param blockSize
+     *          The number of rows to load with a single collection query.
+     * @param maxCachedBlocks
+     *          The number of row blocks to keep. Should cover at least two
+     *          times the visible rows.
+     */
+    public PmTableModel(PmTable<?> pm, int blockSize, int maxCachedBlocks) {
+      this.pm = pm;
+      this.rowCache = new PbTableRowCache(pm, blockSize, maxCachedBlocks, this);
+    }
+
+    @Override
+    public int getRowCount() {
+      return rowCache.getRowCount();
+    }
+
+    @Override
+    public int getColumnCount() {
+      return rowCache.getColumns().size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+      return rowCache.getColumns().get(column).getPmTitle();
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+      return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int rowIndex, int columnIndex) {
+      PmObject cell = getCellPm(rowIndex, columnIndex);
+      return (cell instanceof PmAttr<?>)
+          ? ((PmAttr<?>) cell).getValueAsString()
+          : null;
+    }
+
+    @Override
+    public boolean isCellEditable(int rowIndex, int columnIndex) {
+      PmObject cell = getCellPm(rowIndex, columnIndex);
+      return (cell instanceof PmAttr<?>) &&
+             cell.isPmEnabled() &&
+             !cell.isPmReadonly();
+    }
+
+    @Override
+    public void setValueAt(Object aValue, int rowIndex, int columnIndex) {
+      PmObject cell = getCellPm(rowIndex, columnIndex);
+      if (cell instanceof PmAttr<?>) {
+        ((PmAttr<?>) cell).setValueAsString(aValue != null ? aValue.toString() : null);
+      }
+    }
+
+    /**
+     * See {@link PbTableRowCache#getRowPm(int)}.
+     */
+    public PmObject getRowPm(int rowIndex) {
+      return rowCache.getRowPm(rowIndex);
+    }
+
+    /**
+     * See {@link PbTableRowCache#getCellPm(int, int)}.
+     */
+    public PmObject getCellPm(int rowIndex, int columnIndex) {
+      return rowCache.getCellPm(rowIndex, columnIndex);
+    }
+
+    /**
+     * Switches the sort order of the given column using the sort command of the column PM.<br>
+     * The sort operation is done by the table PM.
+     *
+     * @param columnIndex The model index of the column.
+     */
+    public void sortByColumn(int columnIndex) {
+      PmCommand cmdSort = rowCache.getColumns().get(columnIndex).getCmdSort();
+      if (cmdSort != null && cmdSort.isPmEnabled()) {
+        cmdSort.doIt();
+      }
+    }
+
+    /**
+     * @return The row cache used by this model.
+     */
+    public PbTableRowCache getRowCache() {
+      return rowCache;
+    }
+
+    /**
+     * Defines if changes that are reported outside of the event dispatch
+     * thread get reported later within the event dispatch thread.<br>
+     * Is switched off by default. That allows to use the model within a
+     * single test thread.
+     *
+     * @param dispatchEventsToEdt <code>true</code> switches the dispatching on.
+     */
+    public void setDispatchEventsToEdt(boolean dispatchEventsToEdt) {
+      this.dispatchEventsToEdt = dispatchEventsToEdt;
+    }
+
+    /**
+     * Removes the listeners that were registered by this model.
+     */
+    public void dispose() {
+      disposed = true;
+      rowCache.dispose();
+    }
+
+    @Override
+    public void onRowsReset() {
+      if (dispatchEventsToEdt && !SwingUtilities.isEventDispatchThread()) {
+        SwingUtilities.invokeLater(new Runnable() {
+          @Override
+          public void run() {
+            // Not reported after disposing.
+            if (!disposed) {
+              onRowsReset();
+            }
+          }
+        });
+        return;
+      }
+
+      fireTableDataChanged();
+    }
+
+    @Override
+    public void onRowChanged(final int rowIdx, final PmObject rowPm, final int columnIdx) {
+      if (dispatchEventsToEdt && !SwingUtilities.isEventDispatchThread()) {
+        SwingUtilities.invokeLater(new Runnable() {
+          @Override
+          public void run() {
+            // Not reported after disposing.
+            if (!disposed) {
+              onRowChanged(rowIdx, rowPm, columnIdx);
+            }
+          }
+        });
+        return;
+      }
+
+      if (columnIdx >= 0) {
+        fireTableCellUpdated(rowIdx, columnIdx);
+      }
+      else {
+        fireTableRowsUpdated(rowIdx, rowIdx);
+      }
+    }
+  }
+
+}
@@ -1,15 +1,31 @@
 package org.pm4j.swing.pb;
 
 import java.awt.Container;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import javax.swing.JTree;
+import javax.swing.SwingUtilities;
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.event.TreeModelEvent;
 import javax.swing.event.TreeModelListener;
+import javax.swing.event.TreeSelectionEvent;
+import javax.swing.event.TreeSelectionListener;
 import javax.swing.tree.TreeModel;
 import javax.swing.tree.TreePath;
 
-import org.apache.commons.lang.ObjectUtils;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.PmTreeNode;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.impl.PmLazyTreeNodeChildren;
 import org.pm4j.swing.pb.base.PbComponentToPmBase;
 
 public class PbJTree extends PbComponentToPmBase<JTree, PmTreeNode> {
@@ -26,18 +42,104 @@ public class PbJTree extends PbComponentToPmBase<JTree, PmTreeNode> {
     return new Binding();
   }
   
-  protected class Binding extends PbComponentToPmBase<JTree, PmTreeNode>.Binding {
+  protected class Binding extends PbComponentToPmBase<JTree, PmTreeNode>.Binding
+      implements TreeSelectionListener {
+    private PmTreeModel treeModel;
+
     @Override
     public void bind() {
       super.bind();
-      view.setModel(new PmTreeModel(pm));
+      treeModel = new PmTreeModel(pm);
+      // Lazy nodes may report loaded child nodes within a background thread.
+      treeModel.setDispatchEventsToEdt(true);
+      view.setModel(treeModel);
+      view.addTreeExpansionListener(treeModel);
+      view.addTreeSelectionListener(this);
+    }
+
+    @Override
+    public void unbind() {
+      super.unbind();
+      view.removeTreeSelectionListener(this);
+      if (treeModel != null) {
+        view.removeTreeExpansionListener(treeModel);
+        treeModel.releaseCachedChildNodes();
+        treeModel = null;
+      }
+    }
+
+    /**
+     * Applies PM events that are fired outside of the event dispatch thread
+     * within the event dispatch thread.
+     */
+    @Override
+    public void handleEvent(final PmEvent event) {
+      if (SwingUtilities.isEventDispatchThread()) {
+        super.handleEvent(event);
+      }
+      else {
+        SwingUtilities.invokeLater(new Runnable() {
+          @Override
+          public void run() {
+            // Not applied after unbinding.
+            if (treeModel != null) {
+              Binding.super.handleEvent(event);
+            }
+          }
+        });
+      }
+    }
+
+    /**
+     * A selected placeholder of a lazy node loads the next child node page.
+     */
+    @Override
+    public void valueChanged(TreeSelectionEvent e) {
+      TreePath path = e.getNewLeadSelectionPath();
+      Object node = (path != null) ? path.getLastPathComponent() : null;
+      if (node instanceof PmLazyTreeNodeChildren.Placeholder) {
+        ((PmLazyTreeNodeChildren.Placeholder) node).requestLoad();
+      }
     }
   }
   
-  public static class PmTreeModel implements TreeModel {
+  /**
+   * A tree model that presents a {@link PmTreeNode} hierarchy.
+   * <p>
+   * The child node lists are cached for each node that was asked for its
+   * children. The index of a child within its parent gets resolved by an
+   * identity map.<br>
+   * Changes of the PM hierarchy are reported as fine grained
+   * {@link TreeModelEvent}s: Added or removed child nodes are reported as
+   * inserted or removed nodes. Other changes of a node are reported as node
+   * changes. Only unclear child list changes cause a structure change event
+   * for the parent node.
+   * <p>
+   * The caches of a collapsed subtree get released if the model is registered
+   * as {@link TreeExpansionListener} of the tree.
+   * <p>
+   * Like all Swing models, the model expects to be used within the event
+   * dispatch thread. PM events that are fired by other threads get passed to
+   * the event dispatch thread if {@link #setDispatchEventsToEdt(boolean)} is
+   * switched on.
+   */
+  public static class PmTreeModel implements TreeModel, TreeExpansionListener {
+
+    /** Events that may change the child node set of a node. */
+    private static final int CHILD_SET_CHANGE_EVENTS = PmEvent.VALUE_CHANGE | PmEvent.RELOAD;
 
     protected final PmTreeNode pm;
-    
+
+    private final EventListenerList listenerList = new EventListenerList();
+
+    /** The cached child node lists of all nodes that were asked for their children. */
+    private final Map<PmTreeNode, NodeCache> nodeToCacheMap = new IdentityHashMap<PmTreeNode, NodeCache>();
+
+    /** Maps each child within a cached child list to its tree parent. */
+    private final Map<PmTreeNode, PmTreeNode> childToParentMap = new IdentityHashMap<PmTreeNode, PmTreeNode>();
+
+    private volatile boolean dispatchEventsToEdt;
+
     public PmTreeModel(PmTreeNode pm) {
       this.pm = pm;
     }
@@ -49,7 +151,7 @@ public class PbJTree extends PbComponentToPmBase<JTree, PmTreeNode> {
 
     @Override
     public Object getChild(Object parent, int index) {
-      List<PmTreeNode> childList = getChildModels(parent);
+      List<PmTreeNode> childList = getNodeCache(parent).children;
       if (index >= childList.size()) {
         // This method should not return null. So we provide
         // the last item or this instance as a replacement...
@@ -62,7 +164,7 @@ public class PbJTree extends PbComponentToPmBase<JTree, PmTreeNode> {
 
     @Override
     public int getChildCount(Object parent) {
-      return getChildModels(parent).size();
+      return getNodeCache(parent).children.size();
     }
 
     @Override
@@ -72,34 +174,346 @@ public class PbJTree extends PbComponentToPmBase<JTree, PmTreeNode> {
 
     @Override
     public void valueForPathChanged(TreePath path, Object newValue) {
-      // TODO Auto-generated method stub
+      // The node values are not editable.
     }
 
     @Override
     public int getIndexOfChild(Object parent, Object child) {
-      int i = 0;
-      for (PmTreeNode n : getChildModels(parent)) {
-        if (ObjectUtils.equals(n, child)) {
-          return i;
-        }
-        ++i;
+      if (parent == null || child == null) {
+        return -1;
       }
-      return -1;
+      return getNodeCache(parent).indexOf(child);
     }
 
     @Override
     public void addTreeModelListener(TreeModelListener l) {
-      // TODO Auto-generated method stub
+      listenerList.add(TreeModelListener.class, l);
     }
 
     @Override
     public void removeTreeModelListener(TreeModelListener l) {
-      // TODO Auto-generated method stub
+      listenerList.remove(TreeModelListener.class, l);
+    }
+
+    @Override
+    public void treeExpanded(TreeExpansionEvent event) {
+      // The child nodes get cached on the first request.
+    }
+
+    /**
+     * Releases the cached child nodes of the collapsed subtree.
+     */
+    @Override
+    public void treeCollapsed(TreeExpansionEvent event) {
+      Object node = event.getPath().getLastPathComponent();
+      if (node instanceof PmTreeNode) {
+        releaseCachedChildNodes((PmTreeNode) node);
+      }
+    }
+
+    /**
+     * Releases the cached child nodes of the given node and its sub nodes.<br>
+     * The child nodes will be re-read on the next request.
+     *
+     * @param node The root node of the subtree to release.
+     */
+    public void releaseCachedChildNodes(PmTreeNode node) {
+      NodeCache c = nodeToCacheMap.remove(node);
+      if (c != null) {
+        PmEventApi.removePmEventListener(node, c);
+        for (PmTreeNode child : c.children) {
+          childToParentMap.remove(child);
+          releaseCachedChildNodes(child);
+        }
+      }
+    }
+
+    /**
+     * Releases all cached child nodes and PM event listeners.
+     */
+    public void releaseCachedChildNodes() {
+      releaseCachedChildNodes(pm);
     }
 
+    /**
+     * Defines if PM events that are received outside of the event dispatch
+     * thread get handled later within the event dispatch thread.<br>
+     * Is switched off by default. That allows to use the model within a
+     * single test thread.
+     *
+     * @param dispatchEventsToEdt <code>true</code> switches the dispatching on.
+     */
+    public void setDispatchEventsToEdt(boolean dispatchEventsToEdt) {
+      this.dispatchEventsToEdt = dispatchEventsToEdt;
+    }
+
+    /**
+     * @return The number of nodes having a cached child node list.
+     */
+    public int getCachedNodeCount() {
+      return nodeToCacheMap.size();
+    }
+
+    /**
+     * Reads the child nodes of the given parent node.<br>
+     * Gets called only if the child nodes of the parent are not yet cached
+     * or if the parent reported a change.
+     *
+     * @param parent The parent node.
+     * @return The child node list.
+     */
     protected List<PmTreeNode> getChildModels(Object parent) {
       return ((PmTreeNode)parent).getPmChildNodes();
     }
+
+    private NodeCache getNodeCache(Object parent) {
+      NodeCache c = nodeToCacheMap.get(parent);
+      if (c == null) {
+        PmTreeNode parentNode = (PmTreeNode) parent;
+        c = new NodeCache(parentNode);
+        c.setChildren(readChildModels(parentNode));
+        nodeToCacheMap.put(parentNode, c);
+        PmEventApi.addWeakHierarchyListener(parentNode, PmEvent.ALL_CHANGE_EVENTS, c);
+      }
+      return c;
+    }
+
+    private List<PmTreeNode> readChildModels(PmTreeNode parent) {
+      List<PmTreeNode> list = getChildModels(parent);
+      return (list != null && !list.isEmpty())
+          ? new ArrayList<PmTreeNode>(list)
+          : Collections.<PmTreeNode>emptyList();
+    }
+
+    /**
+     * @return The path from the root to the given node. <code>null</code> if the node is not a visible part of the tree.
+     */
+    private TreePath getPathToNode(PmTreeNode node) {
+      LinkedList<Object> path = new LinkedList<Object>();
+      for (PmTreeNode n = node; n != null; n = childToParentMap.get(n)) {
+        path.addFirst(n);
+        if (n == pm) {
+          return new TreePath(path.toArray());
+        }
+      }
+      return null;
+    }
+
+    /**
+     * Reads the children of the given node and reports the differences to the
+     * cached child list.
+     *
+     * @return <code>true</code> if the child set was changed.
+     */
+    private boolean refreshChildren(NodeCache c) {
+      List<PmTreeNode> oldChildren = c.children;
+      List<PmTreeNode> newChildren = readChildModels(c.node);
+      if (isSameList(oldChildren, newChildren)) {
+        return false;
+      }
+
+      TreePath parentPath = getPathToNode(c.node);
+      List<PmTreeNode> removed = new ArrayList<PmTreeNode>();
+      int[] removedIdx = findMissingItems(oldChildren, newChildren, removed);
+      int[] insertedIdx = (removedIdx == null)
+          ? findMissingItems(newChildren, oldChildren, null)
+          : null;
+
+      for (PmTreeNode child : oldChildren) {
+        childToParentMap.remove(child);
+      }
+      c.setChildren(newChildren);
+
+      if (removedIdx != null) {
+        for (PmTreeNode child : removed) {
+          releaseCachedChildNodes(child);
+        }
+        if (parentPath != null) {
+          fireTreeNodesRemoved(new TreeModelEvent(this, parentPath, removedIdx, removed.toArray()));
+        }
+      }
+      else if (insertedIdx != null) {
+        if (parentPath != null) {
+          Object[] inserted = new Object[insertedIdx.length];
+          for (int i = 0; i < insertedIdx.length; ++i) {
+            inserted[i] = newChildren.get(insertedIdx[i]);
+          }
+          fireTreeNodesInserted(new TreeModelEvent(this, parentPath, insertedIdx, inserted));
+        }
+      }
+      else {
+        // Items were exchanged or moved. The cached subtrees may be outdated.
+        for (PmTreeNode child : oldChildren) {
+          releaseCachedChildNodes(child);
+        }
+        if (parentPath != null) {
+          fireTreeStructureChanged(new TreeModelEvent(this, parentPath));
+        }
+      }
+      return true;
+    }
+
+    /** Reports a change of the given node. */
+    private void fireNodeChanged(PmTreeNode node) {
+      if (node == pm) {
+        fireTreeNodesChanged(new TreeModelEvent(this, new Object[] { pm }, null, null));
+      }
+      else {
+        PmTreeNode parent = childToParentMap.get(node);
+        TreePath parentPath = (parent != null) ? getPathToNode(parent) : null;
+        if (parentPath != null) {
+          int idx = nodeToCacheMap.get(parent).indexOf(node);
+          fireTreeNodesChanged(new TreeModelEvent(this, parentPath, new int[] { idx }, new Object[] { node }));
+        }
+      }
+    }
+
+    protected void fireTreeNodesChanged(TreeModelEvent e) {
+      for (TreeModelListener l : listenerList.getListeners(TreeModelListener.class)) {
+        l.treeNodesChanged(e);
+      }
+    }
+
+    protected void fireTreeNodesInserted(TreeModelEvent e) {
+      for (TreeModelListener l : listenerList.getListeners(TreeModelListener.class)) {
+        l.treeNodesInserted(e);
+      }
+    }
+
+    protected void fireTreeNodesRemoved(TreeModelEvent e) {
+      for (TreeModelListener l : listenerList.getListeners(TreeModelListener.class)) {
+        l.treeNodesRemoved(e);
+      }
+    }
+
+    protected void fireTreeStructureChanged(TreeModelEvent e) {
+      for (TreeModelListener l : listenerList.getListeners(TreeModelListener.class)) {
+        l.treeStructureChanged(e);
+      }
+    }
+
+    private static boolean isSameList(List<PmTreeNode> l1, List<PmTreeNode> l2) {
+      if (l1.size() != l2.size()) {
+        return false;
+      }
+      for (int i = 0; i < l1.size(); ++i) {
+        if (l1.get(i) != l2.get(i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Checks if <code>subList</code> is an ordered sub set of <code>list</code>.
+     *
+     * @param list The complete list.
+     * @param subList The list that may miss some items of <code>list</code>.
+     * @param missingItems Optional. Gets the missing items.
+     * @return The ascending indices of the items of <code>list</code> that are
+     *         missing in <code>subList</code>. <code>null</code> if
+     *         <code>subList</code> is not an ordered sub set of <code>list</code>.
+     */
+    private static int[] findMissingItems(List<PmTreeNode> list, List<PmTreeNode> subList, List<PmTreeNode> missingItems) {
+      int missingCount = list.size() - subList.size();
+      if (missingCount <= 0) {
+        return null;
+      }
+      int[] missingIdx = new int[missingCount];
+      int m = 0;
+      int j = 0;
+      for (int i = 0; i < list.size(); ++i) {
+        if (j < subList.size() && list.get(i) == subList.get(j)) {
+          ++j;
+        }
+        else {
+          if (m == missingCount) {
+            return null;
+          }
+          missingIdx[m++] = i;
+          if (missingItems != null) {
+            missingItems.add(list.get(i));
+          }
+        }
+      }
+      return missingIdx;
+    }
+
+    /**
+     * The cached child node list of a node.<br>
+     * Observes the PM events of the node and its PM sub tree.
+     */
+    private class NodeCache implements PmEventListener {
+      final PmTreeNode node;
+      List<PmTreeNode> children;
+      /** Gets created on the first index request. */
+      Map<PmTreeNode, Integer> childToIndexMap;
+
+      NodeCache(PmTreeNode node) {
+        this.node = node;
+      }
+
+      void setChildren(List<PmTreeNode> children) {
+        this.children = children;
+        this.childToIndexMap = null;
+        for (PmTreeNode child : children) {
+          childToParentMap.put(child, node);
+        }
+      }
+
+      int indexOf(Object child) {
+        if (childToIndexMap == null) {
+          Map<PmTreeNode, Integer> map = new IdentityHashMap<PmTreeNode, Integer>(children.size());
+          for (int i = 0; i < children.size(); ++i) {
+            map.put(children.get(i), i);
+          }
+          childToIndexMap = map;
+        }
+        Integer idx = childToIndexMap.get(child);
+        return idx != null ? idx.intValue() : -1;
+      }
+
+      /**
+       * Handles the events of the PM sub tree that are not handled by a nearer
+       * cached node.
+       */
+      @Override
+      public void handleEvent(final PmEvent event) {
+        if (dispatchEventsToEdt && !SwingUtilities.isEventDispatchThread()) {
+          SwingUtilities.invokeLater(new Runnable() {
+            @Override
+            public void run() {
+              handleEvent(event);
+            }
+          });
+          return;
+        }
+
+        PmTreeNode changedChild = null;
+        for (PmObject p = event.pm; p != node; p = p.getPmParent()) {
+          if (p == null || nodeToCacheMap.containsKey(p)) {
+            // Not part of this subtree or handled by a nearer cached node.
+            return;
+          }
+          if (changedChild == null && childToParentMap.get(p) == node) {
+            changedChild = (PmTreeNode) p;
+          }
+        }
+
+        if (nodeToCacheMap.get(node) != this) {
+          // Released in the meantime.
+          return;
+        }
+
+        if ((event.getChangeMask() & CHILD_SET_CHANGE_EVENTS) != 0 &&
+            refreshChildren(this) &&
+            changedChild == null) {
+          return;
+        }
+
+        fireNodeChanged(changedChild != null ? changedChild : node);
+      }
+    }
   }
   
 }
@@ -14,6 +14,7 @@ public class PbSwingBinderSet implements Cloneable {
   public PbFactory<?> labelBuilder;
   public PbJLabel          pbLabel          = new PbJLabel();
   public PbJListForOptions pbListForOptions = new PbJListForOptions();
+  public PbJTable          pbTable          = new PbJTable();
   public PbJTextField      pbTextField      = new PbJTextField();
 
   // TODO olaf: copy Pb's instead of distributing references.
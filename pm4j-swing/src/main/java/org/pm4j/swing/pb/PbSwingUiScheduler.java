@@ -0,0 +1,24 @@
+package org.pm4j.swing.pb;
+
+import javax.swing.SwingUtilities;
+
+import org.pm4j.core.pb.PbUiScheduler;
+
+/**
+ * Executes the tasks using {@link SwingUtilities#invokeLater(Runnable)}.
+ * <p>
+ * May be used to coalesce the PM events that are fired within a single Swing
+ * event handling.
+ *
+ * @author olaf boede
+ */
+public class PbSwingUiScheduler implements PbUiScheduler {
+
+  public static final PbSwingUiScheduler INSTANCE = new PbSwingUiScheduler();
+
+  @Override
+  public void schedule(Runnable task) {
+    SwingUtilities.invokeLater(task);
+  }
+
+}
@@ -0,0 +1,160 @@
+package org.pm4j.swing.pb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TableModelEvent;
+import javax.swing.event.TableModelListener;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmAttrString;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmTableCol;
+import org.pm4j.core.pm.annotation.PmBeanCfg;
+import org.pm4j.core.pm.annotation.PmBoolean;
+import org.pm4j.core.pm.annotation.PmFactoryCfg;
+import org.pm4j.core.pm.annotation.PmTableColCfg;
+import org.pm4j.core.pm.impl.PmAttrStringImpl;
+import org.pm4j.core.pm.impl.PmBeanImpl;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmTableColImpl;
+import org.pm4j.core.pm.impl.PmTableImpl;
+import org.pm4j.swing.pb.PbJTable.PmTableModel;
+
+public class PbJTableModelTest {
+
+  private final List<RowBean> beans = new ArrayList<RowBean>();
+  private TablePm tablePm;
+  private PmTableModel model;
+  private final List<TableModelEvent> events = new ArrayList<TableModelEvent>();
+
+  @Before
+  public void setUp() {
+    for (int i = 0; i < 1000; ++i) {
+      beans.add(new RowBean(String.format("r%03d", i)));
+    }
+    tablePm = new TablePm(new PmConversationImpl());
+    model = new PmTableModel(tablePm, 10, 3);
+    model.addTableModelListener(new TableModelListener() {
+      @Override
+      public void tableChanged(TableModelEvent e) {
+        events.add(e);
+      }
+    });
+  }
+
+  @Test
+  public void testOnlyRequestedBlocksGetMaterialized() {
+    assertEquals(1000, model.getRowCount());
+    assertEquals(2, model.getColumnCount());
+    assertEquals(0, model.getRowCache().getCachedRowCount());
+
+    assertEquals("r005", model.getValueAt(5, 0));
+    assertEquals(1, model.getRowCache().getBlockLoadCount());
+    assertEquals(10, model.getRowCache().getCachedRowCount());
+
+    assertEquals("r505", model.getValueAt(505, 0));
+    assertEquals("r505 text", model.getValueAt(505, 1));
+    assertEquals(2, model.getRowCache().getBlockLoadCount());
+    assertEquals(20, model.getRowCache().getCachedRowCount());
+  }
+
+  @Test
+  public void testCellChangeGetsReportedAsCellUpdate() {
+    RowPm row = (RowPm) model.getRowPm(42);
+    row.description.setValue("changed");
+
+    TableModelEvent e = events.get(0);
+    assertEquals(42, e.getFirstRow());
+    assertEquals(42, e.getLastRow());
+    assertEquals(1, e.getColumn());
+    for (TableModelEvent followingEvent : events) {
+      assertEquals("The changed state change concerns the same row.", 42, followingEvent.getLastRow());
+    }
+    assertEquals("changed", model.getValueAt(42, 1));
+  }
+
+  @Test
+  public void testCellEditUsesTheAttribute() {
+    model.setValueAt("edited", 7, 1);
+    assertEquals("edited", beans.get(7).description);
+    assertSame(model.getRowPm(7), model.getCellPm(7, 1).getPmParent());
+  }
+
+  @Test
+  public void testSortIsDoneByTheTablePm() {
+    assertEquals("r000", model.getValueAt(0, 0));
+
+    model.sortByColumn(0);
+    model.sortByColumn(0);
+    assertEquals(TableModelEvent.UPDATE, events.get(events.size() - 1).getType());
+    assertEquals(Integer.MAX_VALUE, events.get(events.size() - 1).getLastRow());
+    assertEquals("r999", model.getValueAt(0, 0));
+    assertEquals(1000, model.getRowCount());
+  }
+
+  @Test
+  public void testChangesOfOtherThreadsGetDispatchedToTheEdt() throws Exception {
+    model.setDispatchEventsToEdt(true);
+    final boolean[] firedInEdt = new boolean[1];
+    model.addTableModelListener(new TableModelListener() {
+      @Override
+      public void tableChanged(TableModelEvent e) {
+        firedInEdt[0] = SwingUtilities.isEventDispatchThread();
+      }
+    });
+    RowPm row = (RowPm) model.getRowPm(42);
+    row.description.setValue("changed");
+    assertTrue("Not reported before the EDT handles it.", events.isEmpty());
+
+    // Waits for the dispatched event.
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+      }
+    });
+    assertEquals(42, events.get(0).getFirstRow());
+    assertTrue(firedInEdt[0]);
+  }
+
+  @PmFactoryCfg(beanPmClasses=RowPm.class)
+  public class TablePm extends PmTableImpl<RowPm, RowBean> {
+    @PmTableColCfg(sortable=PmBoolean.TRUE)
+    public final PmTableCol name = new PmTableColImpl(this);
+    public final PmTableCol description = new PmTableColImpl(this);
+
+    public TablePm(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    @Override
+    protected Collection<RowBean> getPmBeansImpl() {
+      return beans;
+    }
+  }
+
+  @PmBeanCfg(beanClass=RowBean.class)
+  public static class RowPm extends PmBeanImpl<RowBean> {
+    public final PmAttrString name = new PmAttrStringImpl(this);
+    public final PmAttrString description = new PmAttrStringImpl(this);
+  }
+
+  public static class RowBean {
+    public String name;
+    public String description;
+
+    public RowBean(String name) {
+      this.name = name;
+      this.description = name + " text";
+    }
+  }
+
+}
@@ -0,0 +1,214 @@
+package org.pm4j.swing.pb;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.SwingUtilities;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreePath;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmTreeNode;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.impl.PmConversationImpl;
+import org.pm4j.core.pm.impl.PmElementImpl;
+import org.pm4j.swing.pb.PbJTree.PmTreeModel;
+
+public class PbJTreeModelTest {
+
+  private Node root;
+  private Node a, b, c;
+  private PmTreeModel model;
+  private EventRecorder events;
+
+  @Before
+  public void setUp() {
+    root = new Node(new PmConversationImpl());
+    a = root.addChild();
+    b = root.addChild();
+    c = root.addChild();
+    a.addChild();
+    a.addChild();
+
+    model = new PmTreeModel(root);
+    events = new EventRecorder();
+    model.addTreeModelListener(events);
+  }
+
+  @Test
+  public void testChildListGetsCached() {
+    assertEquals(3, model.getChildCount(root));
+    assertSame(b, model.getChild(root, 1));
+    assertEquals(2, model.getIndexOfChild(root, c));
+    assertEquals(-1, model.getIndexOfChild(root, a.kids.get(0)));
+    assertEquals(2, model.getChildCount(a));
+
+    assertEquals(1, root.childNodeCalls);
+    assertEquals(1, a.childNodeCalls);
+    assertEquals(2, model.getCachedNodeCount());
+  }
+
+  @Test
+  public void testInsertedNodesGetReported() {
+    model.getChildCount(root);
+    Node d = root.addChild();
+    PmEventApi.firePmEvent(root, PmEvent.VALUE_CHANGE);
+
+    assertEquals("inserted", events.kind);
+    assertArrayEquals(new Object[] { root }, events.event.getPath());
+    assertArrayEquals(new int[] { 3 }, events.event.getChildIndices());
+    assertArrayEquals(new Object[] { d }, events.event.getChildren());
+    assertEquals(4, model.getChildCount(root));
+    assertEquals(3, model.getIndexOfChild(root, d));
+  }
+
+  @Test
+  public void testRemovedNodesGetReported() {
+    model.getChildCount(root);
+    model.getChildCount(a);
+    root.kids.remove(a);
+    root.kids.remove(c);
+    PmEventApi.firePmEvent(root, PmEvent.VALUE_CHANGE);
+
+    assertEquals("removed", events.kind);
+    assertArrayEquals(new int[] { 0, 2 }, events.event.getChildIndices());
+    assertArrayEquals(new Object[] { a, c }, events.event.getChildren());
+    assertEquals(0, model.getIndexOfChild(root, b));
+    assertEquals("The cache of the removed node is released.", 1, model.getCachedNodeCount());
+  }
+
+  @Test
+  public void testMovedNodesCauseStructureChange() {
+    model.getChildCount(root);
+    root.kids.remove(a);
+    root.kids.add(a);
+    PmEventApi.firePmEvent(root, PmEvent.VALUE_CHANGE);
+
+    assertEquals("structure", events.kind);
+    assertArrayEquals(new Object[] { root }, events.event.getPath());
+    assertEquals(2, model.getIndexOfChild(root, a));
+  }
+
+  @Test
+  public void testChangeOfNestedNodeGetsReportedAsNodeChange() {
+    model.getChildCount(root);
+    model.getChildCount(a);
+    Node a0 = a.kids.get(0);
+    PmEventApi.firePmEvent(a0, PmEvent.TITLE_CHANGE);
+
+    assertEquals("changed", events.kind);
+    assertEquals(1, events.count);
+    assertArrayEquals(new Object[] { root, a }, events.event.getPath());
+    assertArrayEquals(new int[] { 0 }, events.event.getChildIndices());
+  }
+
+  @Test
+  public void testEventsOfOtherThreadsGetDispatchedToTheEdt() throws Exception {
+    model.setDispatchEventsToEdt(true);
+    final boolean[] firedInEdt = new boolean[1];
+    model.addTreeModelListener(new EventRecorder() {
+      @Override
+      public void treeNodesInserted(TreeModelEvent e) {
+        firedInEdt[0] = SwingUtilities.isEventDispatchThread();
+      }
+    });
+    model.getChildCount(root);
+    root.addChild();
+    PmEventApi.firePmEvent(root, PmEvent.VALUE_CHANGE);
+
+    // Waits for the dispatched event.
+    SwingUtilities.invokeAndWait(new Runnable() {
+      @Override
+      public void run() {
+      }
+    });
+    assertEquals("inserted", events.kind);
+    assertTrue(firedInEdt[0]);
+  }
+
+  @Test
+  public void testCollapseReleasesSubtreeCaches() {
+    model.getChildCount(root);
+    model.getChildCount(a);
+    model.getChildCount(a.kids.get(0));
+    assertEquals(3, model.getCachedNodeCount());
+
+    model.treeCollapsed(new TreeExpansionEvent(this, new TreePath(new Object[] { root, a })));
+    assertEquals(1, model.getCachedNodeCount());
+
+    // Changes within the released subtree are not reported.
+    a.addChild();
+    PmEventApi.firePmEvent(a, PmEvent.VALUE_CHANGE);
+    assertEquals("changed", events.kind);
+    assertArrayEquals(new Object[] { a }, events.event.getChildren());
+
+    assertEquals(3, model.getChildCount(a));
+    assertEquals(2, a.childNodeCalls);
+  }
+
+  /** A tree node with a modifiable child list. */
+  static class Node extends PmElementImpl {
+    final List<Node> kids = new ArrayList<Node>();
+    int childNodeCalls;
+
+    Node(PmObject pmParent) {
+      super(pmParent);
+    }
+
+    Node addChild() {
+      Node n = new Node(this);
+      kids.add(n);
+      return n;
+    }
+
+    @Override
+    public List<PmTreeNode> getPmChildNodes() {
+      ++childNodeCalls;
+      return new ArrayList<PmTreeNode>(kids);
+    }
+  }
+
+  /** Remembers the last tree model event. */
+  static class EventRecorder implements TreeModelListener {
+    String kind;
+    TreeModelEvent event;
+    int count;
+
+    private void record(String kind, TreeModelEvent e) {
+      this.kind = kind;
+      this.event = e;
+      ++count;
+    }
+
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+      record("changed", e);
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+      record("inserted", e);
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+      record("removed", e);
+    }
+
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+      record("structure", e);
+    }
+  }
+
+}
@@ -0,0 +1,31 @@
+package org.pm4j.swt.pb;
+
+import org.eclipse.swt.widgets.Display;
+import org.pm4j.core.pb.PbUiScheduler;
+
+/**
+ * Executes the tasks using {@link Display#asyncExec(Runnable)}.
+ * <p>
+ * May be used to coalesce the PM events that are fired within a single SWT
+ * event handling.
+ *
+ * @author olaf boede
+ */
+public class PbSwtUiScheduler implements PbUiScheduler {
+
+  private final Display display;
+
+  /**
+   * @param display The display that provides the UI thread.
+   */
+  public PbSwtUiScheduler(Display display) {
+    assert display != null;
+    this.display = display;
+  }
+
+  @Override
+  public void schedule(Runnable task) {
+    display.asyncExec(task);
+  }
+
+}
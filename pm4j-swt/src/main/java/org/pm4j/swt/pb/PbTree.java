@@ -2,21 +2,29 @@ package org.pm4j.swt.pb;
 
 import java.util.List;
 
+import org.eclipse.jface.viewers.ISelectionChangedListener;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.SelectionChangedEvent;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.swt.events.MouseAdapter;
 import org.eclipse.swt.events.MouseEvent;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeItem;
 import org.pm4j.core.pm.PmCommand;
 import org.pm4j.core.pm.PmCommand.CommandSet;
 import org.pm4j.core.pm.PmEvent;
+import org.pm4j.core.pm.PmEventListener;
+import org.pm4j.core.pm.PmLazyTreeNode;
 import org.pm4j.core.pm.PmObject;
 import org.pm4j.core.pm.PmTreeNode;
+import org.pm4j.core.pm.api.PmEventApi;
+import org.pm4j.core.pm.impl.PmLazyTreeNodeChildren;
 import org.pm4j.core.pm.impl.PmUtil;
 import org.pm4j.swt.pb.base.PbViewerToPmBase;
 
@@ -58,12 +66,87 @@ public class PbTree extends PbViewerToPmBase<TreeViewer, Tree, PmTreeNode>  {
   /**
    * Handles PM events as well as the SWT modification and focus event.
    */
-  public class Binding extends PbViewerToPmBase<TreeViewer, Tree, PmTreeNode>.Binding {
+  public class Binding extends PbViewerToPmBase<TreeViewer, Tree, PmTreeNode>.Binding
+      implements ISelectionChangedListener {
+
+    /** Refreshes the sub trees of lazy nodes that completed a child load operation. */
+    private final PmEventListener lazyNodeListener = new PmEventListener() {
+      @Override
+      public void handleEvent(final PmEvent event) {
+        if (event.pm instanceof PmLazyTreeNode && event.pm != pm) {
+          runInUiThread(new Runnable() {
+            @Override
+            public void run() {
+              viewer.refresh(event.pm);
+            }
+          });
+        }
+      }
+    };
+
+    /**
+     * Applies PM events that are fired outside of the UI thread (e.g. by a
+     * background child node load) within the UI thread.
+     */
+    @Override
+    public void handleEvent(final PmEvent event) {
+      runInUiThread(new Runnable() {
+        @Override
+        public void run() {
+          Binding.super.handleEvent(event);
+        }
+      });
+    }
+
+    /**
+     * Executes the task immediately if the caller is the UI thread of the tree.
+     * Otherwise it gets passed to the UI thread. It will not be executed if the
+     * tree gets disposed in the meantime.
+     */
+    private void runInUiThread(final Runnable task) {
+      if (view.isDisposed()) {
+        return;
+      }
+      Display display = view.getDisplay();
+      if (display.getThread() == Thread.currentThread()) {
+        task.run();
+      }
+      else {
+        display.asyncExec(new Runnable() {
+          @Override
+          public void run() {
+            if (!view.isDisposed()) {
+              task.run();
+            }
+          }
+        });
+      }
+    }
 
     @Override
     public void bind() {
       super.bind();
       viewer.setInput(pm);
+      viewer.addSelectionChangedListener(this);
+      PmEventApi.addWeakHierarchyListener(pm, PmEvent.VALUE_CHANGE, lazyNodeListener);
+    }
+
+    @Override
+    public void unbind() {
+      super.unbind();
+      PmEventApi.removePmEventListener(pm, lazyNodeListener);
+      viewer.removeSelectionChangedListener(this);
+    }
+
+    /**
+     * A selected placeholder of a lazy node loads the next child node page.
+     */
+    @Override
+    public void selectionChanged(SelectionChangedEvent event) {
+      Object selected = ((IStructuredSelection) event.getSelection()).getFirstElement();
+      if (selected instanceof PmLazyTreeNodeChildren.Placeholder) {
+        ((PmLazyTreeNodeChildren.Placeholder) selected).requestLoad();
+      }
     }
 
     @Override
@@ -114,6 +197,10 @@ public class PbTree extends PbViewerToPmBase<TreeViewer, Tree, PmTreeNode>  {
     }
 
     public boolean hasChildren(Object element) {
+      // Lazy nodes provide a hint that does not load the child nodes.
+      if (element instanceof PmLazyTreeNode) {
+        return !((PmLazyTreeNode) element).isPmTreeLeaf();
+      }
       return getChildren(element).length > 0;
     }
 
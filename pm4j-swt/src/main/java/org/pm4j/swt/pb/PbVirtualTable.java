@@ -0,0 +1,278 @@
+package org.pm4j.swt.pb;
+
+import java.util.List;
+
+import org.eclipse.jface.viewers.ILazyContentProvider;
+import org.eclipse.jface.viewers.ITableLabelProvider;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.TableColumn;
+import org.pm4j.core.pb.PbTableRowCache;
+import org.pm4j.core.pm.PmAttr;
+import org.pm4j.core.pm.PmCommand;
+import org.pm4j.core.pm.PmObject;
+import org.pm4j.core.pm.PmSortOrder;
+import org.pm4j.core.pm.PmTable;
+import org.pm4j.core.pm.PmTableCol;
+import org.pm4j.core.pm.impl.PmUtil;
+import org.pm4j.swt.pb.base.PbViewerToPmBase;
+
+/**
+ * Presentation binder for {@link PmTable} PMs.
+ * <p>
+ * Uses a {@link SWT#VIRTUAL} table. The row PMs get created only for the rows
+ * that SWT requests for display. See {@link PbTableRowCache} for the details
+ * of the row block handling.<br>
+ * Row PM changes update only the corresponding table items. Changes that are
+ * reported outside of the UI thread get applied within the UI thread.
+ * <p>
+ * A click on a column header switches the sort order of the column using the
+ * PM sort command.
+ *
+ * @author olaf boede
+ */
+public class PbVirtualTable extends PbViewerToPmBase<TableViewer, Table, PmTable<?>> {
+
+  private int swtStyle;
+  private int blockSize = PbTableRowCache.DEFAULT_BLOCK_SIZE;
+  private int maxCachedBlocks = PbTableRowCache.DEFAULT_MAX_CACHED_BLOCKS;
+
+  public PbVirtualTable() {
+    this(SWT.SINGLE | SWT.FULL_SELECTION);
+  }
+
+  public PbVirtualTable(int swtStyle) {
+    this.swtStyle = swtStyle | SWT.VIRTUAL;
+  }
+
+  /**
+   * @param blockSize The number of rows to load with a single collection query.
+   * @param maxCachedBlocks The number of row blocks to keep. Should cover at least two times the visible rows.
+   */
+  public void setRowBlockSize(int blockSize, int maxCachedBlocks) {
+    this.blockSize = blockSize;
+    this.maxCachedBlocks = maxCachedBlocks;
+  }
+
+  @Override
+  protected TableViewer makeViewerImpl(Composite parentCtxt, PmTable<?> pmTable) {
+    TableViewer viewer = new TableViewer(parentCtxt, swtStyle);
+    viewer.setUseHashlookup(true);
+    viewer.setLabelProvider(new CellLabelProvider(pmTable.getColumnPms()));
+    viewer.getTable().setHeaderVisible(true);
+    return viewer;
+  }
+
+  @Override
+  protected PbBinding makeBinding(PmTable<?> pm) {
+    return new Binding();
+  }
+
+  /**
+   * Provides the rows of the row cache and translates its change notifications
+   * to viewer updates.
+   */
+  public class Binding extends PbViewerToPmBase<TableViewer, Table, PmTable<?>>.Binding
+      implements PbTableRowCache.ChangeListener {
+
+    private PbTableRowCache rowCache;
+
+    @Override
+    public void bind() {
+      super.bind();
+      PmTable<?> pmTable = (PmTable<?>) pm;
+      rowCache = new PbTableRowCache(pmTable, blockSize, maxCachedBlocks, this);
+
+      Table table = viewer.getTable();
+      table.removeAll();
+      for (PmTableCol colPm : rowCache.getColumns()) {
+        makeAndBindTableColumn(table, colPm);
+      }
+
+      viewer.setContentProvider(new LazyContentProvider(viewer, rowCache));
+      viewer.setInput(pmTable);
+      viewer.setItemCount(rowCache.getRowCount());
+    }
+
+    @Override
+    public void unbind() {
+      super.unbind();
+      if (rowCache != null) {
+        rowCache.dispose();
+        rowCache = null;
+      }
+    }
+
+    @Override
+    public void onRowsReset() {
+      runInUiThread(new Runnable() {
+        @Override
+        public void run() {
+          // Not applied after unbinding.
+          if (rowCache != null) {
+            viewer.getTable().clearAll();
+            viewer.setItemCount(rowCache.getRowCount());
+            updateSortIndicator(viewer.getTable());
+          }
+        }
+      });
+    }
+
+    @Override
+    public void onRowChanged(int rowIdx, final PmObject rowPm, int columnIdx) {
+      runInUiThread(new Runnable() {
+        @Override
+        public void run() {
+          if (rowCache != null) {
+            viewer.update(rowPm, null);
+          }
+        }
+      });
+    }
+
+    /**
+     * Executes the task immediately if the caller is the UI thread of the table.
+     * Otherwise it gets passed to the UI thread. It will not be executed if the
+     * table gets disposed in the meantime.
+     */
+    private void runInUiThread(final Runnable task) {
+      if (view.isDisposed()) {
+        return;
+      }
+      Display display = view.getDisplay();
+      if (display.getThread() == Thread.currentThread()) {
+        task.run();
+      }
+      else {
+        display.asyncExec(new Runnable() {
+          @Override
+          public void run() {
+            if (!view.isDisposed()) {
+              task.run();
+            }
+          }
+        });
+      }
+    }
+
+    /**
+     * Generates a table column that uses the sort command of the column PM.
+     *
+     * @param table The table to add the column to.
+     * @param colPm The PM of the column to add.
+     * @return The added SWT table column.
+     */
+    protected TableColumn makeAndBindTableColumn(Table table, PmTableCol colPm) {
+      TableColumn column = new TableColumn(table, SWT.LEFT);
+      column.setText(colPm.getPmTitle());
+      column.setToolTipText(colPm.getPmTooltip());
+      column.setData("pm", colPm);
+      column.setWidth(100);
+
+      column.addListener(SWT.Selection, new Listener() {
+        @Override
+        public void handleEvent(Event event) {
+          PmTableCol colPm = (PmTableCol) event.widget.getData("pm");
+          PmCommand cmdSort = colPm.getCmdSort();
+          if (cmdSort != null && cmdSort.isPmEnabled()) {
+            cmdSort.doIt();
+          }
+        }
+      });
+
+      return column;
+    }
+
+    /**
+     * Shows the sort order of the PM columns.
+     */
+    protected void updateSortIndicator(Table table) {
+      for (TableColumn c : table.getColumns()) {
+        PmTableCol colPm = (PmTableCol) c.getData("pm");
+        PmSortOrder sortOrder = (colPm != null && colPm.getSortOrderAttr() != null)
+            ? colPm.getSortOrderAttr().getValue()
+            : null;
+        if (sortOrder == PmSortOrder.ASC || sortOrder == PmSortOrder.DESC) {
+          table.setSortColumn(c);
+          table.setSortDirection(sortOrder == PmSortOrder.ASC ? SWT.UP : SWT.DOWN);
+          return;
+        }
+      }
+      table.setSortDirection(SWT.NONE);
+    }
+  }
+
+  /**
+   * Provides the requested rows of a virtual table viewer.
+   */
+  public static class LazyContentProvider implements ILazyContentProvider {
+
+    private final TableViewer viewer;
+    private final PbTableRowCache rowCache;
+
+    public LazyContentProvider(TableViewer viewer, PbTableRowCache rowCache) {
+      this.viewer = viewer;
+      this.rowCache = rowCache;
+    }
+
+    @Override
+    public void updateElement(int index) {
+      PmObject rowPm = rowCache.getRowPm(index);
+      if (rowPm != null) {
+        viewer.replace(rowPm, index);
+      }
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+    }
+  }
+
+  /**
+   * Provides the values of the row attributes that have the name of the
+   * corresponding column.
+   */
+  public static class CellLabelProvider extends LabelProvider implements ITableLabelProvider {
+
+    private final List<PmTableCol> columns;
+
+    public CellLabelProvider(List<PmTableCol> columns) {
+      this.columns = columns;
+    }
+
+    @Override
+    public String getColumnText(Object rowPm, int columnIndex) {
+      PmObject cell = getCellPm(rowPm, columnIndex);
+      return (cell instanceof PmAttr<?>)
+          ? ((PmAttr<?>) cell).getValueAsString()
+          : null;
+    }
+
+    @Override
+    public Image getColumnImage(Object rowPm, int columnIndex) {
+      PmObject cell = getCellPm(rowPm, columnIndex);
+      return cell != null
+          ? PbImageRegistry.findImage(cell)
+          : null;
+    }
+
+    private PmObject getCellPm(Object rowPm, int columnIndex) {
+      return (rowPm instanceof PmObject && columnIndex < columns.size())
+          ? PmUtil.findChildPm((PmObject) rowPm, columns.get(columnIndex).getPmName())
+          : null;
+    }
+  }
+
+}